@@ -0,0 +1,43 @@
+package draughts;
+
+/**
+ * An interface for state that a Position keeps up to date as Moves are
+ * made and unmade, such as the first layer of a neural evaluation. Each
+ * piece is a feature indexed by (colour * 64) + (king ? 32 : 0) + square,
+ * as in the score table.
+ */
+
+public interface Accumulator {
+
+    /**
+     * Recomputes the state from scratch for a Position.
+     *
+     * @param position the Position the state is for.
+     */
+    public void refresh(Position position);
+
+    /**
+     * Saves the state before a Move is made, so it can be restored.
+     */
+    public void push();
+
+    /**
+     * Restores the state saved before the last Move was made.
+     */
+    public void pop();
+
+    /**
+     * Updates the state for a piece being placed on a square.
+     *
+     * @param feature the index of the piece's feature.
+     */
+    public void add(int feature);
+
+    /**
+     * Updates the state for a piece being removed from a square.
+     *
+     * @param feature the index of the piece's feature.
+     */
+    public void remove(int feature);
+
+}
@@ -0,0 +1,177 @@
+package draughts;
+
+/**
+ * A class to represent the shape of a square draughts board. The dark
+ * squares, where (x + y) is odd, are indexed from the top left of the board
+ * row by row, so a board of up to 10 by 10 fits in a 64-bit bitboard. The
+ * neighbours of each square and the rays of squares running from it in each
+ * diagonal direction are worked out once, so that moves can be generated
+ * with bitboard operations rather than by stepping across the board.
+ */
+
+public class BoardGeometry {
+
+    // Directions are 0 up-left, 1 up-right, 2 down-left and 3 down-right.
+    private static final int[] DX = {-1, 1, -1, 1};
+    private static final int[] DY = {-1, -1, 1, 1};
+
+    /**
+     * The 8 by 8 board used for English draughts.
+     */
+    public static final BoardGeometry ENGLISH = new BoardGeometry(8);
+
+    /**
+     * The 10 by 10 board used for International draughts.
+     */
+    public static final BoardGeometry INTERNATIONAL = new BoardGeometry(10);
+
+    private final int size;
+    private final int squares;
+    private final int[][] neighbours;
+    private final long[][] rays;
+    private final long[] rows;
+
+    /**
+     * Constructs a new BoardGeometry object.
+     *
+     * @param size the number of squares along each side of the board.
+     * @throws IllegalArgumentException if the size is not even or
+     * not between 4 and 10.
+     */
+    public BoardGeometry(int size) {
+        if (size < 4 || size > 10 || size % 2 != 0) throw new IllegalArgumentException("Invalid board size " + size + ".");
+        this.size = size;
+        this.squares = size * size / 2;
+        neighbours = new int[squares][4];
+        rays = new long[squares][4];
+        rows = new long[size];
+        for (int square = 0; square < squares; square++) {
+            rows[y(square)] |= 1L << square;
+            for (int dir = 0; dir < 4; dir++) {
+                neighbours[square][dir] = square(x(square) + DX[dir], y(square) + DY[dir]);
+                for (int x = x(square) + DX[dir], y = y(square) + DY[dir]; isOnBoard(x, y); x += DX[dir], y += DY[dir]) {
+                    rays[square][dir] |= 1L << square(x, y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of squares along each side of the board.
+     *
+     * @return the number of squares along each side of the board.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of dark squares on the board.
+     *
+     * @return the number of dark squares on the board.
+     */
+    public int getSquares() {
+        return squares;
+    }
+
+    /**
+     * Returns true if the coordinates are on the board.
+     *
+     * @param x the x coordinate.
+     * @param y the y coordinate.
+     * @return true if the coordinates are on the board.
+     */
+    public boolean isOnBoard(int x, int y) {
+        return x >= 0 && x < size && y >= 0 && y < size;
+    }
+
+    /**
+     * Returns the index of the square at (x, y), or -1 if it is
+     * off the board or not a dark square.
+     *
+     * @param x the x coordinate of the square.
+     * @param y the y coordinate of the square.
+     * @return the index of the square at (x, y), or -1.
+     */
+    public int square(int x, int y) {
+        if (!isOnBoard(x, y) || (x + y) % 2 == 0) return -1;
+        return (y * size / 2) + (x / 2);
+    }
+
+    /**
+     * Returns the x coordinate of a square.
+     *
+     * @param square the index of the square.
+     * @return the x coordinate of a square.
+     */
+    public int x(int square) {
+        return 2 * (square % (size / 2)) + (y(square) % 2 == 0 ? 1 : 0);
+    }
+
+    /**
+     * Returns the y coordinate of a square.
+     *
+     * @param square the index of the square.
+     * @return the y coordinate of a square.
+     */
+    public int y(int square) {
+        return square / (size / 2);
+    }
+
+    /**
+     * Returns the square next to a square in a direction, or -1 if it is off the board.
+     * Directions are 0 up-left, 1 up-right, 2 down-left and 3 down-right.
+     *
+     * @param square the index of the square.
+     * @param dir the direction.
+     * @return the index of the neighbouring square, or -1.
+     */
+    public int neighbour(int square, int dir) {
+        return neighbours[square][dir];
+    }
+
+    /**
+     * Returns the bitboard of every square from a square to the edge
+     * of the board in a direction, not including the square itself.
+     *
+     * @param square the index of the square.
+     * @param dir the direction.
+     * @return the bitboard of the squares in the ray.
+     */
+    public long ray(int square, int dir) {
+        return rays[square][dir];
+    }
+
+    /**
+     * Returns the nearest square of a bitboard of squares that lie on a ray
+     * in a direction. Square indexes increase down the board, so this is the
+     * lowest square for the downward directions and the highest otherwise.
+     *
+     * @param bits the bitboard of squares on the ray, which must not be empty.
+     * @param dir the direction of the ray.
+     * @return the index of the nearest square.
+     */
+    public static int nearest(long bits, int dir) {
+        return dir >= 2 ? Long.numberOfTrailingZeros(bits) : 63 - Long.numberOfLeadingZeros(bits);
+    }
+
+    /**
+     * Returns the bitboard of the squares in a row.
+     *
+     * @param y the y coordinate of the row.
+     * @return the bitboard of the squares in the row.
+     */
+    public long row(int y) {
+        return rows[y];
+    }
+
+    /**
+     * Returns the bitboard of every dark square.
+     *
+     * @return the bitboard of every dark square.
+     */
+    public long all() {
+        return squares == 64 ? -1L : (1L << squares) - 1;
+    }
+
+}
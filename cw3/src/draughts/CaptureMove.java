@@ -0,0 +1,60 @@
+package draughts;
+
+import java.awt.*;
+import java.util.*;
+import java.util.List;
+
+/**
+ * A class to represent a whole capture in a variant game. Two captures
+ * can start and end on the same squares but take different Pieces, so
+ * the squares of the Pieces taken are kept to tell them apart.
+ */
+
+public class CaptureMove extends Move {
+
+    /**
+     * The coordinates of the Pieces captured.
+     */
+    public final Set<Point> captured;
+
+    /**
+     * Constructs a new CaptureMove object.
+     *
+     * @param piece the Piece to be moved.
+     * @param x the x coordinate of the destination.
+     * @param y the y coordinate of the destination.
+     * @param captured the coordinates of the Pieces captured.
+     */
+    public CaptureMove(Piece piece, int x, int y, Set<Point> captured) {
+        super(piece, x, y);
+        this.captured = Collections.unmodifiableSet(new HashSet<Point>(captured));
+    }
+
+    /**
+     * Returns true if this object contains the same data as the object passed in.
+     * A Move without captured Pieces is equal to any CaptureMove with the same
+     * Piece and destination.
+     *
+     * @param obj the object to be checked for equality.
+     * @return true if this object contains the same data as the object passed in.
+     */
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof CaptureMove && !captured.equals(((CaptureMove) obj).captured)) return false;
+      return super.equals(obj);
+    }
+
+    /**
+     * Returns a String representing a CaptureMove.
+     *
+     * @return a String representing a CaptureMove.
+     */
+    @Override
+    public String toString() {
+        List<String> squares = new ArrayList<String>();
+        for (Point point : captured) squares.add("(" + point.getX() + ", " + point.getY() + ")");
+        Collections.sort(squares);
+        return super.toString() + " capturing " + squares;
+    }
+
+}
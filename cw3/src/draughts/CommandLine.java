@@ -0,0 +1,242 @@
+package draughts;
+
+import engine.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * A class to play, replay, count and analyse games from the command line
+ * without a window. Nothing here starts AWT or Swing, so it starts quickly
+ * and runs with java.awt.headless=true on machines without a display.
+ * The engines are chosen with the same system properties as Draughts.
+ */
+
+public class CommandLine {
+
+    private static final String USAGE = "Usage: CommandLine play [movetime] [turns]\n"
+                                       + "       CommandLine replay <game> [movetime] [turns]\n"
+                                       + "       CommandLine perft <depth> [game]\n"
+                                       + "       CommandLine analyse <game|start> [millis] [lines]";
+
+    private final PrintStream out;
+
+    /**
+     * Constructs a new CommandLine object.
+     *
+     * @param out the stream the results are printed to.
+     */
+    public CommandLine(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Runs a command, such as "perft 6" or "play 500 100".
+     * Saved games are named as they are in the game's save dialog.
+     *
+     * @param args the command and its arguments.
+     * @return true if the command was run, false if it was not understood.
+     */
+    public boolean run(String[] args) {
+        if (args.length == 0) return false;
+        try {
+            switch (args[0]) {
+                case "play":
+                    if (args.length > 3) return false;
+                    play("Headless", null, argument(args, 1, 1000), (int) argument(args, 2, Integer.MAX_VALUE));
+                    return true;
+                case "replay":
+                    if (args.length < 2 || args.length > 4) return false;
+                    SaveGame game = SaveGame.loadGame(args[1]);
+                    out.println(Position.of(game.getPieces(), game.getCurrentPlayer()));
+                    play(args[1], game, argument(args, 2, 1000), (int) argument(args, 3, Integer.MAX_VALUE));
+                    return true;
+                case "perft":
+                    if (args.length < 2 || args.length > 3) return false;
+                    divide(args.length > 2 ? position(args[2]) : Position.initial(), (int) argument(args, 1, 0));
+                    return true;
+                case "analyse":
+                    if (args.length < 2 || args.length > 4 || argument(args, 3, 3) < 1) return false;
+                    analyse(position(args[1]), argument(args, 2, 5000), (int) argument(args, 3, 3));
+                    return true;
+                default:
+                    return false;
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // Returns a number from the arguments, or a default if it is missing.
+    // @param args the arguments.
+    // @param index the index of the number.
+    // @param value the default value.
+    // @return the number.
+    // @throws NumberFormatException if the argument is not a number.
+    private static long argument(String[] args, int index, long value) {
+        return index < args.length ? Long.parseLong(args[index]) : value;
+    }
+
+    // Returns the Position of a saved game, or the starting Position.
+    // @param game the name of the saved game, or "start".
+    // @return the Position.
+    private static Position position(String game) {
+        if (game.equals("start")) return Position.initial();
+        SaveGame save = SaveGame.loadGame(game);
+        return Position.of(save.getPieces(), save.getCurrentPlayer());
+    }
+
+    // Returns an engine to play one side, chosen as Draughts.main does.
+    // @param moveTime the time per Move in milliseconds.
+    // @return the engine.
+    private static EnginePlayer engine(long moveTime) {
+        if ("mcts".equals(System.getProperty("draughts.engine.type"))) {
+            return new MctsPlayer(moveTime, Runtime.getRuntime().availableProcessors());
+        }
+        return new AlphaBetaPlayer(moveTime, Search.MAX_PLY);
+    }
+
+    // Helper class implementing Player, passing each turn to the engine
+    // playing the side to move and printing the Moves it makes.
+    private class Engines implements Player {
+
+        private final EnginePlayer red;
+        private final EnginePlayer white;
+        private DraughtsModel model;
+
+        // Creates the engines for a game.
+        // @param moveTime the time per Move in milliseconds.
+        public Engines(long moveTime) {
+            red = engine(moveTime);
+            white = engine(moveTime);
+        }
+
+        // Sets the game the engines are playing in.
+        // @param model the game.
+        public void setModel(DraughtsModel model) {
+            this.model = model;
+            red.setModel(model);
+            white.setModel(model);
+        }
+
+        @Override
+        public Move notify(Set<Move> validMoves) {
+            Colour player = model.getCurrentPlayer();
+            Move move = (player.equals(Colour.Red) ? red : white).notify(validMoves);
+            if (move != null) out.println((model.getTurn() + 1) + ". " + player + " " + Position.notation(Position.encode(move)));
+            return move;
+        }
+
+        // Stops any searching the engines are doing in the background.
+        public void stop() {
+            red.stop();
+            white.stop();
+        }
+
+    }
+
+    // Plays a game with an engine on each side, printing each Move and the result.
+    // @param name the name of the game.
+    // @param game the saved game to play on from, or null to play from the start.
+    // @param moveTime the time per Move in milliseconds.
+    // @param turns the most turns to play.
+    private void play(String name, SaveGame game, long moveTime, int turns) {
+        Engines engines = new Engines(moveTime);
+        DraughtsModel model;
+        if (game == null) model = new DraughtsModel(name, engines);
+        else model = new DraughtsModel(name, engines, game.getCurrentPlayer(), game.getPieces());
+        engines.setModel(model);
+        long start = System.nanoTime();
+        for (int i = 0; i < turns && !model.isGameOver(); i++) model.turn();
+        engines.stop();
+        out.println("Result: " + model.getResult() + " after " + model.getTurn() + " turns in "
+                    + (System.nanoTime() - start) / 1000000L + " ms.");
+    }
+
+    /**
+     * Returns the number of Positions reached after a number of Moves,
+     * where each jump of a multiple jump counts as a Move. This is used to
+     * check the Move generator against known counts.
+     *
+     * @param position the Position to count from, which is not changed.
+     * @param depth the number of Moves.
+     * @return the number of Positions reached.
+     */
+    public static long perft(Position position, int depth) {
+        return perft(new Position(position), depth, new int[Math.max(1, depth)][Position.MAX_MOVES]);
+    }
+
+    // Returns the number of Positions reached after a number of Moves.
+    // @param position the Position to count from, which is restored afterwards.
+    // @param depth the number of Moves.
+    // @param moves an array for the Moves at each depth.
+    // @return the number of Positions reached.
+    private static long perft(Position position, int depth, int[][] moves) {
+        if (depth == 0) return 1;
+        int[] buffer = moves[depth - 1];
+        int count = position.generateMoves(buffer, false);
+        if (depth == 1) return count;
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            position.makeMove(buffer[i]);
+            total += perft(position, depth - 1, moves);
+            position.unmakeMove();
+        }
+        return total;
+    }
+
+    // Prints the perft count after each first Move, then the total.
+    // @param position the Position to count from.
+    // @param depth the number of Moves.
+    private void divide(Position position, int depth) {
+        if (depth < 1) throw new NumberFormatException("Depth must be at least 1");
+        long start = System.nanoTime();
+        int[] moves = new int[Position.MAX_MOVES];
+        int count = position.generateMoves(moves, false);
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            Position next = new Position(position);
+            next.makeMove(moves[i]);
+            long nodes = perft(next, depth - 1);
+            out.println(Position.notation(moves[i]) + ": " + nodes);
+            total += nodes;
+        }
+        long nanos = Math.max(1, System.nanoTime() - start);
+        out.println("Perft " + depth + ": " + total + " in " + nanos / 1000000L + " ms, "
+                    + total * 1000000000L / nanos + " per second.");
+    }
+
+    // Prints the best lines for a Position.
+    // @param position the Position to analyse.
+    // @param millis the longest time to search for, in milliseconds.
+    // @param lines the number of lines to find.
+    private void analyse(Position position, long millis, int lines) {
+        out.println(position);
+        if (position.generateMoves(new int[Position.MAX_MOVES], false) == 0) {
+            out.println("The game is over.");
+            return;
+        }
+        Analysis analysis = new Analysis(NeuralEvaluator.defaultEvaluator(), new TranspositionTable(20));
+        for (AnalysisLine line : analysis.analyse(position, lines, Search.MAX_PLY, millis, null)) {
+            out.println(line);
+        }
+    }
+
+    /**
+     * Runs a command without a window, printing to standard output.
+     * The commands are play, which has an engine play both sides; replay,
+     * which plays a saved game on from where it was saved; perft, which
+     * counts the Positions a number of Moves ahead; and analyse, which
+     * prints the best lines for a saved game or the start.
+     *
+     * @param args the command and its arguments.
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        if (!new CommandLine(System.out).run(args)) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+    }
+
+}
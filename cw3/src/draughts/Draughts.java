@@ -1,6 +1,7 @@
 package draughts;
 
 import views.*;
+import engine.*;
 
 import javax.swing.*;
 import java.awt.*;
@@ -17,6 +18,11 @@ import javax.imageio.*;
 
 public class Draughts implements Runnable, Player, ActionListener, WindowListener {
 
+    // Put on the queue in place of the coordinates of a square
+    // to ask the game thread to undo or redo a turn.
+    private static final int UNDO = -1;
+    private static final int REDO = -2;
+
     private JFrame window;
     private SetUpView setUp;
     private BoardView board;
@@ -24,16 +30,51 @@ public class Draughts implements Runnable, Player, ActionListener, WindowListene
     private InputPDA pda;
     private BlockingQueue<Integer> queue;
     private BlockingQueue<String> initQueue;
+    private EnginePlayer engine;
+    private Colour engineColour;
+    private String timeControl;
+    private HintService hints = new HintService(NeuralEvaluator.defaultEvaluator(), 30000);
+    // The user's valid Moves and the turn they are for, while the hint
+    // search runs. These are only read and written on the event dispatch thread.
+    private Set<Move> hintMoves;
+    private int hintTurn;
 
     /**
      * Called to start the game.
+     * An engine can play one side by setting the draughts.engine system
+     * property to Red or White. The draughts.engine.type property chooses
+     * alphabeta (the default) or mcts, draughts.movetime sets the time per
+     * Move in milliseconds and draughts.ponder=true lets the alpha-beta
+     * engine think on the user's time. The draughts.clock property times the
+     * game, such as 300+5 for five minutes each and five seconds a move.
+     * The draughts.network property names a neural network file for the
+     * alpha-beta engine to evaluate with. Pressing H on the user's turn
+     * highlights the Move suggested by a search run in the background, and
+     * U and R undo and redo the user's turns. Metrics are always readable
+     * over JMX, and draughts.metrics=60 also prints them every 60 seconds.
      *
      * @param args the arguments provided by the user.
      */
     public static void main(String[] args) {
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+            Metrics.register();
+            long metricsPeriod = Long.getLong("draughts.metrics", 0);
+            if (metricsPeriod > 0) Metrics.startLogging(metricsPeriod, System.out);
             Draughts draughts = new Draughts();
+            draughts.setTimeControl(System.getProperty("draughts.clock"));
+            String engineColour = System.getProperty("draughts.engine");
+            if (engineColour != null) {
+                long moveTime = Long.getLong("draughts.movetime", 1000);
+                if ("mcts".equals(System.getProperty("draughts.engine.type"))) {
+                    int threads = Runtime.getRuntime().availableProcessors();
+                    draughts.setEngine(Colour.valueOf(engineColour), new MctsPlayer(moveTime, threads));
+                } else {
+                    AlphaBetaPlayer engine = new AlphaBetaPlayer(moveTime, Search.MAX_PLY);
+                    engine.setPonder(Boolean.getBoolean("draughts.ponder"));
+                    draughts.setEngine(Colour.valueOf(engineColour), engine);
+                }
+            }
             SwingUtilities.invokeAndWait(draughts);
             draughts.initialiseGame();
         } catch (Exception e) {
@@ -43,6 +84,28 @@ public class Draughts implements Runnable, Player, ActionListener, WindowListene
         }
     }
 
+    /**
+     * Sets an engine to make the Moves for one of the players.
+     *
+     * @param colour the Colour of the player the engine plays for.
+     * @param engine the EnginePlayer to make the Moves.
+     */
+    public void setEngine(Colour colour, EnginePlayer engine) {
+        this.engineColour = colour;
+        this.engine = engine;
+    }
+
+    /**
+     * Sets the time control for new games, such as "300+5" or "40/600".
+     *
+     * @param timeControl the time control in seconds, or null for untimed games.
+     * @throws IllegalArgumentException if the time control can't be read.
+     */
+    public void setTimeControl(String timeControl) {
+        if (timeControl != null) GameClock.parse(timeControl);
+        this.timeControl = timeControl;
+    }
+
     /**
      * Creates the window and draws the board.
      */
@@ -94,6 +157,14 @@ public class Draughts implements Runnable, Player, ActionListener, WindowListene
                 put(queue, Integer.valueOf((int) point.getX()));
                 put(queue, Integer.valueOf((int) point.getY()));
             }
+        } else if (e.getActionCommand().equals("hint")) {
+            showHint();
+        } else if (e.getActionCommand().equals("undo") || e.getActionCommand().equals("redo")) {
+            Integer command = Integer.valueOf(e.getActionCommand().equals("undo") ? UNDO : REDO);
+            if (queue != null) {
+                put(queue, command);
+                put(queue, command);
+            }
         } else if (e.getActionCommand().equals("new_game")) {
             // Start a new game - use a queue to wait for this.
             // Load a dialog to get the name of the game.
@@ -113,6 +184,18 @@ public class Draughts implements Runnable, Player, ActionListener, WindowListene
         }
     }
 
+    // Highlights the best Move the hint search has found so far, if it
+    // is one of the user's valid Moves. This never waits for the search,
+    // and is called on the event dispatch thread, like the code that sets
+    // and clears the hint, so a hint from an earlier turn is never shown.
+    private void showHint() {
+        Set<Move> moves = hintMoves;
+        if (moves == null || model == null || hintTurn != model.getTurn()) return;
+        Move move = Position.findMove(hints.getHint(), moves);
+        if (move != null) board.showHint(move);
+        else board.setText("No hint yet.");
+    }
+
     // Returns the String entered by the user (or selected if options != null).
     // @param title the title of the dialog.
     // @param message the message to be displayed to the user.
@@ -165,14 +248,27 @@ public class Draughts implements Runnable, Player, ActionListener, WindowListene
     // Starts a new game of English Draughts.
     private void startGame(String gameName) {
         model = new DraughtsModel(gameName, this);
+        if (timeControl != null) model.setClock(GameClock.parse(timeControl));
+        if (engine != null) engine.setModel(model);
         playGame();
     }
 
+    // Returns the time left for each player, or an empty String if the game is untimed.
+    // @return the time left for each player.
+    private String clockText() {
+        GameClock clock = model.getClock();
+        if (clock == null) return "";
+        return " Red " + GameClock.format(clock.getRemaining(Colour.Red))
+             + ", White " + GameClock.format(clock.getRemaining(Colour.White)) + ".";
+    }
+
     // Loads an existing game of English Draughts.
     // @param gameName the name of the game to load.
     private void loadGame(String gameName) {
         SaveGame game = SaveGame.loadGame(gameName);
         model = new DraughtsModel(gameName, this, game.getCurrentPlayer(), game.getPieces());
+        if (timeControl != null) model.setClock(GameClock.parse(timeControl));
+        if (engine != null) engine.setModel(model);
         playGame();
     }
 
@@ -180,9 +276,11 @@ public class Draughts implements Runnable, Player, ActionListener, WindowListene
     private void playGame() {
         queue = new ArrayBlockingQueue<Integer>(1024);
         pda = new InputPDA(model);
+        model.addGameListener(board);
         board.update(model.getPieces());
         board.setText(model.getCurrentPlayer().toString() + " Players turn.");
         model.start();
+        if (engine != null) engine.stop();
         board.update(model.getPieces());
         board.setText(model.getWinningMessage());
         SaveGame.saveGame(model.getGameName(), model.getCurrentPlayer(), model.getPieces());
@@ -198,12 +296,27 @@ public class Draughts implements Runnable, Player, ActionListener, WindowListene
     public Move notify(Set<Move> validMoves) {
         Colour currentPlayer = model.getCurrentPlayer();
         board.update(model.getPieces());
-        board.setText(currentPlayer.toString() + " Players turn.");
+        board.setText(currentPlayer.toString() + " Players turn." + clockText());
+        if (engine != null && currentPlayer.equals(engineColour)) {
+            return engine.notify(validMoves);
+        }
+        final int turn = model.getTurn();
+        // A jump that carries on is searched with the same Piece having to jump again.
+        hints.start(Position.of(model));
+        SwingUtilities.invokeLater(() -> {
+            hintMoves = validMoves;
+            hintTurn = turn;
+        });
         Move move = null;
         while(true) {
             try {
                 Integer x = queue.take();
                 Integer y = queue.take();
+                if (x.intValue() < 0) {
+                    move = null;
+                    if (goToTurn(x.intValue() == UNDO)) break;
+                    continue;
+                }
                 pda.transition(currentPlayer, x, y);
                 board.select(x, y);
                 if (pda.isAccepted()) {
@@ -214,25 +327,31 @@ public class Draughts implements Runnable, Player, ActionListener, WindowListene
                 System.err.println("Interrupted from taking something from the queue.");
             }
         }
+        hints.cancel();
+        SwingUtilities.invokeLater(() -> {
+            hintMoves = null;
+            board.showHint(null);
+        });
         pda.reset();
-        animatePiece(move);
         board.select(-1, -1);
         return move;
     }
 
-    // Animates a specified Move.
-    // @param move the Move to be animated.
-    private void animatePiece(Move move) {
-        board.setupAnimation(move);
-        for (int i = 0; i < 50; i++) {
-            try {
-                Thread.sleep(5);
-            } catch (InterruptedException e) {
-                System.err.println("Interrupted from sleeping whilst animating a Piece.");
-            }
-            board.updateAnimation((double) i / 50.0);
+    // Undoes or redoes the user's last turn, and the engine's turn after it
+    // if an engine is playing. This is called on the game thread, so the
+    // model abandons the turn it is waiting for.
+    // Returns true if there was a turn to undo or redo.
+    // @param undo true to undo, false to redo.
+    // @return true if there was a turn to undo or redo.
+    private boolean goToTurn(boolean undo) {
+        int turns = engine != null ? 2 : 1;
+        int turn = model.getTurn() + (undo ? -turns : turns);
+        if (turn < 0 || turn > model.getLastTurn()) {
+            board.setText("No turn to " + (undo ? "undo." : "redo."));
+            return false;
         }
-        board.resetAnimation();
+        model.goToTurn(turn);
+        return true;
     }
 
     // Returns true if the Set contains the Move.
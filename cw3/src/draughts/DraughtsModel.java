@@ -3,6 +3,7 @@ package draughts;
 import java.awt.*;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.List;
 
 /**
  * A class that represents a game of Draughts.
@@ -10,11 +11,49 @@ import java.util.concurrent.*;
 
 public class DraughtsModel {
 
+    /**
+     * The default number of moves each player can make
+     * without a capture before the game is drawn.
+     */
+    public static final int MOVE_LIMIT = 40;
+
     private String gameName;
     private Colour currentPlayer;
     private Player player;
     private Set<Piece> pieces;
 
+    // The hash of the position after each turn, and the index
+    // of the position after the last capture.
+    private long[] history = new long[64];
+    private int historySize;
+    private int lastCapture;
+    // The red, white and king bitboards of the position after each turn,
+    // the state of the clock, the index of the last capture before it, and
+    // the index in the event log of the turn played from it. Positions from
+    // historySize up to historyEnd have been taken back and can be played again.
+    private long[] boards = new long[3 * 64];
+    private long[] clocks = new long[GameClock.STATE_SIZE * 64];
+    private int[] captures = new int[64];
+    private int[] turnEvents = new int[64];
+    private int historyEnd;
+    private boolean takenBack;
+    private int moveLimit = MOVE_LIMIT;
+    private GameClock clock;
+    private BoardGeometry geometry = BoardGeometry.ENGLISH;
+    // The rules of a variant game, whose Moves are generated whole by
+    // VariantPosition, or null for a game played a jump at a time.
+    private RulesVariant rules;
+    // The Piece that must carry on jumping while the player chooses
+    // how a multiple jump goes on, or null.
+    private Piece jumping;
+
+    // The position the game started from, every event since, and the
+    // listeners told about each event as it happens.
+    private Set<Piece> startPieces;
+    private Colour startPlayer;
+    private final List<GameEvent> events = new ArrayList<GameEvent>();
+    private final List<GameListener> listeners = new CopyOnWriteArrayList<GameListener>();
+
     /**
      * Constructs a game of Draughts from a save game.
      *
@@ -25,10 +64,42 @@ public class DraughtsModel {
      * @param pieces the pieces left in the game.
      */
     public DraughtsModel(String gameName, Player player, Colour currentPlayer, Set<Piece> pieces) {
+        this(gameName, player, null, currentPlayer, pieces);
+    }
+
+    /**
+     * Constructs a game of Draughts from a save game of a variant. Every
+     * Move is generated whole by VariantPosition, so a sequence of jumps is
+     * a single Move and the variant's capture rules are followed.
+     *
+     * @param gameName the name of this game.
+     * @param player the Player object used to get the Moves
+     * from the users.
+     * @param rules the RulesVariant of the game, or null for a game played a jump at a time.
+     * @param currentPlayer the colour of the current player in the game.
+     * @param pieces the pieces left in the game.
+     */
+    public DraughtsModel(String gameName, Player player, RulesVariant rules, Colour currentPlayer, Set<Piece> pieces) {
         this.gameName = gameName;
         this.player = player;
+        this.rules = rules;
+        if (rules != null) geometry = rules.getGeometry();
         this.currentPlayer = currentPlayer;
         this.pieces = new CopyOnWriteArraySet<Piece>(pieces);
+        recordPosition();
+        recordStart();
+    }
+
+    /**
+     * Constructs a new game of a variant of Draughts.
+     *
+     * @param gameName the name of this game.
+     * @param player the Player object used to get the Moves
+     * from the users.
+     * @param rules the RulesVariant of the game.
+     */
+    public DraughtsModel(String gameName, Player player, RulesVariant rules) {
+        this(gameName, player, rules, Colour.Red, VariantPosition.initial(rules).toPieces());
     }
 
     /**
@@ -44,38 +115,37 @@ public class DraughtsModel {
         pieces = new CopyOnWriteArraySet<Piece>();
         currentPlayer = Colour.Red;
         initialisePieces();
+        recordPosition();
+        recordStart();
     }
 
-    // Creates the initial Set of Pieces.
-    // (0, 0) is the top left of the board.
+    // Creates the initial Set of Pieces, filling every dark square
+    // except the two middle rows. (0, 0) is the top left of the board.
     private void initialisePieces() {
-      //TODO:
-
-      this.pieces.add(new Piece(Colour.White, 1, 0));
-      this.pieces.add(new Piece(Colour.White, 3, 0));
-      this.pieces.add(new Piece(Colour.White, 5, 0));
-      this.pieces.add(new Piece(Colour.White, 7, 0));
-      this.pieces.add(new Piece(Colour.White, 0, 1));
-      this.pieces.add(new Piece(Colour.White, 2, 1));
-      this.pieces.add(new Piece(Colour.White, 4, 1));
-      this.pieces.add(new Piece(Colour.White, 6, 1));
-      this.pieces.add(new Piece(Colour.White, 1, 2));
-      this.pieces.add(new Piece(Colour.White, 3, 2));
-      this.pieces.add(new Piece(Colour.White, 5, 2));
-      this.pieces.add(new Piece(Colour.White, 7, 2));
-
-      this.pieces.add(new Piece(Colour.Red, 0, 5));
-      this.pieces.add(new Piece(Colour.Red, 2, 5));
-      this.pieces.add(new Piece(Colour.Red, 4, 5));
-      this.pieces.add(new Piece(Colour.Red, 6, 5));
-      this.pieces.add(new Piece(Colour.Red, 1, 6));
-      this.pieces.add(new Piece(Colour.Red, 3, 6));
-      this.pieces.add(new Piece(Colour.Red, 5, 6));
-      this.pieces.add(new Piece(Colour.Red, 7, 6));
-      this.pieces.add(new Piece(Colour.Red, 0, 7));
-      this.pieces.add(new Piece(Colour.Red, 2, 7));
-      this.pieces.add(new Piece(Colour.Red, 4, 7));
-      this.pieces.add(new Piece(Colour.Red, 6, 7));
+        int size = geometry.getSize();
+        for (int y = 0; y < size; y++) {
+            if (y == size / 2 - 1 || y == size / 2) continue;
+            Colour colour = y < size / 2 ? Colour.White : Colour.Red;
+            for (int x = (y + 1) % 2; x < size; x += 2) {
+                this.pieces.add(new Piece(colour, x, y));
+            }
+        }
+    }
+
+    // Copies the position the game starts from, so it can be replayed.
+    private void recordStart() {
+        startPlayer = currentPlayer;
+        startPieces = new HashSet<Piece>();
+        for (Piece piece : pieces) startPieces.add(copy(piece));
+    }
+
+    // Returns a copy of a Piece.
+    // @param piece the Piece to copy.
+    // @return the copy.
+    private static Piece copy(Piece piece) {
+        Piece copy = new Piece(piece.getColour(), piece.getX(), piece.getY());
+        copy.setKing(piece.isKing());
+        return copy;
     }
 
     /**
@@ -85,34 +155,219 @@ public class DraughtsModel {
         while(!isGameOver()) {
             turn();
         }
+        fireEvent(GameEvent.gameOver(historySize - 1, getResult()));
     }
 
     /**
      * Performs a turn in the game.
      */
     protected void turn() {
-        Move move = getPlayerMove(validMoves(currentPlayer));
-        if (move != null) play(move);
+        long started = System.nanoTime();
+        TurnEvent event = new TurnEvent();
+        event.begin();
+        int turn = historySize - 1;
+        Colour player = currentPlayer;
+        long hash = history[turn];
+        int count = pieces.size();
+        int start = eventCount();
+        takenBack = false;
+        jumping = null;
+        if (clock != null) clock.start(currentPlayer);
+        Set<Move> validMoves = validMoves(currentPlayer);
+        Move move = getPlayerMove(validMoves);
+        if (move != null && !takenBack) play(move);
+        if (clock != null && !takenBack) clock.stop();
+        if (event.shouldCommit()) {
+            event.turn = turn;
+            event.player = player.toString();
+            event.positionHash = hash;
+            event.moves = validMoves.size();
+            event.captured = count - pieces.size();
+            event.takenBack = takenBack;
+            event.commit();
+        }
+        Metrics.TURN_TIME.record(System.nanoTime() - started);
+        if (takenBack) return;
         nextPlayer();
+        if (pieces.size() < count) lastCapture = historySize;
+        recordPosition();
+        turnEvents[historySize - 2] = start;
+        fireEvent(GameEvent.turnChanged(historySize - 1, currentPlayer));
+    }
+
+    // Returns the number of events in the log.
+    // @return the number of events in the log.
+    private int eventCount() {
+        synchronized (events) {
+            return events.size();
+        }
+    }
+
+    // Adds an event to the log and tells the listeners about it.
+    // @param event the GameEvent that has happened.
+    private void fireEvent(GameEvent event) {
+        synchronized (events) {
+            events.add(event);
+        }
+        for (GameListener listener : listeners) listener.gameEvent(event);
+    }
+
+    // Pushes the hash and bitboards of the current position onto the
+    // history, forgetting any positions that were taken back.
+    private void recordPosition() {
+        if (historySize == history.length) {
+            history = Arrays.copyOf(history, historySize * 2);
+            boards = Arrays.copyOf(boards, historySize * 6);
+            clocks = Arrays.copyOf(clocks, historySize * 2 * GameClock.STATE_SIZE);
+            captures = Arrays.copyOf(captures, historySize * 2);
+            turnEvents = Arrays.copyOf(turnEvents, historySize * 2);
+        }
+        long red = 0, white = 0, kings = 0;
+        for (Piece piece : pieces) {
+            int square = geometry.square(piece.getX(), piece.getY());
+            if (square < 0) continue;
+            if (piece.getColour().equals(Colour.Red)) red |= 1L << square;
+            else white |= 1L << square;
+            if (piece.isKing()) kings |= 1L << square;
+        }
+        boards[3 * historySize] = red;
+        boards[3 * historySize + 1] = white;
+        boards[3 * historySize + 2] = kings;
+        if (clock != null) clock.saveState(clocks, GameClock.STATE_SIZE * historySize);
+        captures[historySize] = lastCapture;
+        history[historySize++] = Position.hashOf(pieces, currentPlayer);
+        historyEnd = historySize;
+    }
+
+    // Sets the Pieces, the player to move, the clock and the last capture
+    // from a position in the history.
+    // @param index the index of the position in the history.
+    private void restorePosition(int index) {
+        List<Piece> restored = new ArrayList<Piece>();
+        long red = boards[3 * index], kings = boards[3 * index + 2];
+        for (long bits = red | boards[3 * index + 1]; bits != 0; bits &= bits - 1) {
+            int square = Long.numberOfTrailingZeros(bits);
+            Piece piece = new Piece((red >>> square & 1) != 0 ? Colour.Red : Colour.White, geometry.x(square), geometry.y(square));
+            piece.setKing((kings >>> square & 1) != 0);
+            restored.add(piece);
+        }
+        pieces.clear();
+        pieces.addAll(restored);
+        if (index % 2 != 0) currentPlayer = startPlayer.equals(Colour.Red) ? Colour.White : Colour.Red;
+        else currentPlayer = startPlayer;
+        lastCapture = captures[index];
+        jumping = null;
+        if (clock != null) clock.restoreState(clocks, GameClock.STATE_SIZE * index);
+        historySize = index + 1;
+    }
+
+    // Returns true if the current position has occurred three times.
+    // Only positions since the last capture, with the same player
+    // to move, can be the same as the current position.
+    // @return true if the current position has occurred three times.
+    private boolean isRepetition() {
+        long hash = history[historySize - 1];
+        int count = 1;
+        for (int i = historySize - 3; i >= lastCapture; i -= 2) {
+            if (history[i] == hash && ++count == 3) return true;
+        }
+        return false;
     }
 
     // Plays a Move in the game.
     // @param move the Move to be played.
     protected void play(Move move) {
+        PlayEvent event = new PlayEvent();
+        event.begin();
+        if (rules != null) {
+            playWhole(move, event);
+            return;
+        }
         Point destination = move.destination;
         Piece piece = move.piece;
         Point position = new Point(piece.getX(), piece.getY());
         piece.setX((int) destination.getX());
         piece.setY((int) destination.getY());
+        fireEvent(GameEvent.movePlayed(historySize - 1, piece.getColour(), position.x, position.y, piece.getX(), piece.getY()));
 
         boolean jump = removePiece(position, destination);
         boolean jumpOntoKing = jumpOntoKing(piece);
+        boolean king = piece.isKing();
         checkForKing(piece);
+        if (!king && piece.isKing()) fireEvent(GameEvent.promotion(historySize - 1, piece.getColour(), piece.getX(), piece.getY()));
+        if (event.shouldCommit()) {
+            event.turn = historySize - 1;
+            event.from = position.x + "," + position.y;
+            event.to = piece.getX() + "," + piece.getY();
+            event.jump = jump;
+            event.promotion = !king && piece.isKing();
+            event.positionHash = Position.hashOf(pieces, currentPlayer);
+            event.commit();
+        }
         Set<Move> validMoves = validMoves(currentPlayer, piece, 1, true);
         if (piece.isKing()) validMoves.addAll(validMoves(currentPlayer, piece, -1, true));
         if (jump && validMoves.size() > 0 && !jumpOntoKing) {
+            jumping = piece;
             Move m = getPlayerMove(validMoves);
-            play(m);
+            jumping = null;
+            if (!takenBack) play(m);
+        }
+    }
+
+    // Plays a whole Move of a variant game, removing every Piece it jumps
+    // over and crowning the Piece if the variant crowns it.
+    // @param move the Move to be played.
+    // @param event the PlayEvent begun for the Move.
+    // @throws IllegalArgumentException if the Move is not valid, or is
+    // not a CaptureMove and more than one capture matches it.
+    private void playWhole(Move move, PlayEvent event) {
+        VariantPosition position = VariantPosition.of(rules, pieces, currentPlayer);
+        MoveList moves = new MoveList();
+        int count = position.generateMoves(moves);
+        Piece piece = move.piece;
+        int from = geometry.square(piece.getX(), piece.getY());
+        int to = geometry.square(move.destination.x, move.destination.y);
+        boolean whole = move instanceof CaptureMove;
+        long named = 0;
+        if (whole) {
+            for (Point point : ((CaptureMove) move).captured) named |= 1L << geometry.square(point.x, point.y);
+        }
+        // Two captures can share both ends, so a Move that doesn't say
+        // which Pieces it takes is only played if it can mean one capture.
+        int chosen = -1;
+        for (int i = 0; i < count; i++) {
+            if (moves.getFrom(i) != from || moves.getTo(i) != to) continue;
+            if (whole && moves.getCaptured(i) != named) continue;
+            if (chosen >= 0) throw new IllegalArgumentException("Move is ambiguous, as more than one capture ends there: " + move);
+            chosen = i;
+        }
+        if (chosen < 0) throw new IllegalArgumentException("Move is not valid: " + move);
+
+        int x = piece.getX(), y = piece.getY();
+        piece.setX(move.destination.x);
+        piece.setY(move.destination.y);
+        fireEvent(GameEvent.movePlayed(historySize - 1, piece.getColour(), x, y, piece.getX(), piece.getY()));
+        long captured = moves.getCaptured(chosen);
+        for (long bits = captured; bits != 0; bits &= bits - 1) {
+            int square = Long.numberOfTrailingZeros(bits);
+            Piece taken = getPiece(geometry.x(square), geometry.y(square));
+            pieces.remove(taken);
+            fireEvent(GameEvent.pieceCaptured(historySize - 1, taken.getColour(), taken.getX(), taken.getY()));
+        }
+        position.makeMove(moves, chosen);
+        boolean promotion = !piece.isKing() && (position.getKings() & (1L << to)) != 0;
+        if (promotion) {
+            piece.setKing(true);
+            fireEvent(GameEvent.promotion(historySize - 1, piece.getColour(), piece.getX(), piece.getY()));
+        }
+        if (event.shouldCommit()) {
+            event.turn = historySize - 1;
+            event.from = x + "," + y;
+            event.to = piece.getX() + "," + piece.getY();
+            event.jump = captured != 0;
+            event.promotion = promotion;
+            event.positionHash = Position.hashOf(pieces, currentPlayer);
+            event.commit();
         }
     }
 
@@ -129,6 +384,7 @@ public class DraughtsModel {
             y = (int) (position.getY() + (y / 2));
             Piece piece = getPiece(x, y);
             pieces.remove(piece);
+            if (piece != null) fireEvent(GameEvent.pieceCaptured(historySize - 1, piece.getColour(), x, y));
             return true;
         }
         return false;
@@ -141,7 +397,7 @@ public class DraughtsModel {
     // kings row and they are not already a king.
     protected boolean jumpOntoKing(Piece piece) {
         if ((piece.getColour().equals(Colour.Red) && piece.getY() == 0 && !piece.isKing())
-            || (piece.getColour().equals(Colour.White) && piece.getY() == 7 && !piece.isKing())) {
+            || (piece.getColour().equals(Colour.White) && piece.getY() == geometry.getSize() - 1 && !piece.isKing())) {
             return true;
         }
         return false;
@@ -151,6 +407,7 @@ public class DraughtsModel {
     // @param validMoves the Set of valid Moves for the current player.
     // @return the Move selected by the users.
     private Move getPlayerMove(Set<Move> validMoves) {
+        Metrics.MOVES_GENERATED.add(validMoves.size());
         return player.notify(validMoves);
     }
 
@@ -164,6 +421,7 @@ public class DraughtsModel {
     // @param player the Colour of the player for whom the Moves should be generated.
     // @return a Set of valid Moves for a player.
     private Set<Move> validMoves(Colour player) {
+        if (rules != null) return wholeMoves(player);
         Set<Move> allValidMoves = new HashSet<Move>();
         int yOffset = 1;
         boolean jumpOnly = false;
@@ -183,6 +441,33 @@ public class DraughtsModel {
         return allValidMoves;
     }
 
+    // Returns the Set of valid Moves for a player in a variant game, each
+    // generated whole by VariantPosition. Captures are CaptureMoves, so two
+    // that start and end on the same squares can be told apart, and as the
+    // MoveList holds each move once no two of the Moves are equal.
+    // @param player the Colour of the player for whom the Moves should be generated.
+    // @return a Set of valid Moves for a player.
+    private Set<Move> wholeMoves(Colour player) {
+        MoveList moves = new MoveList();
+        int count = VariantPosition.of(rules, pieces, player).generateMoves(moves);
+        Set<Move> validMoves = new HashSet<Move>();
+        for (int i = 0; i < count; i++) {
+            Piece piece = getPiece(geometry.x(moves.getFrom(i)), geometry.y(moves.getFrom(i)));
+            int x = geometry.x(moves.getTo(i)), y = geometry.y(moves.getTo(i));
+            if (moves.getCaptured(i) == 0) {
+                validMoves.add(new Move(piece, x, y));
+                continue;
+            }
+            Set<Point> captured = new HashSet<Point>();
+            for (long bits = moves.getCaptured(i); bits != 0; bits &= bits - 1) {
+                int square = Long.numberOfTrailingZeros(bits);
+                captured.add(new Point(geometry.x(square), geometry.y(square)));
+            }
+            validMoves.add(new CaptureMove(piece, x, y, captured));
+        }
+        return validMoves;
+    }
+
     // Returns the Set of valid Moves for a normal Piece. These will only be one move ahead.
     // For normal players, yOffset = 1, for king players yOffset = -1. This means you
     // must call this function twice for king players, once with yOffset = 1 and
@@ -227,7 +512,7 @@ public class DraughtsModel {
     // If the coordinates are not on the board, it returns false.
     // @return true if the coordinates are empty.
     private boolean isEmpty(int x, int y) {
-        if (getPiece(x, y) != null || 0 > x || x > 7 || 0 > y || y > 7) return false;
+        if (getPiece(x, y) != null || !geometry.isOnBoard(x, y)) return false;
         return true;
     }
 
@@ -235,7 +520,188 @@ public class DraughtsModel {
     // it sets their king boolean to true.
     protected void checkForKing(Piece piece) {
         if ((piece.getColour().equals(Colour.Red) && piece.getY() == 0)
-            || (piece.getColour().equals(Colour.White) && piece.getY() == 7)) piece.setKing(true);
+            || (piece.getColour().equals(Colour.White) && piece.getY() == geometry.getSize() - 1)) piece.setKing(true);
+    }
+
+    /**
+     * Adds a GameListener to be told about every event from now on.
+     *
+     * @param listener the GameListener to add.
+     */
+    public void addGameListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a GameListener.
+     *
+     * @param listener the GameListener to remove.
+     */
+    public void removeGameListener(GameListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns a copy of every event of the game so far, in order.
+     *
+     * @return the List of GameEvents.
+     */
+    public List<GameEvent> getEvents() {
+        synchronized (events) {
+            return new ArrayList<GameEvent>(events);
+        }
+    }
+
+    // Returns the Colour of the player to move when the game started.
+    // @return the Colour of the player to move when the game started.
+    Colour getStartPlayer() {
+        return startPlayer;
+    }
+
+    // Returns the Pieces the game started with. They must not be changed.
+    // @return the Set of Pieces the game started with.
+    Set<Piece> getStartPieces() {
+        return startPieces;
+    }
+
+    /**
+     * Returns a GameReplay of the game so far, built from the position
+     * the game started from and its events.
+     *
+     * @param interval the number of turns between snapshots.
+     * @return the GameReplay.
+     */
+    public GameReplay getReplay(int interval) {
+        return new GameReplay(startPlayer, startPieces, getEvents(), interval);
+    }
+
+    /**
+     * Returns the number of turns played to reach the current position,
+     * not counting turns that have been taken back.
+     *
+     * @return the number of turns played.
+     */
+    public int getTurn() {
+        return historySize - 1;
+    }
+
+    /**
+     * Returns the number of turns played to reach the last position
+     * that can be reached by redoing turns.
+     *
+     * @return the number of turns played before any were taken back.
+     */
+    public int getLastTurn() {
+        return historyEnd - 1;
+    }
+
+    /**
+     * Returns true if there is a turn to take back.
+     *
+     * @return true if there is a turn to take back.
+     */
+    public boolean canUndo() {
+        return historySize > 1;
+    }
+
+    /**
+     * Returns true if there is a taken back turn to play again.
+     *
+     * @return true if there is a taken back turn to play again.
+     */
+    public boolean canRedo() {
+        return historySize < historyEnd;
+    }
+
+    /**
+     * Takes back the last turn.
+     *
+     * @throws IllegalStateException if there is no turn to take back.
+     */
+    public void undo() {
+        if (!canUndo()) throw new IllegalStateException("There is no turn to take back.");
+        goToTurn(getTurn() - 1);
+    }
+
+    /**
+     * Plays the last turn taken back again.
+     *
+     * @throws IllegalStateException if there is no turn to play again.
+     */
+    public void redo() {
+        if (!canRedo()) throw new IllegalStateException("There is no turn to play again.");
+        goToTurn(getTurn() + 1);
+    }
+
+    /**
+     * Takes back or plays again turns until a number of turns have been played.
+     * The position is rebuilt from a copy kept for every turn, so this takes the
+     * same time however many turns it jumps over. Going back tells the listeners
+     * with a TakenBack event, and going forward sends a TakenBack event for the
+     * turn being played followed by the events of each turn again. This must be
+     * called between turns or by the Player while it is choosing a Move, on the
+     * thread playing the game; a turn that is being played is abandoned.
+     *
+     * @param turn the number of turns played, from 0 to getLastTurn().
+     * @throws IllegalArgumentException if the turn can't be reached.
+     */
+    public void goToTurn(int turn) {
+        if (turn < 0 || turn >= historyEnd) throw new IllegalArgumentException("Turn " + turn + " can't be reached.");
+        int from = getTurn();
+        takenBack = true;
+        if (turn <= from) {
+            restorePosition(turn);
+            fireEvent(GameEvent.takenBack(turn, currentPlayer));
+        } else {
+            // Any jumps of the turn being played have already been sent,
+            // so they are taken back before the turns are sent again.
+            restorePosition(from);
+            fireEvent(GameEvent.takenBack(from, currentPlayer));
+            restorePosition(turn);
+            for (GameEvent event : replayedEvents(from, turn)) fireEvent(event);
+        }
+    }
+
+    // Returns the events of the turns between two positions in the history.
+    // @param from the index of the first position.
+    // @param to the index of the last position.
+    // @return the List of GameEvents of the turns.
+    private List<GameEvent> replayedEvents(int from, int to) {
+        List<GameEvent> replayed = new ArrayList<GameEvent>();
+        synchronized (events) {
+            for (int turn = from; turn < to; turn++) {
+                for (int i = turnEvents[turn]; i < events.size(); i++) {
+                    replayed.add(events.get(i));
+                    if (events.get(i).getType() == GameEvent.Type.TurnChanged) break;
+                }
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Returns the BoardGeometry of the board this game is played on.
+     *
+     * @return the BoardGeometry of the board.
+     */
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    // Returns the Piece that must carry on jumping while the player
+    // chooses how a multiple jump goes on.
+    // @return the Piece that must jump again, or null.
+    Piece getJumping() {
+        return jumping;
+    }
+
+    /**
+     * Returns the rules of the variant this game is played by.
+     *
+     * @return the RulesVariant of the game, or null if the game is played a jump at a time.
+     */
+    public RulesVariant getRules() {
+        return rules;
     }
 
     /**
@@ -279,17 +745,86 @@ public class DraughtsModel {
         return null;
     }
 
+    /**
+     * Sets the number of moves each player can make without
+     * a capture before the game is drawn.
+     *
+     * @param moveLimit the number of moves each player can make.
+     * @throws IllegalArgumentException if moveLimit is not positive.
+     */
+    public void setMoveLimit(int moveLimit) {
+        if (moveLimit <= 0) throw new IllegalArgumentException("The move limit must be positive.");
+        this.moveLimit = moveLimit;
+    }
+
+    /**
+     * Returns the number of moves each player can make without
+     * a capture before the game is drawn.
+     *
+     * @return the number of moves each player can make.
+     */
+    public int getMoveLimit() {
+        return moveLimit;
+    }
+
+    /**
+     * Sets the GameClock that times the players' turns. A player who
+     * runs out of time during a turn loses the game. Turns already played
+     * are taken back to the clock's current state.
+     *
+     * @param clock the GameClock for the game, or null for an untimed game.
+     */
+    public void setClock(GameClock clock) {
+        this.clock = clock;
+        if (clock == null) return;
+        for (int i = 0; i < historyEnd; i++) clock.saveState(clocks, GameClock.STATE_SIZE * i);
+    }
+
+    /**
+     * Returns the GameClock that times the players' turns.
+     *
+     * @return the GameClock for the game, or null if the game is untimed.
+     */
+    public GameClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Returns the number of turns played since the last capture.
+     *
+     * @return the number of turns played since the last capture.
+     */
+    public int getTurnsSinceCapture() {
+        return historySize - 1 - lastCapture;
+    }
+
     /**
      * Returns true if the game is over.
      *
      * @return true if the game is over.
      */
     public boolean isGameOver() {
-        //TODO:
-		if(((validMoves(Colour.Red).size() == 0) && (this.currentPlayer.equals(Colour.Red))) || ((validMoves(Colour.White).size() == 0) && (this.currentPlayer.equals(Colour.White)))) {
-			return true;
-		}
-        return false;
+        Metrics.GAME_OVER_CHECKS.increment();
+        return getResult().isOver();
+    }
+
+    /**
+     * Returns the result of the game. The game is won when the current
+     * player has no valid Moves, and drawn when the same position occurs
+     * three times or neither player has captured for the move limit.
+     * A player who runs out of time loses.
+     *
+     * @return the result of the game.
+     */
+    public GameResult getResult() {
+        if (clock != null && clock.hasFlagged(Colour.Red)) return GameResult.WhiteWinsOnTime;
+        if (clock != null && clock.hasFlagged(Colour.White)) return GameResult.RedWinsOnTime;
+        if (validMoves(currentPlayer).size() == 0) {
+            return currentPlayer.equals(Colour.Red) ? GameResult.WhiteWins : GameResult.RedWins;
+        }
+        if (isRepetition()) return GameResult.DrawByRepetition;
+        if (getTurnsSinceCapture() >= 2 * moveLimit) return GameResult.DrawByMoveLimit;
+        return GameResult.InProgress;
     }
 
     /**
@@ -298,8 +833,15 @@ public class DraughtsModel {
      * @return a String containing who won the game.
      */
     public String getWinningMessage() {
-        if (validMoves(Colour.Red).size() == 0) return "White Player wins!";
-        else return "Red Player wins!";
+        switch (getResult()) {
+            case WhiteWins: return "White Player wins!";
+            case RedWins: return "Red Player wins!";
+            case WhiteWinsOnTime: return "White Player wins on time!";
+            case RedWinsOnTime: return "Red Player wins on time!";
+            case DrawByRepetition: return "Draw by threefold repetition!";
+            case DrawByMoveLimit: return "Draw, " + moveLimit + " moves without a capture!";
+            default: return "The game is not over.";
+        }
     }
 
 }
@@ -0,0 +1,85 @@
+package draughts;
+
+/**
+ * The rules of English draughts as played by the DraughtsModel: an 8 by 8
+ * board, men that move and capture forwards, kings that move one square,
+ * and captures that are not mandatory.
+ */
+
+public class EnglishRules implements RulesVariant {
+
+    /**
+     * Returns the name of the variant.
+     *
+     * @return the name of the variant.
+     */
+    public String getName() {
+        return "English";
+    }
+
+    /**
+     * Returns the shape of the board.
+     *
+     * @return the BoardGeometry of the board.
+     */
+    public BoardGeometry getGeometry() {
+        return BoardGeometry.ENGLISH;
+    }
+
+    /**
+     * Returns the number of rows of men each player starts with.
+     *
+     * @return the number of rows of men each player starts with.
+     */
+    public int getRowsOfMen() {
+        return 3;
+    }
+
+    /**
+     * Returns true if a player who can capture must capture.
+     *
+     * @return true if capturing is mandatory.
+     */
+    public boolean isCaptureMandatory() {
+        return false;
+    }
+
+    /**
+     * Returns true if a player must make the capture that takes the most pieces.
+     *
+     * @return true if the majority capture rule is used.
+     */
+    public boolean hasMajorityCapture() {
+        return false;
+    }
+
+    /**
+     * Returns true if kings can move and capture any distance along a diagonal.
+     *
+     * @return true if kings are flying kings.
+     */
+    public boolean hasFlyingKings() {
+        return false;
+    }
+
+    /**
+     * Returns true if men can capture backwards as well as forwards.
+     *
+     * @return true if men can capture backwards.
+     */
+    public boolean canMenCaptureBackwards() {
+        return false;
+    }
+
+    /**
+     * Returns true if a man that reaches the far row part way through
+     * a capture is crowned and stops capturing. Otherwise it only
+     * becomes a king if the capture ends on the far row.
+     *
+     * @return true if being crowned ends a capture.
+     */
+    public boolean doesCrowningEndCapture() {
+        return true;
+    }
+
+}
@@ -0,0 +1,225 @@
+package draughts;
+
+/**
+ * A class to represent the clocks of the two players in a timed game.
+ * Each player starts with a base time and can have an increment added
+ * after each of their moves. With moves in time, the base time is added
+ * again each time a player completes a number of moves. A player whose
+ * time runs out during a move has lost on time.
+ */
+
+public class GameClock {
+
+    /**
+     * The number of longs the state of a GameClock is saved in.
+     */
+    public static final int STATE_SIZE = 5;
+
+    private final long base;
+    private final long increment;
+    private final int movesPerPeriod;
+    private final long[] remaining = new long[2];
+    private final int[] moves = new int[2];
+    private final boolean[] flagged = new boolean[2];
+    private Colour running;
+    private long started;
+
+    /**
+     * Constructs a new GameClock object with a base time and an increment.
+     *
+     * @param base the time each player starts with, in milliseconds.
+     * @param increment the time added after each move, in milliseconds.
+     */
+    public GameClock(long base, long increment) {
+        this(base, increment, 0);
+    }
+
+    /**
+     * Constructs a new GameClock object.
+     *
+     * @param base the time each player starts with, in milliseconds.
+     * @param increment the time added after each move, in milliseconds.
+     * @param movesPerPeriod the number of moves after which the base time
+     * is added again, or 0 if it never is.
+     * @throws IllegalArgumentException if a value is negative or there is no time.
+     */
+    public GameClock(long base, long increment, int movesPerPeriod) {
+        if (base < 0 || increment < 0 || movesPerPeriod < 0 || base + increment == 0) {
+            throw new IllegalArgumentException("Invalid time control.");
+        }
+        this.base = base;
+        this.increment = increment;
+        this.movesPerPeriod = movesPerPeriod;
+        remaining[0] = base;
+        remaining[1] = base;
+    }
+
+    /**
+     * Returns a new GameClock from a time control in seconds, either
+     * "base+increment" such as "300+5", or "moves/base" such as "40/600".
+     *
+     * @param control the time control.
+     * @return a new GameClock for the time control.
+     * @throws IllegalArgumentException if the time control can't be read.
+     */
+    public static GameClock parse(String control) {
+        try {
+            int slash = control.indexOf('/');
+            if (slash >= 0) {
+                int moves = Integer.parseInt(control.substring(0, slash).trim());
+                long base = Math.round(Double.parseDouble(control.substring(slash + 1).trim()) * 1000);
+                return new GameClock(base, 0, moves);
+            }
+            int plus = control.indexOf('+');
+            String baseText = plus >= 0 ? control.substring(0, plus) : control;
+            long base = Math.round(Double.parseDouble(baseText.trim()) * 1000);
+            long increment = plus >= 0 ? Math.round(Double.parseDouble(control.substring(plus + 1).trim()) * 1000) : 0;
+            return new GameClock(base, increment);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid time control " + control + ".");
+        }
+    }
+
+    /**
+     * Starts the clock of a player, stopping the other player's clock
+     * without counting a move for them.
+     *
+     * @param player the Colour of the player to move.
+     */
+    public synchronized void start(Colour player) {
+        running = player;
+        started = now();
+    }
+
+    /**
+     * Stops the running clock at the end of a move, adding the increment and
+     * any period bonus, or marking the player as out of time.
+     */
+    public synchronized void stop() {
+        if (running == null) return;
+        int i = index(running);
+        remaining[i] -= now() - started;
+        running = null;
+        if (remaining[i] < 0) {
+            flagged[i] = true;
+            return;
+        }
+        moves[i]++;
+        remaining[i] += increment;
+        if (movesPerPeriod > 0 && moves[i] % movesPerPeriod == 0) remaining[i] += base;
+    }
+
+    /**
+     * Saves the time left, the moves made and whether each player has run
+     * out of time, so that the clock can be put back when turns are taken back.
+     *
+     * @param state the array to save the state in.
+     * @param offset the index of the first of the STATE_SIZE longs to write.
+     */
+    public synchronized void saveState(long[] state, int offset) {
+        state[offset] = remaining[0];
+        state[offset + 1] = remaining[1];
+        state[offset + 2] = moves[0];
+        state[offset + 3] = moves[1];
+        state[offset + 4] = (flagged[0] ? 1 : 0) | (flagged[1] ? 2 : 0);
+    }
+
+    /**
+     * Puts the clock back to a state saved by saveState, stopping
+     * the running clock without counting a move.
+     *
+     * @param state the array the state was saved in.
+     * @param offset the index of the first of the STATE_SIZE longs to read.
+     */
+    public synchronized void restoreState(long[] state, int offset) {
+        remaining[0] = state[offset];
+        remaining[1] = state[offset + 1];
+        moves[0] = (int) state[offset + 2];
+        moves[1] = (int) state[offset + 3];
+        flagged[0] = (state[offset + 4] & 1) != 0;
+        flagged[1] = (state[offset + 4] & 2) != 0;
+        running = null;
+    }
+
+    /**
+     * Returns the time a player has left, counting the current move if
+     * their clock is running.
+     *
+     * @param player the Colour of the player.
+     * @return the time the player has left, in milliseconds.
+     */
+    public synchronized long getRemaining(Colour player) {
+        long left = remaining[index(player)];
+        if (player.equals(running)) left -= now() - started;
+        return left;
+    }
+
+    /**
+     * Returns the time added after each move.
+     *
+     * @return the time added after each move, in milliseconds.
+     */
+    public long getIncrement() {
+        return increment;
+    }
+
+    /**
+     * Returns the number of moves a player has to make before the base
+     * time is added again, or 0 if it never is.
+     *
+     * @param player the Colour of the player.
+     * @return the number of moves until the next period, or 0.
+     */
+    public synchronized int getMovesToGo(Colour player) {
+        if (movesPerPeriod == 0) return 0;
+        return movesPerPeriod - moves[index(player)] % movesPerPeriod;
+    }
+
+    /**
+     * Returns true if a player ran out of time during a move.
+     *
+     * @param player the Colour of the player.
+     * @return true if the player ran out of time.
+     */
+    public synchronized boolean hasFlagged(Colour player) {
+        return flagged[index(player)];
+    }
+
+    /**
+     * Returns the Colour of the player whose clock is running, or null.
+     *
+     * @return the Colour of the player whose clock is running, or null.
+     */
+    public synchronized Colour getRunning() {
+        return running;
+    }
+
+    /**
+     * Returns the current time in milliseconds, which
+     * can be overridden to control the clock in tests.
+     *
+     * @return the current time in milliseconds.
+     */
+    protected long now() {
+        return System.nanoTime() / 1000000L;
+    }
+
+    /**
+     * Returns the time as minutes and seconds, such as "4:05".
+     *
+     * @param millis the time in milliseconds.
+     * @return the time as minutes and seconds.
+     */
+    public static String format(long millis) {
+        long seconds = Math.max(0, millis) / 1000;
+        return (seconds / 60) + ":" + String.format("%02d", seconds % 60);
+    }
+
+    // Returns the index of a player's clock.
+    // @param player the Colour of the player.
+    // @return the index of the player's clock.
+    private static int index(Colour player) {
+        return player.equals(Colour.Red) ? 0 : 1;
+    }
+
+}
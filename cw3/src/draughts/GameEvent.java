@@ -0,0 +1,222 @@
+package draughts;
+
+/**
+ * A class to represent something that happened in a game of Draughts.
+ * The events of a game, in order, are enough to replay it from its
+ * starting position.
+ */
+
+public class GameEvent {
+
+    /**
+     * An enum for the kinds of event.
+     */
+    public enum Type {
+        /** A Piece moved one step or one jump. */
+        MovePlayed,
+        /** A Piece was jumped over and removed. */
+        PieceCaptured,
+        /** A Piece was crowned. */
+        Promotion,
+        /** A turn ended and the other player is to move. */
+        TurnChanged,
+        /** The game ended. */
+        GameOver,
+        /** Turns were taken back, and later events follow on from the earlier turn. */
+        TakenBack
+    }
+
+    private final Type type;
+    private final int turn;
+    private final Colour colour;
+    private final int x;
+    private final int y;
+    private final int toX;
+    private final int toY;
+    private final GameResult result;
+
+    // Constructs a new GameEvent object.
+    // @param type the kind of event.
+    // @param turn the number of turns played before the event.
+    // @param colour the Colour of the player the event is about.
+    // @param x the x coordinate of the square, or -1.
+    // @param y the y coordinate of the square, or -1.
+    // @param toX the x coordinate of the destination of a Move, or -1.
+    // @param toY the y coordinate of the destination of a Move, or -1.
+    // @param result the result of the game, or null.
+    private GameEvent(Type type, int turn, Colour colour, int x, int y, int toX, int toY, GameResult result) {
+        this.type = type;
+        this.turn = turn;
+        this.colour = colour;
+        this.x = x;
+        this.y = y;
+        this.toX = toX;
+        this.toY = toY;
+        this.result = result;
+    }
+
+    /**
+     * Returns an event for a Piece moving.
+     *
+     * @param turn the number of turns played before the Move.
+     * @param colour the Colour of the Piece.
+     * @param x the x coordinate the Piece moved from.
+     * @param y the y coordinate the Piece moved from.
+     * @param toX the x coordinate the Piece moved to.
+     * @param toY the y coordinate the Piece moved to.
+     * @return the event.
+     */
+    public static GameEvent movePlayed(int turn, Colour colour, int x, int y, int toX, int toY) {
+        return new GameEvent(Type.MovePlayed, turn, colour, x, y, toX, toY, null);
+    }
+
+    /**
+     * Returns an event for a Piece being captured.
+     *
+     * @param turn the number of turns played before the capture.
+     * @param colour the Colour of the captured Piece.
+     * @param x the x coordinate of the captured Piece.
+     * @param y the y coordinate of the captured Piece.
+     * @return the event.
+     */
+    public static GameEvent pieceCaptured(int turn, Colour colour, int x, int y) {
+        return new GameEvent(Type.PieceCaptured, turn, colour, x, y, -1, -1, null);
+    }
+
+    /**
+     * Returns an event for a Piece being crowned.
+     *
+     * @param turn the number of turns played before the promotion.
+     * @param colour the Colour of the crowned Piece.
+     * @param x the x coordinate of the crowned Piece.
+     * @param y the y coordinate of the crowned Piece.
+     * @return the event.
+     */
+    public static GameEvent promotion(int turn, Colour colour, int x, int y) {
+        return new GameEvent(Type.Promotion, turn, colour, x, y, -1, -1, null);
+    }
+
+    /**
+     * Returns an event for the turn passing to a player.
+     *
+     * @param turn the number of turns played, including the one that ended.
+     * @param colour the Colour of the player now to move.
+     * @return the event.
+     */
+    public static GameEvent turnChanged(int turn, Colour colour) {
+        return new GameEvent(Type.TurnChanged, turn, colour, -1, -1, -1, -1, null);
+    }
+
+    /**
+     * Returns an event for the end of the game.
+     *
+     * @param turn the number of turns played.
+     * @param result the result of the game.
+     * @return the event.
+     */
+    public static GameEvent gameOver(int turn, GameResult result) {
+        return new GameEvent(Type.GameOver, turn, result.getWinner(), -1, -1, -1, -1, result);
+    }
+
+    /**
+     * Returns an event for turns being taken back.
+     *
+     * @param turn the number of turns played after taking back.
+     * @param colour the Colour of the player now to move.
+     * @return the event.
+     */
+    public static GameEvent takenBack(int turn, Colour colour) {
+        return new GameEvent(Type.TakenBack, turn, colour, -1, -1, -1, -1, null);
+    }
+
+    /**
+     * Returns the kind of event.
+     *
+     * @return the kind of event.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the number of turns played before the event, or
+     * including the turn that ended for a TurnChanged event, or
+     * left after a TakenBack event.
+     *
+     * @return the turn number.
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * Returns the Colour of the player the event is about: the owner of the
+     * Piece that moved, was captured or crowned, the player now to move
+     * after a change of turn or a take back, or the winner of the game.
+     *
+     * @return the Colour, or null after a drawn game.
+     */
+    public Colour getColour() {
+        return colour;
+    }
+
+    /**
+     * Returns the x coordinate of the square the event happened on,
+     * or the square a Piece moved from.
+     *
+     * @return the x coordinate, or -1.
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Returns the y coordinate of the square the event happened on,
+     * or the square a Piece moved from.
+     *
+     * @return the y coordinate, or -1.
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Returns the x coordinate of the square a Piece moved to.
+     *
+     * @return the x coordinate, or -1.
+     */
+    public int getToX() {
+        return toX;
+    }
+
+    /**
+     * Returns the y coordinate of the square a Piece moved to.
+     *
+     * @return the y coordinate, or -1.
+     */
+    public int getToY() {
+        return toY;
+    }
+
+    /**
+     * Returns the result of the game for a GameOver event.
+     *
+     * @return the result, or null.
+     */
+    public GameResult getResult() {
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case MovePlayed: return turn + ": " + colour + " (" + x + ", " + y + ")-(" + toX + ", " + toY + ")";
+            case PieceCaptured: return turn + ": " + colour + " captured at (" + x + ", " + y + ")";
+            case Promotion: return turn + ": " + colour + " crowned at (" + x + ", " + y + ")";
+            case TurnChanged: return turn + ": " + colour + " to move";
+            case TakenBack: return turn + ": taken back, " + colour + " to move";
+            default: return turn + ": " + result;
+        }
+    }
+
+}
@@ -0,0 +1,17 @@
+package draughts;
+
+/**
+ * An interface to receive the events of a DraughtsModel as they happen.
+ * The method is called on the thread playing the game.
+ */
+
+public interface GameListener {
+
+    /**
+     * Called when something happens in the game.
+     *
+     * @param event the GameEvent describing what happened.
+     */
+    public void gameEvent(GameEvent event);
+
+}
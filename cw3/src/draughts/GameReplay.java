@@ -0,0 +1,217 @@
+package draughts;
+
+import java.util.*;
+
+/**
+ * A class to rebuild the positions of a game from its events. A copy of
+ * the board is kept every few turns, so seeking to any turn only replays
+ * the events since the nearest copy. A GameReplay can be built from a
+ * finished game, or added to a DraughtsModel as a GameListener to follow
+ * a game as it is played. A TakenBack event forgets the turns after
+ * the turn it goes back to.
+ */
+
+public class GameReplay implements GameListener {
+
+    private final int interval;
+    private final List<GameEvent> events = new ArrayList<GameEvent>();
+    // The index of the first event of each turn, the player to move at
+    // the start of each turn, and the board every interval turns.
+    private final List<Integer> turnStarts = new ArrayList<Integer>();
+    private final List<Colour> players = new ArrayList<Colour>();
+    private final List<Piece[]> snapshots = new ArrayList<Piece[]>();
+    // The board after every event so far, keyed by square.
+    private final Map<Integer, Piece> board = new HashMap<Integer, Piece>();
+    private GameResult result = GameResult.InProgress;
+
+    /**
+     * Constructs a new GameReplay object from a starting position and the
+     * events played from it.
+     *
+     * @param currentPlayer the Colour of the player to move at the start.
+     * @param pieces the Pieces at the start.
+     * @param events the GameEvents of the game, in order.
+     * @param interval the number of turns between copies of the board.
+     * @throws IllegalArgumentException if interval is not positive.
+     */
+    public GameReplay(Colour currentPlayer, Set<Piece> pieces, List<GameEvent> events, int interval) {
+        if (interval <= 0) throw new IllegalArgumentException("The snapshot interval must be positive.");
+        this.interval = interval;
+        for (Piece piece : pieces) board.put(key(piece.getX(), piece.getY()), copy(piece));
+        turnStarts.add(0);
+        players.add(currentPlayer);
+        snapshot();
+        for (GameEvent event : events) gameEvent(event);
+    }
+
+    /**
+     * Constructs a new GameReplay object that follows a game, starting with
+     * the events played so far. The GameReplay is added as a listener to
+     * the game, so it must be constructed on the thread playing the game
+     * or between turns.
+     *
+     * @param model the game to follow.
+     * @param interval the number of turns between copies of the board.
+     * @throws IllegalArgumentException if interval is not positive.
+     */
+    public GameReplay(DraughtsModel model, int interval) {
+        this(model.getStartPlayer(), model.getStartPieces(), model.getEvents(), interval);
+        model.addGameListener(this);
+    }
+
+    // Returns the key of a square.
+    // @param x the x coordinate of the square.
+    // @param y the y coordinate of the square.
+    // @return the key of the square.
+    private static int key(int x, int y) {
+        return (y << 16) | (x & 0xFFFF);
+    }
+
+    // Returns a copy of a Piece.
+    // @param piece the Piece to copy.
+    // @return the copy.
+    private static Piece copy(Piece piece) {
+        Piece copy = new Piece(piece.getColour(), piece.getX(), piece.getY());
+        copy.setKing(piece.isKing());
+        return copy;
+    }
+
+    // Keeps a copy of the board.
+    private void snapshot() {
+        Piece[] snapshot = new Piece[board.size()];
+        int i = 0;
+        for (Piece piece : board.values()) snapshot[i++] = copy(piece);
+        snapshots.add(snapshot);
+    }
+
+    // Applies an event to a board.
+    // @param board the board, keyed by square.
+    // @param event the GameEvent to apply.
+    private static void apply(Map<Integer, Piece> board, GameEvent event) {
+        switch (event.getType()) {
+            case MovePlayed:
+                Piece piece = board.remove(key(event.getX(), event.getY()));
+                if (piece == null) throw new IllegalArgumentException("No piece to move in " + event);
+                piece.setX(event.getToX());
+                piece.setY(event.getToY());
+                board.put(key(event.getToX(), event.getToY()), piece);
+                break;
+            case PieceCaptured:
+                if (board.remove(key(event.getX(), event.getY())) == null) {
+                    throw new IllegalArgumentException("No piece to capture in " + event);
+                }
+                break;
+            case Promotion:
+                Piece king = board.get(key(event.getX(), event.getY()));
+                if (king == null) throw new IllegalArgumentException("No piece to crown in " + event);
+                king.setKing(true);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Adds the next event of the game.
+     *
+     * @param event the GameEvent that has happened.
+     * @throws IllegalArgumentException if the event does not fit the board.
+     */
+    public synchronized void gameEvent(GameEvent event) {
+        if (event.getType() == GameEvent.Type.TakenBack) {
+            takeBack(event.getTurn());
+            return;
+        }
+        apply(board, event);
+        events.add(event);
+        if (event.getType() == GameEvent.Type.TurnChanged) {
+            turnStarts.add(events.size());
+            players.add(event.getColour());
+            if ((turnStarts.size() - 1) % interval == 0) snapshot();
+        } else if (event.getType() == GameEvent.Type.GameOver) {
+            result = event.getResult();
+        }
+    }
+
+    // Forgets every event after a number of turns, so
+    // the events that follow carry on from that turn.
+    // @param turn the number of turns played.
+    private void takeBack(int turn) {
+        checkTurn(turn);
+        board.clear();
+        for (Piece piece : seek(turn)) board.put(key(piece.getX(), piece.getY()), piece);
+        events.subList(turnStarts.get(turn), events.size()).clear();
+        turnStarts.subList(turn + 1, turnStarts.size()).clear();
+        players.subList(turn + 1, players.size()).clear();
+        snapshots.subList(turn / interval + 1, snapshots.size()).clear();
+        result = GameResult.InProgress;
+    }
+
+    /**
+     * Returns the number of turns that have been played.
+     *
+     * @return the number of turns played.
+     */
+    public synchronized int getTurns() {
+        return turnStarts.size() - 1;
+    }
+
+    /**
+     * Returns the Pieces on the board after a number of turns. Only the
+     * events since the nearest copy of the board are replayed, so this
+     * takes time proportional to the snapshot interval, not the turn.
+     *
+     * @param turn the number of turns played.
+     * @return a new Set of copies of the Pieces.
+     * @throws IllegalArgumentException if the turn has not been played.
+     */
+    public synchronized Set<Piece> seek(int turn) {
+        checkTurn(turn);
+        Map<Integer, Piece> replay = new HashMap<Integer, Piece>();
+        for (Piece piece : snapshots.get(turn / interval)) replay.put(key(piece.getX(), piece.getY()), copy(piece));
+        int end = turnStarts.get(turn);
+        for (int i = turnStarts.get(turn / interval * interval); i < end; i++) apply(replay, events.get(i));
+        return new HashSet<Piece>(replay.values());
+    }
+
+    /**
+     * Returns the Colour of the player to move after a number of turns.
+     *
+     * @param turn the number of turns played.
+     * @return the Colour of the player to move.
+     * @throws IllegalArgumentException if the turn has not been played.
+     */
+    public synchronized Colour getPlayer(int turn) {
+        checkTurn(turn);
+        return players.get(turn);
+    }
+
+    /**
+     * Returns the events of one turn: the Moves, captures and promotions of
+     * the player, ending with the change of turn.
+     *
+     * @param turn the number of turns played before the turn.
+     * @return a new List of the GameEvents of the turn.
+     * @throws IllegalArgumentException if the turn has not been played.
+     */
+    public synchronized List<GameEvent> getEvents(int turn) {
+        if (turn < 0 || turn >= getTurns()) throw new IllegalArgumentException("Turn " + turn + " has not been played.");
+        return new ArrayList<GameEvent>(events.subList(turnStarts.get(turn), turnStarts.get(turn + 1)));
+    }
+
+    /**
+     * Returns the result of the game, if it has ended.
+     *
+     * @return the result of the game.
+     */
+    public synchronized GameResult getResult() {
+        return result;
+    }
+
+    // Checks that a turn has been played.
+    // @param turn the number of turns played.
+    private void checkTurn(int turn) {
+        if (turn < 0 || turn > getTurns()) throw new IllegalArgumentException("Turn " + turn + " has not been played.");
+    }
+
+}
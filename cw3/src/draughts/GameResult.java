@@ -0,0 +1,39 @@
+package draughts;
+
+/**
+ * An enum to represent the result of a game.
+ */
+
+public enum GameResult {
+    InProgress, RedWins, WhiteWins, RedWinsOnTime, WhiteWinsOnTime, DrawByRepetition, DrawByMoveLimit;
+
+    /**
+     * Returns true if the game has finished.
+     *
+     * @return true if the game has finished.
+     */
+    public boolean isOver() {
+        return this != InProgress;
+    }
+
+    /**
+     * Returns true if the game was drawn.
+     *
+     * @return true if the game was drawn.
+     */
+    public boolean isDraw() {
+        return this == DrawByRepetition || this == DrawByMoveLimit;
+    }
+
+    /**
+     * Returns the Colour of the winner, or null if there isn't one.
+     *
+     * @return the Colour of the winner, or null.
+     */
+    public Colour getWinner() {
+        if (this == RedWins || this == RedWinsOnTime) return Colour.Red;
+        if (this == WhiteWins || this == WhiteWinsOnTime) return Colour.White;
+        return null;
+    }
+
+}
@@ -0,0 +1,280 @@
+package draughts;
+
+import java.util.*;
+
+/**
+ * A class to browse the variations that can follow a position in a game.
+ * Each Node holds only the bitboards of its position, and finds its Moves
+ * the first time its children are asked for. Each child is only made when
+ * an iterator reaches it. Nodes are kept in a store keyed by the hash of
+ * their position, which holds at most a fixed number of Nodes and drops the
+ * least recently used first. A Node that was dropped is made again from its
+ * parent when it is next reached, and a position reached by two different
+ * orders of Moves shares one Node while it is in the store.
+ */
+
+public class GameTree {
+
+    private final Map<Long, Node> store;
+    private final int capacity;
+    private final Node root;
+    private long expansions;
+
+    /**
+     * Constructs a new GameTree object for the position of a game. If the
+     * player is in the middle of a multiple jump, the root carries it on.
+     *
+     * @param model the game whose position is the root of the tree.
+     * @param capacity the largest number of Nodes to keep.
+     * @throws IllegalArgumentException if the capacity is not positive, or
+     * the game is played by a RulesVariant, which a Position can't hold.
+     */
+    public GameTree(DraughtsModel model, int capacity) {
+        this(Position.of(model), capacity);
+    }
+
+    /**
+     * Constructs a new GameTree object.
+     *
+     * @param position the Position at the root of the tree.
+     * @param capacity the largest number of Nodes to keep.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public GameTree(Position position, int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Invalid capacity " + capacity + ".");
+        this.capacity = capacity;
+        store = new LinkedHashMap<Long, Node>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Node> eldest) {
+                return size() > GameTree.this.capacity;
+            }
+        };
+        root = new Node(position);
+        store.put(root.hash, root);
+    }
+
+    /**
+     * Returns the Node at the root of the tree. The root is never dropped.
+     *
+     * @return the Node at the root of the tree.
+     */
+    public Node getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the Node in the store with a hash, making it
+     * the most recently used.
+     *
+     * @param hash the hash of the Node's position.
+     * @return the Node, or null if it is not in the store.
+     */
+    public Node getNode(long hash) {
+        if (hash == root.hash) return root;
+        return store.get(hash);
+    }
+
+    /**
+     * Returns the number of Nodes in the store.
+     *
+     * @return the number of Nodes in the store.
+     */
+    public int size() {
+        return store.size();
+    }
+
+    /**
+     * Returns the largest number of Nodes kept in the store.
+     *
+     * @return the largest number of Nodes kept.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of times the Moves of a Node have been generated.
+     *
+     * @return the number of expansions.
+     */
+    public long getExpansions() {
+        return expansions;
+    }
+
+    // Returns the Node for the position reached by playing a Move from
+    // a Node, from the store if it is there.
+    // @param parent the Node the Move is played from.
+    // @param move the encoded Move.
+    // @return the Node reached.
+    private Node child(Node parent, int move) {
+        Position position = parent.toPosition();
+        position.makeMove(move);
+        long hash = position.getHash();
+        if (hash == root.hash && root.matches(position)) return root;
+        Node node = store.get(hash);
+        if (node == null || !node.matches(position)) {
+            node = new Node(position);
+            store.put(hash, node);
+        }
+        return node;
+    }
+
+    /**
+     * A class to represent a position in a GameTree.
+     */
+    public class Node {
+
+        private final int red;
+        private final int white;
+        private final int kings;
+        private final int state;
+        private final long hash;
+        private int[] moves;
+
+        // Constructs a Node for a Position.
+        // @param position the Position.
+        private Node(Position position) {
+            red = position.getRed();
+            white = position.getWhite();
+            kings = position.getKings();
+            state = (position.getSide() << 8) | (position.getContinuation() + 1);
+            hash = position.getHash();
+        }
+
+        // Returns true if this Node is for a Position.
+        // @param position the Position.
+        // @return true if this Node is for the Position.
+        private boolean matches(Position position) {
+            return red == position.getRed() && white == position.getWhite() && kings == position.getKings()
+                && state == ((position.getSide() << 8) | (position.getContinuation() + 1));
+        }
+
+        // Generates the Moves of this Node, if they haven't been.
+        private void expand() {
+            if (moves != null) return;
+            int[] buffer = new int[Position.MAX_MOVES];
+            int count = toPosition().generateMoves(buffer, false);
+            moves = Arrays.copyOf(buffer, count);
+            expansions++;
+        }
+
+        /**
+         * Returns a new Position for this Node.
+         *
+         * @return a new Position for this Node.
+         */
+        public Position toPosition() {
+            return new Position(red, white, kings, state >> 8, (state & 0xFF) - 1);
+        }
+
+        /**
+         * Returns the Set of Pieces in this Node's position.
+         *
+         * @return the Set of Pieces in this Node's position.
+         */
+        public Set<Piece> getPieces() {
+            return toPosition().toPieces();
+        }
+
+        /**
+         * Returns the Colour of the player to move.
+         *
+         * @return the Colour of the player to move.
+         */
+        public Colour getCurrentPlayer() {
+            return (state >> 8) == Position.RED ? Colour.Red : Colour.White;
+        }
+
+        /**
+         * Returns the hash of this Node's position.
+         *
+         * @return the hash of this Node's position.
+         */
+        public long getHash() {
+            return hash;
+        }
+
+        /**
+         * Returns true if the Moves of this Node have been generated.
+         *
+         * @return true if this Node has been expanded.
+         */
+        public boolean isExpanded() {
+            return moves != null;
+        }
+
+        /**
+         * Returns the number of children, generating the Moves if needed.
+         *
+         * @return the number of children.
+         */
+        public int getChildCount() {
+            expand();
+            return moves.length;
+        }
+
+        /**
+         * Returns true if the player to move has no Moves.
+         *
+         * @return true if the game is over in this Node.
+         */
+        public boolean isGameOver() {
+            return getChildCount() == 0;
+        }
+
+        /**
+         * Returns an encoded Move of this Node, generating the Moves if needed.
+         *
+         * @param i the index of the Move.
+         * @return the encoded Move.
+         */
+        public int getMove(int i) {
+            expand();
+            return moves[i];
+        }
+
+        /**
+         * Returns the child reached by a Move, generating the Moves if needed.
+         *
+         * @param i the index of the Move.
+         * @return the child Node.
+         */
+        public Node getChild(int i) {
+            expand();
+            return child(this, moves[i]);
+        }
+
+        /**
+         * Returns the children of this Node, in the order of their Moves.
+         * The Moves are generated when the first child is asked for, and
+         * each child is made when the iterator reaches it.
+         *
+         * @return the children of this Node.
+         */
+        public Iterable<Node> children() {
+            return () -> new Iterator<Node>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < getChildCount();
+                }
+
+                @Override
+                public Node next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    return getChild(next++);
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return toPosition().toString();
+        }
+
+    }
+
+}
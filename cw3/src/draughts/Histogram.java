@@ -0,0 +1,105 @@
+package draughts;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * A class to count how often values fall in ranges that grow with the
+ * value, so that every value is kept to within about 3% however large it
+ * is. Values up to 32 have a bucket each, and every doubling above that is
+ * split into 32 buckets. Recording a value only increments counters, so
+ * many threads can record at once without locking.
+ */
+
+public class Histogram {
+
+    // The number of bits of each value kept exactly, and the number of
+    // buckets each doubling is split into.
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BITS + 1) << SUB_BITS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value the value to record.
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts.incrementAndGet(index(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    // Returns the bucket a value falls in.
+    // @param value the value, which is not negative.
+    // @return the index of the bucket.
+    private static int index(long value) {
+        if (value < SUB_COUNT) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        return ((shift + 1) << SUB_BITS) + (int) ((value >>> shift) & (SUB_COUNT - 1));
+    }
+
+    // Returns the largest value that falls in a bucket.
+    // @param index the index of the bucket.
+    // @return the largest value in the bucket.
+    private static long highest(int index) {
+        int group = index >>> SUB_BITS;
+        if (group == 0) return index;
+        long lowest = (long) (SUB_COUNT + (index & (SUB_COUNT - 1))) << (group - 1);
+        return lowest + (1L << (group - 1)) - 1;
+    }
+
+    /**
+     * Returns the number of values recorded.
+     *
+     * @return the number of values recorded.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the mean of the values recorded.
+     *
+     * @return the mean, or 0 if nothing has been recorded.
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns the largest value recorded.
+     *
+     * @return the largest value, or 0 if nothing has been recorded.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns a value that the given percentage of the values recorded
+     * are at or below, to within the precision of the buckets.
+     *
+     * @param percentile the percentage, from 0 to 100.
+     * @return the value at the percentile, or 0 if nothing has been recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = count.sum();
+        if (total == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) return Math.min(highest(i), getMax());
+        }
+        return getMax();
+    }
+
+}
@@ -0,0 +1,85 @@
+package draughts;
+
+/**
+ * The rules of International draughts: a 10 by 10 board, men that capture
+ * backwards as well as forwards, flying kings, and a mandatory capture that
+ * must take the most pieces possible.
+ */
+
+public class InternationalRules implements RulesVariant {
+
+    /**
+     * Returns the name of the variant.
+     *
+     * @return the name of the variant.
+     */
+    public String getName() {
+        return "International";
+    }
+
+    /**
+     * Returns the shape of the board.
+     *
+     * @return the BoardGeometry of the board.
+     */
+    public BoardGeometry getGeometry() {
+        return BoardGeometry.INTERNATIONAL;
+    }
+
+    /**
+     * Returns the number of rows of men each player starts with.
+     *
+     * @return the number of rows of men each player starts with.
+     */
+    public int getRowsOfMen() {
+        return 4;
+    }
+
+    /**
+     * Returns true if a player who can capture must capture.
+     *
+     * @return true if capturing is mandatory.
+     */
+    public boolean isCaptureMandatory() {
+        return true;
+    }
+
+    /**
+     * Returns true if a player must make the capture that takes the most pieces.
+     *
+     * @return true if the majority capture rule is used.
+     */
+    public boolean hasMajorityCapture() {
+        return true;
+    }
+
+    /**
+     * Returns true if kings can move and capture any distance along a diagonal.
+     *
+     * @return true if kings are flying kings.
+     */
+    public boolean hasFlyingKings() {
+        return true;
+    }
+
+    /**
+     * Returns true if men can capture backwards as well as forwards.
+     *
+     * @return true if men can capture backwards.
+     */
+    public boolean canMenCaptureBackwards() {
+        return true;
+    }
+
+    /**
+     * Returns true if a man that reaches the far row part way through
+     * a capture is crowned and stops capturing. Otherwise it only
+     * becomes a king if the capture ends on the far row.
+     *
+     * @return true if being crowned ends a capture.
+     */
+    public boolean doesCrowningEndCapture() {
+        return false;
+    }
+
+}
@@ -0,0 +1,267 @@
+package draughts;
+
+import java.io.*;
+import java.lang.management.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import javax.management.*;
+
+/**
+ * A class to count what the game and engine do, so it can be read over JMX
+ * or printed every so often. Every count is a LongAdder and every time is
+ * recorded in a Histogram, so counting costs only an uncontended add and
+ * can be left on while playing.
+ */
+
+public final class Metrics implements MetricsMXBean {
+
+    /** The name the Metrics are registered under with JMX. */
+    public static final String NAME = "draughts:type=Metrics";
+
+    /** The number of Moves DraughtsModel offered to its players. */
+    public static final LongAdder MOVES_GENERATED = new LongAdder();
+    /** The number of calls to DraughtsModel.isGameOver. */
+    public static final LongAdder GAME_OVER_CHECKS = new LongAdder();
+    /** The number of nodes searched by the engine. */
+    public static final LongAdder SEARCH_NODES = new LongAdder();
+    /** The time spent searching, in nanoseconds. */
+    public static final LongAdder SEARCH_NANOS = new LongAdder();
+    /** The number of transposition table probes. */
+    public static final LongAdder TABLE_PROBES = new LongAdder();
+    /** The number of transposition table probes that found an entry. */
+    public static final LongAdder TABLE_HITS = new LongAdder();
+    /** The number of positions the engine generated Moves for. */
+    public static final LongAdder EXPANDED = new LongAdder();
+    /** The number of Moves the engine generated in those positions. */
+    public static final LongAdder BRANCHES = new LongAdder();
+
+    /** The time taken by each turn, in nanoseconds. */
+    public static final Histogram TURN_TIME = new Histogram();
+    /** The time taken by each engine search, in nanoseconds. */
+    public static final Histogram SEARCH_TIME = new Histogram();
+    /** The time taken to save each game, in nanoseconds. */
+    public static final Histogram SAVE_TIME = new Histogram();
+    /** The time taken to load each game, in nanoseconds. */
+    public static final Histogram LOAD_TIME = new Histogram();
+
+    private static final Metrics instance = new Metrics();
+    private static final long started = System.nanoTime();
+    private static ScheduledExecutorService logger;
+
+    private Metrics() {}
+
+    /**
+     * Registers the Metrics with the platform MBeanServer, if they have not
+     * been registered already.
+     *
+     * @throws IllegalStateException if the Metrics cannot be registered.
+     */
+    public static synchronized void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(NAME);
+            if (!server.isRegistered(name)) server.registerMBean(instance, name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register the metrics", e);
+        }
+    }
+
+    /**
+     * Starts printing a line of Metrics every period, with the rates over
+     * that period. The line is printed on a daemon thread, and any logging
+     * already started is stopped.
+     *
+     * @param periodSeconds the number of seconds between lines.
+     * @param out the stream to print to.
+     * @throws IllegalArgumentException if the period is not positive.
+     */
+    public static synchronized void startLogging(long periodSeconds, PrintStream out) {
+        if (periodSeconds <= 0) throw new IllegalArgumentException("Period must be positive");
+        stopLogging();
+        logger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final Interval interval = new Interval();
+        logger.scheduleAtFixedRate(() -> out.println(interval.next()), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops printing Metrics, if it was started.
+     */
+    public static synchronized void stopLogging() {
+        if (logger != null) logger.shutdownNow();
+        logger = null;
+    }
+
+    /**
+     * Records the work done by one engine search.
+     *
+     * @param nodes the number of nodes searched.
+     * @param nanos the time taken in nanoseconds.
+     * @param probes the number of transposition table probes.
+     * @param hits the number of probes that found an entry.
+     * @param expanded the number of positions Moves were generated for.
+     * @param branches the number of Moves generated in those positions.
+     */
+    public static void recordSearch(long nodes, long nanos, long probes, long hits, long expanded, long branches) {
+        SEARCH_NODES.add(nodes);
+        SEARCH_NANOS.add(nanos);
+        TABLE_PROBES.add(probes);
+        TABLE_HITS.add(hits);
+        EXPANDED.add(expanded);
+        BRANCHES.add(branches);
+        SEARCH_TIME.record(nanos);
+    }
+
+    /**
+     * Returns a line describing the Metrics since they were first used.
+     *
+     * @return a line describing the Metrics.
+     */
+    public static String summary() {
+        return new Interval(true).next();
+    }
+
+    // Returns a ratio, or 0 if there is nothing to divide by.
+    // @param count the count to divide.
+    // @param total the count to divide by.
+    // @return the ratio.
+    private static double ratio(double count, double total) {
+        return total == 0 ? 0 : count / total;
+    }
+
+    // Returns a time in nanoseconds as milliseconds.
+    // @param nanos the time in nanoseconds.
+    // @return the time in milliseconds.
+    private static double millis(double nanos) {
+        return nanos / 1e6;
+    }
+
+    // Helper class to remember the counts at the end of the last line
+    // printed, so each line can give the rates since then.
+    private static class Interval {
+
+        private long time;
+        private long moves, checks, nodes, nanos, probes, hits, expanded, branches;
+
+        // Creates an Interval from now.
+        public Interval() {
+            this(false);
+        }
+
+        // Creates an Interval from now, or from when the Metrics started.
+        // @param fromStart whether the Interval starts with every count at 0.
+        public Interval(boolean fromStart) {
+            time = fromStart ? started : System.nanoTime();
+            if (!fromStart) {
+                moves = MOVES_GENERATED.sum();
+                checks = GAME_OVER_CHECKS.sum();
+                nodes = SEARCH_NODES.sum();
+                nanos = SEARCH_NANOS.sum();
+                probes = TABLE_PROBES.sum();
+                hits = TABLE_HITS.sum();
+                expanded = EXPANDED.sum();
+                branches = BRANCHES.sum();
+            }
+        }
+
+        // Returns a line describing the Metrics since the last line, and
+        // starts the next Interval.
+        // @return a line describing the Metrics.
+        public String next() {
+            long now = System.nanoTime();
+            long moves = MOVES_GENERATED.sum(), checks = GAME_OVER_CHECKS.sum();
+            long nodes = SEARCH_NODES.sum(), nanos = SEARCH_NANOS.sum();
+            long probes = TABLE_PROBES.sum(), hits = TABLE_HITS.sum();
+            long expanded = EXPANDED.sum(), branches = BRANCHES.sum();
+            double seconds = (now - time) / 1e9;
+            String line = String.format("metrics moves/s=%.0f gameOverChecks/s=%.0f turn p50=%.1fms p99=%.1fms max=%.1fms "
+                                      + "nps=%.0f tableHits=%.1f%% branching=%.2f save=%.1fms load=%.1fms",
+                                        ratio(moves - this.moves, seconds), ratio(checks - this.checks, seconds),
+                                        millis(TURN_TIME.getValueAtPercentile(50)), millis(TURN_TIME.getValueAtPercentile(99)),
+                                        millis(TURN_TIME.getMax()), ratio(nodes - this.nodes, (nanos - this.nanos) / 1e9),
+                                        100 * ratio(hits - this.hits, probes - this.probes),
+                                        ratio(branches - this.branches, expanded - this.expanded),
+                                        millis(SAVE_TIME.getMean()), millis(LOAD_TIME.getMean()));
+            this.time = now;
+            this.moves = moves;
+            this.checks = checks;
+            this.nodes = nodes;
+            this.nanos = nanos;
+            this.probes = probes;
+            this.hits = hits;
+            this.expanded = expanded;
+            this.branches = branches;
+            return line;
+        }
+
+    }
+
+    @Override
+    public long getMovesGenerated() {
+        return MOVES_GENERATED.sum();
+    }
+
+    @Override
+    public double getMovesGeneratedPerSecond() {
+        return ratio(MOVES_GENERATED.sum(), (System.nanoTime() - started) / 1e9);
+    }
+
+    @Override
+    public long getGameOverChecks() {
+        return GAME_OVER_CHECKS.sum();
+    }
+
+    @Override
+    public long getTurns() {
+        return TURN_TIME.getCount();
+    }
+
+    @Override
+    public double getTurnTimeMedian() {
+        return millis(TURN_TIME.getValueAtPercentile(50));
+    }
+
+    @Override
+    public double getTurnTime99() {
+        return millis(TURN_TIME.getValueAtPercentile(99));
+    }
+
+    @Override
+    public double getTurnTimeMax() {
+        return millis(TURN_TIME.getMax());
+    }
+
+    @Override
+    public long getEngineNodes() {
+        return SEARCH_NODES.sum();
+    }
+
+    @Override
+    public double getEngineNodesPerSecond() {
+        return ratio(SEARCH_NODES.sum(), SEARCH_NANOS.sum() / 1e9);
+    }
+
+    @Override
+    public double getTableHitRate() {
+        return ratio(TABLE_HITS.sum(), TABLE_PROBES.sum());
+    }
+
+    @Override
+    public double getBranchingFactor() {
+        return ratio(BRANCHES.sum(), EXPANDED.sum());
+    }
+
+    @Override
+    public double getSaveTimeMean() {
+        return millis(SAVE_TIME.getMean());
+    }
+
+    @Override
+    public double getLoadTimeMean() {
+        return millis(LOAD_TIME.getMean());
+    }
+
+}
@@ -0,0 +1,102 @@
+package draughts;
+
+/**
+ * An interface to read the Metrics of the game and engine over JMX.
+ * Rates are averages since the Metrics were first used, and times
+ * are in milliseconds.
+ */
+
+public interface MetricsMXBean {
+
+    /**
+     * Returns the number of Moves DraughtsModel offered to its players.
+     *
+     * @return the number of Moves generated.
+     */
+    public long getMovesGenerated();
+
+    /**
+     * Returns the number of Moves DraughtsModel offered to its players each second.
+     *
+     * @return the number of Moves generated each second.
+     */
+    public double getMovesGeneratedPerSecond();
+
+    /**
+     * Returns the number of times DraughtsModel.isGameOver has been called.
+     *
+     * @return the number of calls to isGameOver.
+     */
+    public long getGameOverChecks();
+
+    /**
+     * Returns the number of turns played.
+     *
+     * @return the number of turns played.
+     */
+    public long getTurns();
+
+    /**
+     * Returns the median time taken by a turn.
+     *
+     * @return the median turn time in milliseconds.
+     */
+    public double getTurnTimeMedian();
+
+    /**
+     * Returns the time 99% of turns take at most.
+     *
+     * @return the 99th percentile turn time in milliseconds.
+     */
+    public double getTurnTime99();
+
+    /**
+     * Returns the longest time taken by a turn.
+     *
+     * @return the longest turn time in milliseconds.
+     */
+    public double getTurnTimeMax();
+
+    /**
+     * Returns the number of nodes the engine has searched.
+     *
+     * @return the number of nodes searched.
+     */
+    public long getEngineNodes();
+
+    /**
+     * Returns the number of nodes the engine searches each second of searching.
+     *
+     * @return the number of nodes searched each second.
+     */
+    public double getEngineNodesPerSecond();
+
+    /**
+     * Returns the fraction of transposition table probes that found an entry.
+     *
+     * @return the hit rate, from 0 to 1.
+     */
+    public double getTableHitRate();
+
+    /**
+     * Returns the average number of Moves in the positions the engine expanded.
+     *
+     * @return the average branching factor.
+     */
+    public double getBranchingFactor();
+
+    /**
+     * Returns the mean time taken to save a game.
+     *
+     * @return the mean save time in milliseconds.
+     */
+    public double getSaveTimeMean();
+
+    /**
+     * Returns the mean time taken to load a game.
+     *
+     * @return the mean load time in milliseconds.
+     */
+    public double getLoadTimeMean();
+
+}
@@ -0,0 +1,108 @@
+package draughts;
+
+/**
+ * A class to hold the moves generated for a VariantPosition in primitive
+ * arrays. Each move is a whole turn: the square it starts from, the square
+ * it ends on, and the bitboard of the pieces it captures on the way.
+ */
+
+public class MoveList {
+
+    /**
+     * The largest number of moves that can be held.
+     */
+    public static final int CAPACITY = 256;
+
+    private final int[] from = new int[CAPACITY];
+    private final int[] to = new int[CAPACITY];
+    private final long[] captured = new long[CAPACITY];
+    private int size;
+
+    /**
+     * Returns the number of moves in the list.
+     *
+     * @return the number of moves in the list.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every move from the list.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds a move to the list, unless the same move is already in it.
+     * Different orders of capturing the same pieces are the same move.
+     *
+     * @param from the square the move starts from.
+     * @param to the square the move ends on.
+     * @param captured the bitboard of the pieces captured.
+     * @throws IllegalStateException if the list is full.
+     */
+    public void add(int from, int to, long captured) {
+        if (captured != 0) {
+            for (int i = 0; i < size; i++) {
+                if (this.captured[i] == captured && this.from[i] == from && this.to[i] == to) return;
+            }
+        }
+        if (size == CAPACITY) throw new IllegalStateException("Too many moves.");
+        this.from[size] = from;
+        this.to[size] = to;
+        this.captured[size] = captured;
+        size++;
+    }
+
+    /**
+     * Removes every move that captures fewer pieces than the move that
+     * captures the most, keeping the order of the others.
+     */
+    public void keepMajority() {
+        int most = 0;
+        for (int i = 0; i < size; i++) most = Math.max(most, Long.bitCount(captured[i]));
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (Long.bitCount(captured[i]) == most) {
+                from[kept] = from[i];
+                to[kept] = to[i];
+                captured[kept] = captured[i];
+                kept++;
+            }
+        }
+        size = kept;
+    }
+
+    /**
+     * Returns the square a move starts from.
+     *
+     * @param i the index of the move.
+     * @return the square the move starts from.
+     */
+    public int getFrom(int i) {
+        return from[i];
+    }
+
+    /**
+     * Returns the square a move ends on.
+     *
+     * @param i the index of the move.
+     * @return the square the move ends on.
+     */
+    public int getTo(int i) {
+        return to[i];
+    }
+
+    /**
+     * Returns the bitboard of the pieces a move captures.
+     *
+     * @param i the index of the move.
+     * @return the bitboard of the pieces captured, or 0.
+     */
+    public long getCaptured(int i) {
+        return captured[i];
+    }
+
+}
@@ -0,0 +1,37 @@
+package draughts;
+
+import jdk.jfr.*;
+
+/**
+ * A Flight Recorder event for one step of a Move being played by
+ * DraughtsModel. Each jump of a multiple jump is a separate event. It is on
+ * by default and can be turned off in the JFR settings as draughts.Play.
+ */
+
+@Name("draughts.Play")
+@Label("Play")
+@Category("Draughts")
+@Description("A Piece moved by the game, one jump at a time")
+@StackTrace(false)
+class PlayEvent extends Event {
+
+    @Label("Turn")
+    int turn;
+
+    @Label("From")
+    String from;
+
+    @Label("To")
+    String to;
+
+    @Label("Jump")
+    boolean jump;
+
+    @Label("Promotion")
+    boolean promotion;
+
+    @Label("Position Hash")
+    @Description("The Zobrist hash of the position after the step")
+    long positionHash;
+
+}
@@ -0,0 +1,849 @@
+package draughts;
+
+import java.util.*;
+
+/**
+ * A class to represent a position in a game of Draughts using bitboards.
+ * The 32 dark squares are indexed from the top left of the board, four to
+ * a row, so the square at (x, y) has the index (y * 4) + (x / 2). Moves are
+ * encoded as ints so that a Position can be played and searched without
+ * creating any objects. A Move follows the same rules as the DraughtsModel:
+ * each jump is a separate Move, and the same player moves again while the
+ * jumping Piece can continue jumping.
+ */
+
+public class Position {
+
+    /**
+     * The index used for the Red player.
+     */
+    public static final int RED = 0;
+
+    /**
+     * The index used for the White player.
+     */
+    public static final int WHITE = 1;
+
+    /**
+     * The number of playable squares on the board.
+     */
+    public static final int SQUARES = 32;
+
+    /**
+     * The largest number of Moves that can be generated for a Position.
+     */
+    public static final int MAX_MOVES = 128;
+
+    // Masks of the squares on even rows, odd rows and the outer columns.
+    private static final int EVEN_ROWS = 0x0F0F0F0F;
+    private static final int ODD_ROWS = 0xF0F0F0F0;
+    private static final int FIRST_COLUMN = 0x11111111;
+    private static final int LAST_COLUMN = 0x88888888;
+
+    // Directions are 0 up-left, 1 up-right, 2 down-left and 3 down-right.
+    // Red men move up the board and White men move down it.
+    private static final int[] DX = {-1, 1, -1, 1};
+    private static final int[] DY = {-1, -1, 1, 1};
+    private static final int[][] NEIGHBOUR = new int[SQUARES][4];
+    private static final int[][] LANDING = new int[SQUARES][4];
+
+    // Zobrist keys, indexed by (colour * 64) + (king ? 32 : 0) + square.
+    private static final long[] PIECE_KEYS = new long[128];
+    private static final long[] CONTINUATION_KEYS = new long[SQUARES];
+    private static final long SIDE_KEY;
+
+    static {
+        for (int square = 0; square < SQUARES; square++) {
+            for (int dir = 0; dir < 4; dir++) {
+                NEIGHBOUR[square][dir] = square(x(square) + DX[dir], y(square) + DY[dir]);
+                LANDING[square][dir] = square(x(square) + 2 * DX[dir], y(square) + 2 * DY[dir]);
+            }
+        }
+        Random random = new Random(0x5EED5EEDL);
+        for (int i = 0; i < PIECE_KEYS.length; i++) PIECE_KEYS[i] = random.nextLong();
+        for (int i = 0; i < SQUARES; i++) CONTINUATION_KEYS[i] = random.nextLong();
+        SIDE_KEY = random.nextLong();
+    }
+
+    private int red;
+    private int white;
+    private int kings;
+    private int side;
+    private int continuation = -1;
+    private long hash;
+    private int score;
+    private int[] table;
+    private Accumulator accumulator;
+
+    // The state before each Move that has been made, so it can be unmade.
+    private int[] history = new int[5 * 64];
+    private long[] hashHistory = new long[64];
+    private int ply;
+
+    /**
+     * Constructs a new Position object.
+     *
+     * @param red the bitboard of the Red pieces.
+     * @param white the bitboard of the White pieces.
+     * @param kings the bitboard of the pieces that are kings.
+     * @param side the index of the player to move.
+     */
+    public Position(int red, int white, int kings, int side) {
+        this(red, white, kings, side, -1);
+    }
+
+    /**
+     * Constructs a new Position object in the middle of a jump.
+     *
+     * @param red the bitboard of the Red pieces.
+     * @param white the bitboard of the White pieces.
+     * @param kings the bitboard of the pieces that are kings.
+     * @param side the index of the player to move.
+     * @param continuation the square of the Piece that must carry on
+     * jumping, or -1.
+     */
+    public Position(int red, int white, int kings, int side, int continuation) {
+        if ((red & white) != 0 || (kings & ~(red | white)) != 0) throw new IllegalArgumentException();
+        if (side != RED && side != WHITE) throw new IllegalArgumentException();
+        if (continuation >= SQUARES || (continuation >= 0 && ((side == RED ? red : white) & (1 << continuation)) == 0)) {
+            throw new IllegalArgumentException();
+        }
+        this.red = red;
+        this.white = white;
+        this.kings = kings;
+        this.side = side;
+        this.continuation = Math.max(continuation, -1);
+        hash = computeHash();
+    }
+
+    /**
+     * Constructs a copy of a Position object, without its Move history.
+     *
+     * @param position the Position to be copied.
+     */
+    public Position(Position position) {
+        copyFrom(position);
+    }
+
+    /**
+     * Returns the Position of a game from its Set of Pieces.
+     *
+     * @param pieces the Set of Pieces in the game.
+     * @param currentPlayer the Colour of the player to move.
+     * @return the Position of a game from its Set of Pieces.
+     * @throws IllegalArgumentException if a Piece is not on a dark square.
+     */
+    public static Position of(Set<Piece> pieces, Colour currentPlayer) {
+        int red = 0, white = 0, kings = 0;
+        for (Piece piece : pieces) {
+            int square = square(piece.getX(), piece.getY());
+            if (square < 0) throw new IllegalArgumentException("Piece is not on a dark square: " + piece);
+            if (piece.getColour().equals(Colour.Red)) red |= 1 << square;
+            else white |= 1 << square;
+            if (piece.isKing()) kings |= 1 << square;
+        }
+        return new Position(red, white, kings, index(currentPlayer));
+    }
+
+    /**
+     * Returns the Position of a game for the player to move. While the
+     * player is choosing how a multiple jump carries on, the Position
+     * requires the same Piece to jump again.
+     *
+     * @param model the game.
+     * @return the Position of the game.
+     * @throws IllegalArgumentException if the game is played by a RulesVariant,
+     * whose boards and whole-turn Moves a Position can't hold.
+     */
+    public static Position of(DraughtsModel model) {
+        if (model.getRules() != null) {
+            throw new IllegalArgumentException("A game played by " + model.getRules().getName() + " rules has no Position.");
+        }
+        Position position = of(model.getPieces(), model.getCurrentPlayer());
+        Piece jumping = model.getJumping();
+        if (jumping == null) return position;
+        return new Position(position.red, position.white, position.kings, position.side,
+                            square(jumping.getX(), jumping.getY()));
+    }
+
+    /**
+     * Returns the Position at the start of a game.
+     *
+     * @return the Position at the start of a game.
+     */
+    public static Position initial() {
+        return new Position(0xFFF00000, 0x00000FFF, 0, RED);
+    }
+
+    /**
+     * Copies the state of another Position into this one and clears
+     * the Move history. The score table is shared with the other Position,
+     * but its Accumulator is not.
+     *
+     * @param position the Position to copy.
+     */
+    public void copyFrom(Position position) {
+        red = position.red;
+        white = position.white;
+        kings = position.kings;
+        side = position.side;
+        continuation = position.continuation;
+        hash = position.hash;
+        score = position.score;
+        table = position.table;
+        accumulator = null;
+        ply = 0;
+    }
+
+    /**
+     * Returns the Set of Pieces in this Position.
+     *
+     * @return the Set of Pieces in this Position.
+     */
+    public Set<Piece> toPieces() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        for (int bits = red | white; bits != 0; bits &= bits - 1) {
+            int square = Integer.numberOfTrailingZeros(bits);
+            Piece piece = new Piece(colourAt(square), x(square), y(square));
+            piece.setKing((kings & (1 << square)) != 0);
+            pieces.add(piece);
+        }
+        return pieces;
+    }
+
+    /**
+     * Returns the index of the square at (x, y), or -1 if it is
+     * off the board or not a dark square.
+     *
+     * @param x the x coordinate of the square.
+     * @param y the y coordinate of the square.
+     * @return the index of the square at (x, y), or -1.
+     */
+    public static int square(int x, int y) {
+        if (x < 0 || x > 7 || y < 0 || y > 7 || (x + y) % 2 == 0) return -1;
+        return (y * 4) + (x / 2);
+    }
+
+    /**
+     * Returns the x coordinate of a square.
+     *
+     * @param square the index of the square.
+     * @return the x coordinate of a square.
+     */
+    public static int x(int square) {
+        return 2 * (square & 3) + (((square >> 2) & 1) == 0 ? 1 : 0);
+    }
+
+    /**
+     * Returns the y coordinate of a square.
+     *
+     * @param square the index of the square.
+     * @return the y coordinate of a square.
+     */
+    public static int y(int square) {
+        return square >> 2;
+    }
+
+    /**
+     * Returns the index used for a Colour.
+     *
+     * @param colour the Colour of the player.
+     * @return the index used for a Colour.
+     */
+    public static int index(Colour colour) {
+        return colour.equals(Colour.Red) ? RED : WHITE;
+    }
+
+    /**
+     * Returns the bitboard of the squares reached by moving every
+     * square in a bitboard one step in a direction.
+     *
+     * @param bits the bitboard to be moved.
+     * @param dir the direction: 0 up-left, 1 up-right, 2 down-left
+     * or 3 down-right.
+     * @return the bitboard of the squares reached.
+     */
+    public static int shift(int bits, int dir) {
+        switch (dir) {
+            case 0: return ((bits & EVEN_ROWS) >>> 4) | ((bits & ODD_ROWS & ~FIRST_COLUMN) >>> 5);
+            case 1: return ((bits & EVEN_ROWS & ~LAST_COLUMN) >>> 3) | ((bits & ODD_ROWS) >>> 4);
+            case 2: return ((bits & EVEN_ROWS) << 4) | ((bits & ODD_ROWS & ~FIRST_COLUMN) << 3);
+            default: return ((bits & EVEN_ROWS & ~LAST_COLUMN) << 5) | ((bits & ODD_ROWS) << 4);
+        }
+    }
+
+    /**
+     * Returns true if a man of a player may move in a direction.
+     *
+     * @param side the index of the player.
+     * @param dir the direction of the Move.
+     * @return true if a man of a player may move in a direction.
+     */
+    public static boolean isForward(int side, int dir) {
+        return side == RED ? dir < 2 : dir >= 2;
+    }
+
+    /**
+     * Returns the bitboard of the row a player's men are crowned on.
+     *
+     * @param side the index of the player.
+     * @return the bitboard of the row a player's men are crowned on.
+     */
+    public static int kingsRow(int side) {
+        return side == RED ? 0x0000000F : 0xF0000000;
+    }
+
+    /**
+     * Returns the index of the square next to a square in a direction, or -1.
+     *
+     * @param square the index of the square.
+     * @param dir the direction.
+     * @return the index of the neighbouring square, or -1.
+     */
+    public static int neighbour(int square, int dir) {
+        return NEIGHBOUR[square][dir];
+    }
+
+    /**
+     * Returns the Zobrist key for a piece on a square.
+     *
+     * @param side the index of the player owning the piece.
+     * @param king true if the piece is a king.
+     * @param square the index of the square.
+     * @return the Zobrist key for a piece on a square.
+     */
+    public static long pieceKey(int side, boolean king, int square) {
+        return PIECE_KEYS[(side << 6) | (king ? 32 : 0) | square];
+    }
+
+    /**
+     * Returns the Zobrist hash of a game from its Set of Pieces. This is the
+     * same as the hash of the Position when every Piece is on a dark square;
+     * Pieces on light squares are hashed from their coordinates.
+     *
+     * @param pieces the Set of Pieces in the game.
+     * @param currentPlayer the Colour of the player to move.
+     * @return the Zobrist hash of the game.
+     */
+    public static long hashOf(Set<Piece> pieces, Colour currentPlayer) {
+        long h = currentPlayer.equals(Colour.White) ? SIDE_KEY : 0;
+        for (Piece piece : pieces) {
+            int side = index(piece.getColour());
+            int square = square(piece.getX(), piece.getY());
+            if (square >= 0) {
+                h ^= pieceKey(side, piece.isKing(), square);
+            } else {
+                long z = ((long) piece.getX() << 32) ^ (piece.getY() << 8) ^ (side << 1) ^ (piece.isKing() ? 1 : 0);
+                z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+                z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+                h ^= z ^ (z >>> 31);
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Encodes a Move as an int.
+     *
+     * @param from the index of the square the Piece moves from.
+     * @param to the index of the square the Piece moves to.
+     * @param dir the direction of the Move.
+     * @param jump true if the Move jumps over a Piece.
+     * @return the Move encoded as an int.
+     */
+    public static int encode(int from, int to, int dir, boolean jump) {
+        return from | (to << 5) | (dir << 10) | (jump ? 1 << 12 : 0);
+    }
+
+    /**
+     * Returns the index of the square an encoded Move starts on.
+     *
+     * @param move the encoded Move.
+     * @return the index of the square the Move starts on.
+     */
+    public static int from(int move) {
+        return move & 31;
+    }
+
+    /**
+     * Returns the index of the square an encoded Move ends on.
+     *
+     * @param move the encoded Move.
+     * @return the index of the square the Move ends on.
+     */
+    public static int to(int move) {
+        return (move >> 5) & 31;
+    }
+
+    /**
+     * Returns the direction of an encoded Move.
+     *
+     * @param move the encoded Move.
+     * @return the direction of the Move.
+     */
+    public static int direction(int move) {
+        return (move >> 10) & 3;
+    }
+
+    /**
+     * Returns true if an encoded Move jumps over a Piece.
+     *
+     * @param move the encoded Move.
+     * @return true if the Move jumps over a Piece.
+     */
+    public static boolean isJump(int move) {
+        return (move & (1 << 12)) != 0;
+    }
+
+    /**
+     * Returns the index of the square jumped over by an encoded Move, or -1.
+     *
+     * @param move the encoded Move.
+     * @return the index of the square jumped over, or -1.
+     */
+    public static int captured(int move) {
+        return isJump(move) ? NEIGHBOUR[from(move)][direction(move)] : -1;
+    }
+
+    /**
+     * Returns the encoded form of a Move.
+     *
+     * @param move the Move to be encoded.
+     * @return the encoded form of the Move.
+     * @throws IllegalArgumentException if the Move is not diagonal.
+     */
+    public static int encode(Move move) {
+        int x = move.piece.getX(), y = move.piece.getY();
+        int dx = (int) move.destination.getX() - x;
+        int dy = (int) move.destination.getY() - y;
+        int from = square(x, y), to = square(x + dx, y + dy);
+        if (from < 0 || to < 0 || Math.abs(dx) != Math.abs(dy) || Math.abs(dx) > 2 || dx == 0) {
+            throw new IllegalArgumentException("Not a diagonal move: " + move);
+        }
+        int dir = (dx > 0 ? 1 : 0) + (dy > 0 ? 2 : 0);
+        return encode(from, to, dir, Math.abs(dx) == 2);
+    }
+
+    /**
+     * Returns the Move from a Set of Moves that matches an encoded Move.
+     *
+     * @param move the encoded Move.
+     * @param moves the Set of Moves to search.
+     * @return the matching Move, or null if there isn't one.
+     */
+    public static Move findMove(int move, Set<Move> moves) {
+        for (Move m : moves) {
+            if (encode(m) == move) return m;
+        }
+        return null;
+    }
+
+    /**
+     * Returns a String representing an encoded Move, such as "(1, 2)-(2, 3)".
+     *
+     * @param move the encoded Move.
+     * @return a String representing the encoded Move.
+     */
+    public static String toString(int move) {
+        int from = from(move), to = to(move);
+        return "(" + x(from) + ", " + y(from) + ")" + (isJump(move) ? "x" : "-") + "(" + x(to) + ", " + y(to) + ")";
+    }
+
+    /**
+     * Returns the standard notation of an encoded Move, with the dark
+     * squares numbered from 1 at the top left, such as "21-17" or "22x15".
+     *
+     * @param move the encoded Move.
+     * @return the standard notation of the Move.
+     */
+    public static String notation(int move) {
+        return (from(move) + 1) + (isJump(move) ? "x" : "-") + (to(move) + 1);
+    }
+
+    /**
+     * Returns the encoded Move with a standard notation that can be
+     * played in this Position, or 0 if there isn't one.
+     *
+     * @param notation the standard notation of the Move.
+     * @return the encoded Move, or 0.
+     */
+    public int parseMove(String notation) {
+        int[] moves = new int[MAX_MOVES];
+        int count = generateMoves(moves, false);
+        for (int i = 0; i < count; i++) {
+            if (notation(moves[i]).equals(notation)) return moves[i];
+        }
+        return 0;
+    }
+
+    /**
+     * Generates the Moves for the player to move.
+     * If a Piece is part way through a sequence of jumps,
+     * only its further jumps are generated.
+     *
+     * @param moves the array the encoded Moves are written to,
+     * which should have room for MAX_MOVES Moves.
+     * @param jumpOnly true if only jump Moves should be generated.
+     * @return the number of Moves generated.
+     */
+    public int generateMoves(int[] moves, boolean jumpOnly) {
+        if (continuation >= 0) return addMoves(continuation, moves, 0, true);
+        int count = 0;
+        for (int bits = side == RED ? red : white; bits != 0; bits &= bits - 1) {
+            count = addMoves(Integer.numberOfTrailingZeros(bits), moves, count, jumpOnly);
+        }
+        return count;
+    }
+
+    // Adds the Moves for the Piece on a square.
+    // @param square the index of the square of the Piece.
+    // @param moves the array the encoded Moves are written to.
+    // @param count the number of Moves already in the array.
+    // @param jumpOnly true if only jump Moves should be added.
+    // @return the number of Moves in the array.
+    private int addMoves(int square, int[] moves, int count, boolean jumpOnly) {
+        boolean king = (kings & (1 << square)) != 0;
+        int occupied = red | white;
+        int opponent = side == RED ? white : red;
+        for (int dir = 0; dir < 4; dir++) {
+            if (!king && !isForward(side, dir)) continue;
+            int next = NEIGHBOUR[square][dir];
+            if (next < 0) continue;
+            if ((occupied & (1 << next)) == 0) {
+                if (!jumpOnly) moves[count++] = encode(square, next, dir, false);
+            } else if ((opponent & (1 << next)) != 0) {
+                int landing = LANDING[square][dir];
+                if (landing >= 0 && (occupied & (1 << landing)) == 0) {
+                    moves[count++] = encode(square, landing, dir, true);
+                }
+            }
+        }
+        return count;
+    }
+
+    // Returns true if the Piece on a square can jump.
+    // @param square the index of the square of the Piece.
+    // @return true if the Piece on a square can jump.
+    private boolean canJump(int square) {
+        boolean king = (kings & (1 << square)) != 0;
+        int occupied = red | white;
+        int opponent = side == RED ? white : red;
+        for (int dir = 0; dir < 4; dir++) {
+            if (!king && !isForward(side, dir)) continue;
+            int next = NEIGHBOUR[square][dir];
+            int landing = LANDING[square][dir];
+            if (next >= 0 && landing >= 0 && (opponent & (1 << next)) != 0
+                && (occupied & (1 << landing)) == 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Plays an encoded Move. The Move must be one of
+     * the Moves generated for this Position.
+     *
+     * @param move the encoded Move to be played.
+     */
+    public void makeMove(int move) {
+        if (ply == hashHistory.length) {
+            history = Arrays.copyOf(history, history.length * 2);
+            hashHistory = Arrays.copyOf(hashHistory, hashHistory.length * 2);
+        }
+        int base = ply * 5;
+        history[base] = red;
+        history[base + 1] = white;
+        history[base + 2] = kings;
+        history[base + 3] = (side << 8) | (continuation + 1);
+        history[base + 4] = score;
+        hashHistory[ply++] = hash;
+        if (accumulator != null) accumulator.push();
+
+        int from = from(move), to = to(move);
+        boolean king = (kings & (1 << from)) != 0;
+        remove(from, side, king);
+        if (isJump(move)) {
+            int jumped = NEIGHBOUR[from][direction(move)];
+            remove(jumped, side ^ 1, (kings & (1 << jumped)) != 0);
+        }
+        boolean crowned = !king && (kingsRow(side) & (1 << to)) != 0;
+        put(to, side, king || crowned);
+        if (continuation >= 0) hash ^= CONTINUATION_KEYS[continuation];
+        if (isJump(move) && !crowned && canJump(to)) {
+            continuation = to;
+            hash ^= CONTINUATION_KEYS[to];
+        } else {
+            continuation = -1;
+            side ^= 1;
+            hash ^= SIDE_KEY;
+        }
+    }
+
+    /**
+     * Takes back the last Move played.
+     *
+     * @throws IllegalStateException if no Moves have been played.
+     */
+    public void unmakeMove() {
+        if (ply == 0) throw new IllegalStateException("No move to unmake.");
+        hash = hashHistory[--ply];
+        int base = ply * 5;
+        red = history[base];
+        white = history[base + 1];
+        kings = history[base + 2];
+        side = history[base + 3] >> 8;
+        continuation = (history[base + 3] & 0xFF) - 1;
+        score = history[base + 4];
+        if (accumulator != null) accumulator.pop();
+    }
+
+    // Places a piece on a square.
+    // @param square the index of the square.
+    // @param colour the index of the player owning the piece.
+    // @param king true if the piece is a king.
+    private void put(int square, int colour, boolean king) {
+        int bit = 1 << square;
+        if (colour == RED) red |= bit;
+        else white |= bit;
+        if (king) kings |= bit;
+        int index = (colour << 6) | (king ? 32 : 0) | square;
+        hash ^= PIECE_KEYS[index];
+        if (table != null) score += table[index];
+        if (accumulator != null) accumulator.add(index);
+    }
+
+    // Removes a piece from a square.
+    // @param square the index of the square.
+    // @param colour the index of the player owning the piece.
+    // @param king true if the piece is a king.
+    private void remove(int square, int colour, boolean king) {
+        int bit = ~(1 << square);
+        red &= bit;
+        white &= bit;
+        kings &= bit;
+        int index = (colour << 6) | (king ? 32 : 0) | square;
+        hash ^= PIECE_KEYS[index];
+        if (table != null) score -= table[index];
+        if (accumulator != null) accumulator.remove(index);
+    }
+
+    // Returns the Zobrist hash of the Position, computed from scratch.
+    // @return the Zobrist hash of the Position.
+    private long computeHash() {
+        long h = side == WHITE ? SIDE_KEY : 0;
+        if (continuation >= 0) h ^= CONTINUATION_KEYS[continuation];
+        for (int bits = red | white; bits != 0; bits &= bits - 1) {
+            int square = Integer.numberOfTrailingZeros(bits);
+            h ^= pieceKey((red & (1 << square)) != 0 ? RED : WHITE, (kings & (1 << square)) != 0, square);
+        }
+        return h;
+    }
+
+    /**
+     * Sets the table of values that are summed over every piece to give
+     * the incrementally updated score. The table is indexed by
+     * (colour * 64) + (king ? 32 : 0) + square.
+     *
+     * @param table the table of values, or null to stop scoring.
+     */
+    public void setScoreTable(int[] table) {
+        this.table = table;
+        score = 0;
+        if (table == null) return;
+        for (int bits = red | white; bits != 0; bits &= bits - 1) {
+            int square = Integer.numberOfTrailingZeros(bits);
+            int colour = (red & (1 << square)) != 0 ? RED : WHITE;
+            score += table[(colour << 6) | ((kings & (1 << square)) != 0 ? 32 : 0) | square];
+        }
+    }
+
+    /**
+     * Returns the table of values used for the score.
+     *
+     * @return the table of values used for the score, or null.
+     */
+    public int[] getScoreTable() {
+        return table;
+    }
+
+    /**
+     * Sets the Accumulator kept up to date as Moves are made and unmade.
+     * It is refreshed for this Position first.
+     *
+     * @param accumulator the Accumulator, or null to stop updating one.
+     */
+    public void setAccumulator(Accumulator accumulator) {
+        this.accumulator = accumulator;
+        if (accumulator != null) accumulator.refresh(this);
+    }
+
+    /**
+     * Returns the Accumulator kept up to date by this Position.
+     *
+     * @return the Accumulator, or null.
+     */
+    public Accumulator getAccumulator() {
+        return accumulator;
+    }
+
+    /**
+     * Returns the sum of the score table over every piece.
+     *
+     * @return the sum of the score table over every piece.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the bitboard of the Red pieces.
+     *
+     * @return the bitboard of the Red pieces.
+     */
+    public int getRed() {
+        return red;
+    }
+
+    /**
+     * Returns the bitboard of the White pieces.
+     *
+     * @return the bitboard of the White pieces.
+     */
+    public int getWhite() {
+        return white;
+    }
+
+    /**
+     * Returns the bitboard of the kings.
+     *
+     * @return the bitboard of the kings.
+     */
+    public int getKings() {
+        return kings;
+    }
+
+    /**
+     * Returns the index of the player to move.
+     *
+     * @return the index of the player to move.
+     */
+    public int getSide() {
+        return side;
+    }
+
+    /**
+     * Returns the Colour of the player to move.
+     *
+     * @return the Colour of the player to move.
+     */
+    public Colour getCurrentPlayer() {
+        return side == RED ? Colour.Red : Colour.White;
+    }
+
+    /**
+     * Returns the index of the square of a Piece that must continue
+     * jumping, or -1 if the turn has not started.
+     *
+     * @return the index of the square of the jumping Piece, or -1.
+     */
+    public int getContinuation() {
+        return continuation;
+    }
+
+    /**
+     * Returns the Zobrist hash of the Position.
+     *
+     * @return the Zobrist hash of the Position.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Returns the number of Moves that can be unmade.
+     *
+     * @return the number of Moves that can be unmade.
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Returns the Colour of the Piece on a square, or null if it is empty.
+     *
+     * @param square the index of the square.
+     * @return the Colour of the Piece on a square, or null.
+     */
+    public Colour colourAt(int square) {
+        if ((red & (1 << square)) != 0) return Colour.Red;
+        if ((white & (1 << square)) != 0) return Colour.White;
+        return null;
+    }
+
+    /**
+     * Returns true if the player to move has no Moves.
+     *
+     * @return true if the player to move has no Moves.
+     */
+    public boolean isGameOver() {
+        if (continuation >= 0) return false;
+        int own = side == RED ? red : white;
+        int empty = ~(red | white);
+        for (int dir = 0; dir < 4; dir++) {
+            int movers = isForward(side, dir) ? own : own & kings;
+            if ((shift(movers, dir) & empty) != 0) return false;
+        }
+        for (int bits = own; bits != 0; bits &= bits - 1) {
+            if (canJump(Integer.numberOfTrailingZeros(bits))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if this object contains the same data as the object passed in.
+     *
+     * @param obj the object to be checked for equality.
+     * @return true if this object contains the same data as the object passed in.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Position)) return false;
+        Position that = (Position) obj;
+        return red == that.red && white == that.white && kings == that.kings
+            && side == that.side && continuation == that.continuation;
+    }
+
+    /**
+     * Returns the hash code of the Position.
+     *
+     * @return the hash code of the Position.
+     */
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Returns a String representing a Position.
+     *
+     * @return a String representing a Position.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                int square = square(x, y);
+                char c = '.';
+                if (square >= 0 && (red & (1 << square)) != 0) c = 'r';
+                if (square >= 0 && (white & (1 << square)) != 0) c = 'w';
+                if (square >= 0 && (kings & (1 << square)) != 0) c = Character.toUpperCase(c);
+                builder.append(c);
+            }
+            builder.append('\n');
+        }
+        builder.append(getCurrentPlayer()).append(" to move");
+        if (continuation >= 0) builder.append(", continuing from (" + x(continuation) + ", " + y(continuation) + ")");
+        return builder.toString();
+    }
+
+}
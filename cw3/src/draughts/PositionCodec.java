@@ -0,0 +1,160 @@
+package draughts;
+
+/**
+ * A class to write Positions as FEN strings and read them back. The format
+ * follows the FEN tag of Portable Draughts Notation: the player to move,
+ * then each player's squares after a colon, with a K before each king, as
+ * in R:W1,2,K7:R21,30. Squares are numbered 1 to 32 from the top left, as in
+ * Position.notation, and the players are R and W. The parser also accepts
+ * ranges such as W1-12 and spaces between the fields. Both directions work
+ * straight on the characters, so the only objects made are the Position
+ * or the String.
+ */
+
+public class PositionCodec {
+
+    // Stops the class being made, as it only has static methods.
+    private PositionCodec() {}
+
+    /**
+     * Returns the FEN string of a Position.
+     *
+     * @param position the Position.
+     * @return the FEN string of the Position.
+     */
+    public static String toFen(Position position) {
+        StringBuilder builder = new StringBuilder(96);
+        appendFen(position.getRed(), position.getWhite(), position.getKings(), position.getSide(), builder);
+        return builder.toString();
+    }
+
+    /**
+     * Appends the FEN string of a position to a StringBuilder.
+     *
+     * @param red the bitboard of the Red pieces.
+     * @param white the bitboard of the White pieces.
+     * @param kings the bitboard of the kings.
+     * @param side the index of the player to move.
+     * @param builder the StringBuilder to append to.
+     */
+    public static void appendFen(int red, int white, int kings, int side, StringBuilder builder) {
+        builder.append(side == Position.RED ? 'R' : 'W');
+        builder.append(':').append('W');
+        appendSquares(white, kings, builder);
+        builder.append(':').append('R');
+        appendSquares(red, kings, builder);
+    }
+
+    // Appends a player's squares, separated by commas.
+    // @param pieces the bitboard of the player's pieces.
+    // @param kings the bitboard of the kings.
+    // @param builder the StringBuilder to append to.
+    private static void appendSquares(int pieces, int kings, StringBuilder builder) {
+        boolean first = true;
+        for (int bits = pieces; bits != 0; bits &= bits - 1) {
+            int square = Integer.numberOfTrailingZeros(bits);
+            if (!first) builder.append(',');
+            if ((kings & (1 << square)) != 0) builder.append('K');
+            builder.append(square + 1);
+            first = false;
+        }
+    }
+
+    /**
+     * Returns the Position described by a FEN string.
+     *
+     * @param fen the FEN string.
+     * @return the Position described by the string.
+     * @throws IllegalArgumentException if the string is not a valid FEN string.
+     */
+    public static Position parseFen(CharSequence fen) {
+        int length = fen.length();
+        int i = skipSpaces(fen, 0);
+        if (i >= length) throw invalid(fen, "it is empty");
+        int side = colour(fen, i++);
+        int[] bitboards = new int[3];
+        boolean[] seen = new boolean[2];
+        while ((i = skipSpaces(fen, i)) < length) {
+            if (fen.charAt(i++) != ':') throw invalid(fen, "expected ':' at " + (i - 1));
+            i = skipSpaces(fen, i);
+            if (i >= length) throw invalid(fen, "missing colour");
+            int colour = colour(fen, i++);
+            if (seen[colour]) throw invalid(fen, "repeated colour");
+            seen[colour] = true;
+            i = parseSquares(fen, i, colour, bitboards);
+        }
+        if ((bitboards[0] & bitboards[1]) != 0) throw invalid(fen, "a square is used twice");
+        return new Position(bitboards[Position.RED], bitboards[Position.WHITE], bitboards[2], side);
+    }
+
+    // Parses a player's list of squares into the bitboards.
+    // @param fen the FEN string.
+    // @param i the index after the colour letter.
+    // @param colour the index of the player.
+    // @param bitboards the Red, White and kings bitboards.
+    // @return the index after the list.
+    private static int parseSquares(CharSequence fen, int i, int colour, int[] bitboards) {
+        int length = fen.length();
+        while (true) {
+            i = skipSpaces(fen, i);
+            if (i >= length || fen.charAt(i) == ':') return i;
+            boolean king = fen.charAt(i) == 'K';
+            if (king) i++;
+            int start = 0, end;
+            int digits = i;
+            // Each number is checked as it is read, so a long one can't wrap round to a square.
+            while (i < length && fen.charAt(i) >= '0' && fen.charAt(i) <= '9') {
+                start = start * 10 + fen.charAt(i++) - '0';
+                if (start > Position.SQUARES) throw invalid(fen, "invalid square at " + digits);
+            }
+            if (i == digits) throw invalid(fen, "expected a square at " + i);
+            end = start;
+            if (i < length && fen.charAt(i) == '-') {
+                end = 0;
+                digits = ++i;
+                while (i < length && fen.charAt(i) >= '0' && fen.charAt(i) <= '9') {
+                    end = end * 10 + fen.charAt(i++) - '0';
+                    if (end > Position.SQUARES) throw invalid(fen, "invalid square at " + digits);
+                }
+                if (i == digits) throw invalid(fen, "expected a square at " + i);
+            }
+            if (start < 1 || end > Position.SQUARES || start > end) throw invalid(fen, "invalid square " + start);
+            for (int square = start - 1; square < end; square++) {
+                if (((bitboards[0] | bitboards[1]) & (1 << square)) != 0) throw invalid(fen, "a square is used twice");
+                bitboards[colour] |= 1 << square;
+                if (king) bitboards[2] |= 1 << square;
+            }
+            i = skipSpaces(fen, i);
+            if (i < length && fen.charAt(i) == ',') i++;
+        }
+    }
+
+    // Returns the index of a player from a colour letter.
+    // @param fen the FEN string.
+    // @param i the index of the letter.
+    // @return the index of the player.
+    private static int colour(CharSequence fen, int i) {
+        char c = fen.charAt(i);
+        if (c == 'R' || c == 'r') return Position.RED;
+        if (c == 'W' || c == 'w') return Position.WHITE;
+        throw invalid(fen, "expected R or W at " + i);
+    }
+
+    // Returns the index of the first character from an index that isn't a space.
+    // @param fen the FEN string.
+    // @param i the index to start from.
+    // @return the index of the first character that isn't a space.
+    private static int skipSpaces(CharSequence fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') i++;
+        return i;
+    }
+
+    // Returns the exception thrown for an invalid FEN string.
+    // @param fen the FEN string.
+    // @param reason why the string is invalid.
+    // @return the exception.
+    private static IllegalArgumentException invalid(CharSequence fen, String reason) {
+        return new IllegalArgumentException("Invalid FEN \"" + fen + "\": " + reason + ".");
+    }
+
+}
@@ -0,0 +1,185 @@
+package draughts;
+
+/**
+ * A class to represent a position as a fixed-width key, made of its three
+ * bitboards and the player to move, that can be used in a map or stored in
+ * an index. Two keys are equal exactly when their positions are, unlike the
+ * Zobrist hash. As bytes a key is always BYTES long.
+ */
+
+public final class PositionKey {
+
+    /**
+     * The number of bytes in a key.
+     */
+    public static final int BYTES = 13;
+
+    private final int red;
+    private final int white;
+    private final int kings;
+    private final int side;
+
+    /**
+     * Constructs a new PositionKey object.
+     *
+     * @param red the bitboard of the Red pieces.
+     * @param white the bitboard of the White pieces.
+     * @param kings the bitboard of the kings.
+     * @param side the index of the player to move.
+     * @throws IllegalArgumentException if the side is not RED or WHITE.
+     */
+    public PositionKey(int red, int white, int kings, int side) {
+        if (side != Position.RED && side != Position.WHITE) throw new IllegalArgumentException("Invalid side " + side + ".");
+        this.red = red;
+        this.white = white;
+        this.kings = kings;
+        this.side = side;
+    }
+
+    /**
+     * Returns the key of a Position.
+     *
+     * @param position the Position.
+     * @return the key of the Position.
+     */
+    public static PositionKey of(Position position) {
+        return new PositionKey(position.getRed(), position.getWhite(), position.getKings(), position.getSide());
+    }
+
+    /**
+     * Returns the key read from BYTES bytes of an array.
+     *
+     * @param bytes the array of bytes.
+     * @param offset the index of the first byte.
+     * @return the key read from the bytes.
+     * @throws IllegalArgumentException if the side byte is invalid.
+     */
+    public static PositionKey fromBytes(byte[] bytes, int offset) {
+        return new PositionKey(readInt(bytes, offset), readInt(bytes, offset + 4),
+                               readInt(bytes, offset + 8), bytes[offset + 12]);
+    }
+
+    // Returns the big-endian int at an index of an array of bytes.
+    // @param bytes the array of bytes.
+    // @param offset the index of the first byte.
+    // @return the int.
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+             | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+    /**
+     * Writes the key as BYTES bytes into an array.
+     *
+     * @param bytes the array of bytes.
+     * @param offset the index of the first byte.
+     */
+    public void toBytes(byte[] bytes, int offset) {
+        writeInt(red, bytes, offset);
+        writeInt(white, bytes, offset + 4);
+        writeInt(kings, bytes, offset + 8);
+        bytes[offset + 12] = (byte) side;
+    }
+
+    /**
+     * Returns the key as an array of BYTES bytes.
+     *
+     * @return the key as an array of bytes.
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[BYTES];
+        toBytes(bytes, 0);
+        return bytes;
+    }
+
+    // Writes an int as four big-endian bytes.
+    // @param value the int.
+    // @param bytes the array of bytes.
+    // @param offset the index of the first byte.
+    private static void writeInt(int value, byte[] bytes, int offset) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Returns a new Position for this key.
+     *
+     * @return a new Position for this key.
+     * @throws IllegalArgumentException if the bitboards overlap.
+     */
+    public Position toPosition() {
+        return new Position(red, white, kings, side);
+    }
+
+    /**
+     * Returns the bitboard of the Red pieces.
+     *
+     * @return the bitboard of the Red pieces.
+     */
+    public int getRed() {
+        return red;
+    }
+
+    /**
+     * Returns the bitboard of the White pieces.
+     *
+     * @return the bitboard of the White pieces.
+     */
+    public int getWhite() {
+        return white;
+    }
+
+    /**
+     * Returns the bitboard of the kings.
+     *
+     * @return the bitboard of the kings.
+     */
+    public int getKings() {
+        return kings;
+    }
+
+    /**
+     * Returns the index of the player to move.
+     *
+     * @return the index of the player to move.
+     */
+    public int getSide() {
+        return side;
+    }
+
+    /**
+     * Returns true if this object is a key for the same position.
+     *
+     * @param obj the object to be checked for equality.
+     * @return true if the object is a key for the same position.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof PositionKey)) return false;
+        PositionKey that = (PositionKey) obj;
+        return red == that.red && white == that.white && kings == that.kings && side == that.side;
+    }
+
+    /**
+     * Returns a hash code for the key, mixing every bit of the position.
+     *
+     * @return a hash code for the key.
+     */
+    @Override
+    public int hashCode() {
+        long h = ((long) red << 32) ^ (white & 0xFFFFFFFFL);
+        h = (h ^ (h >>> 31)) * 0x9E3779B97F4A7C15L + kings * 31 + side;
+        h = (h ^ (h >>> 29)) * 0xBF58476D1CE4E5B9L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(96);
+        PositionCodec.appendFen(red, white, kings, side, builder);
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,70 @@
+package draughts;
+
+/**
+ * An interface to describe the rules of a variant of draughts. Every
+ * variant is played by the same bitboard move generator in VariantPosition,
+ * which reads the board from the BoardGeometry and the differences between
+ * the variants from these methods.
+ */
+
+public interface RulesVariant {
+
+    /**
+     * Returns the name of the variant.
+     *
+     * @return the name of the variant.
+     */
+    public String getName();
+
+    /**
+     * Returns the shape of the board.
+     *
+     * @return the BoardGeometry of the board.
+     */
+    public BoardGeometry getGeometry();
+
+    /**
+     * Returns the number of rows of men each player starts with.
+     *
+     * @return the number of rows of men each player starts with.
+     */
+    public int getRowsOfMen();
+
+    /**
+     * Returns true if a player who can capture must capture.
+     *
+     * @return true if capturing is mandatory.
+     */
+    public boolean isCaptureMandatory();
+
+    /**
+     * Returns true if a player must make the capture that takes the most pieces.
+     *
+     * @return true if the majority capture rule is used.
+     */
+    public boolean hasMajorityCapture();
+
+    /**
+     * Returns true if kings can move and capture any distance along a diagonal.
+     *
+     * @return true if kings are flying kings.
+     */
+    public boolean hasFlyingKings();
+
+    /**
+     * Returns true if men can capture backwards as well as forwards.
+     *
+     * @return true if men can capture backwards.
+     */
+    public boolean canMenCaptureBackwards();
+
+    /**
+     * Returns true if a man that reaches the far row part way through
+     * a capture is crowned and stops capturing. Otherwise it only
+     * becomes a king if the capture ends on the far row.
+     *
+     * @return true if being crowned ends a capture.
+     */
+    public boolean doesCrowningEndCapture();
+
+}
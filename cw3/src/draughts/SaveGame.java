@@ -60,6 +60,9 @@ public class SaveGame {
      * @param pieces the Set of Pieces in the game.
      */
     public static void saveGame(String gameName, Colour currentPlayer, Set<Piece> pieces) {
+        long started = System.nanoTime();
+        SaveGameEvent event = new SaveGameEvent();
+        event.begin();
         createDir();
         try {
             File file = new File(SaveGame.SAVE_DIR + "/" + gameName + SaveGame.FILE_EXT);
@@ -71,6 +74,13 @@ public class SaveGame {
             PrintWriter printWriter = new PrintWriter(file);
             printWriter.write(game);
             printWriter.close();
+            Metrics.SAVE_TIME.record(System.nanoTime() - started);
+            if (event.shouldCommit()) {
+                event.game = gameName;
+                event.bytes = file.length();
+                event.positionHash = Position.hashOf(pieces, currentPlayer);
+                event.commit();
+            }
         } catch (IOException e) {
             System.err.println("Error writing save game.");
             e.printStackTrace();
@@ -120,6 +130,9 @@ public class SaveGame {
      * @return a SaveGame object containing the data for a saved game.
      */
     public static SaveGame loadGame(String gameName) {
+        long started = System.nanoTime();
+        SaveGameEvent event = new SaveGameEvent();
+        event.begin();
         createDir();
         try {
             File gameFile = new File(SaveGame.SAVE_DIR + "/" + gameName + SaveGame.FILE_EXT);
@@ -133,6 +146,14 @@ public class SaveGame {
                 }
             }
             scanner.close();
+            Metrics.LOAD_TIME.record(System.nanoTime() - started);
+            if (event.shouldCommit()) {
+                event.game = gameName;
+                event.load = true;
+                event.bytes = gameFile.length();
+                if (currentPlayer != null) event.positionHash = Position.hashOf(pieces, currentPlayer);
+                event.commit();
+            }
             return new SaveGame(currentPlayer, pieces);
         } catch (Exception e) {
             System.err.println("Error loading game.");
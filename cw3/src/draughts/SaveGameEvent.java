@@ -0,0 +1,33 @@
+package draughts;
+
+import jdk.jfr.*;
+
+/**
+ * A Flight Recorder event for saving or loading a game with SaveGame. It is
+ * on by default and can be turned off in the JFR settings as
+ * draughts.SaveGame.
+ */
+
+@Name("draughts.SaveGame")
+@Label("Save Game")
+@Category("Draughts")
+@Description("A game saved to or loaded from a file")
+@StackTrace(false)
+class SaveGameEvent extends Event {
+
+    @Label("Game")
+    String game;
+
+    @Label("Load")
+    @Description("True if the game was loaded, false if it was saved")
+    boolean load;
+
+    @Label("Bytes")
+    @DataAmount
+    @Description("The number of bytes written or read")
+    long bytes;
+
+    @Label("Position Hash")
+    long positionHash;
+
+}
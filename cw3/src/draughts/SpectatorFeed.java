@@ -0,0 +1,564 @@
+package draughts;
+
+import java.util.*;
+
+/**
+ * A class to broadcast a game to any number of spectators. Each turn is
+ * published once, as a Delta naming the squares the Piece moved from and
+ * to, the squares it captured and whether it was crowned, into a ring
+ * shared by every spectator. A spectator joins with a Snapshot of the
+ * board and then reads the Deltas that follow it, so nothing is copied or
+ * encoded for each spectator. Only one thread, the one playing the game,
+ * publishes; any number of threads can read.
+ */
+
+public class SpectatorFeed implements GameListener {
+
+    private final DraughtsModel model;
+    private final BoardGeometry geometry;
+    private final Delta[] ring;
+    private final int mask;
+    // The board after every Delta published so far, and the number published.
+    private volatile Snapshot current;
+    private volatile long published;
+
+    // The turn being played, built up from its events.
+    private int from = -1;
+    private int to;
+    private long captured;
+    private boolean promotion;
+
+    /**
+     * Constructs a new SpectatorFeed object that broadcasts a game from its
+     * current position. The SpectatorFeed is added as a listener to the game.
+     *
+     * @param model the game to broadcast.
+     * @param capacity the number of Deltas kept for spectators to read,
+     * rounded up to a power of two.
+     * @throws IllegalArgumentException if capacity is not positive.
+     */
+    public SpectatorFeed(DraughtsModel model, int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("The capacity must be positive.");
+        this.model = model;
+        this.geometry = model.getGeometry();
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        ring = new Delta[size];
+        mask = size - 1;
+        current = Snapshot.of(geometry, model.getCurrentPlayer(), model.getPieces(), model.getTurn(), 0);
+        model.addGameListener(this);
+    }
+
+    /**
+     * Builds up the Delta of the turn being played, and publishes
+     * it when the turn ends.
+     *
+     * @param event the GameEvent that has happened.
+     */
+    public void gameEvent(GameEvent event) {
+        switch (event.getType()) {
+            case MovePlayed:
+                if (from < 0) from = geometry.square(event.getX(), event.getY());
+                to = geometry.square(event.getToX(), event.getToY());
+                break;
+            case PieceCaptured:
+                captured |= 1L << geometry.square(event.getX(), event.getY());
+                break;
+            case Promotion:
+                promotion = true;
+                break;
+            case TurnChanged:
+                if (from >= 0) publish(new Delta(published, from, to, captured, promotion, null));
+                else publish(new Delta(published, -1, -1, 0, false, current.pass()));
+                clearTurn();
+                break;
+            case TakenBack:
+                // The model has already gone back, so the board is read from it.
+                clearTurn();
+                Snapshot board = Snapshot.of(geometry, model.getCurrentPlayer(), model.getPieces(), event.getTurn(), published + 1);
+                publish(new Delta(published, -1, -1, 0, false, board));
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Forgets the turn being played.
+    private void clearTurn() {
+        from = -1;
+        captured = 0;
+        promotion = false;
+    }
+
+    // Puts a Delta in the ring and makes it visible to spectators.
+    // @param delta the Delta to publish.
+    private void publish(Delta delta) {
+        ring[(int) (delta.getSequence() & mask)] = delta;
+        current = current.after(delta);
+        published = delta.getSequence() + 1;
+    }
+
+    /**
+     * Returns a new Spectator, starting from the board as it is now.
+     *
+     * @return the Spectator.
+     */
+    public Spectator join() {
+        return new Spectator();
+    }
+
+    /**
+     * Returns the number of Deltas published.
+     *
+     * @return the number of Deltas published.
+     */
+    public long getPublished() {
+        return published;
+    }
+
+    /**
+     * Returns the board after every Delta published so far.
+     *
+     * @return the current Snapshot.
+     */
+    public Snapshot getSnapshot() {
+        return current;
+    }
+
+    /**
+     * Returns the number of Deltas kept for spectators to read.
+     *
+     * @return the capacity of the ring.
+     */
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /**
+     * A class to read the Deltas of a SpectatorFeed. Each Spectator has its
+     * own place in the ring and should be read by one thread at a time.
+     */
+    public class Spectator {
+
+        private Snapshot snapshot;
+        private long next;
+        private boolean lost;
+
+        // Constructs a new Spectator object, starting from the current board.
+        private Spectator() {
+            resync();
+        }
+
+        /**
+         * Returns the Snapshot the Spectator started from. The Deltas returned
+         * by next() follow on from it.
+         *
+         * @return the Snapshot the Spectator started from.
+         */
+        public Snapshot getSnapshot() {
+            return snapshot;
+        }
+
+        /**
+         * Starts again from a Snapshot of the board as it is now, such as after
+         * falling too far behind.
+         *
+         * @return the new Snapshot.
+         */
+        public Snapshot resync() {
+            snapshot = current;
+            next = snapshot.getSequence();
+            lost = false;
+            return snapshot;
+        }
+
+        /**
+         * Returns the next Delta, without waiting.
+         *
+         * @return the next Delta, or null if there isn't one yet or the
+         * Spectator has fallen so far behind that it has been overwritten.
+         */
+        public Delta next() {
+            if (lost || next >= published) return null;
+            Delta delta = ring[(int) (next & mask)];
+            if (delta == null || delta.getSequence() != next) {
+                lost = true;
+                return null;
+            }
+            next++;
+            return delta;
+        }
+
+        /**
+         * Returns true if Deltas were overwritten before they could be read.
+         * The Spectator must resync to carry on.
+         *
+         * @return true if the Spectator has fallen too far behind.
+         */
+        public boolean isLost() {
+            return lost;
+        }
+
+        /**
+         * Returns the number of Deltas published but not yet read.
+         *
+         * @return the number of Deltas waiting.
+         */
+        public long getBacklog() {
+            return published - next;
+        }
+
+    }
+
+    /**
+     * A class to represent one turn of a game. A Delta either moves a
+     * Piece, removing the Pieces it captured, or replaces the whole board,
+     * such as when turns are taken back.
+     */
+    public static final class Delta {
+
+        private static final int RESET = 0xFF;
+
+        private final long sequence;
+        private final int from;
+        private final int to;
+        private final long captured;
+        private final boolean promotion;
+        private final Snapshot reset;
+        private final byte[] bytes;
+
+        // Constructs a new Delta object.
+        // @param sequence the number of Deltas published before it.
+        // @param from the square the Piece moved from, or -1.
+        // @param to the square the Piece moved to, or -1.
+        // @param captured the bitboard of the captured squares.
+        // @param promotion true if the Piece was crowned.
+        // @param reset the board that replaces the board, or null.
+        private Delta(long sequence, int from, int to, long captured, boolean promotion, Snapshot reset) {
+            this.sequence = sequence;
+            this.from = from;
+            this.to = to;
+            this.captured = captured;
+            this.promotion = promotion;
+            this.reset = reset;
+            this.bytes = encode();
+        }
+
+        // Returns the bytes of the Delta: the squares moved from and to, a byte
+        // that is 1 for a promotion, the number of captures and each captured
+        // square. A board that replaces the board is 0xFF followed by its bytes.
+        // @return the bytes of the Delta.
+        private byte[] encode() {
+            if (reset != null) {
+                byte[] board = reset.toBytes();
+                byte[] encoded = new byte[board.length + 1];
+                encoded[0] = (byte) RESET;
+                System.arraycopy(board, 0, encoded, 1, board.length);
+                return encoded;
+            }
+            byte[] encoded = new byte[4 + Long.bitCount(captured)];
+            encoded[0] = (byte) from;
+            encoded[1] = (byte) to;
+            encoded[2] = (byte) (promotion ? 1 : 0);
+            encoded[3] = (byte) Long.bitCount(captured);
+            int i = 4;
+            for (long bits = captured; bits != 0; bits &= bits - 1) encoded[i++] = (byte) Long.numberOfTrailingZeros(bits);
+            return encoded;
+        }
+
+        /**
+         * Returns a Delta read from the bytes written by toBytes().
+         *
+         * @param bytes the bytes of the Delta.
+         * @param sequence the number of Deltas before it.
+         * @param geometry the BoardGeometry of the board.
+         * @return the Delta.
+         * @throws IllegalArgumentException if the bytes are not a Delta.
+         */
+        public static Delta fromBytes(byte[] bytes, long sequence, BoardGeometry geometry) {
+            if (bytes.length >= 1 && (bytes[0] & 0xFF) == RESET) {
+                return new Delta(sequence, -1, -1, 0, false, Snapshot.fromBytes(bytes, 1, sequence + 1, geometry));
+            }
+            if (bytes.length < 4 || bytes.length != 4 + bytes[3]) throw new IllegalArgumentException("Invalid delta.");
+            long captured = 0;
+            for (int i = 4; i < bytes.length; i++) captured |= 1L << bytes[i];
+            return new Delta(sequence, bytes[0], bytes[1], captured, bytes[2] != 0, null);
+        }
+
+        /**
+         * Returns the number of Deltas published before this one.
+         *
+         * @return the sequence number of the Delta.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Returns the square the Piece moved from.
+         *
+         * @return the index of the square, or -1 if the Delta replaces the board.
+         */
+        public int getFrom() {
+            return from;
+        }
+
+        /**
+         * Returns the square the Piece moved to.
+         *
+         * @return the index of the square, or -1 if the Delta replaces the board.
+         */
+        public int getTo() {
+            return to;
+        }
+
+        /**
+         * Returns the squares of the Pieces that were captured.
+         *
+         * @return the bitboard of the captured squares.
+         */
+        public long getCaptured() {
+            return captured;
+        }
+
+        /**
+         * Returns true if the Piece was crowned.
+         *
+         * @return true if the Piece was crowned.
+         */
+        public boolean isPromotion() {
+            return promotion;
+        }
+
+        /**
+         * Returns the board that replaces the board, such as when turns
+         * are taken back.
+         *
+         * @return the new board, or null if the Delta moves a Piece.
+         */
+        public Snapshot getReset() {
+            return reset;
+        }
+
+        /**
+         * Returns the bytes of the Delta. They are encoded once, when the
+         * Delta is published, and must not be changed.
+         *
+         * @return the bytes of the Delta.
+         */
+        public byte[] toBytes() {
+            return bytes;
+        }
+
+    }
+
+    /**
+     * A class to represent the board of a broadcast game, as bitboards
+     * indexed by the squares of its BoardGeometry.
+     */
+    public static final class Snapshot {
+
+        private final BoardGeometry geometry;
+        private final long red;
+        private final long white;
+        private final long kings;
+        private final Colour player;
+        private final int turn;
+        private final long sequence;
+
+        // Constructs a new Snapshot object.
+        // @param geometry the BoardGeometry of the board.
+        // @param red the bitboard of the Red Pieces.
+        // @param white the bitboard of the White Pieces.
+        // @param kings the bitboard of the kings.
+        // @param player the Colour of the player to move.
+        // @param turn the number of turns played.
+        // @param sequence the number of Deltas applied.
+        private Snapshot(BoardGeometry geometry, long red, long white, long kings, Colour player, int turn, long sequence) {
+            this.geometry = geometry;
+            this.red = red;
+            this.white = white;
+            this.kings = kings;
+            this.player = player;
+            this.turn = turn;
+            this.sequence = sequence;
+        }
+
+        // Returns the Snapshot of a set of Pieces.
+        // @param geometry the BoardGeometry of the board.
+        // @param player the Colour of the player to move.
+        // @param pieces the Pieces on the board.
+        // @param turn the number of turns played.
+        // @param sequence the number of Deltas applied.
+        // @return the Snapshot.
+        private static Snapshot of(BoardGeometry geometry, Colour player, Set<Piece> pieces, int turn, long sequence) {
+            long red = 0, white = 0, kings = 0;
+            for (Piece piece : pieces) {
+                int square = geometry.square(piece.getX(), piece.getY());
+                if (square < 0) throw new IllegalArgumentException("Piece is not on a dark square: " + piece);
+                if (piece.getColour().equals(Colour.Red)) red |= 1L << square;
+                else white |= 1L << square;
+                if (piece.isKing()) kings |= 1L << square;
+            }
+            return new Snapshot(geometry, red, white, kings, player, turn, sequence);
+        }
+
+        // Returns a Snapshot read from bytes written by toBytes().
+        // @param bytes the bytes.
+        // @param offset the index of the first byte.
+        // @param sequence the number of Deltas applied.
+        // @param geometry the BoardGeometry of the board.
+        // @return the Snapshot.
+        private static Snapshot fromBytes(byte[] bytes, int offset, long sequence, BoardGeometry geometry) {
+            if (bytes.length != offset + 29) throw new IllegalArgumentException("Invalid snapshot.");
+            long red = readLong(bytes, offset);
+            long white = readLong(bytes, offset + 8);
+            long kings = readLong(bytes, offset + 16);
+            Colour player = bytes[offset + 24] == 0 ? Colour.Red : Colour.White;
+            int turn = 0;
+            for (int i = 25; i < 29; i++) turn = (turn << 8) | (bytes[offset + i] & 0xFF);
+            return new Snapshot(geometry, red, white, kings, player, turn, sequence);
+        }
+
+        // Returns eight bytes read as a long, most significant first.
+        // @param bytes the bytes.
+        // @param offset the index of the first byte.
+        // @return the long.
+        private static long readLong(byte[] bytes, int offset) {
+            long value = 0;
+            for (int i = 0; i < 8; i++) value = (value << 8) | (bytes[offset + i] & 0xFF);
+            return value;
+        }
+
+        // Writes a long as eight bytes, most significant first.
+        // @param value the long.
+        // @param bytes the bytes.
+        // @param offset the index of the first byte.
+        private static void writeLong(long value, byte[] bytes, int offset) {
+            for (int i = 7; i >= 0; i--, value >>>= 8) bytes[offset + i] = (byte) value;
+        }
+
+        /**
+         * Returns the bytes of the Snapshot: the Red, White and king
+         * bitboards, the player to move and the number of turns played.
+         *
+         * @return the 29 bytes of the Snapshot.
+         */
+        public byte[] toBytes() {
+            byte[] bytes = new byte[29];
+            writeLong(red, bytes, 0);
+            writeLong(white, bytes, 8);
+            writeLong(kings, bytes, 16);
+            bytes[24] = (byte) (player.equals(Colour.Red) ? 0 : 1);
+            for (int i = 28, t = turn; i >= 25; i--, t >>>= 8) bytes[i] = (byte) t;
+            return bytes;
+        }
+
+        /**
+         * Returns the board after a Delta.
+         *
+         * @param delta the Delta that follows this Snapshot.
+         * @return the new Snapshot.
+         * @throws IllegalArgumentException if the Delta does not follow this Snapshot.
+         */
+        public Snapshot after(Delta delta) {
+            if (delta.getSequence() != sequence) throw new IllegalArgumentException("Delta " + delta.getSequence() + " does not follow " + sequence + ".");
+            if (delta.getReset() != null) return delta.getReset();
+            long fromBit = 1L << delta.getFrom(), toBit = 1L << delta.getTo();
+            long keep = ~delta.getCaptured();
+            long r = red & keep, w = white & keep, k = kings & keep;
+            boolean king = (k & fromBit) != 0 || delta.isPromotion();
+            if ((r & fromBit) != 0) r = (r & ~fromBit) | toBit;
+            else w = (w & ~fromBit) | toBit;
+            k &= ~fromBit;
+            if (king) k |= toBit;
+            return new Snapshot(geometry, r, w, k, opponent(player), turn + 1, sequence + 1);
+        }
+
+        // Returns this Snapshot after a turn in which no Move was made.
+        // @return the new Snapshot.
+        private Snapshot pass() {
+            return new Snapshot(geometry, red, white, kings, opponent(player), turn + 1, sequence + 1);
+        }
+
+        // Returns the other player.
+        // @param colour the Colour of a player.
+        // @return the Colour of the other player.
+        private static Colour opponent(Colour colour) {
+            return colour.equals(Colour.Red) ? Colour.White : Colour.Red;
+        }
+
+        /**
+         * Returns a new Set of the Pieces on the board.
+         *
+         * @return the Set of Pieces.
+         */
+        public Set<Piece> toPieces() {
+            Set<Piece> pieces = new HashSet<Piece>();
+            for (long bits = red | white; bits != 0; bits &= bits - 1) {
+                int square = Long.numberOfTrailingZeros(bits);
+                Piece piece = new Piece((red >>> square & 1) != 0 ? Colour.Red : Colour.White, geometry.x(square), geometry.y(square));
+                piece.setKing((kings >>> square & 1) != 0);
+                pieces.add(piece);
+            }
+            return pieces;
+        }
+
+        /**
+         * Returns the bitboard of the Red Pieces.
+         *
+         * @return the bitboard of the Red Pieces.
+         */
+        public long getRed() {
+            return red;
+        }
+
+        /**
+         * Returns the bitboard of the White Pieces.
+         *
+         * @return the bitboard of the White Pieces.
+         */
+        public long getWhite() {
+            return white;
+        }
+
+        /**
+         * Returns the bitboard of the kings.
+         *
+         * @return the bitboard of the kings.
+         */
+        public long getKings() {
+            return kings;
+        }
+
+        /**
+         * Returns the Colour of the player to move.
+         *
+         * @return the Colour of the player to move.
+         */
+        public Colour getCurrentPlayer() {
+            return player;
+        }
+
+        /**
+         * Returns the number of turns played.
+         *
+         * @return the number of turns played.
+         */
+        public int getTurn() {
+            return turn;
+        }
+
+        /**
+         * Returns the number of Deltas applied to reach this board. The
+         * next Delta to apply has this sequence number.
+         *
+         * @return the number of Deltas applied.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+    }
+
+}
@@ -0,0 +1,38 @@
+package draughts;
+
+import jdk.jfr.*;
+
+/**
+ * A Flight Recorder event for a turn of DraughtsModel, from asking the
+ * player for a Move to the next player's turn. It is on by default and can
+ * be turned off in the JFR settings as draughts.Turn.
+ */
+
+@Name("draughts.Turn")
+@Label("Turn")
+@Category("Draughts")
+@Description("A turn of the game, including the time the player took to choose")
+@StackTrace(false)
+class TurnEvent extends Event {
+
+    @Label("Turn")
+    int turn;
+
+    @Label("Player")
+    String player;
+
+    @Label("Position Hash")
+    @Description("The Zobrist hash of the position the turn was played from")
+    long positionHash;
+
+    @Label("Valid Moves")
+    int moves;
+
+    @Label("Pieces Captured")
+    int captured;
+
+    @Label("Taken Back")
+    @Description("Whether the turn was abandoned by going back to an earlier turn")
+    boolean takenBack;
+
+}
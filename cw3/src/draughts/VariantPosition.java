@@ -0,0 +1,375 @@
+package draughts;
+
+import java.util.*;
+
+/**
+ * A class to represent a position in any RulesVariant using 64-bit
+ * bitboards, indexed as in the variant's BoardGeometry. Moves are whole
+ * turns, so a sequence of captures is one move. Long-range king moves and
+ * captures are found from the geometry's precomputed rays: the pieces on a
+ * ray are masked out of it, and the nearest one is found from the highest
+ * or lowest set bit, so no move steps across the board square by square.
+ * Captured pieces stay on the board until the move is finished, so they
+ * block the capturing piece and can't be captured twice.
+ */
+
+public class VariantPosition {
+
+    /**
+     * The index used for the Red player, who starts at the bottom of the board.
+     */
+    public static final int RED = 0;
+
+    /**
+     * The index used for the White player, who starts at the top of the board.
+     */
+    public static final int WHITE = 1;
+
+    private final RulesVariant rules;
+    private final BoardGeometry geometry;
+    private long red;
+    private long white;
+    private long kings;
+    private int side;
+
+    // The state before each move that has been made, so it can be unmade.
+    private long[] history = new long[3 * 64];
+    private int[] sideHistory = new int[64];
+    private int ply;
+
+    // The state of the capture search while generating moves.
+    private MoveList found;
+    private long enemy;
+
+    /**
+     * Constructs a new VariantPosition object.
+     *
+     * @param rules the RulesVariant being played.
+     * @param red the bitboard of the Red pieces.
+     * @param white the bitboard of the White pieces.
+     * @param kings the bitboard of the pieces that are kings.
+     * @param side the index of the player to move.
+     * @throws IllegalArgumentException if the bitboards overlap or
+     * are off the board.
+     */
+    public VariantPosition(RulesVariant rules, long red, long white, long kings, int side) {
+        long board = rules.getGeometry().all();
+        if ((red & white) != 0 || (kings & ~(red | white)) != 0 || ((red | white) & ~board) != 0) {
+            throw new IllegalArgumentException("Invalid bitboards.");
+        }
+        if (side != RED && side != WHITE) throw new IllegalArgumentException("Invalid side " + side + ".");
+        this.rules = rules;
+        this.geometry = rules.getGeometry();
+        this.red = red;
+        this.white = white;
+        this.kings = kings;
+        this.side = side;
+    }
+
+    /**
+     * Returns the VariantPosition at the start of a game, with Red to move.
+     *
+     * @param rules the RulesVariant being played.
+     * @return the VariantPosition at the start of a game.
+     */
+    public static VariantPosition initial(RulesVariant rules) {
+        BoardGeometry geometry = rules.getGeometry();
+        long white = 0, red = 0;
+        for (int row = 0; row < rules.getRowsOfMen(); row++) {
+            white |= geometry.row(row);
+            red |= geometry.row(geometry.getSize() - 1 - row);
+        }
+        return new VariantPosition(rules, red, white, 0, RED);
+    }
+
+    /**
+     * Returns the VariantPosition of a game from its Set of Pieces.
+     *
+     * @param rules the RulesVariant being played.
+     * @param pieces the Set of Pieces in the game.
+     * @param currentPlayer the Colour of the player to move.
+     * @return the VariantPosition of the game.
+     * @throws IllegalArgumentException if a Piece is not on a dark square.
+     */
+    public static VariantPosition of(RulesVariant rules, Set<Piece> pieces, Colour currentPlayer) {
+        BoardGeometry geometry = rules.getGeometry();
+        long red = 0, white = 0, kings = 0;
+        for (Piece piece : pieces) {
+            int square = geometry.square(piece.getX(), piece.getY());
+            if (square < 0) throw new IllegalArgumentException("Piece is not on a dark square: " + piece);
+            if (piece.getColour().equals(Colour.Red)) red |= 1L << square;
+            else white |= 1L << square;
+            if (piece.isKing()) kings |= 1L << square;
+        }
+        return new VariantPosition(rules, red, white, kings, currentPlayer.equals(Colour.Red) ? RED : WHITE);
+    }
+
+    /**
+     * Returns the Set of Pieces in this VariantPosition.
+     *
+     * @return the Set of Pieces in this VariantPosition.
+     */
+    public Set<Piece> toPieces() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        for (long bits = red | white; bits != 0; bits &= bits - 1) {
+            int square = Long.numberOfTrailingZeros(bits);
+            Colour colour = (red & (1L << square)) != 0 ? Colour.Red : Colour.White;
+            Piece piece = new Piece(colour, geometry.x(square), geometry.y(square));
+            piece.setKing((kings & (1L << square)) != 0);
+            pieces.add(piece);
+        }
+        return pieces;
+    }
+
+    /**
+     * Generates the moves for the player to move. Captures are generated
+     * whole, and if the variant makes capturing mandatory no other moves
+     * are generated when there is a capture.
+     *
+     * @param moves the MoveList the moves are written to, which is cleared first.
+     * @return the number of moves generated.
+     */
+    public int generateMoves(MoveList moves) {
+        moves.clear();
+        long own = side == RED ? red : white;
+        long occupied = red | white;
+        found = moves;
+        enemy = side == RED ? white : red;
+        for (long bits = own; bits != 0; bits &= bits - 1) {
+            int square = Long.numberOfTrailingZeros(bits);
+            long rest = occupied & ~(1L << square);
+            boolean king = (kings & (1L << square)) != 0;
+            if (king && rules.hasFlyingKings()) flyingCaptures(square, square, 0, rest);
+            else stepCaptures(square, square, 0, rest, king);
+        }
+        if (moves.size() > 0) {
+            if (rules.hasMajorityCapture()) moves.keepMajority();
+            if (rules.isCaptureMandatory()) return moves.size();
+        }
+        long empty = geometry.all() & ~occupied;
+        for (long bits = own; bits != 0; bits &= bits - 1) {
+            int square = Long.numberOfTrailingZeros(bits);
+            boolean king = (kings & (1L << square)) != 0;
+            for (int dir = 0; dir < 4; dir++) {
+                if (!king && !isForward(dir)) continue;
+                if (king && rules.hasFlyingKings()) {
+                    for (long reach = reach(square, dir, occupied); reach != 0; reach &= reach - 1) {
+                        moves.add(square, Long.numberOfTrailingZeros(reach), 0);
+                    }
+                } else {
+                    int next = geometry.neighbour(square, dir);
+                    if (next >= 0 && (empty & (1L << next)) != 0) moves.add(square, next, 0);
+                }
+            }
+        }
+        return moves.size();
+    }
+
+    // Returns the empty squares along a ray up to the first occupied square.
+    // @param square the square the ray starts from.
+    // @param dir the direction of the ray.
+    // @param occupied the bitboard of the occupied squares.
+    // @return the bitboard of the empty squares reached.
+    private long reach(int square, int dir, long occupied) {
+        long ray = geometry.ray(square, dir);
+        long blockers = ray & occupied;
+        if (blockers == 0) return ray;
+        int nearest = BoardGeometry.nearest(blockers, dir);
+        return ray & ~geometry.ray(nearest, dir) & ~(1L << nearest);
+    }
+
+    // Adds the captures of a man, or of a king that moves one square,
+    // continuing from a square after capturing some pieces.
+    // @param origin the square the move started from.
+    // @param square the square the piece is on now.
+    // @param captured the bitboard of the pieces captured so far.
+    // @param occupied the bitboard of the occupied squares, without the moving piece.
+    // @param king true if the piece is a king.
+    private void stepCaptures(int origin, int square, long captured, long occupied, boolean king) {
+        boolean more = false;
+        for (int dir = 0; dir < 4; dir++) {
+            if (!king && !isForward(dir) && !rules.canMenCaptureBackwards()) continue;
+            int over = geometry.neighbour(square, dir);
+            if (over < 0 || (enemy & ~captured & (1L << over)) == 0) continue;
+            int landing = geometry.neighbour(over, dir);
+            if (landing < 0 || (occupied & (1L << landing)) != 0) continue;
+            more = true;
+            long taken = captured | (1L << over);
+            if (!king && rules.doesCrowningEndCapture() && (kingsRow() & (1L << landing)) != 0) {
+                found.add(origin, landing, taken);
+            } else {
+                stepCaptures(origin, landing, taken, occupied, king);
+            }
+        }
+        if (!more && captured != 0) found.add(origin, square, captured);
+    }
+
+    // Adds the captures of a flying king, continuing from a square
+    // after capturing some pieces. The king can land on any empty square
+    // beyond the piece it captures.
+    // @param origin the square the move started from.
+    // @param square the square the king is on now.
+    // @param captured the bitboard of the pieces captured so far.
+    // @param occupied the bitboard of the occupied squares, without the moving king.
+    private void flyingCaptures(int origin, int square, long captured, long occupied) {
+        boolean more = false;
+        for (int dir = 0; dir < 4; dir++) {
+            long blockers = geometry.ray(square, dir) & occupied;
+            if (blockers == 0) continue;
+            int over = BoardGeometry.nearest(blockers, dir);
+            if ((enemy & ~captured & (1L << over)) == 0) continue;
+            long landings = reach(over, dir, occupied);
+            if (landings == 0) continue;
+            more = true;
+            long taken = captured | (1L << over);
+            for (; landings != 0; landings &= landings - 1) {
+                flyingCaptures(origin, Long.numberOfTrailingZeros(landings), taken, occupied);
+            }
+        }
+        if (!more && captured != 0) found.add(origin, square, captured);
+    }
+
+    // Returns true if a direction is forwards for the player to move.
+    // @param dir the direction.
+    // @return true if the direction is forwards.
+    private boolean isForward(int dir) {
+        return side == RED ? dir < 2 : dir >= 2;
+    }
+
+    // Returns the bitboard of the row where the player to move is crowned.
+    // @return the bitboard of the row where the player to move is crowned.
+    private long kingsRow() {
+        return side == RED ? geometry.row(0) : geometry.row(geometry.getSize() - 1);
+    }
+
+    /**
+     * Plays a move from a MoveList.
+     *
+     * @param moves the MoveList generated for this VariantPosition.
+     * @param i the index of the move.
+     */
+    public void makeMove(MoveList moves, int i) {
+        makeMove(moves.getFrom(i), moves.getTo(i), moves.getCaptured(i));
+    }
+
+    /**
+     * Plays a move, which must be legal, so it can be unmade later.
+     *
+     * @param from the square the move starts from.
+     * @param to the square the move ends on.
+     * @param captured the bitboard of the pieces captured.
+     */
+    public void makeMove(int from, int to, long captured) {
+        if (ply == sideHistory.length) {
+            history = Arrays.copyOf(history, history.length * 2);
+            sideHistory = Arrays.copyOf(sideHistory, sideHistory.length * 2);
+        }
+        history[3 * ply] = red;
+        history[3 * ply + 1] = white;
+        history[3 * ply + 2] = kings;
+        sideHistory[ply++] = side;
+
+        long move = (1L << from) | (1L << to);
+        boolean king = (kings & (1L << from)) != 0;
+        if (side == RED) {
+            red ^= move;
+            white &= ~captured;
+        } else {
+            white ^= move;
+            red &= ~captured;
+        }
+        kings &= ~captured & ~(1L << from);
+        if (king || (kingsRow() & (1L << to)) != 0) kings |= 1L << to;
+        side = 1 - side;
+    }
+
+    /**
+     * Unmakes the last move that was made.
+     *
+     * @throws IllegalStateException if no move has been made.
+     */
+    public void unmakeMove() {
+        if (ply == 0) throw new IllegalStateException("No move to unmake.");
+        ply--;
+        red = history[3 * ply];
+        white = history[3 * ply + 1];
+        kings = history[3 * ply + 2];
+        side = sideHistory[ply];
+    }
+
+    /**
+     * Returns the number of positions reached after a number of moves,
+     * which is used to check move generators against known counts.
+     *
+     * @param depth the number of moves.
+     * @return the number of positions reached.
+     */
+    public long perft(int depth) {
+        if (depth == 0) return 1;
+        MoveList moves = new MoveList();
+        int count = generateMoves(moves);
+        if (depth == 1) return count;
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            makeMove(moves, i);
+            total += perft(depth - 1);
+            unmakeMove();
+        }
+        return total;
+    }
+
+    /**
+     * Returns true if the player to move has no moves.
+     *
+     * @return true if the game is over.
+     */
+    public boolean isGameOver() {
+        return generateMoves(new MoveList()) == 0;
+    }
+
+    /**
+     * Returns the RulesVariant being played.
+     *
+     * @return the RulesVariant being played.
+     */
+    public RulesVariant getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns the bitboard of the Red pieces.
+     *
+     * @return the bitboard of the Red pieces.
+     */
+    public long getRed() {
+        return red;
+    }
+
+    /**
+     * Returns the bitboard of the White pieces.
+     *
+     * @return the bitboard of the White pieces.
+     */
+    public long getWhite() {
+        return white;
+    }
+
+    /**
+     * Returns the bitboard of the pieces that are kings.
+     *
+     * @return the bitboard of the kings.
+     */
+    public long getKings() {
+        return kings;
+    }
+
+    /**
+     * Returns the index of the player to move.
+     *
+     * @return RED or WHITE.
+     */
+    public int getSide() {
+        return side;
+    }
+
+}
@@ -0,0 +1,207 @@
+package engine;
+
+import draughts.*;
+
+import java.util.concurrent.*;
+
+/**
+ * A Player that chooses its Moves with an alpha-beta Search.
+ * In ponder mode it keeps searching on the opponent's time: after each
+ * Move it predicts the opponent's reply from the principal variation and
+ * searches the Position after it in the background. If the opponent plays
+ * the predicted reply the background search becomes the search for the
+ * next Move; if not it is stopped, but its results stay in the table.
+ */
+
+public class AlphaBetaPlayer extends EnginePlayer {
+
+    private final Search search;
+    private final long moveTime;
+    private final int maxDepth;
+    private final ExecutorService ponderer;
+    private volatile boolean ponder;
+
+    private Future<?> ponderTask;
+    private Position ponderPosition;
+    private long ponderStart;
+    private int ponderHits;
+    private int ponderMisses;
+
+    /**
+     * Constructs a new AlphaBetaPlayer object.
+     *
+     * @param moveTime the time to search for each Move in an untimed game, in milliseconds.
+     * @param maxDepth the maximum depth to search to.
+     */
+    public AlphaBetaPlayer(long moveTime, int maxDepth) {
+        this(new Search(NeuralEvaluator.defaultEvaluator(), new TranspositionTable(20)), moveTime, maxDepth);
+    }
+
+    /**
+     * Constructs a new AlphaBetaPlayer object.
+     *
+     * @param search the Search used to choose Moves.
+     * @param moveTime the time to search for each Move in an untimed game, in milliseconds.
+     * @param maxDepth the maximum depth to search to.
+     */
+    public AlphaBetaPlayer(Search search, long moveTime, int maxDepth) {
+        this.search = search;
+        this.moveTime = moveTime;
+        this.maxDepth = maxDepth;
+        search.setTimeManager(getTimeManager());
+        this.ponderer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ponder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sets whether the Player searches on the opponent's time.
+     *
+     * @param ponder true if the Player should search on the opponent's time.
+     */
+    public void setPonder(boolean ponder) {
+        this.ponder = ponder;
+        if (!ponder) stopPondering();
+    }
+
+    /**
+     * Returns true if the Player searches on the opponent's time.
+     *
+     * @return true if the Player searches on the opponent's time.
+     */
+    public boolean isPondering() {
+        return ponder;
+    }
+
+    /**
+     * Sets the game this Player is playing in, stopping
+     * any search of the previous game.
+     *
+     * @param model the game this Player is playing in.
+     */
+    @Override
+    public void setModel(DraughtsModel model) {
+        stopPondering();
+        super.setModel(model);
+    }
+
+    /**
+     * Returns the Search used to choose Moves.
+     *
+     * @return the Search used to choose Moves.
+     */
+    public Search getSearch() {
+        return search;
+    }
+
+    /**
+     * Returns the number of times the opponent played the predicted reply.
+     *
+     * @return the number of ponder hits.
+     */
+    public int getPonderHits() {
+        return ponderHits;
+    }
+
+    /**
+     * Returns the number of times the opponent didn't play the predicted reply.
+     *
+     * @return the number of ponder misses.
+     */
+    public int getPonderMisses() {
+        return ponderMisses;
+    }
+
+    /**
+     * Stops the background search and its thread.
+     */
+    public void shutdown() {
+        stopPondering();
+        ponderer.shutdownNow();
+    }
+
+    /**
+     * Returns the encoded Move chosen by the Search, using the background
+     * search if the opponent played the predicted reply.
+     *
+     * @param position the Position to choose a Move for.
+     * @return the encoded Move chosen by the Search.
+     */
+    @Override
+    protected int chooseMove(Position position) {
+        int move;
+        if (ponderTask != null && position.equals(ponderPosition)) {
+            ponderHits++;
+            // Without a clock the time spent pondering counts towards this Move,
+            // and with one the TimeManager starts timing the Move now.
+            if (getModel().getClock() == null) search.setDeadline(ponderStart + moveTime * 1000000L);
+            else search.setDeadline(deadline(position, moveTime));
+            waitForPonder();
+            move = search.getBestMove();
+        } else {
+            if (ponderTask != null) ponderMisses++;
+            stopPondering();
+            move = search.search(position, maxDepth, deadline(position, moveTime));
+        }
+        if (ponder) startPondering(position, move);
+        return move;
+    }
+
+    // Starts searching the Position expected after the opponent's reply.
+    // @param position the Position a Move was chosen for.
+    // @param move the encoded Move chosen.
+    private void startPondering(Position position, int move) {
+        Position predicted = new Position(position);
+        int side = predicted.getSide();
+        predicted.makeMove(move);
+        if (predicted.getSide() == side) return;
+        int[] line = search.principalVariation(predicted, Search.MAX_PLY);
+        int i = 0;
+        while (predicted.getSide() != side) {
+            if (i == line.length) return;
+            predicted.makeMove(line[i++]);
+        }
+        if (predicted.isGameOver()) return;
+        final Position target = new Position(predicted);
+        ponderPosition = new Position(predicted);
+        ponderStart = System.nanoTime();
+        getTimeManager().reset();
+        search.prepare(Long.MAX_VALUE);
+        ponderTask = ponderer.submit(() -> search.run(target, maxDepth));
+    }
+
+    /**
+     * Stops the background search, keeping its results in the table.
+     */
+    @Override
+    public void stop() {
+        stopPondering();
+    }
+
+    // Stops the background search and waits for it to finish.
+    private void stopPondering() {
+        if (ponderTask != null) {
+            search.stop();
+            waitForPonder();
+        }
+    }
+
+    // Waits for the background search to finish.
+    private void waitForPonder() {
+        try {
+            ponderTask.get();
+        } catch (InterruptedException e) {
+            search.stop();
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Error whilst pondering. " + e.getCause());
+        } catch (CancellationException e) {
+            // The ponder thread was shut down before the search started.
+        }
+        ponderTask = null;
+        ponderPosition = null;
+    }
+
+}
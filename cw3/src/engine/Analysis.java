@@ -0,0 +1,159 @@
+package engine;
+
+import draughts.*;
+
+import java.util.*;
+
+/**
+ * A class to analyse a Position, finding the best few Moves with their
+ * scores and principal variations. The Analysis runs on its own thread
+ * and reports each depth to an AnalysisListener as soon as it completes.
+ */
+
+public class Analysis {
+
+    private final Search search;
+    private Thread thread;
+    private volatile List<AnalysisLine> lines = Collections.emptyList();
+
+    /**
+     * Constructs a new Analysis object.
+     *
+     * @param evaluator the Evaluator used by the search.
+     * @param table the TranspositionTable used by the search.
+     */
+    public Analysis(Evaluator evaluator, TranspositionTable table) {
+        this.search = new Search(evaluator, table);
+    }
+
+    /**
+     * Starts analysing the current Position of a game, carrying on
+     * any multiple jump the player to move is in the middle of.
+     *
+     * @param model the game to analyse.
+     * @param count the number of lines to find.
+     * @param maxDepth the maximum depth to search to.
+     * @param millis the longest time to search for, in milliseconds.
+     * @param listener the AnalysisListener to receive the results.
+     * @throws IllegalArgumentException if the number of lines is less than 1,
+     * or the game is played by a RulesVariant, which a Position can't hold.
+     */
+    public void start(DraughtsModel model, int count, int maxDepth, long millis, AnalysisListener listener) {
+        start(Position.of(model), count, maxDepth, millis, listener);
+    }
+
+    /**
+     * Starts analysing a Position on a new thread, stopping
+     * any Analysis that is already running.
+     *
+     * @param position the Position to analyse, which is not changed.
+     * @param count the number of lines to find.
+     * @param maxDepth the maximum depth to search to.
+     * @param millis the longest time to search for, in milliseconds.
+     * @param listener the AnalysisListener to receive the results.
+     * @throws IllegalArgumentException if the number of lines is less than 1.
+     */
+    public void start(Position position, final int count, final int maxDepth, long millis, final AnalysisListener listener) {
+        if (count < 1) throw new IllegalArgumentException("At least one line must be analysed");
+        stop();
+        final Position root = new Position(position);
+        search.prepare(System.nanoTime() + millis * 1000000L);
+        lines = Collections.emptyList();
+        thread = new Thread(() -> run(root, count, maxDepth, listener), "analysis");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Returns the best lines for a Position, waiting for the Analysis to finish.
+     *
+     * @param position the Position to analyse, which is not changed.
+     * @param count the number of lines to find.
+     * @param maxDepth the maximum depth to search to.
+     * @param millis the longest time to search for, in milliseconds.
+     * @param listener the AnalysisListener to receive the results, or null.
+     * @return the best lines, best first.
+     * @throws IllegalArgumentException if the number of lines is less than 1.
+     */
+    public List<AnalysisLine> analyse(Position position, int count, int maxDepth, long millis, AnalysisListener listener) {
+        start(position, count, maxDepth, millis, listener);
+        await();
+        return lines;
+    }
+
+    /**
+     * Stops the Analysis and waits for its thread to finish.
+     */
+    public void stop() {
+        if (thread != null) {
+            search.stop();
+            await();
+        }
+    }
+
+    /**
+     * Waits for the Analysis to finish.
+     */
+    public void await() {
+        Thread running = thread;
+        if (running == null) return;
+        try {
+            running.join();
+        } catch (InterruptedException e) {
+            search.stop();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the best lines from the deepest depth completed so far.
+     *
+     * @return the best lines, best first.
+     */
+    public List<AnalysisLine> getLines() {
+        return lines;
+    }
+
+    // Searches deeper until the maximum depth, the deadline or a stop,
+    // publishing the lines after each depth.
+    // @param position the Position to analyse.
+    // @param count the number of lines to find.
+    // @param maxDepth the maximum depth to search to.
+    // @param listener the AnalysisListener to receive the results, or null.
+    private void run(Position position, int count, int maxDepth, AnalysisListener listener) {
+        int[] moves = new int[Position.MAX_MOVES];
+        int[] scores = new int[Position.MAX_MOVES];
+        int moveCount = position.generateMoves(moves, false);
+        count = Math.min(count, moveCount);
+        maxDepth = Math.min(maxDepth, Search.MAX_PLY - 1);
+        for (int depth = 1; depth <= maxDepth && moveCount > 0; depth++) {
+            if (!search.scoreMoves(position, depth, moves, scores, moveCount, count)) break;
+            List<AnalysisLine> found = new ArrayList<AnalysisLine>(count);
+            for (int i = 0; i < count; i++) {
+                Position child = new Position(position);
+                child.makeMove(moves[i]);
+                int[] rest = search.principalVariation(child, depth + 8);
+                int[] variation = new int[rest.length + 1];
+                variation[0] = moves[i];
+                System.arraycopy(rest, 0, variation, 1, rest.length);
+                found.add(new AnalysisLine(moves[i], scores[i], depth, variation));
+            }
+            lines = Collections.unmodifiableList(found);
+            if (listener != null) listener.depthCompleted(depth, lines, search.getNodes());
+            if (allDecided(scores, count)) break;
+        }
+        if (listener != null) listener.analysisFinished(lines);
+    }
+
+    // Returns true if every line has been searched to a win or a loss.
+    // @param scores the scores of the lines.
+    // @param count the number of lines.
+    // @return true if every line has been searched to a win or a loss.
+    private static boolean allDecided(int[] scores, int count) {
+        for (int i = 0; i < count; i++) {
+            if (Math.abs(scores[i]) < Search.WIN - Search.MAX_PLY) return false;
+        }
+        return true;
+    }
+
+}
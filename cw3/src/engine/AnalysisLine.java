@@ -0,0 +1,82 @@
+package engine;
+
+import draughts.*;
+
+/**
+ * A class to represent one line of an analysis: a Move, its score and the
+ * principal variation that follows it.
+ */
+
+public class AnalysisLine {
+
+    private final int move;
+    private final int score;
+    private final int depth;
+    private final int[] variation;
+
+    /**
+     * Constructs a new AnalysisLine object.
+     *
+     * @param move the encoded Move.
+     * @param score the score of the Move for the player to move.
+     * @param depth the depth the Move was searched to.
+     * @param variation the encoded Moves of the principal variation,
+     * starting with the Move.
+     */
+    public AnalysisLine(int move, int score, int depth, int[] variation) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.variation = variation.clone();
+    }
+
+    /**
+     * Returns the encoded Move.
+     *
+     * @return the encoded Move.
+     */
+    public int getMove() {
+        return move;
+    }
+
+    /**
+     * Returns the score of the Move for the player to move.
+     *
+     * @return the score of the Move for the player to move.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the depth the Move was searched to.
+     *
+     * @return the depth the Move was searched to.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the encoded Moves of the principal variation, starting with the Move.
+     *
+     * @return the encoded Moves of the principal variation.
+     */
+    public int[] getVariation() {
+        return variation.clone();
+    }
+
+    /**
+     * Returns a String representing an AnalysisLine.
+     *
+     * @return a String representing an AnalysisLine.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("depth ").append(depth).append(" score ").append(score).append(" pv");
+        for (int m : variation) builder.append(' ').append(Position.toString(m));
+        return builder.toString();
+    }
+
+}
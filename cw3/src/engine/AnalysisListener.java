@@ -0,0 +1,28 @@
+package engine;
+
+import java.util.*;
+
+/**
+ * An interface to receive the results of an Analysis or a Search as it
+ * runs. The methods are called on the thread doing the searching.
+ */
+
+public interface AnalysisListener {
+
+    /**
+     * Called each time the Analysis completes a depth.
+     *
+     * @param depth the depth that was completed.
+     * @param lines the best lines found, best first.
+     * @param nodes the number of nodes searched so far.
+     */
+    public void depthCompleted(int depth, List<AnalysisLine> lines, long nodes);
+
+    /**
+     * Called once when the Analysis stops.
+     *
+     * @param lines the best lines from the deepest completed depth, best first.
+     */
+    public void analysisFinished(List<AnalysisLine> lines);
+
+}
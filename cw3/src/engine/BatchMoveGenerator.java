@@ -0,0 +1,214 @@
+package engine;
+
+import draughts.*;
+
+import java.util.*;
+
+/**
+ * A class to find the Moves of many Positions at once. The Positions are
+ * given as separate arrays of bitboards, and for each direction the squares
+ * that a step or a jump in that direction can reach are computed for every
+ * Position in one loop. The loops have no branches and only use int arrays,
+ * so the JIT can run them on several Positions in each vector instruction.
+ * Jumps that continue from a square are not included; those Positions should
+ * be generated one at a time with Position.generateMoves.
+ */
+
+public class BatchMoveGenerator {
+
+    // The masks of the rows and columns of the board, as in Position.
+    private static final int EVEN_ROWS = 0x0F0F0F0F;
+    private static final int ODD_ROWS = 0xF0F0F0F0;
+    private static final int FIRST_COLUMN = 0x11111111;
+    private static final int LAST_COLUMN = 0x88888888;
+
+    private final int capacity;
+    private final int[][] steps = new int[4][];
+    private final int[][] jumps = new int[4][];
+    private int size;
+
+    /**
+     * Constructs a new BatchMoveGenerator object.
+     *
+     * @param capacity the largest number of Positions in a batch.
+     */
+    public BatchMoveGenerator(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Invalid capacity " + capacity + ".");
+        this.capacity = capacity;
+        for (int dir = 0; dir < 4; dir++) {
+            steps[dir] = new int[capacity];
+            jumps[dir] = new int[capacity];
+        }
+    }
+
+    /**
+     * Computes the squares reached by steps and jumps in each direction
+     * for a batch of Positions.
+     *
+     * @param red the bitboards of the Red pieces.
+     * @param white the bitboards of the White pieces.
+     * @param kings the bitboards of the kings.
+     * @param sides the index of the player to move in each Position.
+     * @param count the number of Positions in the batch.
+     * @throws IllegalArgumentException if the batch is larger than the capacity.
+     */
+    public void generate(int[] red, int[] white, int[] kings, int[] sides, int count) {
+        if (count > capacity) throw new IllegalArgumentException("Batch of " + count + " is too large.");
+        size = count;
+        int[] step0 = steps[0], step1 = steps[1], step2 = steps[2], step3 = steps[3];
+        int[] jump0 = jumps[0], jump1 = jumps[1], jump2 = jumps[2], jump3 = jumps[3];
+        for (int i = 0; i < count; i++) {
+            // whiteMask is all ones when White is to move.
+            int whiteMask = -sides[i];
+            int own = (red[i] & ~whiteMask) | (white[i] & whiteMask);
+            int opponent = (white[i] & ~whiteMask) | (red[i] & whiteMask);
+            int empty = ~(red[i] | white[i]);
+            int up = own & (~whiteMask | kings[i]);
+            int down = own & (whiteMask | kings[i]);
+
+            int next = ((up & EVEN_ROWS) >>> 4) | ((up & ODD_ROWS & ~FIRST_COLUMN) >>> 5);
+            step0[i] = next & empty;
+            next &= opponent;
+            jump0[i] = (((next & EVEN_ROWS) >>> 4) | ((next & ODD_ROWS & ~FIRST_COLUMN) >>> 5)) & empty;
+
+            next = ((up & EVEN_ROWS & ~LAST_COLUMN) >>> 3) | ((up & ODD_ROWS) >>> 4);
+            step1[i] = next & empty;
+            next &= opponent;
+            jump1[i] = (((next & EVEN_ROWS & ~LAST_COLUMN) >>> 3) | ((next & ODD_ROWS) >>> 4)) & empty;
+
+            next = ((down & EVEN_ROWS) << 4) | ((down & ODD_ROWS & ~FIRST_COLUMN) << 3);
+            step2[i] = next & empty;
+            next &= opponent;
+            jump2[i] = (((next & EVEN_ROWS) << 4) | ((next & ODD_ROWS & ~FIRST_COLUMN) << 3)) & empty;
+
+            next = ((down & EVEN_ROWS & ~LAST_COLUMN) << 5) | ((down & ODD_ROWS) << 4);
+            step3[i] = next & empty;
+            next &= opponent;
+            jump3[i] = (((next & EVEN_ROWS & ~LAST_COLUMN) << 5) | ((next & ODD_ROWS) << 4)) & empty;
+        }
+    }
+
+    /**
+     * Returns the number of Positions in the last batch.
+     *
+     * @return the number of Positions in the last batch.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the squares reached by a step in a direction, for each
+     * Position in the last batch.
+     *
+     * @param dir the direction: 0 up-left, 1 up-right, 2 down-left
+     * or 3 down-right.
+     * @return the array of bitboards of the squares reached.
+     */
+    public int[] getSteps(int dir) {
+        return steps[dir];
+    }
+
+    /**
+     * Returns the squares reached by a jump in a direction, for each
+     * Position in the last batch.
+     *
+     * @param dir the direction: 0 up-left, 1 up-right, 2 down-left
+     * or 3 down-right.
+     * @return the array of bitboards of the squares reached.
+     */
+    public int[] getJumps(int dir) {
+        return jumps[dir];
+    }
+
+    /**
+     * Returns the number of Moves in a Position of the last batch.
+     *
+     * @param i the index of the Position in the batch.
+     * @return the number of Moves.
+     */
+    public int countMoves(int i) {
+        int count = 0;
+        for (int dir = 0; dir < 4; dir++) count += Integer.bitCount(steps[dir][i]) + Integer.bitCount(jumps[dir][i]);
+        return count;
+    }
+
+    /**
+     * Writes the encoded Moves of a Position of the last batch to an array,
+     * in the same form as Position.generateMoves.
+     *
+     * @param i the index of the Position in the batch.
+     * @param moves the array the encoded Moves are written to.
+     * @return the number of Moves written.
+     */
+    public int getMoves(int i, int[] moves) {
+        int count = 0;
+        for (int dir = 0; dir < 4; dir++) {
+            int back = dir ^ 3;
+            for (int bits = steps[dir][i]; bits != 0; bits &= bits - 1) {
+                int to = Integer.numberOfTrailingZeros(bits);
+                int from = Integer.numberOfTrailingZeros(Position.shift(1 << to, back));
+                moves[count++] = Position.encode(from, to, dir, false);
+            }
+            for (int bits = jumps[dir][i]; bits != 0; bits &= bits - 1) {
+                int to = Integer.numberOfTrailingZeros(bits);
+                int from = Integer.numberOfTrailingZeros(Position.shift(Position.shift(1 << to, back), back));
+                moves[count++] = Position.encode(from, to, dir, true);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Compares the time taken to count the Moves of Positions from random
+     * games in batches with the time taken by Position.generateMoves.
+     * The argument is an optional number of Positions.
+     *
+     * @param args the arguments provided by the user.
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        int[] red = new int[count], white = new int[count], kings = new int[count], sides = new int[count];
+        Position[] positions = new Position[count];
+        Random random = new Random(1);
+        int[] moves = new int[Position.MAX_MOVES];
+        for (int i = 0; i < count; i++) {
+            Position position = Position.initial();
+            int plies = random.nextInt(60);
+            for (int ply = 0; ply < plies; ply++) {
+                int n = position.generateMoves(moves, false);
+                if (n == 0 || position.getContinuation() >= 0) break;
+                position.makeMove(moves[random.nextInt(n)]);
+            }
+            if (position.getContinuation() >= 0) position = Position.initial();
+            positions[i] = new Position(position);
+            red[i] = position.getRed();
+            white[i] = position.getWhite();
+            kings[i] = position.getKings();
+            sides[i] = position.getSide();
+        }
+        BatchMoveGenerator generator = new BatchMoveGenerator(count);
+        long batchNanos = 0, scalarNanos = 0, batchMoves = 0, scalarMoves = 0;
+        int rounds = 200;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            batchMoves = 0;
+            for (int r = 0; r < rounds; r++) {
+                generator.generate(red, white, kings, sides, count);
+                for (int i = 0; i < count; i++) batchMoves += generator.countMoves(i);
+            }
+            batchNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            scalarMoves = 0;
+            for (int r = 0; r < rounds; r++) {
+                for (int i = 0; i < count; i++) scalarMoves += positions[i].generateMoves(moves, false);
+            }
+            scalarNanos = System.nanoTime() - start;
+        }
+        long total = (long) count * rounds;
+        System.out.println("Positions: " + count + ", Moves: " + (batchMoves / rounds) + " batched, " + (scalarMoves / rounds) + " one at a time");
+        System.out.println("Batched: " + (total * 1000000000L / Math.max(1, batchNanos)) + " positions per second");
+        System.out.println("One at a time: " + (total * 1000000000L / Math.max(1, scalarNanos)) + " positions per second");
+    }
+
+}
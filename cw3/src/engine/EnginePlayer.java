@@ -0,0 +1,118 @@
+package engine;
+
+import draughts.*;
+
+import java.util.*;
+
+/**
+ * A base class for Players that choose their Moves with a search.
+ * It turns the game into a Position, with any Piece that is part way
+ * through a sequence of jumps having to jump again, and turns the
+ * chosen encoded Move back into one of the valid Moves.
+ */
+
+public abstract class EnginePlayer implements Player {
+
+    private DraughtsModel model;
+    private final TimeManager timeManager = new TimeManager();
+
+    /**
+     * Sets the game this Player is playing in. This must be called
+     * before the game is started.
+     *
+     * @param model the game this Player is playing in.
+     * @throws IllegalArgumentException if the game is played by a
+     * RulesVariant, which the engine's Position can't hold.
+     */
+    public void setModel(DraughtsModel model) {
+        if (model != null && model.getRules() != null) {
+            throw new IllegalArgumentException("The engine can't play " + model.getRules().getName() + " rules.");
+        }
+        this.model = model;
+    }
+
+    /**
+     * Returns the game this Player is playing in.
+     *
+     * @return the game this Player is playing in.
+     */
+    public DraughtsModel getModel() {
+        return model;
+    }
+
+    /**
+     * Stops any searching the Player is doing in the background,
+     * such as when the game is over. Does nothing by default.
+     */
+    public void stop() {}
+
+    /**
+     * Returns the Move selected by the search.
+     *
+     * @param validMoves the Set of valid Moves the Player could make.
+     * @return the Move selected by the search.
+     * @throws IllegalStateException if setModel has not been called, or if
+     * the search chose a Move that is not valid in the game.
+     */
+    public Move notify(Set<Move> validMoves) {
+        if (model == null) throw new IllegalStateException("The engine has not been given a game.");
+        if (validMoves.isEmpty()) return null;
+        Position position = currentPosition();
+        int move = chooseMove(position);
+        Move chosen = Position.findMove(move, validMoves);
+        if (chosen == null) {
+            throw new IllegalStateException("The engine chose " + Position.toString(move) + ", which is not a valid Move.");
+        }
+        return chosen;
+    }
+
+    /**
+     * Returns the Position of the game for the Player to move. If the
+     * Player is in the middle of a multiple jump, the Position will
+     * require the same Piece to jump again.
+     *
+     * @return the Position of the game for the Player to move.
+     */
+    protected Position currentPosition() {
+        return Position.of(model);
+    }
+
+    /**
+     * Returns the TimeManager used when the game has a GameClock.
+     *
+     * @return the TimeManager used when the game has a GameClock.
+     */
+    public TimeManager getTimeManager() {
+        return timeManager;
+    }
+
+    /**
+     * Returns the deadline for choosing a Move. If the game has a GameClock
+     * the TimeManager allocates the time from the clock, and otherwise the
+     * fixed time per Move is used.
+     *
+     * @param position the Position to choose a Move for.
+     * @param moveTime the time per Move if the game is untimed, in milliseconds.
+     * @return the value of System.nanoTime() to stop searching at.
+     */
+    protected long deadline(Position position, long moveTime) {
+        GameClock clock = model == null ? null : model.getClock();
+        if (clock == null) {
+            timeManager.reset();
+            return System.nanoTime() + moveTime * 1000000L;
+        }
+        Colour colour = position.getCurrentPlayer();
+        return timeManager.start(position, clock.getRemaining(colour), clock.getIncrement(), clock.getMovesToGo(colour));
+    }
+
+    /**
+     * Returns the encoded Move chosen for a Position.
+     * The Position will have at least one Move.
+     *
+     * @param position the Position to choose a Move for,
+     * which may be changed by the search.
+     * @return the encoded Move chosen for the Position.
+     */
+    protected abstract int chooseMove(Position position);
+
+}
@@ -0,0 +1,436 @@
+package engine;
+
+import draughts.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A text protocol for driving the engine from another program, such as a
+ * tournament manager or a GUI, in the style of UCI. Commands are read one
+ * per line on the thread that calls run, searches run on a separate search
+ * thread, and replies are written by an output thread so that a slow reader
+ * never holds up a search. The protocol can be spoken over standard input
+ * and output, or over TCP with a separate engine for each connection.
+ * Moves use the standard notation, such as "21-17" or "22x15", and each
+ * jump of a sequence is a separate Move. The commands are:
+ *
+ * <pre>
+ * protocol                           identify the engine
+ * isready                            reply readyok
+ * newgame                            forget what was learnt from the last game
+ * setoption name Hash value &lt;bits&gt;   set the size of the transposition table
+ * position start [moves &lt;move&gt; ...]
+ * position bits &lt;red&gt; &lt;white&gt; &lt;kings&gt; red|white [moves &lt;move&gt; ...]
+ * position fen &lt;fen&gt; [moves &lt;move&gt; ...]
+ * go [ponder] [infinite] [depth &lt;n&gt;] [movetime &lt;ms&gt;] [rtime &lt;ms&gt;]
+ *    [wtime &lt;ms&gt;] [rinc &lt;ms&gt;] [winc &lt;ms&gt;] [movestogo &lt;n&gt;]
+ * stop, ponderhit, print, quit
+ * </pre>
+ */
+
+public class EngineProtocol {
+
+    /**
+     * The name the engine identifies itself with.
+     */
+    public static final String NAME = "Draughts";
+
+    /**
+     * The log base 2 of the number of entries in the transposition table.
+     */
+    public static final int DEFAULT_HASH_BITS = 20;
+
+    // Tells the output thread to finish.
+    private static final String END = new String("end");
+
+    private final BufferedReader in;
+    private final PrintWriter out;
+    private final BlockingQueue<String> output = new LinkedBlockingQueue<String>();
+    private final ExecutorService searcher;
+    private final Evaluator evaluator = NeuralEvaluator.defaultEvaluator();
+    private final AnalysisListener listener;
+    private final TimeManager timeManager = new TimeManager();
+    private Search search;
+    private Position position = Position.initial();
+    private Future<?> task;
+    private volatile long searchStart;
+
+    // The state of the current search, guarded by this.
+    private boolean waiting;
+    private boolean infinite;
+    private boolean finished;
+    private boolean reported;
+    private long moveTime;
+    private long remaining;
+    private long increment;
+    private int movesToGo;
+    private Position root;
+    private int result;
+
+    /**
+     * Constructs a new EngineProtocol object.
+     *
+     * @param in the Reader the commands are read from.
+     * @param out the Writer the replies are written to.
+     */
+    public EngineProtocol(Reader in, Writer out) {
+        this.in = new BufferedReader(in);
+        this.out = new PrintWriter(out);
+        this.search = new Search(evaluator, new TranspositionTable(DEFAULT_HASH_BITS));
+        this.searcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.listener = new AnalysisListener() {
+            @Override
+            public void depthCompleted(int depth, List<AnalysisLine> lines, long nodes) {
+                if (!lines.isEmpty()) sendInfo(lines.get(0), nodes);
+            }
+
+            @Override
+            public void analysisFinished(List<AnalysisLine> lines) {}
+        };
+        search.setListener(listener);
+        search.setTimeManager(timeManager);
+    }
+
+    /**
+     * Reads and carries out commands until quit or the end of the input,
+     * then stops any search and finishes writing the replies.
+     */
+    public void run() {
+        Thread writer = new Thread(this::write, "protocol-output");
+        writer.setDaemon(true);
+        writer.start();
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!execute(line.trim())) break;
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading commands. " + e);
+        }
+        stopSearch();
+        searcher.shutdownNow();
+        output.add(END);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Carries out a command, replying with an info string if it is wrong.
+    // @param line the command.
+    // @return false if the command was quit.
+    private boolean execute(String line) {
+        String[] words = line.split("\\s+");
+        try {
+            switch (words[0]) {
+                case "":
+                    break;
+                case "protocol":
+                    send("id name " + NAME);
+                    send("option name Hash type spin default " + DEFAULT_HASH_BITS + " min 10 max 26");
+                    send("protocolok");
+                    break;
+                case "isready":
+                    send("readyok");
+                    break;
+                case "newgame":
+                    stopSearch();
+                    search.getTable().clear();
+                    search.getMoveOrdering().clear();
+                    position = Position.initial();
+                    break;
+                case "setoption":
+                    stopSearch();
+                    setOption(words);
+                    break;
+                case "position":
+                    stopSearch();
+                    setPosition(words);
+                    break;
+                case "go":
+                    stopSearch();
+                    go(words);
+                    break;
+                case "stop":
+                    stopSearch();
+                    break;
+                case "ponderhit":
+                    ponderHit();
+                    break;
+                case "print":
+                    for (String row : position.toString().split("\n")) send("info string " + row);
+                    break;
+                case "quit":
+                    return false;
+                default:
+                    send("info string Unknown command: " + line);
+            }
+        } catch (IllegalArgumentException e) {
+            send("info string Error: " + e.getMessage());
+        }
+        return true;
+    }
+
+    // Sets an option.
+    // @param words the words of the setoption command.
+    private void setOption(String[] words) {
+        if (words.length != 5 || !words[1].equals("name") || !words[3].equals("value")) {
+            throw new IllegalArgumentException("Expected setoption name <name> value <value>.");
+        }
+        if (!words[2].equalsIgnoreCase("Hash")) throw new IllegalArgumentException("Unknown option " + words[2] + ".");
+        int bits = Integer.parseInt(words[4]);
+        if (bits < 10 || bits > 26) throw new IllegalArgumentException("Hash must be between 10 and 26.");
+        search = new Search(evaluator, new TranspositionTable(bits));
+        search.setListener(listener);
+        search.setTimeManager(timeManager);
+    }
+
+    // Sets the Position to search.
+    // @param words the words of the position command.
+    private void setPosition(String[] words) {
+        Position next;
+        int i;
+        if (words.length > 1 && words[1].equals("start")) {
+            next = Position.initial();
+            i = 2;
+        } else if (words.length > 5 && words[1].equals("bits")) {
+            int side = words[5].equals("white") ? Position.WHITE : Position.RED;
+            next = new Position((int) Long.parseLong(words[2], 16), (int) Long.parseLong(words[3], 16),
+                                (int) Long.parseLong(words[4], 16), side);
+            i = 6;
+        } else if (words.length > 2 && words[1].equals("fen")) {
+            next = PositionCodec.parseFen(words[2]);
+            i = 3;
+        } else {
+            throw new IllegalArgumentException("Expected position start, position bits or position fen.");
+        }
+        if (i < words.length) {
+            if (!words[i].equals("moves")) throw new IllegalArgumentException("Expected moves.");
+            for (i++; i < words.length; i++) {
+                int move = next.parseMove(words[i]);
+                if (move == 0) throw new IllegalArgumentException("Illegal move " + words[i] + ".");
+                next.makeMove(move);
+            }
+        }
+        position = new Position(next);
+    }
+
+    // Starts searching the Position on the search thread.
+    // @param words the words of the go command.
+    private void go(String[] words) {
+        boolean ponder = false;
+        boolean forever = false;
+        int depth = Search.MAX_PLY;
+        long fixedTime = -1;
+        long[] times = {-1, -1};
+        long[] increments = {0, 0};
+        int periodMoves = 0;
+        for (int i = 1; i < words.length; i++) {
+            switch (words[i]) {
+                case "ponder": ponder = true; break;
+                case "infinite": forever = true; break;
+                case "depth": depth = Integer.parseInt(value(words, ++i)); break;
+                case "movetime": fixedTime = Long.parseLong(value(words, ++i)); break;
+                case "rtime": times[Position.RED] = Long.parseLong(value(words, ++i)); break;
+                case "wtime": times[Position.WHITE] = Long.parseLong(value(words, ++i)); break;
+                case "rinc": increments[Position.RED] = Long.parseLong(value(words, ++i)); break;
+                case "winc": increments[Position.WHITE] = Long.parseLong(value(words, ++i)); break;
+                case "movestogo": periodMoves = Integer.parseInt(value(words, ++i)); break;
+                default: throw new IllegalArgumentException("Unknown go parameter " + words[i] + ".");
+            }
+        }
+        if (position.isGameOver()) {
+            send("bestmove none");
+            return;
+        }
+        int side = position.getSide();
+        final Position start = new Position(position);
+        final int maxDepth = depth;
+        long deadline;
+        synchronized (this) {
+            infinite = forever;
+            waiting = ponder || forever;
+            finished = false;
+            reported = false;
+            moveTime = fixedTime;
+            remaining = times[side];
+            increment = increments[side];
+            movesToGo = periodMoves;
+            root = start;
+            result = 0;
+            timeManager.reset();
+            deadline = waiting ? Long.MAX_VALUE : startClock();
+        }
+        searchStart = System.nanoTime();
+        search.prepare(deadline);
+        task = searcher.submit(() -> searchFinished(search.run(new Position(start), maxDepth)));
+    }
+
+    // Returns the value following a parameter.
+    // @param words the words of the command.
+    // @param i the index of the value.
+    // @return the value following a parameter.
+    private static String value(String[] words, int i) {
+        if (i >= words.length) throw new IllegalArgumentException("Expected a value after " + words[i - 1] + ".");
+        return words[i];
+    }
+
+    // Starts timing the Move from now, with the fixed move time if there is
+    // one and otherwise with the TimeManager if the clock was given.
+    // Must be called holding the lock.
+    // @return the deadline for the search, or Long.MAX_VALUE if there is no limit.
+    private long startClock() {
+        if (moveTime >= 0) return System.nanoTime() + moveTime * 1000000L;
+        if (remaining >= 0) return timeManager.start(root, remaining, increment, movesToGo);
+        return Long.MAX_VALUE;
+    }
+
+    // Stops the search the opponent's reply was predicted for and starts
+    // the clock for the Move, as the opponent has played it.
+    private synchronized void ponderHit() {
+        if (task == null || reported) return;
+        waiting = infinite;
+        if (finished && !waiting) reportBestMove();
+        else if (!infinite) search.setDeadline(startClock());
+    }
+
+    // Called on the search thread when the search returns.
+    // @param move the best encoded Move found.
+    private synchronized void searchFinished(int move) {
+        finished = true;
+        result = move;
+        if (!waiting) reportBestMove();
+    }
+
+    // Stops the search, if there is one, and waits for it to report its Move.
+    private void stopSearch() {
+        if (task == null) return;
+        synchronized (this) {
+            waiting = false;
+            if (finished) reportBestMove();
+        }
+        search.stop();
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Error whilst searching. " + e.getCause());
+        } catch (CancellationException e) {
+            // The search thread was shut down before the search started.
+        }
+        task = null;
+    }
+
+    // Sends the best Move, and the reply expected to it, once for each search.
+    // Must be called holding the lock.
+    private void reportBestMove() {
+        if (reported) return;
+        reported = true;
+        String line = "bestmove " + Position.notation(result);
+        Position after = new Position(root);
+        after.makeMove(result);
+        if (after.getSide() != root.getSide()) {
+            int[] reply = search.principalVariation(after, 1);
+            if (reply.length > 0) line += " ponder " + Position.notation(reply[0]);
+        }
+        send(line);
+    }
+
+    // Sends the progress of the search after a depth.
+    // @param line the best line found.
+    // @param nodes the number of nodes searched.
+    private void sendInfo(AnalysisLine line, long nodes) {
+        long millis = (System.nanoTime() - searchStart) / 1000000L;
+        StringBuilder builder = new StringBuilder("info depth ").append(line.getDepth());
+        int score = line.getScore();
+        if (score >= Search.WIN - Search.MAX_PLY) builder.append(" score win ").append(Search.WIN - score);
+        else if (score <= -Search.WIN + Search.MAX_PLY) builder.append(" score loss ").append(Search.WIN + score);
+        else builder.append(" score ").append(score);
+        builder.append(" nodes ").append(nodes).append(" time ").append(millis);
+        builder.append(" nps ").append(nodes * 1000 / Math.max(1, millis)).append(" pv");
+        for (int move : line.getVariation()) builder.append(' ').append(Position.notation(move));
+        send(builder.toString());
+    }
+
+    // Queues a line to be written by the output thread.
+    // @param line the line to be written.
+    private void send(String line) {
+        output.add(line);
+    }
+
+    // Writes the queued lines until the end is reached.
+    private void write() {
+        try {
+            while (true) {
+                String line = output.take();
+                if (line == END) break;
+                out.println(line);
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Accepts TCP connections on a port, running the protocol with
+     * a separate engine on its own thread for each connection.
+     *
+     * @param port the port to listen on.
+     * @throws IOException if the port can't be listened on.
+     */
+    public static void serve(int port) throws IOException {
+        try (ServerSocket server = new ServerSocket(port)) {
+            System.err.println("Listening on port " + server.getLocalPort() + ".");
+            for (int count = 1; ; count++) {
+                final Socket socket = server.accept();
+                new Thread(() -> session(socket), "protocol-" + count).start();
+            }
+        }
+    }
+
+    // Runs the protocol over a connection and closes it.
+    // @param socket the connection.
+    private static void session(Socket socket) {
+        try (Socket connection = socket) {
+            Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8);
+            Writer writer = new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8);
+            new EngineProtocol(reader, writer).run();
+        } catch (IOException e) {
+            System.err.println("Error in connection. " + e);
+        }
+    }
+
+    /**
+     * Runs the protocol over standard input and output, or
+     * with "tcp &lt;port&gt;" over TCP connections.
+     *
+     * @param args the command line arguments.
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            new EngineProtocol(new InputStreamReader(System.in), new OutputStreamWriter(System.out)).run();
+        } else if (args.length == 2 && args[0].equals("tcp")) {
+            try {
+                serve(Integer.parseInt(args[1]));
+            } catch (IOException | NumberFormatException e) {
+                System.err.println("Could not listen for connections. " + e);
+                System.exit(1);
+            }
+        } else {
+            System.err.println("Usage: EngineProtocol [tcp <port>]");
+            System.exit(1);
+        }
+    }
+
+}
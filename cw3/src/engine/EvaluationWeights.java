@@ -0,0 +1,197 @@
+package engine;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * A class to hold the weights of the evaluation function.
+ * Weights are read from a properties file so they can be tuned
+ * without recompiling the engine.
+ */
+
+public class EvaluationWeights {
+
+    /**
+     * The index of the weight for each man.
+     */
+    public static final int MAN = 0;
+
+    /**
+     * The index of the weight for each king.
+     */
+    public static final int KING = 1;
+
+    /**
+     * The index of the weight for each man guarding its back row.
+     */
+    public static final int BACK_RANK = 2;
+
+    /**
+     * The index of the weight for each piece in the centre of the board.
+     */
+    public static final int CENTRE = 3;
+
+    /**
+     * The index of the weight for each row a man has advanced.
+     */
+    public static final int TEMPO = 4;
+
+    /**
+     * The index of the weight for each step Move a player could make.
+     */
+    public static final int MOBILITY = 5;
+
+    /**
+     * The number of weights.
+     */
+    public static final int COUNT = 6;
+
+    /**
+     * The names of the weights in the properties file.
+     */
+    public static final String[] NAMES = {"man", "king", "backRank", "centre", "tempo", "mobility"};
+
+    /**
+     * The name of the system property that can hold the path of a weights file.
+     */
+    public static final String PROPERTY = "draughts.weights";
+
+    /**
+     * The name of the resource holding the default weights.
+     */
+    public static final String RESOURCE = "/evaluation.properties";
+
+    private static final int[] BUILT_IN = {100, 160, 12, 8, 2, 3};
+
+    private final int[] values;
+
+    /**
+     * Constructs a new EvaluationWeights object.
+     *
+     * @param values the weights, indexed by MAN, KING, BACK_RANK,
+     * CENTRE, TEMPO and MOBILITY.
+     * @throws IllegalArgumentException if there are not COUNT weights.
+     */
+    public EvaluationWeights(int[] values) {
+        if (values.length != COUNT) throw new IllegalArgumentException("Expected " + COUNT + " weights.");
+        this.values = values.clone();
+    }
+
+    /**
+     * Returns a weight.
+     *
+     * @param index the index of the weight.
+     * @return the weight.
+     */
+    public int get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns a copy of the weights as an array.
+     *
+     * @return a copy of the weights as an array.
+     */
+    public int[] toArray() {
+        return values.clone();
+    }
+
+    /**
+     * Returns the default weights. These are read from the file named by
+     * the draughts.weights system property if it is set, otherwise from
+     * the evaluation.properties resource. If neither can be read the
+     * built in weights are used.
+     *
+     * @return the default weights.
+     */
+    public static EvaluationWeights defaults() {
+        String fileName = System.getProperty(PROPERTY);
+        try {
+            if (fileName != null) return load(fileName);
+            InputStream input = EvaluationWeights.class.getResourceAsStream(RESOURCE);
+            if (input != null) {
+                try {
+                    return read(input);
+                } finally {
+                    input.close();
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error reading evaluation weights, using built in weights. " + e);
+        }
+        return new EvaluationWeights(BUILT_IN);
+    }
+
+    /**
+     * Returns the weights read from a properties file.
+     *
+     * @param fileName the path of the properties file.
+     * @return the weights read from the file.
+     * @throws IOException if the file can't be read.
+     * @throws IllegalArgumentException if a weight is not an integer.
+     */
+    public static EvaluationWeights load(String fileName) throws IOException {
+        InputStream input = new FileInputStream(fileName);
+        try {
+            return read(input);
+        } finally {
+            input.close();
+        }
+    }
+
+    // Returns the weights read from a stream of properties. Missing
+    // weights take their built in values.
+    // @param input the stream to read.
+    // @return the weights read from the stream.
+    private static EvaluationWeights read(InputStream input) throws IOException {
+        Properties properties = new Properties();
+        properties.load(input);
+        int[] values = BUILT_IN.clone();
+        for (int i = 0; i < COUNT; i++) {
+            String value = properties.getProperty(NAMES[i]);
+            if (value != null) {
+                try {
+                    values[i] = Integer.parseInt(value.trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Weight " + NAMES[i] + " is not an integer: " + value);
+                }
+            }
+        }
+        return new EvaluationWeights(values);
+    }
+
+    /**
+     * Saves the weights to a properties file.
+     *
+     * @param fileName the path of the properties file.
+     * @param comment the comment written at the top of the file.
+     * @throws IOException if the file can't be written.
+     */
+    public void save(String fileName, String comment) throws IOException {
+        PrintWriter printWriter = new PrintWriter(new FileWriter(fileName));
+        try {
+            if (comment != null) printWriter.println("# " + comment);
+            for (int i = 0; i < COUNT; i++) {
+                printWriter.println(NAMES[i] + "=" + values[i]);
+            }
+        } finally {
+            printWriter.close();
+        }
+    }
+
+    /**
+     * Returns a String representing the weights.
+     *
+     * @return a String representing the weights.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < COUNT; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(NAMES[i]).append('=').append(values[i]);
+        }
+        return builder.append(']').toString();
+    }
+
+}
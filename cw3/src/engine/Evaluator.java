@@ -0,0 +1,163 @@
+package engine;
+
+import draughts.*;
+
+/**
+ * A class to evaluate Positions for the engine.
+ * Every term except mobility is a sum over the pieces, so it is kept up to
+ * date by Position.makeMove through a table of per-piece values rather than
+ * being recomputed at every leaf. Scores are in hundredths of a man.
+ */
+
+public class Evaluator {
+
+    // The squares in the middle of the board.
+    private static final int CENTRE;
+    // The rows of the board, top to bottom.
+    private static final int[] ROWS = new int[8];
+
+    static {
+        int centre = 0;
+        for (int square = 0; square < Position.SQUARES; square++) {
+            int x = Position.x(square), y = Position.y(square);
+            if (x >= 2 && x <= 5 && y >= 2 && y <= 5) centre |= 1 << square;
+            ROWS[y] |= 1 << square;
+        }
+        CENTRE = centre;
+    }
+
+    private final EvaluationWeights weights;
+    private final int[] table = new int[128];
+    private final int mobility;
+
+    /**
+     * Constructs a new Evaluator object using the default weights.
+     */
+    public Evaluator() {
+        this(EvaluationWeights.defaults());
+    }
+
+    /**
+     * Constructs a new Evaluator object.
+     *
+     * @param weights the weights of the evaluation function.
+     */
+    public Evaluator(EvaluationWeights weights) {
+        this.weights = weights;
+        mobility = weights.get(EvaluationWeights.MOBILITY);
+        for (int side = Position.RED; side <= Position.WHITE; side++) {
+            int sign = side == Position.RED ? 1 : -1;
+            int backRow = Position.kingsRow(side ^ 1);
+            for (int square = 0; square < Position.SQUARES; square++) {
+                int bit = 1 << square;
+                int centre = (CENTRE & bit) != 0 ? weights.get(EvaluationWeights.CENTRE) : 0;
+                int advanced = side == Position.RED ? 7 - Position.y(square) : Position.y(square);
+                int man = weights.get(EvaluationWeights.MAN) + centre
+                        + advanced * weights.get(EvaluationWeights.TEMPO)
+                        + ((backRow & bit) != 0 ? weights.get(EvaluationWeights.BACK_RANK) : 0);
+                int king = weights.get(EvaluationWeights.KING) + centre;
+                table[(side << 6) | square] = sign * man;
+                table[(side << 6) | 32 | square] = sign * king;
+            }
+        }
+    }
+
+    /**
+     * Returns the weights of the evaluation function.
+     *
+     * @return the weights of the evaluation function.
+     */
+    public EvaluationWeights getWeights() {
+        return weights;
+    }
+
+    /**
+     * Makes a Position keep its score up to date for this Evaluator.
+     * This should be called once before a Position is searched.
+     *
+     * @param position the Position to be evaluated.
+     */
+    public void attach(Position position) {
+        if (position.getScoreTable() != table) position.setScoreTable(table);
+    }
+
+    /**
+     * Returns the score of a Position for the player to move.
+     * If the Position was not attached to this Evaluator
+     * its score is computed from scratch.
+     *
+     * @param position the Position to be evaluated.
+     * @return the score of the Position for the player to move.
+     */
+    public int evaluate(Position position) {
+        int red = position.getRed(), white = position.getWhite(), kings = position.getKings();
+        int score;
+        if (position.getScoreTable() == table) {
+            score = position.getScore() + mobility * (mobility(red, red | white, kings, Position.RED)
+                                                    - mobility(white, red | white, kings, Position.WHITE));
+        } else {
+            score = evaluate(red, white, kings);
+        }
+        return position.getSide() == Position.RED ? score : -score;
+    }
+
+    /**
+     * Returns the score of a position for the Red player, computed
+     * from its features.
+     *
+     * @param red the bitboard of the Red pieces.
+     * @param white the bitboard of the White pieces.
+     * @param kings the bitboard of the kings.
+     * @return the score of the position for the Red player.
+     */
+    public int evaluate(int red, int white, int kings) {
+        int[] features = new int[EvaluationWeights.COUNT];
+        features(red, white, kings, features);
+        int score = 0;
+        for (int i = 0; i < EvaluationWeights.COUNT; i++) score += weights.get(i) * features[i];
+        return score;
+    }
+
+    /**
+     * Computes the features of a position, each as the Red player's
+     * count minus the White player's count. The evaluation is the sum
+     * of the features multiplied by their weights.
+     *
+     * @param red the bitboard of the Red pieces.
+     * @param white the bitboard of the White pieces.
+     * @param kings the bitboard of the kings.
+     * @param features the array of length EvaluationWeights.COUNT
+     * the features are written to.
+     */
+    public static void features(int red, int white, int kings, int[] features) {
+        int redMen = red & ~kings, whiteMen = white & ~kings;
+        features[EvaluationWeights.MAN] = Integer.bitCount(redMen) - Integer.bitCount(whiteMen);
+        features[EvaluationWeights.KING] = Integer.bitCount(red & kings) - Integer.bitCount(white & kings);
+        features[EvaluationWeights.BACK_RANK] = Integer.bitCount(redMen & Position.kingsRow(Position.WHITE))
+                                              - Integer.bitCount(whiteMen & Position.kingsRow(Position.RED));
+        features[EvaluationWeights.CENTRE] = Integer.bitCount(red & CENTRE) - Integer.bitCount(white & CENTRE);
+        int tempo = 0;
+        for (int y = 0; y < 8; y++) {
+            tempo += (7 - y) * Integer.bitCount(redMen & ROWS[y]) - y * Integer.bitCount(whiteMen & ROWS[y]);
+        }
+        features[EvaluationWeights.TEMPO] = tempo;
+        features[EvaluationWeights.MOBILITY] = mobility(red, red | white, kings, Position.RED)
+                                             - mobility(white, red | white, kings, Position.WHITE);
+    }
+
+    // Returns the number of step Moves a player's pieces could make.
+    // @param own the bitboard of the player's pieces.
+    // @param occupied the bitboard of all the pieces.
+    // @param kings the bitboard of the kings.
+    // @param side the index of the player.
+    // @return the number of step Moves the player's pieces could make.
+    private static int mobility(int own, int occupied, int kings, int side) {
+        int count = 0;
+        for (int dir = 0; dir < 4; dir++) {
+            int movers = Position.isForward(side, dir) ? own : own & kings;
+            count += Integer.bitCount(Position.shift(movers, dir) & ~occupied);
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,90 @@
+package engine;
+
+import draughts.*;
+
+import java.util.*;
+
+/**
+ * A MoveOrdering that tries the Move from the TranspositionTable first,
+ * then jumps (those taking kings first), then the killer Moves that caused
+ * cutoffs at the same ply, then the other Moves by their history score.
+ * All of the state is held in primitive arrays and the Moves are sorted
+ * in the Search's own buffer.
+ */
+
+public class HeuristicOrdering implements MoveOrdering {
+
+    private static final int HASH_SCORE = 1 << 30;
+    private static final int JUMP_SCORE = 1 << 29;
+    private static final int KILLER_SCORE = 1 << 28;
+    private static final int HISTORY_LIMIT = 1 << 24;
+
+    private final int[][] killers = new int[Search.MAX_PLY + 1][2];
+    private final int[] history = new int[2 * Position.SQUARES * Position.SQUARES];
+    private final int[] scores = new int[Position.MAX_MOVES];
+
+    /**
+     * Orders the encoded Moves of a Position in place, best first.
+     *
+     * @param position the Position the Moves were generated for.
+     * @param moves the buffer of encoded Moves.
+     * @param count the number of Moves in the buffer.
+     * @param hashMove the best Move from the TranspositionTable, or 0.
+     * @param ply the distance from the root of the Search.
+     */
+    public void order(Position position, int[] moves, int count, int hashMove, int ply) {
+        int base = position.getSide() * Position.SQUARES * Position.SQUARES;
+        int kings = position.getKings();
+        int[] killer = killers[ply];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int score;
+            if (move == hashMove) score = HASH_SCORE;
+            else if (Position.isJump(move)) score = JUMP_SCORE + ((kings & (1 << Position.captured(move))) != 0 ? 1 : 0);
+            else if (move == killer[0]) score = KILLER_SCORE + 1;
+            else if (move == killer[1]) score = KILLER_SCORE;
+            else score = history[base + (Position.from(move) << 5) + Position.to(move)];
+            // Insertion sort, as there are rarely more than a dozen Moves.
+            int j = i;
+            for (; j > 0 && scores[j - 1] < score; j--) {
+                scores[j] = scores[j - 1];
+                moves[j] = moves[j - 1];
+            }
+            scores[j] = score;
+            moves[j] = move;
+        }
+    }
+
+    /**
+     * Records a Move that caused a beta cutoff as a killer Move
+     * and adds to its history score. Jumps are already tried early,
+     * so they are not recorded.
+     *
+     * @param position the Position the Move was played from.
+     * @param move the encoded Move.
+     * @param depth the remaining depth of the Search.
+     * @param ply the distance from the root of the Search.
+     */
+    public void cutoff(Position position, int move, int depth, int ply) {
+        if (Position.isJump(move)) return;
+        int[] killer = killers[ply];
+        if (killer[0] != move) {
+            killer[1] = killer[0];
+            killer[0] = move;
+        }
+        int index = position.getSide() * Position.SQUARES * Position.SQUARES + (Position.from(move) << 5) + Position.to(move);
+        history[index] += depth * depth;
+        if (history[index] > HISTORY_LIMIT) {
+            for (int i = 0; i < history.length; i++) history[i] >>= 1;
+        }
+    }
+
+    /**
+     * Forgets the killer Moves and history scores.
+     */
+    public void clear() {
+        for (int[] killer : killers) Arrays.fill(killer, 0);
+        Arrays.fill(history, 0);
+    }
+
+}
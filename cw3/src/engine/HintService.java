@@ -0,0 +1,134 @@
+package engine;
+
+import draughts.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A class to search for a suggested Move in the background while a user
+ * thinks. A search is started when the user's turn begins and keeps getting
+ * deeper until it is cancelled or runs out of time. The best Move of the
+ * deepest completed depth can be read at any time without waiting, so
+ * neither the event dispatch thread nor the game thread ever blocks on it.
+ */
+
+public class HintService {
+
+    private final Search search;
+    private final long maxTime;
+    private final ExecutorService executor;
+    private final Object lock = new Object();
+
+    // The generation of the latest start or cancel, and the
+    // generation of the search running on the executor.
+    private long generation;
+    private volatile long running = -1;
+    private volatile int hint;
+    private volatile int depth;
+
+    /**
+     * Constructs a new HintService object.
+     *
+     * @param evaluator the Evaluator used by the search.
+     * @param maxTime the longest time to search for a hint, in milliseconds.
+     */
+    public HintService(Evaluator evaluator, long maxTime) {
+        this.maxTime = maxTime;
+        search = new Search(evaluator, new TranspositionTable(18));
+        search.setListener(new AnalysisListener() {
+            public void depthCompleted(int completed, List<AnalysisLine> lines, long nodes) {
+                synchronized (lock) {
+                    if (running != generation || lines.isEmpty()) return;
+                    hint = lines.get(0).getMove();
+                    depth = completed;
+                }
+            }
+
+            public void analysisFinished(List<AnalysisLine> lines) {}
+        });
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "hint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts searching for a hint for a Position, cancelling any
+     * search already running. This returns at once.
+     *
+     * @param position the Position the user has to move in.
+     */
+    public void start(Position position) {
+        final Position root = new Position(position);
+        final long task;
+        synchronized (lock) {
+            task = ++generation;
+            hint = 0;
+            depth = 0;
+        }
+        search.stop();
+        executor.execute(() -> {
+            synchronized (lock) {
+                // Preparing clears the stop flag, so this must be checked after
+                // it: a cancel from here on sets the flag again.
+                search.prepare(System.nanoTime() + maxTime * 1000000L);
+                if (task != generation) return;
+                running = task;
+            }
+            int[] moves = new int[Position.MAX_MOVES];
+            if (root.generateMoves(moves, false) > 0) search.run(root, Search.MAX_PLY);
+            running = -1;
+        });
+    }
+
+    /**
+     * Stops the search at once and forgets its hint. This returns
+     * without waiting for the search thread.
+     */
+    public void cancel() {
+        synchronized (lock) {
+            generation++;
+            hint = 0;
+            depth = 0;
+        }
+        search.stop();
+    }
+
+    /**
+     * Returns the best Move found so far, without waiting.
+     *
+     * @return the encoded Move, or 0 if no depth has been completed.
+     */
+    public int getHint() {
+        return hint;
+    }
+
+    /**
+     * Returns the depth of the search the hint came from.
+     *
+     * @return the depth the hint came from, or 0.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns true if a search is running.
+     *
+     * @return true if a search is running.
+     */
+    public boolean isSearching() {
+        return running >= 0;
+    }
+
+    /**
+     * Stops the search and the search thread.
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+}
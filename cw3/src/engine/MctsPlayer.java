@@ -0,0 +1,294 @@
+package engine;
+
+import draughts.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A Player that chooses its Moves with Monte Carlo Tree Search.
+ * Several threads share one tree: each selects a path with UCT, adding a
+ * virtual loss to every node on the path so the other threads spread out,
+ * then finishes the game with random Moves. The random games are played on
+ * a Position owned by the thread and don't create any objects. The part of
+ * the tree below the Moves that were played is kept for the next Move.
+ */
+
+public class MctsPlayer extends EnginePlayer {
+
+    // The number of visits before a node's children are created.
+    private static final int EXPAND_THRESHOLD = 4;
+    // The length of a random game before it is scored as a draw.
+    private static final int MAX_PLAYOUT = 200;
+    // The deepest a matching node is looked for when reusing the tree.
+    private static final int REUSE_DEPTH = 4;
+
+    private final long moveTime;
+    private final int threads;
+    private final double exploration;
+    private final ExecutorService executor;
+    private final AtomicLong playouts = new AtomicLong();
+
+    private Node root;
+    private Position rootPosition;
+
+    // A node of the search tree. The score is in half points for the
+    // player who made the move into the node: 2 for a win, 1 for a draw.
+    private static final class Node {
+
+        volatile Node parent;
+        final int move;
+        final int mover;
+        final AtomicInteger visits = new AtomicInteger();
+        final AtomicLong score = new AtomicLong();
+        volatile Node[] children;
+
+        Node(Node parent, int move, int mover) {
+            this.parent = parent;
+            this.move = move;
+            this.mover = mover;
+        }
+
+    }
+
+    /**
+     * Constructs a new MctsPlayer object.
+     *
+     * @param moveTime the time to search for each Move, in milliseconds.
+     * @param threads the number of threads that search the tree.
+     */
+    public MctsPlayer(long moveTime, int threads) {
+        this(moveTime, threads, 1.4);
+    }
+
+    /**
+     * Constructs a new MctsPlayer object.
+     *
+     * @param moveTime the time to search for each Move, in milliseconds.
+     * @param threads the number of threads that search the tree.
+     * @param exploration the UCT exploration constant.
+     */
+    public MctsPlayer(long moveTime, int threads, double exploration) {
+        this.moveTime = moveTime;
+        this.threads = threads;
+        this.exploration = exploration;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "mcts-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops the threads used by the search.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Returns the total number of random games played.
+     *
+     * @return the total number of random games played.
+     */
+    public long getPlayouts() {
+        return playouts.get();
+    }
+
+    /**
+     * Returns the number of times the root of the tree has been visited,
+     * including visits kept from the search for the previous Move.
+     *
+     * @return the number of visits to the root of the tree.
+     */
+    public int getRootVisits() {
+        return root == null ? 0 : root.visits.get();
+    }
+
+    /**
+     * Returns the encoded Move with the most visits after searching a Position.
+     *
+     * @param position the Position to choose a Move for.
+     * @return the encoded Move with the most visits.
+     */
+    @Override
+    protected int chooseMove(Position position) {
+        long millis = (deadline(position, moveTime) - System.nanoTime()) / 1000000L;
+        return search(position, Math.max(1, millis));
+    }
+
+    /**
+     * Searches a Position for a fixed time and returns the encoded Move with
+     * the most visits. The tree is reused if the Position follows on from the
+     * last Position searched.
+     *
+     * @param position the Position to search.
+     * @param millis the time to search for, in milliseconds.
+     * @return the encoded Move with the most visits.
+     */
+    public int search(Position position, long millis) {
+        reuseTree(position);
+        final long deadline = System.nanoTime() + millis * 1000000L;
+        List<Future<?>> workers = new ArrayList<Future<?>>();
+        for (int i = 0; i < threads; i++) {
+            final long seed = position.getHash() * 31 + i * 0x9E3779B97F4A7C15L + System.nanoTime();
+            workers.add(executor.submit(() -> work(deadline, seed)));
+        }
+        try {
+            for (Future<?> worker : workers) worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Future<?> worker : workers) worker.cancel(true);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error in search thread.", e.getCause());
+        }
+        Node best = bestChild(root);
+        if (best == null) {
+            int[] moves = new int[Position.MAX_MOVES];
+            position.generateMoves(moves, false);
+            return moves[0];
+        }
+        return best.move;
+    }
+
+    // Makes the root of the tree the node for a Position, keeping the
+    // subtree if the Position is a few Moves below the old root.
+    // @param position the Position to be searched.
+    private void reuseTree(Position position) {
+        Node found = null;
+        if (root != null) {
+            Position scratch = new Position(rootPosition);
+            found = find(root, scratch, position, 0);
+        }
+        rootPosition = new Position(position);
+        if (found == null) {
+            root = new Node(null, 0, position.getSide() ^ 1);
+        } else {
+            // Detach the new root so the rest of the old tree can be collected.
+            root = found;
+            root.parent = null;
+        }
+        if (root.children == null) expand(root, new Position(position), new int[Position.MAX_MOVES]);
+    }
+
+    // Returns the node below a node whose Position matches a target Position.
+    // @param node the node to search below.
+    // @param position the Position of the node, restored before returning.
+    // @param target the Position to be found.
+    // @param depth the depth of the node below the old root.
+    // @return the matching node, or null if there isn't one.
+    private Node find(Node node, Position position, Position target, int depth) {
+        if (position.equals(target)) return node;
+        Node[] children = node.children;
+        if (children == null || depth == REUSE_DEPTH) return null;
+        for (Node child : children) {
+            position.makeMove(child.move);
+            Node found = find(child, position, target, depth + 1);
+            position.unmakeMove();
+            if (found != null) return found;
+        }
+        return null;
+    }
+
+    // Runs search iterations until the deadline.
+    // @param deadline the value of System.nanoTime() to stop at.
+    // @param seed the seed for the random Moves.
+    private void work(long deadline, long seed) {
+        Position position = new Position(rootPosition);
+        int[] moves = new int[Position.MAX_MOVES];
+        long random = seed == 0 ? 1 : seed;
+        long count = 0;
+        while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+            for (int i = 0; i < 64; i++) {
+                position.copyFrom(rootPosition);
+                Node node = root;
+                node.visits.incrementAndGet();
+                Node[] children;
+                while ((children = node.children) != null && children.length > 0) {
+                    node = select(node, children);
+                    node.visits.incrementAndGet();
+                    position.makeMove(node.move);
+                }
+                if (children == null && node.visits.get() >= EXPAND_THRESHOLD) {
+                    children = expand(node, position, moves);
+                    if (children.length > 0) {
+                        node = children[(int) ((random >>> 33) % children.length)];
+                        node.visits.incrementAndGet();
+                        position.makeMove(node.move);
+                    }
+                }
+                int winner = -1;
+                for (int ply = 0; ply < MAX_PLAYOUT; ply++) {
+                    int moveCount = position.generateMoves(moves, false);
+                    if (moveCount == 0) {
+                        winner = position.getSide() ^ 1;
+                        break;
+                    }
+                    random ^= random << 13;
+                    random ^= random >>> 7;
+                    random ^= random << 17;
+                    position.makeMove(moves[(int) ((random >>> 33) % moveCount)]);
+                }
+                for (; node != null; node = node.parent) {
+                    node.score.addAndGet(winner < 0 ? 1 : winner == node.mover ? 2 : 0);
+                }
+                count++;
+            }
+        }
+        playouts.addAndGet(count);
+    }
+
+    // Returns the child with the highest UCT value. Visits are counted
+    // before results arrive, so paths being searched by other threads
+    // look like losses until they finish.
+    // @param node the node to select from.
+    // @param children the children of the node.
+    // @return the child with the highest UCT value.
+    private Node select(Node node, Node[] children) {
+        double logVisits = Math.log(Math.max(1, node.visits.get()));
+        Node best = children[0];
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (Node child : children) {
+            int visits = child.visits.get();
+            if (visits == 0) return child;
+            double value = child.score.get() / (2.0 * visits) + exploration * Math.sqrt(logVisits / visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    // Creates the children of a node, unless another thread already has.
+    // @param node the node to be expanded.
+    // @param position the Position of the node.
+    // @param moves the array the Moves are generated into.
+    // @return the children of the node.
+    private Node[] expand(Node node, Position position, int[] moves) {
+        synchronized (node) {
+            if (node.children == null) {
+                int count = position.generateMoves(moves, false);
+                Node[] children = new Node[count];
+                for (int i = 0; i < count; i++) children[i] = new Node(node, moves[i], position.getSide());
+                node.children = children;
+            }
+            return node.children;
+        }
+    }
+
+    // Returns the child with the most visits, or null if there are none.
+    // @param node the node to choose from.
+    // @return the child with the most visits, or null.
+    private Node bestChild(Node node) {
+        Node[] children = node.children;
+        if (children == null) return null;
+        Node best = null;
+        for (Node child : children) {
+            if (best == null || child.visits.get() > best.visits.get()) best = child;
+        }
+        return best;
+    }
+
+}
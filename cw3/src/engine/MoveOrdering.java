@@ -0,0 +1,38 @@
+package engine;
+
+import draughts.*;
+
+/**
+ * An interface to order the Moves tried by a Search, so that the
+ * Moves most likely to cause a cutoff are tried first.
+ */
+
+public interface MoveOrdering {
+
+    /**
+     * Orders the encoded Moves of a Position in place, best first.
+     *
+     * @param position the Position the Moves were generated for.
+     * @param moves the buffer of encoded Moves.
+     * @param count the number of Moves in the buffer.
+     * @param hashMove the best Move from the TranspositionTable, or 0.
+     * @param ply the distance from the root of the Search.
+     */
+    public void order(Position position, int[] moves, int count, int hashMove, int ply);
+
+    /**
+     * Called when a Move causes a beta cutoff.
+     *
+     * @param position the Position the Move was played from.
+     * @param move the encoded Move.
+     * @param depth the remaining depth of the Search.
+     * @param ply the distance from the root of the Search.
+     */
+    public void cutoff(Position position, int move, int depth, int ply);
+
+    /**
+     * Forgets everything learnt from previous searches.
+     */
+    public void clear();
+
+}
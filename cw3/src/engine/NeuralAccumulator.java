@@ -0,0 +1,97 @@
+package engine;
+
+import draughts.*;
+
+import java.util.*;
+
+/**
+ * A class to keep the hidden layer of a NeuralNetwork up to date for a
+ * Position. The layer for each ply is a slice of one array, so making a
+ * Move copies the slice forward and updates it for the pieces that moved,
+ * and unmaking a Move just steps back a slice.
+ */
+
+public class NeuralAccumulator implements Accumulator {
+
+    private final NeuralNetwork network;
+    private final int hidden;
+    private int[] layers;
+    private int offset;
+
+    /**
+     * Constructs a new NeuralAccumulator object.
+     *
+     * @param network the NeuralNetwork whose hidden layer is kept.
+     */
+    public NeuralAccumulator(NeuralNetwork network) {
+        this.network = network;
+        this.hidden = network.getHidden();
+        layers = new int[hidden * 64];
+    }
+
+    /**
+     * Returns the NeuralNetwork whose hidden layer is kept.
+     *
+     * @return the NeuralNetwork.
+     */
+    public NeuralNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Recomputes the hidden layer from scratch for a Position.
+     *
+     * @param position the Position the hidden layer is for.
+     */
+    public void refresh(Position position) {
+        offset = 0;
+        network.refresh(position, layers, 0);
+    }
+
+    /**
+     * Saves the hidden layer before a Move is made.
+     */
+    public void push() {
+        if (offset + 2 * hidden > layers.length) layers = Arrays.copyOf(layers, layers.length * 2);
+        System.arraycopy(layers, offset, layers, offset + hidden, hidden);
+        offset += hidden;
+    }
+
+    /**
+     * Restores the hidden layer saved before the last Move was made.
+     *
+     * @throws IllegalStateException if no Move was made since the last refresh.
+     */
+    public void pop() {
+        if (offset == 0) throw new IllegalStateException("No move to unmake.");
+        offset -= hidden;
+    }
+
+    /**
+     * Adds the weights of a piece that was placed to the hidden layer.
+     *
+     * @param feature the index of the piece's feature.
+     */
+    public void add(int feature) {
+        network.add(feature, layers, offset);
+    }
+
+    /**
+     * Subtracts the weights of a piece that was removed from the hidden layer.
+     *
+     * @param feature the index of the piece's feature.
+     */
+    public void remove(int feature) {
+        network.subtract(feature, layers, offset);
+    }
+
+    /**
+     * Returns the output of the network for the current hidden layer.
+     *
+     * @return the score for the Red player, in hundredths of a man.
+     */
+    public int evaluate() {
+        return network.output(layers, offset);
+    }
+
+}
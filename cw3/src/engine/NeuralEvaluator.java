@@ -0,0 +1,210 @@
+package engine;
+
+import draughts.*;
+
+import java.util.*;
+
+/**
+ * A class to evaluate Positions for the engine with a NeuralNetwork.
+ * A Position attached to this Evaluator keeps a NeuralAccumulator, so
+ * each evaluation only clips the hidden layer and takes one dot product.
+ * The network named by the draughts.network system property is used by
+ * the engine in place of the hand-written evaluation.
+ */
+
+public class NeuralEvaluator extends Evaluator {
+
+    /**
+     * The system property naming the network file to play with.
+     */
+    public static final String PROPERTY = "draughts.network";
+
+    // The size of the benchmark, and of the network it uses by default.
+    private static final int GAMES = 20000;
+    private static final int PLIES = 60;
+    private static final int BENCHMARK_HIDDEN = 256;
+
+    private final NeuralNetwork network;
+
+    /**
+     * Constructs a new NeuralEvaluator object.
+     *
+     * @param network the NeuralNetwork used to evaluate Positions.
+     */
+    public NeuralEvaluator(NeuralNetwork network) {
+        this.network = network;
+    }
+
+    /**
+     * Returns the NeuralNetwork used to evaluate Positions.
+     *
+     * @return the NeuralNetwork.
+     */
+    public NeuralNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Makes a Position keep the hidden layer of the network up to date.
+     * This should be called once before a Position is searched.
+     *
+     * @param position the Position to be evaluated.
+     */
+    @Override
+    public void attach(Position position) {
+        if (!isAttached(position)) position.setAccumulator(new NeuralAccumulator(network));
+    }
+
+    /**
+     * Returns the score of a Position for the player to move.
+     * If the Position was not attached to this Evaluator
+     * its hidden layer is computed from scratch.
+     *
+     * @param position the Position to be evaluated.
+     * @return the score of the Position for the player to move.
+     */
+    @Override
+    public int evaluate(Position position) {
+        int score;
+        if (isAttached(position)) {
+            score = ((NeuralAccumulator) position.getAccumulator()).evaluate();
+        } else {
+            int[] layer = new int[network.getHidden()];
+            network.refresh(position, layer, 0);
+            score = network.output(layer, 0);
+        }
+        return position.getSide() == Position.RED ? score : -score;
+    }
+
+    /**
+     * Returns the score of a position for the Red player.
+     *
+     * @param red the bitboard of the Red pieces.
+     * @param white the bitboard of the White pieces.
+     * @param kings the bitboard of the kings.
+     * @return the score of the position for the Red player.
+     */
+    @Override
+    public int evaluate(int red, int white, int kings) {
+        return evaluate(new Position(red, white, kings, Position.RED));
+    }
+
+    // Returns true if a Position keeps a NeuralAccumulator for this network.
+    // @param position the Position.
+    // @return true if the Position is attached to this Evaluator.
+    private boolean isAttached(Position position) {
+        Accumulator accumulator = position.getAccumulator();
+        return accumulator instanceof NeuralAccumulator
+            && ((NeuralAccumulator) accumulator).getNetwork() == network;
+    }
+
+    /**
+     * Returns the Evaluator the engine should play with: a NeuralEvaluator
+     * if the draughts.network system property names a network that can be
+     * read, otherwise the hand-written Evaluator.
+     *
+     * @return the Evaluator the engine should play with.
+     */
+    public static Evaluator defaultEvaluator() {
+        String fileName = System.getProperty(PROPERTY);
+        if (fileName != null) {
+            try {
+                return new NeuralEvaluator(NeuralNetwork.load(fileName));
+            } catch (Exception e) {
+                System.err.println("Error reading network, using built in evaluation. " + e);
+            }
+        }
+        return new Evaluator();
+    }
+
+    /**
+     * Measures the time taken by incremental evaluations over random games.
+     * The games are chosen first, then replayed with and without a network
+     * attached, evaluating after every Move, and the fastest of several
+     * rounds is kept for each. The argument is an optional network file. By
+     * default a network of random weights with 256 hidden units is used, the
+     * size of a trained network, as the material network is too small to time.
+     *
+     * @param args the arguments provided by the user.
+     */
+    public static void main(String[] args) {
+        try {
+            NeuralNetwork network = args.length > 0 ? NeuralNetwork.load(args[0]) : randomNetwork(BENCHMARK_HIDDEN);
+            NeuralEvaluator evaluator = new NeuralEvaluator(network);
+            int[][] games = randomGames();
+            long plies = 0;
+            for (int[] game : games) plies += game.length;
+            long plain = Long.MAX_VALUE, evaluated = Long.MAX_VALUE;
+            for (int round = 0; round < 5; round++) {
+                plain = Math.min(plain, replay(games, null));
+                evaluated = Math.min(evaluated, replay(games, evaluator));
+            }
+            System.out.println("Hidden units: " + network.getHidden());
+            System.out.println("Nanoseconds per Move: " + plain / plies);
+            System.out.println("Nanoseconds per Move and evaluation: " + evaluated / plies);
+            System.out.println("Nanoseconds per evaluation: " + (evaluated - plain) / plies);
+        } catch (Exception e) {
+            System.err.println("Error running benchmark. " + e);
+            System.exit(1);
+        }
+    }
+
+    // Returns a network of the size a trained network would be, with
+    // small random weights, so the benchmark does realistic work.
+    // @param hidden the number of hidden units.
+    // @return the network.
+    private static NeuralNetwork randomNetwork(int hidden) {
+        Random random = new Random(1);
+        short[] weights = new short[NeuralNetwork.FEATURES * hidden];
+        for (int i = 0; i < weights.length; i++) weights[i] = (short) (random.nextInt(17) - 8);
+        short[] biases = new short[hidden];
+        short[] output = new short[hidden];
+        for (int i = 0; i < hidden; i++) {
+            biases[i] = (short) random.nextInt(32);
+            output[i] = (short) (random.nextInt(65) - 32);
+        }
+        return new NeuralNetwork(weights, biases, output, 0, 6);
+    }
+
+    // Returns the Moves of random games, so every replay plays the same
+    // Moves without generating them.
+    // @return an array of encoded Moves for each game.
+    private static int[][] randomGames() {
+        Random random = new Random(1);
+        int[] moves = new int[Position.MAX_MOVES];
+        int[][] games = new int[GAMES][];
+        for (int game = 0; game < GAMES; game++) {
+            Position position = Position.initial();
+            int[] played = new int[PLIES];
+            int ply = 0;
+            for (; ply < PLIES; ply++) {
+                int count = position.generateMoves(moves, false);
+                if (count == 0) break;
+                played[ply] = moves[random.nextInt(count)];
+                position.makeMove(played[ply]);
+            }
+            games[game] = Arrays.copyOf(played, ply);
+        }
+        return games;
+    }
+
+    // Replays games, evaluating each Position if an Evaluator
+    // is given, and returns the time taken.
+    // @param games the Moves of each game.
+    // @param evaluator the NeuralEvaluator, or null.
+    // @return the time taken, in nanoseconds.
+    private static long replay(int[][] games, NeuralEvaluator evaluator) {
+        long start = System.nanoTime(), sum = 0;
+        for (int[] game : games) {
+            Position position = Position.initial();
+            if (evaluator != null) evaluator.attach(position);
+            for (int move : game) {
+                position.makeMove(move);
+                if (evaluator != null) sum += evaluator.evaluate(position);
+            }
+        }
+        if (sum == Long.MIN_VALUE) System.out.println(sum);
+        return System.nanoTime() - start;
+    }
+
+}
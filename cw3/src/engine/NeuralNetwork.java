@@ -0,0 +1,219 @@
+package engine;
+
+import draughts.*;
+
+import java.io.*;
+
+/**
+ * A class to hold the quantised weights of a small neural network that
+ * evaluates Positions. Each of the 128 piece features has a row of
+ * 16-bit weights that is added to the hidden layer when the piece is
+ * placed and subtracted when it is removed, so the hidden layer is updated
+ * rather than recomputed as Moves are made. The output is the hidden layer
+ * clipped to [0, 127], multiplied by the output weights and shifted right,
+ * giving a score in hundredths of a man for the Red player.
+ * The weights are stored as 16-bit values but held in int arrays, as the
+ * JIT only vectorises loops whose arrays all have the same element size.
+ */
+
+public class NeuralNetwork {
+
+    /**
+     * The number of piece features, indexed as in the score table.
+     */
+    public static final int FEATURES = 128;
+
+    /**
+     * The largest value of a hidden unit after it is clipped.
+     */
+    public static final int CLIP = 127;
+
+    private static final int MAGIC = 0x444E4E31;
+
+    private final int hidden;
+    private final int shift;
+    private final int[] weights;
+    private final int[] biases;
+    private final int[] output;
+    private final int outputBias;
+
+    /**
+     * Constructs a new NeuralNetwork object.
+     *
+     * @param weights the weights of the features, FEATURES rows of hidden values.
+     * @param biases the biases of the hidden units.
+     * @param output the output weights of the hidden units.
+     * @param outputBias the bias added to the output.
+     * @param shift the number of bits the output is shifted right by.
+     * @throws IllegalArgumentException if the arrays are the wrong lengths.
+     */
+    public NeuralNetwork(short[] weights, short[] biases, short[] output, int outputBias, int shift) {
+        hidden = biases.length;
+        if (hidden == 0 || output.length != hidden || weights.length != FEATURES * hidden) {
+            throw new IllegalArgumentException("Invalid network size.");
+        }
+        if (shift < 0 || shift > 30) throw new IllegalArgumentException("Invalid shift " + shift + ".");
+        this.weights = widen(weights);
+        this.biases = widen(biases);
+        this.output = widen(output);
+        this.outputBias = outputBias;
+        this.shift = shift;
+    }
+
+    /**
+     * Returns a network that only counts material, with a man worth 100
+     * and a king worth 150. It is used when no trained network is given.
+     *
+     * @return a network that counts material.
+     */
+    public static NeuralNetwork material() {
+        // One hidden unit counts each kind of piece, 8 for each piece, so
+        // that 12 pieces stay below the clip, and the output divides by 8.
+        int hidden = 4;
+        short[] weights = new short[FEATURES * hidden];
+        for (int feature = 0; feature < FEATURES; feature++) {
+            int colour = feature >> 6;
+            int king = (feature >> 5) & 1;
+            weights[feature * hidden + colour * 2 + king] = 8;
+        }
+        short[] output = {100, 150, -100, -150};
+        return new NeuralNetwork(weights, new short[hidden], output, 0, 3);
+    }
+
+    /**
+     * Returns the network read from a file.
+     *
+     * @param fileName the path of the file.
+     * @return the network read from the file.
+     * @throws IOException if the file can't be read or is not a network.
+     */
+    public static NeuralNetwork load(String fileName) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName)));
+        try {
+            if (input.readInt() != MAGIC) throw new IOException("Not a network file: " + fileName);
+            int hidden = input.readInt();
+            int shift = input.readInt();
+            int outputBias = input.readInt();
+            if (hidden <= 0 || hidden > 4096) throw new IOException("Invalid network size " + hidden + ".");
+            short[] weights = readShorts(input, FEATURES * hidden);
+            short[] biases = readShorts(input, hidden);
+            short[] output = readShorts(input, hidden);
+            return new NeuralNetwork(weights, biases, output, outputBias, shift);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        } finally {
+            input.close();
+        }
+    }
+
+    // Reads an array of 16-bit values.
+    // @param input the stream to read from.
+    // @param length the number of values.
+    // @return the values read.
+    private static short[] readShorts(DataInputStream input, int length) throws IOException {
+        short[] values = new short[length];
+        for (int i = 0; i < length; i++) values[i] = input.readShort();
+        return values;
+    }
+
+    // Returns a copy of an array of 16-bit values as ints.
+    // @param values the 16-bit values.
+    // @return the values as ints.
+    private static int[] widen(short[] values) {
+        int[] ints = new int[values.length];
+        for (int i = 0; i < values.length; i++) ints[i] = values[i];
+        return ints;
+    }
+
+    /**
+     * Saves the network to a file.
+     *
+     * @param fileName the path of the file.
+     * @throws IOException if the file can't be written.
+     */
+    public void save(String fileName) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(hidden);
+            out.writeInt(shift);
+            out.writeInt(outputBias);
+            for (int value : weights) out.writeShort(value);
+            for (int value : biases) out.writeShort(value);
+            for (int value : output) out.writeShort(value);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Returns the number of hidden units.
+     *
+     * @return the number of hidden units.
+     */
+    public int getHidden() {
+        return hidden;
+    }
+
+    /**
+     * Sets a hidden layer to the biases plus the weights of every
+     * piece in a Position.
+     *
+     * @param position the Position.
+     * @param layer the array of hidden values to write to.
+     * @param offset the index of the first hidden value.
+     */
+    public void refresh(Position position, int[] layer, int offset) {
+        System.arraycopy(biases, 0, layer, offset, hidden);
+        int red = position.getRed(), kings = position.getKings();
+        for (int bits = red | position.getWhite(); bits != 0; bits &= bits - 1) {
+            int square = Integer.numberOfTrailingZeros(bits);
+            int colour = (red & (1 << square)) != 0 ? Position.RED : Position.WHITE;
+            add((colour << 6) | ((kings & (1 << square)) != 0 ? 32 : 0) | square, layer, offset);
+        }
+    }
+
+    /**
+     * Adds the weights of a feature to a hidden layer. The loop is a plain
+     * element-wise add over int arrays so the JIT can vectorise it.
+     *
+     * @param feature the index of the feature.
+     * @param layer the array of hidden values.
+     * @param offset the index of the first hidden value.
+     */
+    public void add(int feature, int[] layer, int offset) {
+        int[] w = weights;
+        int base = feature * hidden;
+        for (int i = 0; i < hidden; i++) layer[offset + i] += w[base + i];
+    }
+
+    /**
+     * Subtracts the weights of a feature from a hidden layer.
+     *
+     * @param feature the index of the feature.
+     * @param layer the array of hidden values.
+     * @param offset the index of the first hidden value.
+     */
+    public void subtract(int feature, int[] layer, int offset) {
+        int[] w = weights;
+        int base = feature * hidden;
+        for (int i = 0; i < hidden; i++) layer[offset + i] -= w[base + i];
+    }
+
+    /**
+     * Returns the output of the network for a hidden layer.
+     *
+     * @param layer the array of hidden values.
+     * @param offset the index of the first hidden value.
+     * @return the score for the Red player, in hundredths of a man.
+     */
+    public int output(int[] layer, int offset) {
+        int[] w = output;
+        int sum = 0;
+        for (int i = 0; i < hidden; i++) {
+            sum += Math.min(Math.max(layer[offset + i], 0), CLIP) * w[i];
+        }
+        return (sum + outputBias) >> shift;
+    }
+
+}
@@ -0,0 +1,210 @@
+package engine;
+
+import draughts.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * A class to hold a corpus of Positions labelled with the result of the game
+ * they were taken from. Each Position is stored as three ints and a byte in
+ * primitive arrays, so a corpus of tens of millions of Positions fits in memory.
+ */
+
+public class PositionCorpus {
+
+    /**
+     * The result of a game the Red player won.
+     */
+    public static final int RED_WIN = 2;
+
+    /**
+     * The result of a drawn game.
+     */
+    public static final int DRAW = 1;
+
+    /**
+     * The result of a game the White player won.
+     */
+    public static final int WHITE_WIN = 0;
+
+    private static final int MAGIC = 0x44524331;
+
+    private int[] red;
+    private int[] white;
+    private int[] kings;
+    private byte[] flags;
+    private int size;
+
+    /**
+     * Constructs a new empty PositionCorpus object.
+     *
+     * @param capacity the number of Positions to make room for.
+     */
+    public PositionCorpus(int capacity) {
+        capacity = Math.max(capacity, 16);
+        red = new int[capacity];
+        white = new int[capacity];
+        kings = new int[capacity];
+        flags = new byte[capacity];
+    }
+
+    /**
+     * Adds a Position to the corpus.
+     *
+     * @param position the Position to be added.
+     * @param result the result of the game: RED_WIN, DRAW or WHITE_WIN.
+     */
+    public void add(Position position, int result) {
+        add(position.getRed(), position.getWhite(), position.getKings(), position.getSide(), result);
+    }
+
+    /**
+     * Adds a position to the corpus.
+     *
+     * @param red the bitboard of the Red pieces.
+     * @param white the bitboard of the White pieces.
+     * @param kings the bitboard of the kings.
+     * @param side the index of the player to move.
+     * @param result the result of the game: RED_WIN, DRAW or WHITE_WIN.
+     */
+    public void add(int red, int white, int kings, int side, int result) {
+        if (result < WHITE_WIN || result > RED_WIN) throw new IllegalArgumentException("Unknown result: " + result);
+        if (size == flags.length) {
+            int capacity = size + (size >> 1);
+            this.red = Arrays.copyOf(this.red, capacity);
+            this.white = Arrays.copyOf(this.white, capacity);
+            this.kings = Arrays.copyOf(this.kings, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+        this.red[size] = red;
+        this.white[size] = white;
+        this.kings[size] = kings;
+        flags[size] = (byte) ((result << 1) | side);
+        size++;
+    }
+
+    /**
+     * Returns the number of Positions in the corpus.
+     *
+     * @return the number of Positions in the corpus.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the bitboard of the Red pieces of a Position.
+     *
+     * @param i the index of the Position.
+     * @return the bitboard of the Red pieces.
+     */
+    public int getRed(int i) {
+        return red[i];
+    }
+
+    /**
+     * Returns the bitboard of the White pieces of a Position.
+     *
+     * @param i the index of the Position.
+     * @return the bitboard of the White pieces.
+     */
+    public int getWhite(int i) {
+        return white[i];
+    }
+
+    /**
+     * Returns the bitboard of the kings of a Position.
+     *
+     * @param i the index of the Position.
+     * @return the bitboard of the kings.
+     */
+    public int getKings(int i) {
+        return kings[i];
+    }
+
+    /**
+     * Returns the index of the player to move in a Position.
+     *
+     * @param i the index of the Position.
+     * @return the index of the player to move.
+     */
+    public int getSide(int i) {
+        return flags[i] & 1;
+    }
+
+    /**
+     * Returns the result of the game a Position was taken from.
+     *
+     * @param i the index of the Position.
+     * @return RED_WIN, DRAW or WHITE_WIN.
+     */
+    public int getResult(int i) {
+        return flags[i] >> 1;
+    }
+
+    /**
+     * Adds every Position of a finished game to the corpus. The packed
+     * Positions don't say whether a jump must continue, so the caller
+     * should leave out Positions part way through a sequence of jumps.
+     *
+     * @param positions the Positions of the game, packed as four ints each:
+     * red, white, kings and the index of the player to move.
+     * @param count the number of Positions.
+     * @param result the result of the game: RED_WIN, DRAW or WHITE_WIN.
+     */
+    public void addGame(int[] positions, int count, int result) {
+        for (int i = 0; i < count; i++) {
+            add(positions[4 * i], positions[4 * i + 1], positions[4 * i + 2], positions[4 * i + 3], result);
+        }
+    }
+
+    /**
+     * Saves the corpus to a binary file.
+     *
+     * @param fileName the path of the file.
+     * @throws IOException if the file can't be written.
+     */
+    public void save(String fileName) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName), 1 << 16));
+        try {
+            output.writeInt(MAGIC);
+            output.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                output.writeInt(red[i]);
+                output.writeInt(white[i]);
+                output.writeInt(kings[i]);
+                output.writeByte(flags[i]);
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * Returns a corpus read from a binary file.
+     *
+     * @param fileName the path of the file.
+     * @return the corpus read from the file.
+     * @throws IOException if the file can't be read or is not a corpus.
+     */
+    public static PositionCorpus load(String fileName) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName), 1 << 16));
+        try {
+            if (input.readInt() != MAGIC) throw new IOException("Not a position corpus: " + fileName);
+            int size = input.readInt();
+            PositionCorpus corpus = new PositionCorpus(size);
+            for (int i = 0; i < size; i++) {
+                corpus.red[i] = input.readInt();
+                corpus.white[i] = input.readInt();
+                corpus.kings[i] = input.readInt();
+                corpus.flags[i] = input.readByte();
+            }
+            corpus.size = size;
+            return corpus;
+        } finally {
+            input.close();
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+package engine;
+
+import draughts.*;
+
+/**
+ * A class to represent the result of trying to prove that the player to
+ * move in a Position can force a win, with the size of the proof and
+ * the effort it took.
+ */
+
+public class ProofResult {
+
+    /**
+     * An enum for whether a forced win was found.
+     */
+    public enum Status {
+        Proven, Disproven, Unknown
+    }
+
+    private final Status status;
+    private final int move;
+    private final long proofSize;
+    private final long nodes;
+    private final long millis;
+
+    /**
+     * Constructs a new ProofResult object.
+     *
+     * @param status whether a forced win was found.
+     * @param move the encoded first Move of the win, or 0.
+     * @param proofSize the number of Positions in the proof tree, or 0.
+     * @param nodes the number of nodes searched.
+     * @param millis the time taken, in milliseconds.
+     */
+    public ProofResult(Status status, int move, long proofSize, long nodes, long millis) {
+        this.status = status;
+        this.move = move;
+        this.proofSize = proofSize;
+        this.nodes = nodes;
+        this.millis = millis;
+    }
+
+    /**
+     * Returns whether a forced win was found.
+     *
+     * @return Proven, Disproven, or Unknown if the search ran out of nodes.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the encoded first Move of the forced win.
+     *
+     * @return the encoded first Move of the win, or 0 if it wasn't proven.
+     */
+    public int getMove() {
+        return move;
+    }
+
+    /**
+     * Returns the number of distinct Positions in the proof tree.
+     *
+     * @return the number of Positions in the proof tree, or 0 if it wasn't proven.
+     */
+    public long getProofSize() {
+        return proofSize;
+    }
+
+    /**
+     * Returns the number of nodes searched.
+     *
+     * @return the number of nodes searched.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the time taken.
+     *
+     * @return the time taken, in milliseconds.
+     */
+    public long getMillis() {
+        return millis;
+    }
+
+    @Override
+    public String toString() {
+        String result = status.toString();
+        if (status == Status.Proven) result += " by " + Position.notation(move) + ", proof tree " + proofSize;
+        return result + ", " + nodes + " nodes in " + millis + " ms";
+    }
+
+}
@@ -0,0 +1,373 @@
+package engine;
+
+import draughts.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A class to prove or disprove that the player to move in a Position can
+ * force a win within a number of moves, using depth-first proof-number
+ * search (df-pn). The proof and disproof numbers of searched Positions are
+ * kept in a table of fixed size, so the memory used is bounded however long
+ * the search runs; when two Positions need the same slot the one with the
+ * smaller subtree is replaced. The moves left are part of each table key,
+ * so the search never goes round in a cycle and every result is exact.
+ */
+
+public class ProofSolver {
+
+    /**
+     * The proof or disproof number of a Position that can't be proven or disproven.
+     */
+    public static final int INFINITY = 1 << 28;
+
+    // Mixes the moves left into the hash of a Position.
+    private static final long DEPTH_KEY = 0x9E3779B97F4A7C15L;
+
+    private final long[] keys;
+    private final int[] proof;
+    private final int[] disproof;
+    private final int[] work;
+    private final int mask;
+    private final int maxDepth;
+    private final long maxNodes;
+
+    private int[][] moves = new int[64][];
+    private int attacker;
+    private long nodes;
+    private int childProof;
+    private int childDisproof;
+
+    /**
+     * Constructs a new ProofSolver object.
+     *
+     * @param bits the log base 2 of the number of entries in the node table.
+     * @param maxDepth the most moves the player to move can take to win,
+     * where a sequence of jumps is one move.
+     * @param maxNodes the most nodes to search before giving up.
+     */
+    public ProofSolver(int bits, int maxDepth, long maxNodes) {
+        keys = new long[1 << bits];
+        proof = new int[1 << bits];
+        disproof = new int[1 << bits];
+        work = new int[1 << bits];
+        mask = (1 << bits) - 1;
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Returns whether the player to move in a game can force a win,
+     * carrying on any multiple jump the player is in the middle of.
+     *
+     * @param model the game to solve.
+     * @return the result of the search.
+     * @throws IllegalArgumentException if the game is played by a
+     * RulesVariant, which a Position can't hold.
+     */
+    public ProofResult solve(DraughtsModel model) {
+        return solve(Position.of(model));
+    }
+
+    /**
+     * Returns whether the player to move in a saved game can force a win.
+     *
+     * @param game the saved game to solve.
+     * @return the result of the search.
+     */
+    public ProofResult solve(SaveGame game) {
+        return solve(Position.of(game.getPieces(), game.getCurrentPlayer()));
+    }
+
+    /**
+     * Returns whether the player to move in a Position can force a win.
+     *
+     * @param position the Position to solve, which is not changed.
+     * @return the result of the search.
+     */
+    public ProofResult solve(Position position) {
+        long start = System.nanoTime();
+        Arrays.fill(keys, 0);
+        Arrays.fill(work, 0);
+        Position root = new Position(position);
+        attacker = root.getSide();
+        nodes = 0;
+        // Each move of the attacker and each reply of the defender is a turn.
+        int depth = 2 * maxDepth;
+        search(root, depth, INFINITY, INFINITY, 0);
+        int index = find(key(root, depth));
+        int rootProof = index < 0 ? 1 : proof[index];
+        int rootDisproof = index < 0 ? 1 : disproof[index];
+
+        ProofResult.Status status = ProofResult.Status.Unknown;
+        int move = 0;
+        long size = 0;
+        if (rootProof == 0) {
+            status = ProofResult.Status.Proven;
+            move = provingMove(root, depth);
+            size = proofSize(root, depth, new HashSet<Long>());
+        } else if (rootDisproof == 0) {
+            status = ProofResult.Status.Disproven;
+        }
+        return new ProofResult(status, move, size, nodes, (System.nanoTime() - start) / 1000000L);
+    }
+
+    /**
+     * Returns whether the player to move can force a win in each of a
+     * List of Positions, solving them in parallel with a ProofSolver
+     * for each thread.
+     *
+     * @param positions the Positions to solve.
+     * @param threads the number of threads to use.
+     * @param bits the log base 2 of the number of entries in each node table.
+     * @param maxDepth the most moves the player to move can take to win.
+     * @param maxNodes the most nodes to search for each Position.
+     * @return the results, in the same order as the Positions.
+     * @throws InterruptedException if interrupted whilst waiting for the results.
+     */
+    public static List<ProofResult> solveAll(List<Position> positions, int threads, final int bits,
+                                             final int maxDepth, final long maxNodes) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "proof-solver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final ThreadLocal<ProofSolver> solvers = ThreadLocal.withInitial(() -> new ProofSolver(bits, maxDepth, maxNodes));
+        try {
+            List<Future<ProofResult>> futures = new ArrayList<Future<ProofResult>>();
+            for (final Position position : positions) {
+                futures.add(executor.submit(() -> solvers.get().solve(position)));
+            }
+            List<ProofResult> results = new ArrayList<ProofResult>();
+            for (Future<ProofResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Error whilst solving.", e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Searches a Position until its proof number reaches thresholdProof or
+    // its disproof number reaches thresholdDisproof, then stores them.
+    // The attacker is trying to prove a win: at its turns the proof number
+    // is the smallest of the children's and the disproof number their sum,
+    // and at the defender's turns the other way around.
+    // @param position the Position to search.
+    // @param depth the number of turns left, which jumps that continue don't use.
+    // @param thresholdProof the proof number to search until.
+    // @param thresholdDisproof the disproof number to search until.
+    // @param ply the distance from the root.
+    private void search(Position position, int depth, int thresholdProof, int thresholdDisproof, int ply) {
+        long startNodes = nodes++;
+        long key = key(position, depth);
+        int[] buffer = buffer(ply);
+        int count = position.generateMoves(buffer, false);
+        boolean attacking = position.getSide() == attacker;
+        if (count == 0 || depth == 0) {
+            // Running out of turns is as bad for the attacker as having no moves.
+            boolean lost = attacking || count > 0;
+            store(key, lost ? INFINITY : 0, lost ? 0 : INFINITY, 1);
+            return;
+        }
+        int side = position.getSide();
+
+        while (true) {
+            int proofNumber = attacking ? INFINITY : 0;
+            int disproofNumber = attacking ? 0 : INFINITY;
+            int best = -1;
+            int bestValue = INFINITY;
+            int secondValue = INFINITY;
+            int bestProof = 0;
+            int bestDisproof = 0;
+            for (int i = 0; i < count; i++) {
+                position.makeMove(buffer[i]);
+                lookup(position, position.getSide() == side ? depth : depth - 1);
+                position.unmakeMove();
+                // The number being minimised picks the child to search.
+                int value = attacking ? childProof : childDisproof;
+                if (attacking) {
+                    proofNumber = Math.min(proofNumber, childProof);
+                    disproofNumber = add(disproofNumber, childDisproof);
+                } else {
+                    proofNumber = add(proofNumber, childProof);
+                    disproofNumber = Math.min(disproofNumber, childDisproof);
+                }
+                if (value < bestValue) {
+                    secondValue = bestValue;
+                    bestValue = value;
+                    best = i;
+                    bestProof = childProof;
+                    bestDisproof = childDisproof;
+                } else if (value < secondValue) {
+                    secondValue = value;
+                }
+            }
+            if (proofNumber >= thresholdProof || disproofNumber >= thresholdDisproof || nodes >= maxNodes) {
+                store(key, proofNumber, disproofNumber, nodes - startNodes);
+                return;
+            }
+            int childThresholdProof, childThresholdDisproof;
+            if (attacking) {
+                childThresholdProof = Math.min(thresholdProof, add(secondValue, 1));
+                childThresholdDisproof = add(thresholdDisproof - disproofNumber, bestDisproof);
+            } else {
+                childThresholdProof = add(thresholdProof - proofNumber, bestProof);
+                childThresholdDisproof = Math.min(thresholdDisproof, add(secondValue, 1));
+            }
+            position.makeMove(buffer[best]);
+            int childDepth = position.getSide() == side ? depth : depth - 1;
+            search(position, childDepth, childThresholdProof, childThresholdDisproof, ply + 1);
+            position.unmakeMove();
+        }
+    }
+
+    // Sets childProof and childDisproof to the stored numbers
+    // for a Position, or 1 and 1 if it hasn't been searched.
+    // @param position the Position to look up.
+    // @param depth the number of turns left.
+    private void lookup(Position position, int depth) {
+        int index = find(key(position, depth));
+        childProof = index < 0 ? 1 : proof[index];
+        childDisproof = index < 0 ? 1 : disproof[index];
+    }
+
+    // Returns the table key of a Position with a number of turns left.
+    // @param position the Position.
+    // @param depth the number of turns left.
+    // @return the table key.
+    private static long key(Position position, int depth) {
+        return position.getHash() ^ (depth * DEPTH_KEY);
+    }
+
+    // Returns the index of the table entry for a key, or -1.
+    // @param hash the table key of the Position.
+    // @return the index of the entry, or -1 if there isn't one.
+    private int find(long hash) {
+        int index = (int) hash & mask & ~1;
+        if (keys[index] == hash && work[index] != 0) return index;
+        if (keys[index + 1] == hash && work[index + 1] != 0) return index + 1;
+        return -1;
+    }
+
+    // Stores the numbers for a Position in its pair of slots, replacing
+    // its own entry or else the entry with the smaller subtree.
+    // @param hash the table key of the Position.
+    // @param proofNumber the proof number.
+    // @param disproofNumber the disproof number.
+    // @param searched the number of nodes searched below the Position.
+    private void store(long hash, int proofNumber, int disproofNumber, long searched) {
+        int index = find(hash);
+        if (index < 0) {
+            index = (int) hash & mask & ~1;
+            if (work[index + 1] < work[index]) index++;
+        }
+        keys[index] = hash;
+        proof[index] = proofNumber;
+        disproof[index] = disproofNumber;
+        work[index] = (int) Math.min(Integer.MAX_VALUE, Math.max(1, searched));
+    }
+
+    // Returns the encoded Move of a proven Position that keeps the proof.
+    // @param position the proven Position for the attacker to move.
+    // @param depth the number of turns left.
+    // @return the encoded Move, or 0 if the proof has been replaced in the table.
+    private int provingMove(Position position, int depth) {
+        int[] legal = new int[Position.MAX_MOVES];
+        int count = position.generateMoves(legal, false);
+        int side = position.getSide();
+        for (int i = 0; i < count; i++) {
+            position.makeMove(legal[i]);
+            int index = find(key(position, position.getSide() == side ? depth : depth - 1));
+            position.unmakeMove();
+            if (index >= 0 && proof[index] == 0) return legal[i];
+        }
+        return 0;
+    }
+
+    // Returns the number of distinct Positions in the proof tree below a
+    // proven Position: one Move for the attacker and every Move for the
+    // defender. Parts of the proof replaced in the table are not counted.
+    // @param position the proven Position.
+    // @param depth the number of turns left.
+    // @param seen the hashes of the Positions already counted.
+    // @return the number of Positions in the proof tree.
+    private long proofSize(Position position, int depth, Set<Long> seen) {
+        if (!seen.add(position.getHash())) return 0;
+        long size = 1;
+        int side = position.getSide();
+        if (side == attacker) {
+            int move = provingMove(position, depth);
+            if (move != 0) {
+                position.makeMove(move);
+                size += proofSize(position, position.getSide() == side ? depth : depth - 1, seen);
+                position.unmakeMove();
+            }
+        } else {
+            int[] legal = new int[Position.MAX_MOVES];
+            int count = position.generateMoves(legal, false);
+            for (int i = 0; i < count; i++) {
+                position.makeMove(legal[i]);
+                int childDepth = position.getSide() == side ? depth : depth - 1;
+                int index = find(key(position, childDepth));
+                if (index >= 0 && proof[index] == 0) size += proofSize(position, childDepth, seen);
+                position.unmakeMove();
+            }
+        }
+        return size;
+    }
+
+    // Returns the sum of two numbers, no larger than INFINITY.
+    // @param a the first number.
+    // @param b the second number.
+    // @return the sum, no larger than INFINITY.
+    private static int add(int a, int b) {
+        return (int) Math.min(INFINITY, (long) a + b);
+    }
+
+    // Returns the array for the Moves at a ply, creating it if needed.
+    // @param ply the distance from the root.
+    // @return the array for the Moves at the ply.
+    private int[] buffer(int ply) {
+        if (ply == moves.length) moves = Arrays.copyOf(moves, ply * 2);
+        if (moves[ply] == null) moves[ply] = new int[Position.MAX_MOVES];
+        return moves[ply];
+    }
+
+    /**
+     * Tries to prove a forced win for the player to move in saved games,
+     * using every core.
+     *
+     * @param args the most moves to win in and the most nodes to search
+     * for each game, then the names of the saved games.
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: ProofSolver <moves> <nodes> <game> [game ...]");
+            System.exit(1);
+        }
+        try {
+            int maxDepth = Integer.parseInt(args[0]);
+            long maxNodes = Long.parseLong(args[1]);
+            List<Position> positions = new ArrayList<Position>();
+            for (int i = 2; i < args.length; i++) {
+                SaveGame game = SaveGame.loadGame(args[i]);
+                positions.add(Position.of(game.getPieces(), game.getCurrentPlayer()));
+            }
+            long start = System.nanoTime();
+            List<ProofResult> results = solveAll(positions, Runtime.getRuntime().availableProcessors(), 22, maxDepth, maxNodes);
+            for (int i = 0; i < results.size(); i++) System.out.println(args[i + 2] + ": " + results.get(i));
+            System.out.println("Solved " + results.size() + " games in " + (System.nanoTime() - start) / 1000000L + " ms.");
+        } catch (Exception e) {
+            System.err.println("Error solving games. " + e);
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+}
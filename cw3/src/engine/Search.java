@@ -0,0 +1,506 @@
+package engine;
+
+import draughts.*;
+
+import java.util.*;
+
+/**
+ * A class to search Positions with iterative deepening alpha-beta.
+ * Jumps that continue a sequence don't use up depth, because the player
+ * has to make them. At the end of the main search a quiescence search
+ * follows jumps only, so that Positions are not scored part way through
+ * an exchange. The search can be stopped from another thread, and its
+ * deadline can be moved while it is running.
+ */
+
+public class Search {
+
+    /**
+     * A score larger than any other.
+     */
+    public static final int INFINITY = 32000;
+
+    /**
+     * The score for winning immediately. Wins further away score less.
+     */
+    public static final int WIN = 30000;
+
+    /**
+     * The deepest the search can go.
+     */
+    public static final int MAX_PLY = 128;
+
+    // The most a position can gain from a jump beyond the piece taken,
+    // used to skip jumps that can't raise the score to alpha.
+    private static final int DELTA_MARGIN = 50;
+
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+    private final int[][] moves = new int[MAX_PLY + 1][Position.MAX_MOVES];
+
+    private volatile boolean stopped;
+    private volatile long deadline;
+    private long nodes;
+    private long quiescenceNodes;
+    private boolean quiescence = true;
+    private MoveOrdering ordering = new HeuristicOrdering();
+    private AnalysisListener listener;
+    private TimeManager timeManager;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private long expanded;
+    private long branches;
+    private int bestMove;
+    private int bestScore;
+    private int completedDepth;
+
+    /**
+     * Constructs a new Search object.
+     *
+     * @param evaluator the Evaluator used at the leaves of the search.
+     * @param table the TranspositionTable used by the search.
+     */
+    public Search(Evaluator evaluator, TranspositionTable table) {
+        this.evaluator = evaluator;
+        this.table = table;
+    }
+
+    /**
+     * Returns the best encoded Move for a Position, searching deeper
+     * until the maximum depth is reached, the deadline passes or the
+     * search is stopped. The Position must have at least one Move.
+     *
+     * @param position the Position to search.
+     * @param maxDepth the maximum depth to search to.
+     * @param deadline the value of System.nanoTime() to stop at.
+     * @return the best encoded Move found.
+     */
+    public int search(Position position, int maxDepth, long deadline) {
+        prepare(deadline);
+        return run(position, maxDepth);
+    }
+
+    /**
+     * Clears the stop flag and sets the deadline for a search that will be
+     * started later with run. This lets another thread stop or shorten the
+     * search before it has begun.
+     *
+     * @param deadline the value of System.nanoTime() to stop at.
+     */
+    public void prepare(long deadline) {
+        this.deadline = deadline;
+        stopped = false;
+        nodes = 0;
+        quiescenceNodes = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        expanded = 0;
+        branches = 0;
+    }
+
+    /**
+     * Returns the best encoded Move for a Position, using the deadline
+     * set by prepare. The Position must have at least one Move.
+     *
+     * @param position the Position to search.
+     * @param maxDepth the maximum depth to search to.
+     * @return the best encoded Move found.
+     */
+    public int run(Position position, int maxDepth) {
+        long started = System.nanoTime();
+        long startNodes = nodes, startExpanded = expanded, startBranches = branches;
+        long probes = table.getProbes(), hits = table.getHits();
+        completedDepth = 0;
+        evaluator.attach(position);
+        int count = position.generateMoves(moves[0], false);
+        bestMove = count > 0 ? moves[0][0] : 0;
+        bestScore = 0;
+        maxDepth = Math.min(maxDepth, MAX_PLY - 1);
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            SearchIterationEvent event = new SearchIterationEvent();
+            event.begin();
+            long iterationNodes = nodes;
+            int score = alphaBeta(position, depth, -INFINITY, INFINITY, 0);
+            if (!stopped) {
+                long entry = table.probe(position.getHash());
+                if (entry != 0 && TranspositionTable.move(entry) != 0) bestMove = TranspositionTable.move(entry);
+            }
+            if (event.shouldCommit()) {
+                event.positionHash = position.getHash();
+                event.depth = depth;
+                event.nodes = nodes - iterationNodes;
+                event.score = score;
+                event.bestMove = bestMove == 0 ? null : Position.notation(bestMove);
+                event.completed = !stopped;
+                event.commit();
+            }
+            if (stopped) break;
+            bestScore = score;
+            completedDepth = depth;
+            if (listener != null) listener.depthCompleted(depth, currentLines(position), nodes);
+            if (Math.abs(score) >= WIN - MAX_PLY) break;
+            if (timeManager != null && timeManager.depthCompleted(depth, bestMove, score)) break;
+        }
+        Metrics.recordSearch(nodes - startNodes, System.nanoTime() - started, table.getProbes() - probes,
+                             table.getHits() - hits, expanded - startExpanded, branches - startBranches);
+        if (listener != null) listener.analysisFinished(currentLines(position));
+        return bestMove;
+    }
+
+    // Returns the best line found so far, for the AnalysisListener.
+    // @param position the Position being searched.
+    // @return a List holding the best line, or an empty List.
+    private List<AnalysisLine> currentLines(Position position) {
+        if (bestMove == 0) return Collections.emptyList();
+        int[] variation = principalVariation(position, completedDepth + 8);
+        if (variation.length == 0 || variation[0] != bestMove) variation = new int[] {bestMove};
+        return Collections.singletonList(new AnalysisLine(bestMove, bestScore, completedDepth, variation));
+    }
+
+    // Returns the score of a Position for the player to move.
+    // @param position the Position to search.
+    // @param depth the remaining depth.
+    // @param alpha the lower bound of the search window.
+    // @param beta the upper bound of the search window.
+    // @param ply the distance from the root.
+    // @return the score of the Position for the player to move.
+    private int alphaBeta(Position position, int depth, int alpha, int beta, int ply) {
+        if ((++nodes & 1023) == 0 && System.nanoTime() > deadline) stopped = true;
+        if (stopped) return 0;
+        if (ply >= MAX_PLY) return evaluator.evaluate(position);
+
+        long hash = position.getHash();
+        long entry = table.probe(hash);
+        int hashMove = 0;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int flag = TranspositionTable.flag(entry);
+                if (flag == TranspositionTable.EXACT
+                    || (flag == TranspositionTable.LOWER && score >= beta)
+                    || (flag == TranspositionTable.UPPER && score <= alpha)) return score;
+            }
+        }
+
+        int[] buffer = moves[ply];
+        int count = position.generateMoves(buffer, false);
+        if (count == 0) return -WIN + ply;
+        if (depth <= 0) {
+            return quiescence ? quiesce(position, alpha, beta, ply) : evaluator.evaluate(position);
+        }
+        expanded++;
+        branches += count;
+
+        ordering.order(position, buffer, count, hashMove, ply);
+
+        int side = position.getSide();
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestLocal = buffer[0];
+        for (int i = 0; i < count; i++) {
+            position.makeMove(buffer[i]);
+            int score;
+            if (position.getSide() == side) score = alphaBeta(position, depth, alpha, beta, ply + 1);
+            else score = -alphaBeta(position, depth - 1, -beta, -alpha, ply + 1);
+            position.unmakeMove();
+            if (stopped) return 0;
+            if (score > best) {
+                best = score;
+                bestLocal = buffer[i];
+            }
+            if (score > alpha) alpha = score;
+            if (alpha >= beta) {
+                cutoffs++;
+                if (i == 0) firstMoveCutoffs++;
+                ordering.cutoff(position, buffer[i], depth, ply);
+                break;
+            }
+        }
+
+        int flag = best <= originalAlpha ? TranspositionTable.UPPER
+                 : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(hash, bestLocal, toTable(best, ply), depth, flag);
+        return best;
+    }
+
+    /**
+     * Scores the Moves of a Position to a fixed depth, so that several lines
+     * can be analysed. The scores of the best Moves, up to the number of
+     * lines, are exact and the other scores are upper bounds. The Moves and
+     * their scores are sorted best first. The deadline is set by prepare.
+     *
+     * @param position the Position to search, which is not changed.
+     * @param depth the depth to search each Move to.
+     * @param rootMoves the encoded Moves of the Position, best guess first.
+     * @param scores the array the scores are written to.
+     * @param count the number of Moves.
+     * @param lines the number of Moves that need exact scores.
+     * @return true if every Move was scored before the search was stopped.
+     */
+    public boolean scoreMoves(Position position, int depth, int[] rootMoves, int[] scores, int count, int lines) {
+        evaluator.attach(position);
+        int side = position.getSide();
+        for (int i = 0; i < count; i++) {
+            int bound = i >= lines ? scores[lines - 1] : -INFINITY;
+            int move = rootMoves[i];
+            position.makeMove(move);
+            int score;
+            if (position.getSide() == side) score = alphaBeta(position, depth, bound, INFINITY, 1);
+            else score = -alphaBeta(position, depth - 1, -INFINITY, -bound, 1);
+            position.unmakeMove();
+            if (stopped) return false;
+            int j = i;
+            for (; j > 0 && scores[j - 1] < score; j--) {
+                scores[j] = scores[j - 1];
+                rootMoves[j] = rootMoves[j - 1];
+            }
+            scores[j] = score;
+            rootMoves[j] = move;
+        }
+        if (count > 0) table.store(position.getHash(), rootMoves[0], scores[0], depth, TranspositionTable.EXACT);
+        return true;
+    }
+
+    // Returns the score of a Position after following jumps only.
+    // The player to move may stand pat on the static score instead of
+    // jumping, unless a Piece is part way through a sequence of jumps.
+    // @param position the Position to search.
+    // @param alpha the lower bound of the search window.
+    // @param beta the upper bound of the search window.
+    // @param ply the distance from the root.
+    // @return the score of the Position for the player to move.
+    private int quiesce(Position position, int alpha, int beta, int ply) {
+        if ((++nodes & 1023) == 0 && System.nanoTime() > deadline) stopped = true;
+        if (stopped) return 0;
+        quiescenceNodes++;
+        if (position.isGameOver()) return -WIN + ply;
+        int standPat = evaluator.evaluate(position);
+        if (ply >= MAX_PLY) return standPat;
+        boolean continuing = position.getContinuation() >= 0;
+        int best = -INFINITY;
+        if (!continuing) {
+            if (standPat >= beta) return standPat;
+            if (standPat > alpha) alpha = standPat;
+            best = standPat;
+        }
+
+        int[] buffer = moves[ply];
+        int count = position.generateMoves(buffer, true);
+        int side = position.getSide();
+        int man = evaluator.getWeights().get(EvaluationWeights.MAN);
+        int king = evaluator.getWeights().get(EvaluationWeights.KING);
+        int kings = position.getKings();
+        for (int i = 0; i < count; i++) {
+            int move = buffer[i];
+            if (!continuing) {
+                int gain = (kings & (1 << Position.captured(move))) != 0 ? king : man;
+                if (standPat + gain + DELTA_MARGIN <= alpha) continue;
+            }
+            position.makeMove(move);
+            int score;
+            if (position.getSide() == side) score = quiesce(position, alpha, beta, ply + 1);
+            else score = -quiesce(position, -beta, -alpha, ply + 1);
+            position.unmakeMove();
+            if (stopped) return 0;
+            if (score > best) best = score;
+            if (score > alpha) alpha = score;
+            if (alpha >= beta) break;
+        }
+        return best == -INFINITY ? standPat : best;
+    }
+
+    /**
+     * Sets whether the search follows jumps past its depth.
+     *
+     * @param quiescence true if the search should follow jumps past its depth.
+     */
+    public void setQuiescence(boolean quiescence) {
+        this.quiescence = quiescence;
+    }
+
+    /**
+     * Sets the AnalysisListener told about each depth completed by run,
+     * which is called on the searching thread.
+     *
+     * @param listener the AnalysisListener, or null for none.
+     */
+    public void setListener(AnalysisListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the TimeManager that decides after each depth of run whether
+     * there is time for another. The deadline still stops the search.
+     *
+     * @param timeManager the TimeManager, or null to search until the deadline.
+     */
+    public void setTimeManager(TimeManager timeManager) {
+        this.timeManager = timeManager;
+    }
+
+    /**
+     * Sets the MoveOrdering used to choose which Moves are tried first.
+     *
+     * @param ordering the MoveOrdering to be used.
+     */
+    public void setMoveOrdering(MoveOrdering ordering) {
+        this.ordering = ordering;
+    }
+
+    /**
+     * Returns the MoveOrdering used to choose which Moves are tried first.
+     *
+     * @return the MoveOrdering used to choose which Moves are tried first.
+     */
+    public MoveOrdering getMoveOrdering() {
+        return ordering;
+    }
+
+    /**
+     * Returns the number of beta cutoffs in the last search.
+     *
+     * @return the number of beta cutoffs in the last search.
+     */
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    /**
+     * Returns the fraction of beta cutoffs in the last search that were
+     * caused by the first Move tried, which shows how good the ordering is.
+     *
+     * @return the fraction of cutoffs on the first Move, or 0 if there were none.
+     */
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    /**
+     * Returns the number of nodes of the last search that were in the
+     * quiescence search.
+     *
+     * @return the number of quiescence nodes of the last search.
+     */
+    public long getQuiescenceNodes() {
+        return quiescenceNodes;
+    }
+
+    // Returns a score made relative to the node, for storing in the table.
+    // @param score the score relative to the root.
+    // @param ply the distance from the root.
+    // @return the score relative to the node.
+    private static int toTable(int score, int ply) {
+        if (score >= WIN - MAX_PLY) return score + ply;
+        if (score <= -WIN + MAX_PLY) return score - ply;
+        return score;
+    }
+
+    // Returns a score from the table made relative to the root.
+    // @param score the score relative to the node.
+    // @param ply the distance from the root.
+    // @return the score relative to the root.
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN - MAX_PLY) return score - ply;
+        if (score <= -WIN + MAX_PLY) return score + ply;
+        return score;
+    }
+
+    /**
+     * Returns the principal variation from the table: the Moves both players
+     * are expected to make, starting from a Position.
+     *
+     * @param position the Position to start from, which is not changed.
+     * @param maxLength the most Moves to return.
+     * @return the encoded Moves of the principal variation.
+     */
+    public int[] principalVariation(Position position, int maxLength) {
+        Position scratch = new Position(position);
+        int[] line = new int[maxLength];
+        int[] legal = new int[Position.MAX_MOVES];
+        int length = 0;
+        while (length < maxLength) {
+            long entry = table.probe(scratch.getHash());
+            int move = entry == 0 ? 0 : TranspositionTable.move(entry);
+            if (move == 0 || !contains(legal, scratch.generateMoves(legal, false), move)) break;
+            line[length++] = move;
+            scratch.makeMove(move);
+        }
+        return Arrays.copyOf(line, length);
+    }
+
+    // Returns true if an array of Moves contains a Move.
+    // @param moves the array of encoded Moves.
+    // @param count the number of Moves in the array.
+    // @param move the encoded Move to be found.
+    // @return true if the array contains the Move.
+    private static boolean contains(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stops the search as soon as possible. The result of the
+     * last completed depth is kept.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Moves the deadline of a running search.
+     *
+     * @param deadline the value of System.nanoTime() to stop at.
+     */
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Returns the best encoded Move found by the last search.
+     *
+     * @return the best encoded Move found by the last search.
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * Returns the score of the best Move found by the last search.
+     *
+     * @return the score of the best Move found by the last search.
+     */
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    /**
+     * Returns the deepest depth completed by the last search.
+     *
+     * @return the deepest depth completed by the last search.
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Returns the number of nodes visited by the last search.
+     *
+     * @return the number of nodes visited by the last search.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the TranspositionTable used by the search.
+     *
+     * @return the TranspositionTable used by the search.
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+}
@@ -0,0 +1,39 @@
+package engine;
+
+import jdk.jfr.*;
+
+/**
+ * A Flight Recorder event for one iteration of the iterative deepening
+ * in Search. It is on by default and can be turned off in the JFR settings
+ * as draughts.SearchIteration.
+ */
+
+@Name("draughts.SearchIteration")
+@Label("Search Iteration")
+@Category({"Draughts", "Engine"})
+@Description("One depth of an engine search")
+@StackTrace(false)
+class SearchIterationEvent extends Event {
+
+    @Label("Position Hash")
+    @Description("The Zobrist hash of the position searched")
+    long positionHash;
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Nodes")
+    @Description("The nodes searched at this depth")
+    long nodes;
+
+    @Label("Score")
+    int score;
+
+    @Label("Best Move")
+    String bestMove;
+
+    @Label("Completed")
+    @Description("Whether the depth finished before the search was stopped")
+    boolean completed;
+
+}
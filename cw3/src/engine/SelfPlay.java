@@ -0,0 +1,126 @@
+package engine;
+
+import draughts.*;
+
+import java.util.*;
+
+/**
+ * A class to play quick games of the engine against itself and record
+ * the Positions of each game, labelled with its result, in a PositionCorpus.
+ * Each Move is chosen by a one ply search with some random Moves mixed in
+ * so that the games cover a wide range of Positions.
+ */
+
+public class SelfPlay {
+
+    private final Evaluator evaluator;
+    private final Random random;
+    private final double randomness;
+    private final int maxPlies;
+    private final int[] moves = new int[Position.MAX_MOVES];
+    private int[] game = new int[4 * 256];
+
+    /**
+     * Constructs a new SelfPlay object.
+     *
+     * @param evaluator the Evaluator used to choose Moves.
+     * @param seed the seed for the random Moves.
+     * @param randomness the probability of playing a random Move.
+     * @param maxPlies the number of Moves after which a game is drawn.
+     */
+    public SelfPlay(Evaluator evaluator, long seed, double randomness, int maxPlies) {
+        this.evaluator = evaluator;
+        this.random = new Random(seed);
+        this.randomness = randomness;
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Plays a game from the start and adds its Positions to a corpus.
+     *
+     * @param corpus the corpus the Positions are added to.
+     * @return the result of the game: RED_WIN, DRAW or WHITE_WIN.
+     */
+    public int playGame(PositionCorpus corpus) {
+        return playGame(Position.initial(), corpus);
+    }
+
+    /**
+     * Plays a game from a Position and adds its Positions to a corpus.
+     * Positions part way through a sequence of jumps are not added.
+     *
+     * @param start the Position to play from, which is not changed.
+     * @param corpus the corpus the Positions are added to.
+     * @return the result of the game: RED_WIN, DRAW or WHITE_WIN.
+     */
+    public int playGame(Position start, PositionCorpus corpus) {
+        Position position = new Position(start);
+        evaluator.attach(position);
+        int count = 0;
+        int result = PositionCorpus.DRAW;
+        for (int ply = 0; ply < maxPlies; ply++) {
+            if (position.getContinuation() < 0) {
+                if (4 * count == game.length) game = Arrays.copyOf(game, game.length * 2);
+                game[4 * count] = position.getRed();
+                game[4 * count + 1] = position.getWhite();
+                game[4 * count + 2] = position.getKings();
+                game[4 * count + 3] = position.getSide();
+                count++;
+            }
+            int moveCount = position.generateMoves(moves, false);
+            if (moveCount == 0) {
+                result = position.getSide() == Position.RED ? PositionCorpus.WHITE_WIN : PositionCorpus.RED_WIN;
+                break;
+            }
+            position.makeMove(chooseMove(position, moveCount));
+        }
+        corpus.addGame(game, count, result);
+        return result;
+    }
+
+    // Returns the Move with the best score one ply ahead, or a random Move.
+    // @param position the Position to choose a Move for.
+    // @param count the number of Moves generated for the Position.
+    // @return the chosen Move.
+    private int chooseMove(Position position, int count) {
+        if (random.nextDouble() < randomness) return moves[random.nextInt(count)];
+        int side = position.getSide();
+        int best = moves[0];
+        int bestScore = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            position.makeMove(moves[i]);
+            int score = evaluator.evaluate(position);
+            if (position.getSide() != side) score = -score;
+            position.unmakeMove();
+            // Break ties randomly so that games don't repeat.
+            score = 4 * score + random.nextInt(4);
+            if (score > bestScore) {
+                bestScore = score;
+                best = moves[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Adds the Positions of the saved games to a corpus. Saved games are only
+     * a single Position, so each one is played out to find a result.
+     *
+     * @param corpus the corpus the Positions are added to.
+     * @return the number of saved games used.
+     */
+    public int addSavedGames(PositionCorpus corpus) {
+        int used = 0;
+        for (String gameName : SaveGame.savedGames()) {
+            SaveGame game = SaveGame.loadGame(gameName);
+            try {
+                playGame(Position.of(game.getPieces(), game.getCurrentPlayer()), corpus);
+                used++;
+            } catch (RuntimeException e) {
+                System.err.println("Skipping saved game " + gameName + ": " + e);
+            }
+        }
+        return used;
+    }
+
+}
@@ -0,0 +1,148 @@
+package engine;
+
+import draughts.*;
+
+/**
+ * A class to decide how long to search for each Move in a timed game.
+ * Each Move is given a target time from the time left, the increment and
+ * the number of moves until more time is added, scaled by how complicated
+ * the Position is. After each depth of the Search the target shrinks while
+ * the best Move stays the same and grows when it changes or the score
+ * drops. The Search is always stopped by a hard deadline, so the engine
+ * never runs out of time.
+ */
+
+public class TimeManager {
+
+    // The number of moves the time is shared between when there
+    // is no moves in time control, and the time kept in hand for
+    // the delay between the engine choosing a Move and the clock stopping.
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    private static final long MARGIN = 50;
+
+    // The share of the target time used after the best Move has stayed
+    // the same for 0, 1, 2 ... depths, in percent.
+    private static final int[] STABILITY = {250, 160, 120, 100, 85, 70};
+
+    // The drop in score that makes the Search think for longer.
+    private static final int SCORE_DROP = 30;
+
+    private boolean active;
+    private long start;
+    private long target;
+    private long maximum;
+    private int lastMove;
+    private int lastScore;
+    private int stableDepths;
+    private boolean scoreDropped;
+
+    /**
+     * Starts timing a Move, returning the hard deadline for the Search.
+     *
+     * @param position the Position to be searched.
+     * @param remaining the time the engine has left, in milliseconds.
+     * @param increment the time added after the Move, in milliseconds.
+     * @param movesToGo the number of moves until more time is added, or 0.
+     * @return the value of System.nanoTime() the Search must stop at.
+     */
+    public synchronized long start(Position position, long remaining, long increment, int movesToGo) {
+        start = System.nanoTime();
+        active = true;
+        lastMove = 0;
+        stableDepths = 0;
+        scoreDropped = false;
+
+        long usable = Math.max(1, remaining - MARGIN);
+        int moves = movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO;
+        long share = usable / moves + increment * 3 / 4;
+        int[] legal = new int[Position.MAX_MOVES];
+        int count = position.generateMoves(legal, false);
+        if (count <= 1) {
+            // There is nothing to decide, so only search far enough to have a reply to ponder.
+            target = 0;
+            maximum = Math.min(usable, Math.max(1, share / 10));
+        } else {
+            target = share * complexity(legal, count) / 100;
+            // Never spend more than a fifth of the time left, or all of it on the last move of a period.
+            long cap = moves == 1 ? usable : usable / 5 + increment;
+            maximum = Math.max(1, Math.min(usable, Math.min(cap, target * 4)));
+            target = Math.min(target, maximum);
+        }
+        return start + maximum * 1000000L;
+    }
+
+    /**
+     * Stops timing, so that a Search without a clock, such
+     * as pondering, is never stopped by the TimeManager.
+     */
+    public synchronized void reset() {
+        active = false;
+    }
+
+    /**
+     * Called by the Search after each depth, returning true if there
+     * isn't time for another depth.
+     *
+     * @param depth the depth that was completed.
+     * @param move the best encoded Move.
+     * @param score the score of the best Move.
+     * @return true if the Search should stop.
+     */
+    public synchronized boolean depthCompleted(int depth, int move, int score) {
+        if (!active) return false;
+        if (move == lastMove) stableDepths++;
+        else stableDepths = 0;
+        if (depth > 1 && score < lastScore - SCORE_DROP) scoreDropped = true;
+        lastMove = move;
+        lastScore = score;
+        long scaled = target * STABILITY[Math.min(stableDepths, STABILITY.length - 1)] / 100;
+        if (scoreDropped) scaled = scaled * 3 / 2;
+        // The next depth usually takes longer than all the depths before it,
+        // so it isn't started once half of the time has been used.
+        return getElapsed() * 2 >= Math.min(scaled, maximum);
+    }
+
+    /**
+     * Returns the target time for the current Move.
+     *
+     * @return the target time, in milliseconds.
+     */
+    public synchronized long getTarget() {
+        return target;
+    }
+
+    /**
+     * Returns the longest time the current Move can take.
+     *
+     * @return the longest time, in milliseconds.
+     */
+    public synchronized long getMaximum() {
+        return maximum;
+    }
+
+    /**
+     * Returns the time spent on the current Move.
+     *
+     * @return the time spent on the current Move, in milliseconds.
+     */
+    public synchronized long getElapsed() {
+        return (System.nanoTime() - start) / 1000000L;
+    }
+
+    // Returns how much of the share of time a Position deserves, in percent.
+    // Positions with many Moves or with jumps to consider get more time.
+    // @param moves the encoded Moves of the Position.
+    // @param count the number of Moves.
+    // @return the share of time, in percent.
+    private static int complexity(int[] moves, int count) {
+        int percent = 70 + 4 * Math.min(count, 15);
+        for (int i = 0; i < count; i++) {
+            if (Position.isJump(moves[i])) {
+                percent += 20;
+                break;
+            }
+        }
+        return percent;
+    }
+
+}
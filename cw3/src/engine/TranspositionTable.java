@@ -0,0 +1,153 @@
+package engine;
+
+import java.util.*;
+
+/**
+ * A class to store the results of searching Positions, keyed by their hash.
+ * Entries are packed into two longs in primitive arrays. The key is stored
+ * XORed with the data so that an entry torn by two threads writing at once
+ * is seen as a miss rather than as wrong data.
+ */
+
+public class TranspositionTable {
+
+    /**
+     * The flag for a score that is exact.
+     */
+    public static final int EXACT = 0;
+
+    /**
+     * The flag for a score that is at least the stored value.
+     */
+    public static final int LOWER = 1;
+
+    /**
+     * The flag for a score that is at most the stored value.
+     */
+    public static final int UPPER = 2;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private long probes;
+    private long hits;
+
+    /**
+     * Constructs a new TranspositionTable object.
+     *
+     * @param bits the log base 2 of the number of entries.
+     */
+    public TranspositionTable(int bits) {
+        keys = new long[1 << bits];
+        data = new long[1 << bits];
+        mask = (1 << bits) - 1;
+    }
+
+    /**
+     * Returns the data stored for a hash, or 0 if there is none.
+     * The data should be unpacked with move, score, depth and flag.
+     *
+     * @param hash the hash of the Position.
+     * @return the data stored for the hash, or 0.
+     */
+    public long probe(long hash) {
+        probes++;
+        int index = (int) hash & mask;
+        long entry = data[index];
+        if (entry != 0 && (keys[index] ^ entry) == hash) {
+            hits++;
+            return entry;
+        }
+        return 0;
+    }
+
+    /**
+     * Stores the result of searching a Position. An entry for a different
+     * Position is always replaced, and an entry for the same Position is
+     * replaced unless it was searched deeper.
+     *
+     * @param hash the hash of the Position.
+     * @param move the best encoded Move, or 0.
+     * @param score the score of the Position.
+     * @param depth the depth the Position was searched to.
+     * @param flag EXACT, LOWER or UPPER.
+     */
+    public void store(long hash, int move, int score, int depth, int flag) {
+        int index = (int) hash & mask;
+        long old = data[index];
+        if (old != 0 && (keys[index] ^ old) == hash && depth(old) > depth && flag != EXACT) return;
+        long entry = (move & 0x1FFFL) | ((long) (depth & 0xFF) << 13) | ((long) flag << 21)
+                   | ((long) (score & 0xFFFF) << 32) | (1L << 63);
+        data[index] = entry;
+        keys[index] = hash ^ entry;
+    }
+
+    /**
+     * Returns the best encoded Move from an entry.
+     *
+     * @param entry the entry returned by probe.
+     * @return the best encoded Move, or 0.
+     */
+    public static int move(long entry) {
+        return (int) (entry & 0x1FFF);
+    }
+
+    /**
+     * Returns the depth from an entry.
+     *
+     * @param entry the entry returned by probe.
+     * @return the depth the Position was searched to.
+     */
+    public static int depth(long entry) {
+        return (int) ((entry >> 13) & 0xFF);
+    }
+
+    /**
+     * Returns the flag from an entry.
+     *
+     * @param entry the entry returned by probe.
+     * @return EXACT, LOWER or UPPER.
+     */
+    public static int flag(long entry) {
+        return (int) ((entry >> 21) & 3);
+    }
+
+    /**
+     * Returns the score from an entry.
+     *
+     * @param entry the entry returned by probe.
+     * @return the score of the Position.
+     */
+    public static int score(long entry) {
+        return (short) (entry >> 32);
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+        probes = 0;
+        hits = 0;
+    }
+
+    /**
+     * Returns the number of times the table has been probed.
+     *
+     * @return the number of times the table has been probed.
+     */
+    public long getProbes() {
+        return probes;
+    }
+
+    /**
+     * Returns the number of probes that found an entry.
+     *
+     * @return the number of probes that found an entry.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+}
@@ -0,0 +1,220 @@
+package engine;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A class to tune the weights of the evaluation function using the
+ * Texel method. The error is the mean squared difference between each
+ * game result and a sigmoid of the evaluation of a Position from that
+ * game. The gradient of the error is computed in parallel over chunks
+ * of the corpus and minimised with the Adam optimiser.
+ */
+
+public class Tuner {
+
+    private final PositionCorpus corpus;
+    private final ExecutorService executor;
+    private final int chunks;
+    private double scale = 1.0;
+
+    /**
+     * Constructs a new Tuner object.
+     *
+     * @param corpus the corpus of labelled Positions.
+     * @param threads the number of threads used to compute the gradient.
+     */
+    public Tuner(PositionCorpus corpus, int threads) {
+        this.corpus = corpus;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.chunks = threads * 4;
+    }
+
+    /**
+     * Stops the threads used by the Tuner.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the scale applied to evaluations before the sigmoid.
+     *
+     * @return the scale applied to evaluations before the sigmoid.
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Returns the error of a set of weights over the corpus.
+     *
+     * @param weights the weights of the evaluation function.
+     * @return the mean squared error of the weights.
+     */
+    public double error(double[] weights) {
+        return gradient(weights, null);
+    }
+
+    /**
+     * Sets the scale to the value that minimises the error of a set of
+     * weights, so the sigmoid matches how decisive the scores are.
+     *
+     * @param weights the weights of the evaluation function.
+     * @return the scale that minimises the error.
+     */
+    public double fitScale(double[] weights) {
+        double low = 0.01, high = 10.0;
+        for (int i = 0; i < 40; i++) {
+            double a = low + (high - low) / 3, b = high - (high - low) / 3;
+            scale = a;
+            double errorA = error(weights);
+            scale = b;
+            double errorB = error(weights);
+            if (errorA < errorB) high = b;
+            else low = a;
+        }
+        scale = (low + high) / 2;
+        return scale;
+    }
+
+    /**
+     * Returns the weights that minimise the error, starting from a set of
+     * weights. The weight of a man is kept fixed so the scores stay in
+     * hundredths of a man.
+     *
+     * @param start the weights to start from.
+     * @param epochs the number of passes over the corpus.
+     * @param rate the learning rate.
+     * @return the tuned weights.
+     */
+    public EvaluationWeights tune(EvaluationWeights start, int epochs, double rate) {
+        double[] weights = new double[EvaluationWeights.COUNT];
+        for (int i = 0; i < weights.length; i++) weights[i] = start.get(i);
+        fitScale(weights);
+        double[] gradient = new double[weights.length];
+        double[] m = new double[weights.length];
+        double[] v = new double[weights.length];
+        double beta1 = 0.9, beta2 = 0.999;
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            gradient(weights, gradient);
+            for (int i = 0; i < weights.length; i++) {
+                if (i == EvaluationWeights.MAN) continue;
+                m[i] = beta1 * m[i] + (1 - beta1) * gradient[i];
+                v[i] = beta2 * v[i] + (1 - beta2) * gradient[i] * gradient[i];
+                double mHat = m[i] / (1 - Math.pow(beta1, epoch));
+                double vHat = v[i] / (1 - Math.pow(beta2, epoch));
+                weights[i] -= rate * mHat / (Math.sqrt(vHat) + 1e-12);
+            }
+        }
+        int[] values = new int[weights.length];
+        for (int i = 0; i < weights.length; i++) values[i] = (int) Math.round(weights[i]);
+        return new EvaluationWeights(values);
+    }
+
+    // Computes the error of a set of weights and, if gradient is not
+    // null, the gradient of the error with respect to each weight.
+    // @param weights the weights of the evaluation function.
+    // @param gradient the array the gradient is written to, or null.
+    // @return the mean squared error of the weights.
+    private double gradient(final double[] weights, double[] gradient) {
+        final boolean withGradient = gradient != null;
+        int size = corpus.size();
+        if (size == 0) return 0;
+        List<Future<double[]>> parts = new ArrayList<Future<double[]>>();
+        int chunkSize = (size + chunks - 1) / chunks;
+        for (int start = 0; start < size; start += chunkSize) {
+            final int from = start, to = Math.min(size, start + chunkSize);
+            parts.add(executor.submit(() -> chunk(weights, from, to, withGradient)));
+        }
+        double[] total = new double[weights.length + 1];
+        try {
+            for (Future<double[]> part : parts) {
+                double[] sums = part.get();
+                for (int i = 0; i < total.length; i++) total[i] += sums[i];
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted whilst tuning.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error whilst tuning.", e.getCause());
+        }
+        if (withGradient) {
+            for (int i = 0; i < weights.length; i++) gradient[i] = total[i] / size;
+        }
+        return total[weights.length] / size;
+    }
+
+    // Returns the sums of the gradient and the squared error over a chunk
+    // of the corpus. The squared error is in the last element.
+    // @param weights the weights of the evaluation function.
+    // @param from the index of the first Position in the chunk.
+    // @param to the index after the last Position in the chunk.
+    // @param withGradient true if the gradient should be summed.
+    // @return the sums of the gradient and the squared error.
+    private double[] chunk(double[] weights, int from, int to, boolean withGradient) {
+        int count = weights.length;
+        double[] sums = new double[count + 1];
+        int[] features = new int[count];
+        double k = scale / 100.0;
+        for (int i = from; i < to; i++) {
+            Evaluator.features(corpus.getRed(i), corpus.getWhite(i), corpus.getKings(i), features);
+            double score = 0;
+            for (int j = 0; j < count; j++) score += weights[j] * features[j];
+            double predicted = 1.0 / (1.0 + Math.exp(-k * score));
+            double difference = predicted - corpus.getResult(i) / 2.0;
+            sums[count] += difference * difference;
+            if (withGradient) {
+                double common = 2 * difference * predicted * (1 - predicted) * k;
+                for (int j = 0; j < count; j++) sums[j] += common * features[j];
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Builds a corpus or tunes the weights from the command line.
+     * <pre>
+     * Tuner selfplay &lt;games&gt; &lt;corpus&gt;
+     * Tuner saved &lt;corpus&gt;
+     * Tuner tune &lt;corpus&gt; &lt;weights&gt; [epochs]
+     * </pre>
+     *
+     * @param args the arguments provided by the user.
+     */
+    public static void main(String[] args) {
+        try {
+            if (args.length == 3 && args[0].equals("selfplay")) {
+                int games = Integer.parseInt(args[1]);
+                PositionCorpus corpus = new PositionCorpus(games * 64);
+                SelfPlay selfPlay = new SelfPlay(new Evaluator(), System.nanoTime(), 0.1, 300);
+                for (int i = 0; i < games; i++) selfPlay.playGame(corpus);
+                corpus.save(args[2]);
+                System.out.println("Saved " + corpus.size() + " positions from " + games + " games.");
+            } else if (args.length == 2 && args[0].equals("saved")) {
+                PositionCorpus corpus = new PositionCorpus(1024);
+                int games = new SelfPlay(new Evaluator(), System.nanoTime(), 0.1, 300).addSavedGames(corpus);
+                corpus.save(args[1]);
+                System.out.println("Saved " + corpus.size() + " positions from " + games + " saved games.");
+            } else if ((args.length == 3 || args.length == 4) && args[0].equals("tune")) {
+                PositionCorpus corpus = PositionCorpus.load(args[1]);
+                int epochs = args.length == 4 ? Integer.parseInt(args[3]) : 200;
+                Tuner tuner = new Tuner(corpus, Runtime.getRuntime().availableProcessors());
+                long start = System.nanoTime();
+                EvaluationWeights weights = tuner.tune(EvaluationWeights.defaults(), epochs, 1.0);
+                long millis = (System.nanoTime() - start) / 1000000;
+                tuner.shutdown();
+                weights.save(args[2], "Tuned on " + corpus.size() + " positions with scale " + tuner.getScale());
+                System.out.println("Tuned " + weights + " in " + millis + " ms.");
+            } else {
+                System.err.println("Usage: Tuner selfplay <games> <corpus> | saved <corpus> | tune <corpus> <weights> [epochs]");
+                System.exit(1);
+            }
+        } catch (Exception e) {
+            System.err.println("Error tuning weights. " + e);
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+}
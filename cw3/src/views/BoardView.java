@@ -8,200 +8,403 @@ import java.awt.*;
 import java.awt.image.*;
 import java.awt.event.*;
 import java.util.*;
+import java.util.concurrent.*;
+import javax.swing.Timer;
 
 /**
- * A view to display the board and the pieces.
+ * A view to display the board and the pieces. The empty board and each
+ * kind of piece are drawn once into images, the pieces are kept in an
+ * array indexed by square, and only the squares that change are repainted.
+ * The view can follow a DraughtsModel as a GameListener, so each Move
+ * repaints just the squares it touches.
+ * Changes to the board are queued and applied on the event dispatch thread
+ * by a Timer. A Move is animated over a fixed time, and the changes after
+ * it wait until it lands, so the thread playing the game never waits for
+ * the view and the steps of a multiple jump are animated one by one.
  */
 
-public class BoardView extends JPanel implements MouseListener {
+public class BoardView extends JPanel implements MouseListener, GameListener {
 
     private static final long serialVersionUID = -4369812185188908867L;
 
-    private static final int maxY = 7;
     private static final int minY = 0;
-    private static final int maxX = 7;
     private static final int minX = 0;
     private static final int wBorder = 35;
     private static final int hBorder = 35;
     private static final int squareSize = 50;
-    private static int boardSize = 8 * squareSize;
+    // The time to animate a Move and the time between frames, in milliseconds.
+    private static final long animationTime = 250;
+    private static final int frameTime = 15;
+    private static final Color DARK = Color.green.darker().darker();
+    private static final Color SHADOW = new Color(49, 49, 51);
+    // The kind of piece on a square: a bit for each Colour and one for kings.
+    private static final int RED = 1;
+    private static final int WHITE = 2;
+    private static final int KING = 4;
+    private final int maxY;
+    private final int maxX;
+    private final int boardSize;
     private BufferedImage king;
+    private BufferedImage background;
+    // The image of each kind of piece, and of each kind when selected.
+    private BufferedImage[][] sprites = new BufferedImage[2][8];
     private JLabel label;
-    private Set<Piece> pieces;
+    private int[] squares;
     private ActionListener listener;
     private Point selected = new Point(-1, -1);
-    private Piece animatedPiece;
+    private int animatedPiece;
     private int x, y, startX, startY;
     private Point start, destination;
+    private long animationStart;
+    private Move hint;
+    // The changes to the board waiting to be applied on the event dispatch thread.
+    private final Queue<Runnable> steps = new ConcurrentLinkedQueue<Runnable>();
+    private Timer timer;
 
     /**
-     * Constructs a new BoardView object.
+     * Constructs a new BoardView object for an 8 by 8 board.
      */
     public BoardView() {
+        this(BoardGeometry.ENGLISH);
+    }
+
+    /**
+     * Constructs a new BoardView object for a board of any size.
+     *
+     * @param geometry the BoardGeometry of the board.
+     */
+    public BoardView(BoardGeometry geometry) {
+        maxX = geometry.getSize() - 1;
+        maxY = geometry.getSize() - 1;
+        boardSize = geometry.getSize() * squareSize;
         try {
             setPreferredSize(new Dimension(boardSize + (2 * wBorder), boardSize + (2 * hBorder)));
-            pieces = new HashSet<Piece>();
+            squares = new int[geometry.getSize() * geometry.getSize()];
             king = ImageIO.read(this.getClass().getResource("/king.png"));
+            background = drawBackground();
+            for (int kind : new int[] {RED, WHITE, RED | KING, WHITE | KING}) {
+                sprites[0][kind] = drawSprite(kind, 255);
+                sprites[1][kind] = drawSprite(kind, 200);
+            }
+            timer = new Timer(frameTime, e -> step());
             label = new JLabel("");
-            label.setForeground(new Color(49, 49, 51));
+            label.setForeground(SHADOW);
             label.setFont(new Font("Helvetica Neue", Font.BOLD, 14));
             add(label);
             addMouseListener(this);
+            bindKey('h', "hint");
+            bindKey('u', "undo");
+            bindKey('r', "redo");
         } catch (Exception e) {
             System.err.println("Error reading king file.");
             System.exit(1);
         }
     }
 
+    // Sends an ActionEvent with a command to the listener when a key is pressed.
+    // @param key the key to bind.
+    // @param command the action command of the ActionEvent.
+    private void bindKey(char key, final String command) {
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(key), command);
+        getActionMap().put(command, new AbstractAction() {
+            private static final long serialVersionUID = 1L;
+
+            public void actionPerformed(ActionEvent e) {
+                if (listener != null) listener.actionPerformed(new ActionEvent(BoardView.this, 0, command));
+            }
+        });
+    }
+
+    // Returns an image of the board with no pieces on it.
+    // @return an image of the empty board.
+    private BufferedImage drawBackground() {
+        int width = boardSize + (2 * wBorder);
+        int height = boardSize + (2 * hBorder);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.white);
+        g.fillRect(0, 0, width, height);
+        g.setColor(DARK);
+        g.fillRect(wBorder - 2, hBorder - 2, (boardSize + 4), (boardSize + 4));
+        for (int i = 0, j = wBorder; i <= maxX; i++, j += squareSize) {
+            for (int k = 0, l = hBorder; k <= maxY; k++, l += squareSize) {
+                g.setColor((i + k) % 2 == 0 ? Color.white : DARK);
+                g.fillRect(j, l, squareSize, squareSize);
+            }
+        }
+        g.dispose();
+        return image;
+    }
+
+    // Returns an image of a kind of piece the size of a square.
+    // @param kind the kind of piece.
+    // @param alpha the alpha of the piece, lower when it is selected.
+    // @return an image of the piece.
+    private BufferedImage drawSprite(int kind, int alpha) {
+        BufferedImage image = new BufferedImage(squareSize, squareSize, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                            RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(SHADOW);
+        g.fillOval(6, 6, squareSize - 9, squareSize - 9);
+        if ((kind & RED) != 0) g.setColor(new Color(204, 0, 0, alpha));
+        else g.setColor(new Color(255, 250, 250, alpha));
+        g.fillOval(5, 5, squareSize - 10, squareSize - 10);
+        if ((kind & KING) != 0) g.drawImage(king, 0, 0, squareSize, squareSize, null);
+        g.dispose();
+        return image;
+    }
+
     /**
-     * Draws the board and pieces.
+     * Draws the board and the pieces on the squares that need repainting.
      *
      * @param g0 the Graphics object to draw to.
      */
     public void paintComponent(Graphics g0) {
         super.paintComponent(g0);
         Graphics2D g = (Graphics2D) g0;
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                            RenderingHints.VALUE_ANTIALIAS_ON);
-        g.setColor(Color.white);
-        g.fillRect(0, 0, boardSize + (2 * wBorder), boardSize + (2 * hBorder));
-        g.setColor(Color.green.darker().darker());
-        int wInner = wBorder - 2;
-        int hInner = hBorder - 2;
-        g.fillRect(wInner, hInner, (boardSize + 4), (boardSize + 4));
-        boolean white = true;
-        for (int i = 0, j = wBorder; i <= maxX; i++, j += squareSize) {
-            for (int k = 0, l = hBorder; k <= maxY; k++, l += squareSize) {
-                if (white) g.setColor(Color.white);
-                else g.setColor(Color.green.darker().darker());
-                g.fillRect(j, l, squareSize, squareSize);
-                white = !white;
-                drawPiece(getPiece(i, k), j, l, g);
+        g.drawImage(background, 0, 0, null);
+        for (int k = 0, l = hBorder; k <= maxY; k++, l += squareSize) {
+            for (int i = 0, j = wBorder; i <= maxX; i++, j += squareSize) {
+                int kind = squares[index(i, k)];
+                if (kind != 0 && g.hitClip(j, l, squareSize, squareSize)) drawPiece(kind, i, k, j, l, g);
             }
-            white = !white;
         }
-        drawPiece(animatedPiece, x, y, g);
+        if (animatedPiece != 0) drawPiece(animatedPiece, -1, -1, x, y, g);
+        Move hint = this.hint;
+        if (hint != null) {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                                RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(Color.yellow);
+            g.setStroke(new BasicStroke(3));
+            g.drawRect(wBorder + hint.piece.getX() * squareSize + 1, hBorder + hint.piece.getY() * squareSize + 1,
+                       squareSize - 3, squareSize - 3);
+            g.drawRect(wBorder + (int) hint.destination.getX() * squareSize + 1,
+                       hBorder + (int) hint.destination.getY() * squareSize + 1, squareSize - 3, squareSize - 3);
+        }
     }
 
-    // Draws a Piece.
-    // @param piece the Piece to be drawn.
+    // Draws a piece.
+    // @param kind the kind of piece to be drawn.
+    // @param i the x coordinate of the piece on the board, or -1 if it is moving.
+    // @param k the y coordinate of the piece on the board, or -1 if it is moving.
     // @param dX the x coordinate of the upper left corner of
-    // the square that will contain the Piece.
+    // the square that will contain the piece.
     // @param dY the y coordinate of the upper left corner of
-    // the square that will contain the Piece.
+    // the square that will contain the piece.
     // @param g the Graphics2D object to be drawn to.
-    private void drawPiece(Piece piece, int dX, int dY, Graphics2D g) {
-        if (piece != null) {
-            g.setColor(new Color(49, 49, 51));
-            g.fillOval(dX + 6, dY + 6, squareSize - 9, squareSize - 9);
-            g.setColor(getColor(piece.getColour(), piece.getX(), piece.getY()));
-            g.fillOval(dX + 5, dY + 5, squareSize - 10, squareSize - 10);
-            if (piece.isKing()) g.drawImage(king, dX, dY, squareSize, squareSize, null);
-        }
+    private void drawPiece(int kind, int i, int k, int dX, int dY, Graphics2D g) {
+        boolean isSelected = i == (int) selected.getX() && k == (int) selected.getY();
+        g.drawImage(sprites[isSelected ? 1 : 0][kind], dX, dY, null);
     }
 
-    // Returns the correct Color for the Piece.
-    // @param player the Colour of the current player.
-    // @param x the x coordinate of the Piece.
-    // @param y the y coordinate of the Piece.
-    // @return the correct Color for the Piece.
-    private Color getColor(Colour player, int x, int y) {
-        int alpha = 255;
-        if (x == (int) selected.getX() && y == (int) selected.getY()) alpha = 200;
-        if (player.equals(Colour.Red)) return new Color(204, 0, 0, alpha);
-        else return new Color(255, 250, 250, alpha);
+    // Returns the index of a square in the array of squares.
+    // @param x the x coordinate of the square.
+    // @param y the y coordinate of the square.
+    // @return the index of the square.
+    private int index(int x, int y) {
+        return y * (maxX + 1) + x;
     }
 
-    // Returns the Piece with the specified coordinates.
-    // @param x the x coordinate of the Piece.
-    // @param y the y coordinate of the Piece.
-    // @return the Piece with the specified coordinates.
-    private Piece getPiece(int x, int y) {
-        for (Piece piece : pieces) {
-            if (piece.getX() == x && piece.getY() == y) return piece;
-        }
-        return null;
+    // Returns true if the coordinates are on the board.
+    // @param x the x coordinate.
+    // @param y the y coordinate.
+    // @return true if the coordinates are on the board.
+    private boolean isOnBoard(int x, int y) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    // Returns the kind of a Piece.
+    // @param piece the Piece.
+    // @return the kind of the Piece.
+    private static int kindOf(Piece piece) {
+        return (piece.getColour().equals(Colour.Red) ? RED : WHITE) | (piece.isKing() ? KING : 0);
+    }
+
+    // Repaints a square, and the outline of a hint drawn around it.
+    // @param x the x coordinate of the square.
+    // @param y the y coordinate of the square.
+    private void repaintSquare(int x, int y) {
+        if (isOnBoard(x, y)) repaint(wBorder + x * squareSize - 1, hBorder + y * squareSize - 1, squareSize + 2, squareSize + 2);
+    }
+
+    // Sets the kind of piece on a square, repainting it if it changed.
+    // @param x the x coordinate of the square.
+    // @param y the y coordinate of the square.
+    // @param kind the kind of piece, or 0 for an empty square.
+    private void setSquare(int x, int y, int kind) {
+        if (!isOnBoard(x, y) || squares[index(x, y)] == kind) return;
+        squares[index(x, y)] = kind;
+        repaintSquare(x, y);
     }
 
     /**
-     * Sets the alpha of the selected Piece.
+     * Sets the alpha of the selected Piece. The selection is shown after
+     * any Moves still being animated, and this can be called from any thread.
      *
      * @param x the x coordinate of the selected Piece.
      * @param y the y coordinate of the selected Piece.
      */
     public void select(int x, int y) {
-        selected = new Point(x, y);
-        repaint();
+        addStep(() -> {
+            Point old = selected;
+            selected = new Point(x, y);
+            repaintSquare((int) old.getX(), (int) old.getY());
+            repaintSquare(x, y);
+        });
     }
 
     /**
-     * Updates the Set of Pieces.
+     * Highlights the squares a suggested Move starts and ends on. The
+     * highlight is shown after any Moves still being animated, and this
+     * can be called from any thread.
+     *
+     * @param move the suggested Move, or null to remove the highlight.
+     */
+    public void showHint(Move move) {
+        addStep(() -> {
+            repaintHint();
+            hint = move;
+            repaintHint();
+        });
+    }
+
+    // Repaints the squares of the hint.
+    private void repaintHint() {
+        Move move = hint;
+        if (move == null) return;
+        repaintSquare(move.piece.getX(), move.piece.getY());
+        repaintSquare((int) move.destination.getX(), (int) move.destination.getY());
+    }
+
+    /**
+     * Updates the Set of Pieces, repainting only the squares that changed.
+     * The Pieces are read at once, and shown after any Moves still being
+     * animated. This can be called from any thread.
      *
      * @param pieces the new Set of Pieces.
      */
     public void update(Set<Piece> pieces) {
-        this.pieces = pieces;
-        repaint();
+        final int[] kinds = new int[squares.length];
+        for (Piece piece : pieces) {
+            if (isOnBoard(piece.getX(), piece.getY())) kinds[index(piece.getX(), piece.getY())] = kindOf(piece);
+        }
+        addStep(() -> {
+            for (int k = 0; k <= maxY; k++) {
+                for (int i = 0; i <= maxX; i++) setSquare(i, k, kinds[index(i, k)]);
+            }
+        });
     }
 
     /**
-     * Sets up the information required to animate a Piece.
+     * Moves the pieces as a game is played, animating each Move and
+     * repainting only the squares each capture or promotion touches.
+     * This returns at once, and can be called from any thread.
      *
-     * @param move the Move to be animated.
+     * @param event the GameEvent that has happened.
      */
-    public void setupAnimation(Move move) {
-        animatedPiece = move.piece;
-        startX = wBorder + (move.piece.getX() * squareSize);
-        startY = hBorder + (move.piece.getY() * squareSize);
-        x = startX;
-        y = startY;
-        pieces.remove(move.piece);
-        start = new Point(move.piece.getX(), move.piece.getY());
-        destination = move.destination;
+    public void gameEvent(GameEvent event) {
+        switch (event.getType()) {
+            case MovePlayed:
+                addStep(() -> startAnimation(event.getX(), event.getY(), event.getToX(), event.getToY()));
+                break;
+            case PieceCaptured:
+                addStep(() -> setSquare(event.getX(), event.getY(), 0));
+                break;
+            case Promotion:
+                addStep(() -> setSquare(event.getX(), event.getY(), squares[index(event.getX(), event.getY())] | KING));
+                break;
+            default:
+                break;
+        }
     }
 
     /**
-     * Updates the information required to animate a Piece.
+     * Returns true if a Move is being animated or changes
+     * to the board are waiting to be shown.
      *
-     * @param t the fraction of where the animation is in
-     * relation to the start of the animation.
+     * @return true if the board is not up to date.
      */
-    public void updateAnimation(double t) {
+    public boolean isAnimating() {
+        return animatedPiece != 0 || !steps.isEmpty();
+    }
+
+    // Queues a change to the board, starting the Timer to apply it.
+    // @param step the change to the board.
+    private void addStep(Runnable step) {
+        steps.add(step);
+        SwingUtilities.invokeLater(() -> {
+            if (!timer.isRunning()) {
+                step();
+                if (isAnimating()) timer.start();
+            }
+        });
+    }
+
+    // Moves the animated piece to where it should be by now, and applies
+    // the queued changes up to the next Move. Called on the event dispatch
+    // thread by the Timer, which stops when there is nothing left to do.
+    private void step() {
+        if (animatedPiece != 0) {
+            double t = (System.nanoTime() - animationStart) / (animationTime * 1000000.0);
+            if (t < 1) {
+                updateAnimation(t);
+                return;
+            }
+            finishAnimation();
+        }
+        Runnable step;
+        while (animatedPiece == 0 && (step = steps.poll()) != null) step.run();
+        if (!isAnimating()) timer.stop();
+    }
+
+    // Starts animating a piece from one square to another.
+    // @param fromX the x coordinate of the square the piece moves from.
+    // @param fromY the y coordinate of the square the piece moves from.
+    // @param toX the x coordinate of the square the piece moves to.
+    // @param toY the y coordinate of the square the piece moves to.
+    private void startAnimation(int fromX, int fromY, int toX, int toY) {
+        if (!isOnBoard(fromX, fromY) || squares[index(fromX, fromY)] == 0) return;
+        animatedPiece = squares[index(fromX, fromY)];
+        startX = wBorder + (fromX * squareSize);
+        startY = hBorder + (fromY * squareSize);
+        x = startX;
+        y = startY;
+        setSquare(fromX, fromY, 0);
+        start = new Point(fromX, fromY);
+        destination = new Point(toX, toY);
+        animationStart = System.nanoTime();
+        repaint(x, y, squareSize, squareSize);
+    }
+
+    // Moves the animated piece along its path.
+    // @param t the fraction of the animation time that has passed.
+    private void updateAnimation(double t) {
         Point point = calcBezier(t);
+        repaint(x, y, squareSize, squareSize);
         x = startX + (int) point.getX();
         y = startY + (int) point.getY();
-        repaint();
+        repaint(x, y, squareSize, squareSize);
+    }
+
+    // Puts the animated piece down on its destination.
+    private void finishAnimation() {
+        repaint(x, y, squareSize, squareSize);
+        int kind = animatedPiece;
+        animatedPiece = 0;
+        setSquare((int) destination.getX(), (int) destination.getY(), kind);
     }
 
     // Returns the Point containing the offset to the start coordinates.
+    // The piece moves in a straight line, so a step, a jump, a long move
+    // of a flying king and a whole multiple capture are all animated.
     // @param t the fraction of where the Point is in relation
     // to the start and end points.
     // @return the Point containing the offset to the start coordinates.
     private Point calcBezier(double t) {
-        int xDiff = (int) destination.getX() - (int) start.getX();
-        int yDiff = (int) destination.getY() - (int) start.getY();
-        if (xDiff % 2 == 0) {
-            if (xDiff < 0 && yDiff < 0) {
-                return cubicBezier(new Point(0, 0), new Point(-25, -50), new Point(-50, -75), new Point(-100, -100), t);
-            } else if (xDiff > 0 && yDiff < 0) {
-                return cubicBezier(new Point(0, 0), new Point(25, -50), new Point(50, -75), new Point(100, -100), t);
-            } else if (xDiff > 0 && yDiff > 0) {
-                return cubicBezier(new Point(0, 0), new Point(50, 25), new Point(75, 50), new Point(100, 100), t);
-            } else if (xDiff < 0 && yDiff > 0) {
-                return cubicBezier(new Point(0, 0), new Point(-50, 25), new Point(-75, 50), new Point(-100, 100), t);
-            }
-        } else {
-            if (xDiff < 0 && yDiff < 0) {
-                return cubicBezier(new Point(0, 0), new Point(0, 0), new Point(-50, -50), new Point(-50, -50), t);
-            } else if (xDiff > 0 && yDiff < 0) {
-                return cubicBezier(new Point(0, 0), new Point(0, 0), new Point(50, -50), new Point(50, -50), t);
-            } else if (xDiff > 0 && yDiff > 0) {
-                return cubicBezier(new Point(0, 0), new Point(0, 0), new Point(50, 50), new Point(50, 50), t);
-            } else if (xDiff < 0 && yDiff > 0) {
-                return cubicBezier(new Point(0, 0), new Point(0, 0), new Point(-50, 50), new Point(-50, 50), t);
-            }
-        }
-        return null;
+        Point end = new Point(((int) destination.getX() - (int) start.getX()) * squareSize,
+                              ((int) destination.getY() - (int) start.getY()) * squareSize);
+        return cubicBezier(new Point(0, 0), new Point(0, 0), end, end, t);
     }
 
     // Returns a Point containing the coordinates of the line
@@ -223,14 +426,6 @@ public class BoardView extends JPanel implements MouseListener {
         return new Point((int) x, (int) y);
     }
 
-    /**
-     * Resets the information required to animate a Piece.
-     */
-    public void resetAnimation() {
-        pieces.add(animatedPiece);
-        animatedPiece = null;
-    }
-
     /**
      * Sets the text of the JLabel in the view.
      *
@@ -241,7 +436,8 @@ public class BoardView extends JPanel implements MouseListener {
     }
 
     /**
-     * Adds the specified ActionListener to receive when the user clicks on a square.
+     * Adds the specified ActionListener to receive when the user clicks on a square,
+     * presses H to ask for a hint, or presses U or R to undo or redo a turn.
      * If listener listener is null, no action is performed.
      *
      * @param listener the listener to be added to the view.
@@ -256,9 +452,9 @@ public class BoardView extends JPanel implements MouseListener {
      * @param e the MouseEvent containing the location of the click.
      */
     public void mouseReleased(MouseEvent e) {
-        if (35 <= e.getX() && e.getX() < 435 && 35 <= e.getY() && e.getY() < 435) {
-            int x = (int) Math.ceil(((e.getX() - 35) * 2) / 100);
-            int y = (int) Math.ceil(((e.getY() - 35) * 2) / 100);
+        if (wBorder <= e.getX() && e.getX() < wBorder + boardSize && hBorder <= e.getY() && e.getY() < hBorder + boardSize) {
+            int x = (e.getX() - wBorder) / squareSize;
+            int y = (e.getY() - hBorder) / squareSize;
             if (listener != null) {
                 listener.actionPerformed(new ActionEvent(new Point(x, y), 0, "click"));
             }
@@ -0,0 +1,108 @@
+import draughts.*;
+import engine.*;
+
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class AlphaBetaPlayerTests {
+
+    private TestHelper helper;
+
+    public AlphaBetaPlayerTests() {
+      helper = new TestHelper();
+    }
+
+    //Helper class implementing Player that lets an engine play Red
+    public class EngineAsRed implements Player {
+
+        public AlphaBetaPlayer engine;
+        public DraughtsModel model;
+        private Player white = helper.makeTestPlayer();
+
+        @Override
+        public Move notify(Set<Move> validMoves) {
+            if (model.getCurrentPlayer().equals(Colour.Red)) return engine.notify(validMoves);
+            return white.notify(validMoves);
+        }
+
+    }
+
+    @Test
+    public void testSearchFindsWinningJumps() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.Red, 5, 6));
+        pieces.add(new Piece(Colour.White, 4, 5));
+        pieces.add(new Piece(Colour.White, 2, 3));
+        pieces.add(new Piece(Colour.Red, 7, 6));
+        Search search = new Search(new Evaluator(), new TranspositionTable(16));
+        int move = search.search(Position.of(pieces, Colour.Red), 6, Long.MAX_VALUE);
+
+        assertEquals("The search should start the double jump.", Position.square(3, 4), Position.to(move));
+        assertTrue("The search should see that the double jump wins.", search.getBestScore() >= Search.WIN - Search.MAX_PLY);
+    }
+
+    @Test
+    public void testPonderHitReusesBackgroundSearch() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.White, 0, 1));
+        pieces.add(new Piece(Colour.Red, 3, 6));
+        pieces.add(new Piece(Colour.Red, 5, 6));
+        EngineAsRed player = new EngineAsRed();
+        player.engine = new AlphaBetaPlayer(50, 8);
+        player.engine.setPonder(true);
+        TestHelper.TestModel model = helper.makeTestModel("Test", player, Colour.Red, pieces);
+        player.model = model;
+        player.engine.setModel(model);
+
+        model.turnInModel();
+        model.turnInModel();
+        model.turnInModel();
+        player.engine.shutdown();
+
+        assertEquals("The forced reply should be a ponder hit.", 1, player.engine.getPonderHits());
+        assertEquals("There should be no ponder misses.", 0, player.engine.getPonderMisses());
+    }
+
+    @Test
+    public void testStopEndsPondering() {
+        AlphaBetaPlayer engine = new AlphaBetaPlayer(20, Search.MAX_PLY);
+        engine.setPonder(true);
+        EngineAsRed player = new EngineAsRed();
+        player.engine = engine;
+        TestHelper.TestModel model = helper.makeTestModel("Test", player);
+        player.model = model;
+        engine.setModel(model);
+
+        model.turnInModel();
+        long start = System.nanoTime();
+        engine.stop();
+        engine.shutdown();
+
+        assertTrue("Stopping should not wait for the background search to finish.", System.nanoTime() - start < 1000000000L);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testInvalidEngineMoveIsRejected() {
+        // An engine that always moves a Piece from a square it doesn't have.
+        EnginePlayer engine = new EnginePlayer() {
+            @Override
+            protected int chooseMove(Position position) {
+                return Position.encode(Position.square(0, 1), Position.square(1, 2), 0, false);
+            }
+        };
+        DraughtsModel model = new DraughtsModel("Test", engine);
+        engine.setModel(model);
+        Piece piece = null;
+        for (Piece p : model.getPieces()) {
+            if (p.getX() == 0 && p.getY() == 5) piece = p;
+        }
+        engine.notify(Collections.singleton(new Move(piece, 1, 4)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testVariantGameIsRejected() {
+        new AlphaBetaPlayer(100, 4).setModel(new DraughtsModel("Test", null, new InternationalRules()));
+    }
+
+}
@@ -0,0 +1,77 @@
+import draughts.*;
+import engine.*;
+
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class AnalysisTests {
+
+    //Helper class implementing AnalysisListener that records each update
+    public class RecordingListener implements AnalysisListener {
+
+        public List<Integer> depths = new ArrayList<Integer>();
+        public List<AnalysisLine> finished;
+
+        @Override
+        public void depthCompleted(int depth, List<AnalysisLine> lines, long nodes) {
+            depths.add(depth);
+        }
+
+        @Override
+        public void analysisFinished(List<AnalysisLine> lines) {
+            finished = lines;
+        }
+
+    }
+
+    @Test
+    public void testAnalysisReturnsSortedLines() {
+        Analysis analysis = new Analysis(new Evaluator(), new TranspositionTable(16));
+        RecordingListener listener = new RecordingListener();
+        List<AnalysisLine> lines = analysis.analyse(Position.initial(), 3, 5, 10000, listener);
+
+        assertEquals("There should be three lines.", 3, lines.size());
+        assertTrue("The lines should be sorted best first.", lines.get(0).getScore() >= lines.get(1).getScore());
+        assertTrue("The lines should be sorted best first.", lines.get(1).getScore() >= lines.get(2).getScore());
+        assertEquals("Each line should start with its move.", lines.get(0).getMove(), lines.get(0).getVariation()[0]);
+        assertEquals("Every depth should be published.", Arrays.asList(1, 2, 3, 4, 5), listener.depths);
+        assertEquals("The final lines should be published.", lines, listener.finished);
+    }
+
+    @Test
+    public void testBestLineMatchesSearch() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.Red, 5, 6));
+        pieces.add(new Piece(Colour.White, 4, 5));
+        pieces.add(new Piece(Colour.White, 2, 3));
+        pieces.add(new Piece(Colour.Red, 7, 6));
+        Analysis analysis = new Analysis(new Evaluator(), new TranspositionTable(16));
+        List<AnalysisLine> lines = analysis.analyse(Position.of(pieces, Colour.Red), 2, 6, 10000, null);
+
+        assertEquals("The best line should start the winning double jump.", Position.square(3, 4), Position.to(lines.get(0).getMove()));
+        assertTrue("The best line should be scored as a win.", lines.get(0).getScore() >= Search.WIN - Search.MAX_PLY);
+    }
+
+    @Test
+    public void testStopEndsAnalysis() {
+        Analysis analysis = new Analysis(new Evaluator(), new TranspositionTable(16));
+        RecordingListener listener = new RecordingListener();
+        analysis.start(Position.initial(), 2, Search.MAX_PLY, 60000, listener);
+        analysis.stop();
+
+        assertNotNull("Stopping should still publish the final lines.", listener.finished);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoLinesIsRejected() {
+        new Analysis(new Evaluator(), new TranspositionTable(16)).analyse(Position.initial(), 0, 5, 1000, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testVariantGameIsRejected() {
+        DraughtsModel model = new DraughtsModel("Test", null, new InternationalRules());
+        new Analysis(new Evaluator(), new TranspositionTable(16)).start(model, 1, 5, 1000, null);
+    }
+
+}
@@ -0,0 +1,54 @@
+import draughts.*;
+import engine.*;
+
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class BatchMoveGeneratorTests {
+
+    @Test
+    public void testBatchMatchesPositionMoves() {
+        int count = 500;
+        int[] red = new int[count], white = new int[count], kings = new int[count], sides = new int[count];
+        Position[] positions = new Position[count];
+        Random random = new Random(3);
+        int[] moves = new int[Position.MAX_MOVES];
+        for (int i = 0; i < count; i++) {
+            Position position = Position.initial();
+            int plies = random.nextInt(80);
+            for (int ply = 0; ply < plies; ply++) {
+                int n = position.generateMoves(moves, false);
+                if (n == 0) break;
+                position.makeMove(moves[random.nextInt(n)]);
+            }
+            positions[i] = new Position(position.getRed(), position.getWhite(), position.getKings(), position.getSide());
+            red[i] = position.getRed();
+            white[i] = position.getWhite();
+            kings[i] = position.getKings();
+            sides[i] = position.getSide();
+        }
+
+        BatchMoveGenerator generator = new BatchMoveGenerator(count);
+        generator.generate(red, white, kings, sides, count);
+        int[] batched = new int[Position.MAX_MOVES];
+        for (int i = 0; i < count; i++) {
+            int expected = positions[i].generateMoves(moves, false);
+            int actual = generator.getMoves(i, batched);
+            assertEquals("The batch should find the same number of moves.", expected, actual);
+            assertEquals("The move count should match the moves.", expected, generator.countMoves(i));
+            int[] sortedExpected = Arrays.copyOf(moves, expected);
+            int[] sortedActual = Arrays.copyOf(batched, actual);
+            Arrays.sort(sortedExpected);
+            Arrays.sort(sortedActual);
+            assertArrayEquals("The batch should find the same moves.", sortedExpected, sortedActual);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchLargerThanCapacityIsRejected() {
+        int[] empty = new int[8];
+        new BatchMoveGenerator(4).generate(empty, empty, empty, empty, 8);
+    }
+
+}
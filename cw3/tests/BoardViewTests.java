@@ -0,0 +1,79 @@
+import draughts.*;
+import views.*;
+
+import java.awt.image.*;
+import java.util.*;
+import javax.swing.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class BoardViewTests {
+
+    // Draws a board as it is now, on the event dispatch thread.
+    private static int[] render(BoardView board) throws Exception {
+        final BufferedImage image = new BufferedImage(470, 470, BufferedImage.TYPE_INT_RGB);
+        SwingUtilities.invokeAndWait(() -> {
+            board.setSize(470, 470);
+            board.paintComponent(image.createGraphics());
+        });
+        return image.getRGB(0, 0, 470, 470, null, 0, 470);
+    }
+
+    // Waits for a board to finish animating, failing if it never does.
+    private static void finish(BoardView board) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (board.isAnimating()) {
+            assertTrue("The board should finish animating", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+        SwingUtilities.invokeAndWait(() -> {});
+    }
+
+    // Returns a board showing some Pieces.
+    private static BoardView board(Piece... pieces) throws Exception {
+        BoardView board = new BoardView();
+        board.update(new HashSet<Piece>(Arrays.asList(pieces)));
+        finish(board);
+        return board;
+    }
+
+    @Test
+    public void testHintIsShownAndClearedFromAnyThread() throws Exception {
+        Piece piece = new Piece(Colour.Red, 0, 5);
+        BoardView board = board(piece);
+        int[] plain = render(board);
+        board.showHint(new Move(piece, 1, 4));
+        finish(board);
+        assertFalse("The hint should be shown", Arrays.equals(plain, render(board)));
+        board.showHint(null);
+        finish(board);
+        assertArrayEquals("The hint should be cleared", plain, render(board));
+    }
+
+    @Test
+    public void testSelectionIsShownFromAnyThread() throws Exception {
+        BoardView board = board(new Piece(Colour.Red, 0, 5));
+        int[] plain = render(board);
+        board.select(0, 5);
+        finish(board);
+        assertFalse("The selected Piece should be shown", Arrays.equals(plain, render(board)));
+    }
+
+    @Test
+    public void testWholeMovesAreAnimated() throws Exception {
+        Piece king = new Piece(Colour.Red, 0, 7);
+        king.setKing(true);
+        BoardView board = board(new Piece(Colour.Red, 2, 5), new Piece(Colour.White, 3, 4),
+                                new Piece(Colour.White, 3, 2), king);
+        board.gameEvent(GameEvent.movePlayed(0, Colour.Red, 2, 5, 2, 1));
+        board.gameEvent(GameEvent.pieceCaptured(0, Colour.White, 3, 4));
+        board.gameEvent(GameEvent.pieceCaptured(0, Colour.White, 3, 2));
+        board.gameEvent(GameEvent.movePlayed(2, Colour.Red, 0, 7, 5, 2));
+        finish(board);
+        Piece moved = new Piece(Colour.Red, 5, 2);
+        moved.setKing(true);
+        assertArrayEquals("The Pieces should end on their destinations",
+                          render(board(new Piece(Colour.Red, 2, 1), moved)), render(board));
+    }
+
+}
@@ -0,0 +1,186 @@
+import draughts.*;
+import engine.*;
+
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class ClockTests {
+
+    private TestHelper helper;
+
+    public ClockTests() {
+      helper = new TestHelper();
+    }
+
+    //Helper class extending GameClock with a time set by the test
+    public class ManualClock extends GameClock {
+
+        public long time;
+
+        public ManualClock(long base, long increment, int movesPerPeriod) {
+            super(base, increment, movesPerPeriod);
+        }
+
+        @Override
+        protected long now() {
+            return time;
+        }
+
+    }
+
+    //Helper class implementing Player that takes a fixed time over each move
+    public class SlowPlayer implements Player {
+
+        public ManualClock clock;
+        public long thinkingTime;
+        private Player player = helper.makeTestPlayer();
+
+        @Override
+        public Move notify(Set<Move> validMoves) {
+            clock.time += thinkingTime;
+            return player.notify(validMoves);
+        }
+
+    }
+
+    @Test
+    public void testIncrementIsAddedAfterMove() {
+        ManualClock clock = new ManualClock(1000, 100, 0);
+        clock.start(Colour.Red);
+        clock.time += 300;
+        assertEquals("The running clock should count down", 700, clock.getRemaining(Colour.Red));
+        clock.stop();
+        assertEquals("The increment should be added after the move", 800, clock.getRemaining(Colour.Red));
+        assertEquals("The other clock shouldn't change", 1000, clock.getRemaining(Colour.White));
+    }
+
+    @Test
+    public void testBaseIsAddedAfterEachPeriod() {
+        ManualClock clock = new ManualClock(1000, 0, 2);
+        assertEquals("The whole period should be to go", 2, clock.getMovesToGo(Colour.Red));
+        for (int i = 0; i < 2; i++) {
+            clock.start(Colour.Red);
+            clock.time += 100;
+            clock.stop();
+        }
+        assertEquals("The base time should be added after the period", 1800, clock.getRemaining(Colour.Red));
+        assertEquals("A new period should have started", 2, clock.getMovesToGo(Colour.Red));
+    }
+
+    @Test
+    public void testParseTimeControls() {
+        GameClock clock = GameClock.parse("300+5");
+        assertEquals("The base should be read in seconds", 300000, clock.getRemaining(Colour.Red));
+        assertEquals("The increment should be read in seconds", 5000, clock.getIncrement());
+        assertEquals("Moves in time should be read", 40, GameClock.parse("40/600").getMovesToGo(Colour.White));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseRejectsInvalidControl() {
+        GameClock.parse("five minutes");
+    }
+
+    @Test
+    public void testPlayerLosesOnTime() {
+        SlowPlayer player = new SlowPlayer();
+        player.clock = new ManualClock(1000, 0, 0);
+        player.thinkingTime = 600;
+        TestHelper.TestModel model = helper.makeTestModel("Test", player);
+        model.setClock(player.clock);
+        model.turnInModel();
+        assertFalse("Red should still have time after one move", model.isGameOver());
+        model.turnInModel();
+        model.turnInModel();
+        assertTrue("Red should have run out of time", player.clock.hasFlagged(Colour.Red));
+        assertEquals("White should win on time", GameResult.WhiteWinsOnTime, model.getResult());
+        assertEquals("The winner should be White", Colour.White, model.getResult().getWinner());
+    }
+
+    @Test
+    public void testTakingBackTurnsRestoresTheClock() {
+        SlowPlayer player = new SlowPlayer();
+        player.clock = new ManualClock(1000, 50, 2);
+        player.thinkingTime = 100;
+        TestHelper.TestModel model = helper.makeTestModel("Test", player);
+        model.setClock(player.clock);
+        model.turnInModel();
+        model.turnInModel();
+        assertEquals("Red should have used time and gained the increment", 950, player.clock.getRemaining(Colour.Red));
+        model.goToTurn(0);
+        assertEquals("Red's time should be restored", 1000, player.clock.getRemaining(Colour.Red));
+        assertEquals("White's time should be restored", 1000, player.clock.getRemaining(Colour.White));
+        assertEquals("Red's moves should be restored", 2, player.clock.getMovesToGo(Colour.Red));
+        model.goToTurn(2);
+        assertEquals("Redoing should restore the later time", 950, player.clock.getRemaining(Colour.White));
+        assertEquals("Redoing should restore the moves made", 1, player.clock.getMovesToGo(Colour.Red));
+    }
+
+    @Test
+    public void testAbandonedTurnIsNotTimed() {
+        final ManualClock clock = new ManualClock(1000, 50, 2);
+        final DraughtsModel[] game = new DraughtsModel[1];
+        // Takes back the first turn part way through the second.
+        Player player = new Player() {
+            private Player moves = helper.makeTestPlayer();
+
+            @Override
+            public Move notify(Set<Move> validMoves) {
+                clock.time += 100;
+                if (game[0].getTurn() == 1) {
+                    game[0].undo();
+                    return null;
+                }
+                return moves.notify(validMoves);
+            }
+        };
+        TestHelper.TestModel model = helper.makeTestModel("Test", player);
+        game[0] = model;
+        model.setClock(clock);
+        model.turnInModel();
+        model.turnInModel();
+        assertEquals("The turn should be taken back", 0, model.getTurn());
+        assertNull("No clock should be running", clock.getRunning());
+        assertEquals("White should not be charged for the abandoned turn", 1000, clock.getRemaining(Colour.White));
+        assertEquals("The abandoned turn should not count as a move", 2, clock.getMovesToGo(Colour.White));
+        assertEquals("Red's time should be from before the undone turn", 1000, clock.getRemaining(Colour.Red));
+    }
+
+    @Test
+    public void testForcedMoveGetsLittleTime() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.Red, 0, 7));
+        pieces.add(new Piece(Colour.White, 1, 0));
+        TimeManager manager = new TimeManager();
+        manager.start(Position.of(pieces, Colour.Red), 60000, 0, 0);
+        assertTrue("A forced move should get a tenth of its share or less", manager.getMaximum() <= 200);
+        assertTrue("A forced move should stop after the first depth", manager.depthCompleted(1, 1, 0));
+    }
+
+    @Test
+    public void testTimeIsSharedBetweenMovesToGo() {
+        TimeManager manager = new TimeManager();
+        manager.start(Position.initial(), 10050, 0, 10);
+        assertTrue("The target should be close to the share of one move", manager.getTarget() > 500 && manager.getTarget() < 1500);
+        assertTrue("The maximum should keep most of the time for later moves", manager.getMaximum() <= 2000);
+        assertFalse("An idle manager shouldn't stop a search straight away", manager.depthCompleted(1, 1, 0));
+        manager.reset();
+        assertFalse("A reset manager should never stop a search", manager.depthCompleted(20, 1, 0));
+    }
+
+    @Test
+    public void testEngineMovesWithinClock() {
+        GameClock clock = new GameClock(2000, 0);
+        AlphaBetaPlayer engine = new AlphaBetaPlayer(60000, Search.MAX_PLY);
+        TestHelper.TestModel model = helper.makeTestModel("Test", engine);
+        model.setClock(clock);
+        engine.setModel(model);
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) model.turnInModel();
+        long elapsed = (System.nanoTime() - start) / 1000000L;
+        assertFalse("The engine shouldn't run out of time", clock.hasFlagged(Colour.Red) || clock.hasFlagged(Colour.White));
+        assertTrue("The engine should use the clock rather than its fixed move time", elapsed < 4000);
+        engine.shutdown();
+    }
+
+}
@@ -0,0 +1,56 @@
+import draughts.*;
+
+import java.io.*;
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class CommandLineTests {
+
+    // Runs a command, returning the lines printed, or null if it was not understood.
+    private List<String> run(String... args) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        if (!new CommandLine(new PrintStream(bytes, true)).run(args)) return null;
+        return Arrays.asList(bytes.toString().split("\\R"));
+    }
+
+    @Test
+    public void testPerftCountsTheOpening() {
+        assertEquals("Red has 7 first Moves", 7, CommandLine.perft(Position.initial(), 1));
+        assertEquals("Each reply has 7 Moves", 49, CommandLine.perft(Position.initial(), 2));
+        Position position = Position.initial();
+        long total = CommandLine.perft(position, 5);
+        assertEquals("The Position should not be changed", Position.initial(), position);
+        List<String> lines = run("perft", "5");
+        long sum = 0;
+        for (String line : lines.subList(0, 7)) sum += Long.parseLong(line.substring(line.indexOf(": ") + 2));
+        assertEquals("The counts after each first Move should add up", total, sum);
+        assertTrue("The total should be printed", lines.get(7).startsWith("Perft 5: " + total + " "));
+    }
+
+    @Test(timeout = 60000)
+    public void testPlaysWithoutAWindow() {
+        List<String> lines = run("play", "20", "4");
+        assertEquals("Every turn should be printed", "1. Red ", lines.get(0).substring(0, 7));
+        assertTrue("The result should be printed", lines.get(lines.size() - 1).startsWith("Result: InProgress after 4 turns"));
+    }
+
+    @Test
+    public void testAnalysesTheStart() {
+        List<String> lines = run("analyse", "start", "200", "2");
+        assertEquals("The Position should be printed", "Red to move", lines.get(8));
+        assertEquals("Two lines should be printed", 11, lines.size());
+        assertTrue("The lines should have scores", lines.get(9).startsWith("depth "));
+    }
+
+    @Test
+    public void testBadCommandsAreRejected() {
+        assertNull("No command should be rejected", run());
+        assertNull("Unknown commands should be rejected", run("fly"));
+        assertNull("A depth should be a number", run("perft", "deep"));
+        assertNull("Perft needs a depth", run("perft"));
+        assertNull("Too many arguments should be rejected", run("play", "1", "2", "3"));
+        assertNull("At least one line should be analysed", run("analyse", "start", "100", "0"));
+    }
+
+}
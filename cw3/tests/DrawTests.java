@@ -0,0 +1,109 @@
+import draughts.*;
+
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class DrawTests {
+
+    // Returns a Set containing a Red king at (2, 5) and a White king at (5, 0).
+    private Set<Piece> twoKings() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        Piece red = new Piece(Colour.Red, 2, 5);
+        red.setKing(true);
+        Piece white = new Piece(Colour.White, 5, 0);
+        white.setKing(true);
+        pieces.add(red);
+        pieces.add(white);
+        return pieces;
+    }
+
+    @Test
+    public void testKingsMovingBackAndForthIsADrawByRepetition() {
+        ShufflePlayer player = new ShufflePlayer();
+        DraughtsModel model = new DraughtsModel("Test", player, Colour.Red, twoKings());
+        model.start();
+        assertEquals("The game should be drawn by repetition", GameResult.DrawByRepetition, model.getResult());
+        assertEquals("The position should occur for the third time after eight turns", 8, player.turns);
+        assertTrue("The game should be over", model.isGameOver());
+        assertTrue("The winning message should report a draw", model.getWinningMessage().startsWith("Draw"));
+    }
+
+    @Test
+    public void testGameIsDrawnAfterMoveLimitWithoutCapture() {
+        ShufflePlayer player = new ShufflePlayer();
+        DraughtsModel model = new DraughtsModel("Test", player, Colour.Red, twoKings());
+        model.setMoveLimit(2);
+        model.start();
+        assertEquals("The game should be drawn by the move limit", GameResult.DrawByMoveLimit, model.getResult());
+        assertEquals("Each player should have made two moves", 4, player.turns);
+        assertNull("A drawn game has no winner", model.getResult().getWinner());
+    }
+
+    @Test
+    public void testCaptureResetsTurnsSinceCapture() {
+        Set<Piece> pieces = twoKings();
+        pieces.add(new Piece(Colour.White, 1, 4));
+        pieces.add(new Piece(Colour.Red, 3, 6));
+        TestHelper helper = new TestHelper();
+        JumpPlayer player = new JumpPlayer();
+        TestHelper.TestModel model = helper.makeTestModel("Test", player, Colour.White, pieces);
+        model.turnInModel();
+        assertEquals("One turn should have been played without a capture", 1, model.getTurnsSinceCapture());
+        model.turnInModel();
+        assertEquals("The capture should reset the count", 0, model.getTurnsSinceCapture());
+    }
+
+    @Test
+    public void testResultOfWonGame() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.Red, 0, 7));
+        DraughtsModel model = new DraughtsModel("Test", null, Colour.White, pieces);
+        assertEquals("Red should win when White has no pieces", GameResult.RedWins, model.getResult());
+        assertEquals("The winner should be Red", Colour.Red, model.getResult().getWinner());
+        assertEquals("The winning message should be for Red", "Red Player wins!", model.getWinningMessage());
+    }
+
+    @Test
+    public void testNewGameIsInProgress() {
+        DraughtsModel model = new DraughtsModel("Test", null);
+        assertEquals("A new game should be in progress", GameResult.InProgress, model.getResult());
+        assertFalse("A new game shouldn't be over", model.getResult().isOver());
+    }
+
+    //Helper class moving each king to the other of its two squares
+    private class ShufflePlayer implements Player {
+
+        int turns;
+
+        @Override
+        public Move notify(Set<Move> validMoves) {
+            turns++;
+            for (Move move : validMoves) {
+                int x = (int) move.destination.getX();
+                int y = (int) move.destination.getY();
+                if ((x == 3 && y == 4) || (x == 2 && y == 5) || (x == 6 && y == 1) || (x == 5 && y == 0)) return move;
+            }
+            fail("The kings should always be able to move back and forth");
+            return null;
+        }
+
+    }
+
+    //Helper class choosing a jump if there is one, and otherwise moving White's king
+    private class JumpPlayer implements Player {
+
+        @Override
+        public Move notify(Set<Move> validMoves) {
+            for (Move move : validMoves) {
+                if (Math.abs(move.destination.getX() - move.piece.getX()) == 2) return move;
+            }
+            for (Move move : validMoves) {
+                if (move.piece.isKing() && move.destination.getX() == 6) return move;
+            }
+            return validMoves.iterator().next();
+        }
+
+    }
+
+}
@@ -0,0 +1,130 @@
+import draughts.*;
+import engine.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class EngineProtocolTests {
+
+    private PrintWriter commands;
+    private LineWriter replies;
+    private Thread engine;
+
+    //Helper class implementing Writer that collects the lines written to it
+    private class LineWriter extends Writer {
+
+        BlockingQueue<String> lines = new LinkedBlockingQueue<String>();
+        private StringBuilder line = new StringBuilder();
+
+        @Override
+        public synchronized void write(char[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                if (buffer[i] == '\n') {
+                    lines.add(line.toString().trim());
+                    line.setLength(0);
+                } else {
+                    line.append(buffer[i]);
+                }
+            }
+        }
+
+        @Override
+        public void flush() {}
+
+        @Override
+        public void close() {}
+
+        // Returns the next line starting with a prefix, skipping any others.
+        String next(String prefix) throws InterruptedException {
+            while (true) {
+                String next = lines.poll(5, TimeUnit.SECONDS);
+                assertNotNull("The engine should reply with " + prefix, next);
+                if (next.startsWith(prefix)) return next;
+            }
+        }
+
+    }
+
+    @Before
+    public void startEngine() throws IOException {
+        PipedWriter writer = new PipedWriter();
+        PipedReader reader = new PipedReader(writer);
+        commands = new PrintWriter(writer, true);
+        replies = new LineWriter();
+        final EngineProtocol protocol = new EngineProtocol(reader, replies);
+        engine = new Thread(protocol::run);
+        engine.start();
+    }
+
+    @After
+    public void stopEngine() throws InterruptedException {
+        commands.println("quit");
+        engine.join(5000);
+        assertFalse("The engine should finish after quit", engine.isAlive());
+    }
+
+    @Test(timeout = 10000)
+    public void testHandshake() throws InterruptedException {
+        commands.println("protocol");
+        assertEquals("The engine should give its name", "id name " + EngineProtocol.NAME, replies.next("id"));
+        replies.next("protocolok");
+        commands.println("isready");
+        replies.next("readyok");
+    }
+
+    @Test(timeout = 10000)
+    public void testGoDepthPlaysLegalMove() throws InterruptedException {
+        commands.println("position start moves 21-17");
+        commands.println("go depth 4");
+        assertTrue("The engine should report its progress", replies.next("info depth").contains(" pv "));
+        String bestMove = replies.next("bestmove").split(" ")[1];
+
+        Position position = Position.initial();
+        position.makeMove(position.parseMove("21-17"));
+        assertTrue("The best move should be legal for White", position.parseMove(bestMove) != 0);
+    }
+
+    @Test(timeout = 10000)
+    public void testPositionFromFen() throws InterruptedException {
+        // Red's only sensible move is the jump from 18 over 14.
+        commands.println("position fen R:W1,14:R18,29");
+        commands.println("go depth 3");
+        assertEquals("The engine should take the man", "18x9", replies.next("bestmove").split(" ")[1]);
+    }
+
+    @Test(timeout = 10000)
+    public void testInfiniteSearchWaitsForStop() throws InterruptedException {
+        commands.println("position start");
+        commands.println("go infinite depth 3");
+        Thread.sleep(300);
+        for (String line : replies.lines) {
+            assertFalse("An infinite search shouldn't report a move before stop", line.startsWith("bestmove"));
+        }
+        commands.println("stop");
+        replies.next("bestmove");
+    }
+
+    @Test(timeout = 10000)
+    public void testPonderHitStartsClock() throws InterruptedException {
+        commands.println("position start");
+        commands.println("go ponder movetime 100");
+        Thread.sleep(300);
+        for (String line : replies.lines) {
+            assertFalse("A ponder search shouldn't report a move before ponderhit", line.startsWith("bestmove"));
+        }
+        commands.println("ponderhit");
+        replies.next("bestmove");
+    }
+
+    @Test(timeout = 10000)
+    public void testIllegalMoveIsReported() throws InterruptedException {
+        commands.println("position start moves 1-5");
+        assertTrue("An illegal move should be reported", replies.next("info string").contains("Illegal move"));
+        commands.println("isready");
+        replies.next("readyok");
+    }
+
+}
@@ -0,0 +1,64 @@
+import draughts.*;
+import engine.*;
+
+import java.io.*;
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class EvaluatorTests {
+
+    @Test
+    public void testIncrementalScoreMatchesFullEvaluation() {
+        Evaluator evaluator = new Evaluator();
+        Random random = new Random(1);
+        int[] moves = new int[Position.MAX_MOVES];
+        for (int game = 0; game < 20; game++) {
+            Position position = Position.initial();
+            evaluator.attach(position);
+            for (int ply = 0; ply < 200; ply++) {
+                int count = position.generateMoves(moves, false);
+                if (count == 0) break;
+                position.makeMove(moves[random.nextInt(count)]);
+                Position copy = new Position(position.getRed(), position.getWhite(), position.getKings(), position.getSide());
+                int expected = evaluator.evaluate(position.getRed(), position.getWhite(), position.getKings());
+                if (position.getSide() == Position.WHITE) expected = -expected;
+                assertEquals("The incremental evaluation should match a full evaluation.", expected, evaluator.evaluate(position));
+                assertEquals("An unattached position should be evaluated from scratch.", expected, evaluator.evaluate(copy));
+            }
+            while (position.getPly() > 0) position.unmakeMove();
+            assertEquals("Unmaking every move should restore the score.", 0, evaluator.evaluate(position));
+        }
+    }
+
+    @Test
+    public void testStartingPositionIsEven() {
+        Evaluator evaluator = new Evaluator();
+        assertEquals("The starting position should be level.", 0, evaluator.evaluate(Position.initial()));
+    }
+
+    @Test
+    public void testExtraKingIsGood() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        Piece king = new Piece(Colour.Red, 3, 4);
+        king.setKing(true);
+        pieces.add(king);
+        pieces.add(new Piece(Colour.White, 0, 1));
+        Evaluator evaluator = new Evaluator();
+
+        assertTrue("A king against a man should be good for its owner.", evaluator.evaluate(Position.of(pieces, Colour.Red)) > 0);
+        assertTrue("A king against a man should be bad for the opponent.", evaluator.evaluate(Position.of(pieces, Colour.White)) < 0);
+    }
+
+    @Test
+    public void testWeightsAreLoadedFromFile() throws Exception {
+        File file = File.createTempFile("weights", ".properties");
+        file.deleteOnExit();
+        new EvaluationWeights(new int[] {90, 200, 1, 2, 3, 4}).save(file.getPath(), "Test weights");
+
+        EvaluationWeights weights = EvaluationWeights.load(file.getPath());
+        assertEquals("The man weight should be loaded from the file.", 90, weights.get(EvaluationWeights.MAN));
+        assertEquals("The mobility weight should be loaded from the file.", 4, weights.get(EvaluationWeights.MOBILITY));
+    }
+
+}
@@ -0,0 +1,83 @@
+import draughts.*;
+import engine.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import jdk.jfr.*;
+import jdk.jfr.consumer.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class FlightRecorderTests {
+
+    // Plays some turns, searches and saves and loads a game while recording,
+    // returning the events recorded.
+    // @param enabled whether the draughts events are enabled in the Recording.
+    private List<RecordedEvent> record(boolean enabled) throws IOException {
+        Path file = Files.createTempFile("draughts", ".jfr");
+        String game = "FlightRecorderTests" + System.nanoTime();
+        try (Recording recording = new Recording()) {
+            for (String name : new String[] {"draughts.Turn", "draughts.Play", "draughts.SearchIteration", "draughts.SaveGame"}) {
+                if (enabled) recording.enable(name);
+                else recording.disable(name);
+            }
+            recording.start();
+            TestHelper.TestModel model = new TestHelper().makeTestModel("Test", new TestHelper.RandomPlayer(11));
+            for (int i = 0; i < 6; i++) model.turnInModel();
+            new Search(new Evaluator(), new TranspositionTable(16)).search(Position.of(model.getPieces(), model.getCurrentPlayer()), 4, Long.MAX_VALUE);
+            SaveGame.saveGame(game, model.getCurrentPlayer(), model.getPieces());
+            SaveGame.loadGame(game);
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            new File(SaveGame.SAVE_DIR + "/" + game + SaveGame.FILE_EXT).delete();
+            // Only removes the directory if nothing else is saved in it.
+            new File(SaveGame.SAVE_DIR).delete();
+            Files.delete(file);
+        }
+    }
+
+    // Returns the events of one type.
+    private List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> found = new ArrayList<RecordedEvent>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) found.add(event);
+        }
+        return found;
+    }
+
+    @Test
+    public void testGameActivityIsRecorded() throws IOException {
+        List<RecordedEvent> events = record(true);
+        List<RecordedEvent> turns = named(events, "draughts.Turn");
+        assertEquals("Every turn should be recorded", 6, turns.size());
+        assertEquals("The first turn should be from the start", 0, turns.get(0).getInt("turn"));
+        assertEquals("Red should move first", "Red", turns.get(0).getString("player"));
+        assertEquals("The start has 7 Moves", 7, turns.get(0).getInt("moves"));
+        assertEquals("The hash should be of the start position",
+                     Position.hashOf(new DraughtsModel("Test", null).getPieces(), Colour.Red), turns.get(0).getLong("positionHash"));
+        assertTrue("Every step of every Move should be recorded", named(events, "draughts.Play").size() >= 6);
+        List<RecordedEvent> iterations = named(events, "draughts.SearchIteration");
+        assertEquals("Every depth should be recorded", 4, iterations.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals("The depths should be in order", i + 1, iterations.get(i).getInt("depth"));
+            assertTrue("The nodes should be counted", iterations.get(i).getLong("nodes") > 0);
+        }
+        List<RecordedEvent> saves = named(events, "draughts.SaveGame");
+        assertEquals("The save and load should be recorded", 2, saves.size());
+        assertFalse("The save should be first", saves.get(0).getBoolean("load"));
+        assertTrue("The bytes written should be counted", saves.get(0).getLong("bytes") > 0);
+        assertEquals("The bytes read should match", saves.get(0).getLong("bytes"), saves.get(1).getLong("bytes"));
+        assertEquals("The position loaded should be the one saved", saves.get(0).getLong("positionHash"), saves.get(1).getLong("positionHash"));
+    }
+
+    @Test
+    public void testEventsCanBeTurnedOff() throws IOException {
+        for (RecordedEvent event : record(false)) {
+            assertFalse("No draughts events should be recorded", event.getEventType().getName().startsWith("draughts."));
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+import draughts.*;
+
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class GameEventTests {
+
+    // Helper class implementing GameListener, keeping the
+    // board after every turn and every event.
+    private static class Recorder implements GameListener {
+
+        private final DraughtsModel model;
+        public final List<Set<String>> boards = new ArrayList<Set<String>>();
+        public final List<GameEvent> events = new ArrayList<GameEvent>();
+
+        public Recorder(DraughtsModel model) {
+            this.model = model;
+            boards.add(TestHelper.describe(model.getPieces()));
+        }
+
+        @Override
+        public void gameEvent(GameEvent event) {
+            events.add(event);
+            if (event.getType() == GameEvent.Type.TurnChanged) boards.add(TestHelper.describe(model.getPieces()));
+        }
+
+    }
+
+    @Test
+    public void testEventsOfAGame() {
+        DraughtsModel model = new DraughtsModel("Test", new TestHelper.RandomPlayer(11));
+        model.setMoveLimit(200);
+        Recorder recorder = new Recorder(model);
+        model.addGameListener(recorder);
+        model.start();
+        List<GameEvent> events = model.getEvents();
+        assertEquals("Listeners should get every event in the log", events, recorder.events);
+        GameEvent last = events.get(events.size() - 1);
+        assertEquals("The last event should be the end of the game", GameEvent.Type.GameOver, last.getType());
+        assertEquals("The end of the game should carry the result", model.getResult(), last.getResult());
+        int captures = 0;
+        int turns = 0;
+        for (GameEvent event : events) {
+            if (event.getType() == GameEvent.Type.PieceCaptured) captures++;
+            if (event.getType() == GameEvent.Type.TurnChanged) assertEquals("Turns should be numbered in order", ++turns, event.getTurn());
+        }
+        assertEquals("Every captured Piece should have an event", 24 - model.getPieces().size(), captures);
+    }
+
+    @Test
+    public void testPromotionEvent() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.Red, 1, 1));
+        pieces.add(new Piece(Colour.White, 6, 5));
+        TestHelper helper = new TestHelper();
+        TestHelper.TestModel model = helper.makeTestModel("Test", helper.makeTestPlayer(), Colour.Red, pieces);
+        model.turnInModel();
+        List<GameEvent> events = model.getEvents();
+        assertEquals("A move, a promotion and a change of turn should be logged", 3, events.size());
+        assertEquals("The Piece should move first", GameEvent.Type.MovePlayed, events.get(0).getType());
+        assertEquals("The Piece should then be crowned", GameEvent.Type.Promotion, events.get(1).getType());
+        assertEquals("The crowned Piece should be on the king row", 0, events.get(1).getY());
+        assertEquals("White should be to move", Colour.White, events.get(2).getColour());
+    }
+
+    @Test
+    public void testReplayRebuildsEveryTurn() {
+        DraughtsModel model = new DraughtsModel("Test", new TestHelper.RandomPlayer(11));
+        model.setMoveLimit(200);
+        Recorder recorder = new Recorder(model);
+        model.addGameListener(recorder);
+        GameReplay live = new GameReplay(model, 4);
+        model.start();
+        GameReplay replay = model.getReplay(7);
+        assertEquals("Both replays should have every turn", recorder.boards.size() - 1, replay.getTurns());
+        assertEquals("A live replay should see the same turns", replay.getTurns(), live.getTurns());
+        assertEquals("The replay should know the result", model.getResult(), replay.getResult());
+        for (int turn = 0; turn <= replay.getTurns(); turn++) {
+            assertEquals("Turn " + turn + " should be rebuilt", recorder.boards.get(turn), TestHelper.describe(replay.seek(turn)));
+            assertEquals("Turn " + turn + " should be rebuilt live", recorder.boards.get(turn), TestHelper.describe(live.seek(turn)));
+        }
+        assertEquals("The player to move should be replayed", model.getCurrentPlayer(), replay.getPlayer(replay.getTurns()));
+        assertEquals("Red should move first", Colour.Red, replay.getPlayer(0));
+    }
+
+    @Test
+    public void testSeekDoesNotChangeTheReplay() {
+        DraughtsModel model = new DraughtsModel("Test", new TestHelper.RandomPlayer(11));
+        model.setMoveLimit(200);
+        model.start();
+        GameReplay replay = model.getReplay(5);
+        Set<String> board = TestHelper.describe(replay.seek(12));
+        for (Piece piece : replay.seek(12)) piece.setKing(true);
+        replay.seek(30);
+        assertEquals("Seeking should always give the same board", board, TestHelper.describe(replay.seek(12)));
+        List<GameEvent> turn = replay.getEvents(3);
+        assertEquals("A turn's events should end with the change of turn", GameEvent.Type.TurnChanged, turn.get(turn.size() - 1).getType());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSeekPastTheEndIsRejected() {
+        DraughtsModel model = new DraughtsModel("Test", new TestHelper.RandomPlayer(11));
+        model.getReplay(5).seek(1);
+    }
+
+}
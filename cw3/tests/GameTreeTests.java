@@ -0,0 +1,131 @@
+import draughts.*;
+
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class GameTreeTests {
+
+    @Test
+    public void testChildrenAreExpandedOnlyWhenIterated() {
+        GameTree tree = new GameTree(new DraughtsModel("Test", null), 100);
+        GameTree.Node root = tree.getRoot();
+        assertFalse("The root should not be expanded before it is browsed", root.isExpanded());
+        assertEquals("Nothing should be expanded yet", 0, tree.getExpansions());
+
+        int children = 0;
+        for (GameTree.Node child : root.children()) {
+            children++;
+            assertFalse("A child should not be expanded when it is reached", child.isExpanded());
+            assertEquals("White should be to move in a child", Colour.White, child.getCurrentPlayer());
+        }
+        assertEquals("The starting position should have 7 children", 7, children);
+        assertEquals("Only the root should have been expanded", 1, tree.getExpansions());
+        assertEquals("The store should hold the root and its children", 8, tree.size());
+    }
+
+    @Test
+    public void testStoreIsBounded() {
+        GameTree tree = new GameTree(Position.initial(), 20);
+        for (GameTree.Node child : tree.getRoot().children()) {
+            for (GameTree.Node grandchild : child.children()) {
+                assertTrue("The store should not grow past its capacity", tree.size() <= 20);
+                assertEquals("Red should be to move in a grandchild", Colour.Red, grandchild.getCurrentPlayer());
+            }
+        }
+        assertEquals("The store should be full", 20, tree.size());
+        assertSame("The root should never be dropped", tree.getRoot(), tree.getNode(tree.getRoot().getHash()));
+    }
+
+    @Test
+    public void testDroppedNodesAreMadeAgain() {
+        GameTree tree = new GameTree(Position.initial(), 2);
+        GameTree.Node first = tree.getRoot().getChild(0);
+        for (GameTree.Node child : tree.getRoot().children()) child.getHash();
+        GameTree.Node again = tree.getRoot().getChild(0);
+        assertNotSame("The dropped child should be made again", first, again);
+        assertEquals("The child made again should be the same position", first.getHash(), again.getHash());
+        assertEquals("The child made again should have the same Pieces",
+                     first.toPosition(), again.toPosition());
+    }
+
+    @Test
+    public void testTranspositionsShareANode() {
+        Position start = Position.initial();
+        GameTree tree = new GameTree(start, 1000);
+        GameTree.Node viaFirst = find(find(find(find(tree.getRoot(), "21-17"), "9-13"), "22-18"), "10-14");
+        GameTree.Node viaSecond = find(find(find(find(tree.getRoot(), "22-18"), "10-14"), "21-17"), "9-13");
+        assertSame("Both orders of Moves should reach the same Node", viaFirst, viaSecond);
+    }
+
+    @Test
+    public void testJumpContinuationIsKept() {
+        // A Red man at (4, 5) can jump two White men in a row.
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.Red, 4, 5));
+        pieces.add(new Piece(Colour.White, 3, 4));
+        pieces.add(new Piece(Colour.White, 3, 2));
+        pieces.add(new Piece(Colour.White, 7, 0));
+        GameTree tree = new GameTree(Position.of(pieces, Colour.Red), 10);
+        GameTree.Node jumped = null;
+        for (int i = 0; i < tree.getRoot().getChildCount(); i++) {
+            if (Position.isJump(tree.getRoot().getMove(i))) jumped = tree.getRoot().getChild(i);
+        }
+        assertNotNull("The root should have a jump", jumped);
+        assertEquals("Red should still be to move after the first jump", Colour.Red, jumped.getCurrentPlayer());
+        assertEquals("Only the second jump should be allowed", 1, jumped.getChildCount());
+        assertTrue("The only Move should be a jump", Position.isJump(jumped.getMove(0)));
+    }
+
+    // Returns the child of a Node reached by a Move in notation.
+    private GameTree.Node find(GameTree.Node node, String notation) {
+        int move = node.toPosition().parseMove(notation);
+        for (int i = 0; i < node.getChildCount(); i++) {
+            if (node.getMove(i) == move) return node.getChild(i);
+        }
+        fail("No move " + notation);
+        return null;
+    }
+
+    // Helper class implementing Player, jumping with the first Piece it is
+    // offered and keeping a GameTree of the game while the jump carries on.
+    private static class JumpingPlayer implements Player {
+
+        private DraughtsModel model;
+        public GameTree tree;
+
+        @Override
+        public Move notify(Set<Move> validMoves) {
+            if (tree == null && validMoves.size() == 1) tree = new GameTree(model, 100);
+            for (Move move : validMoves) {
+                if (Math.abs(move.destination.x - move.piece.getX()) == 2) return move;
+            }
+            return null;
+        }
+
+    }
+
+    @Test
+    public void testRootCarriesOnAJump() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.Red, 2, 5));
+        pieces.add(new Piece(Colour.Red, 7, 6));
+        pieces.add(new Piece(Colour.White, 3, 4));
+        pieces.add(new Piece(Colour.White, 3, 2));
+        JumpingPlayer player = new JumpingPlayer();
+        TestHelper.TestModel model = new TestHelper().makeTestModel("Test", player, Colour.Red, pieces);
+        player.model = model;
+        model.turnInModel();
+        assertNotNull("A tree should be made in the middle of the jump", player.tree);
+        GameTree.Node root = player.tree.getRoot();
+        assertEquals("The root should only carry on the jump", 1, root.getChildCount());
+        assertEquals("The jump should take the second Piece", Colour.White, root.getChild(0).getCurrentPlayer());
+        assertEquals("Only the jumping Piece should be left", 2, root.getChild(0).getPieces().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testVariantGameIsRejected() {
+        new GameTree(new DraughtsModel("Test", null, new InternationalRules()), 100);
+    }
+
+}
@@ -0,0 +1,64 @@
+import draughts.*;
+import engine.*;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class HintServiceTests {
+
+    private HintService hints;
+
+    @Before
+    public void setUp() {
+        hints = new HintService(new Evaluator(), 10000);
+    }
+
+    @After
+    public void tearDown() {
+        hints.shutdown();
+    }
+
+    // Waits until the HintService has a hint, and returns it.
+    private int waitForHint() throws InterruptedException {
+        for (int i = 0; i < 500 && hints.getHint() == 0; i++) Thread.sleep(10);
+        return hints.getHint();
+    }
+
+    @Test(timeout = 10000)
+    public void testHintIsFoundInTheBackground() throws InterruptedException {
+        Position position = Position.initial();
+        long start = System.nanoTime();
+        hints.start(position);
+        assertTrue("Starting a hint search should not wait for it", System.nanoTime() - start < 100000000L);
+        int hint = waitForHint();
+        assertTrue("The hint should be a legal move", position.parseMove(Position.notation(hint)) == hint);
+        assertTrue("The hint should come from a completed depth", hints.getDepth() > 0);
+        assertTrue("The search should keep going until it is cancelled", hints.isSearching());
+    }
+
+    @Test(timeout = 10000)
+    public void testCancelStopsTheSearchAtOnce() throws InterruptedException {
+        hints.start(Position.initial());
+        waitForHint();
+        long start = System.nanoTime();
+        hints.cancel();
+        assertTrue("Cancelling should not wait for the search", System.nanoTime() - start < 100000000L);
+        assertEquals("Cancelling should forget the hint", 0, hints.getHint());
+        for (int i = 0; i < 200 && hints.isSearching(); i++) Thread.sleep(10);
+        assertFalse("The search should stop soon after it is cancelled", hints.isSearching());
+        Thread.sleep(50);
+        assertEquals("A cancelled search should not leave a hint", 0, hints.getHint());
+    }
+
+    @Test(timeout = 10000)
+    public void testNewTurnReplacesTheOldSearch() throws InterruptedException {
+        hints.start(Position.initial());
+        waitForHint();
+        // Red's only sensible move is the jump from 18 over 14.
+        Position position = PositionCodec.parseFen("R:W1,14:R18,29");
+        hints.start(position);
+        int hint = waitForHint();
+        assertEquals("The hint should be for the new position", "18x9", Position.notation(hint));
+    }
+
+}
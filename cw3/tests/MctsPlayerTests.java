@@ -0,0 +1,52 @@
+import draughts.*;
+import engine.*;
+
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class MctsPlayerTests {
+
+    @Test
+    public void testFindsWinningCapture() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.Red, 3, 4));
+        pieces.add(new Piece(Colour.Red, 6, 7));
+        pieces.add(new Piece(Colour.White, 2, 3));
+        MctsPlayer player = new MctsPlayer(100, 2);
+        int move = player.search(Position.of(pieces, Colour.Red), 200);
+        player.shutdown();
+
+        assertTrue("The engine should capture the last white piece.", Position.isJump(move));
+        assertTrue("The engine should have played random games.", player.getPlayouts() > 0);
+    }
+
+    @Test
+    public void testPlaysValidMovesInGame() {
+        MctsPlayer player = new MctsPlayer(10, 2);
+        TestHelper.TestModel model = new TestHelper().makeTestModel("Test", player);
+        player.setModel(model);
+        for (int turn = 0; turn < 20 && !model.isGameOver(); turn++) {
+            Colour current = model.getCurrentPlayer();
+            model.turnInModel();
+            assertFalse("The turn should pass to the other player.", current.equals(model.getCurrentPlayer()));
+        }
+        player.shutdown();
+    }
+
+    @Test
+    public void testTreeIsReusedAfterMove() {
+        MctsPlayer player = new MctsPlayer(100, 2);
+        Position position = Position.initial();
+        int move = player.search(position, 200);
+        position.makeMove(move);
+        int[] moves = new int[Position.MAX_MOVES];
+        position.generateMoves(moves, false);
+        position.makeMove(moves[0]);
+        player.search(position, 1);
+        player.shutdown();
+
+        assertTrue("The tree below the moves played should be kept.", player.getRootVisits() > 1);
+    }
+
+}
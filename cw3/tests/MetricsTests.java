@@ -0,0 +1,103 @@
+import draughts.*;
+import engine.*;
+
+import java.lang.management.*;
+import java.util.*;
+import javax.management.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class MetricsTests {
+
+    @Test
+    public void testHistogramPercentiles() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 10000; i++) histogram.record(i * 1000L);
+        assertEquals("Every value should be counted", 10000, histogram.getCount());
+        assertEquals("The largest value should be kept exactly", 10000000, histogram.getMax());
+        assertEquals("The mean should be exact", 5000500, histogram.getMean(), 0.001);
+        long median = histogram.getValueAtPercentile(50);
+        assertTrue("The median should be within 4%, not " + median, Math.abs(median - 5000000) <= 200000);
+        long high = histogram.getValueAtPercentile(99);
+        assertTrue("The 99th percentile should be within 4%, not " + high, Math.abs(high - 9900000) <= 396000);
+        assertEquals("The top percentile should be the largest value", 10000000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        assertEquals("An empty Histogram should give 0", 0, histogram.getValueAtPercentile(50));
+        for (int i = 0; i < 32; i++) histogram.record(i);
+        histogram.record(-5);
+        assertEquals("Negative values should be recorded as 0", 0, histogram.getValueAtPercentile(1));
+        assertEquals("Small values should have a bucket each", 15, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void testGameIsCounted() {
+        long moves = Metrics.MOVES_GENERATED.sum();
+        long checks = Metrics.GAME_OVER_CHECKS.sum();
+        long turns = Metrics.TURN_TIME.getCount();
+        TestHelper.TestModel model = new TestHelper().makeTestModel("Test", new TestHelper.RandomPlayer(5));
+        for (int i = 0; i < 10; i++) model.turnInModel();
+        long offered = Metrics.MOVES_GENERATED.sum();
+        assertTrue("The Moves offered should be counted", offered >= moves + 10 * 7);
+        model.isGameOver();
+        model.getResult();
+        assertEquals("Checking for the end should not count Moves", offered, Metrics.MOVES_GENERATED.sum());
+        assertTrue("Calls to isGameOver should be counted", Metrics.GAME_OVER_CHECKS.sum() > checks);
+        assertEquals("Every turn should be timed", turns + 10, Metrics.TURN_TIME.getCount());
+    }
+
+    @Test
+    public void testTakenBackTurnIsTimed() {
+        final DraughtsModel[] game = new DraughtsModel[1];
+        // Takes back the first turn instead of moving in the second.
+        Player player = new Player() {
+            private Player moves = new TestHelper.RandomPlayer(5);
+
+            @Override
+            public Move notify(Set<Move> validMoves) {
+                if (game[0].getTurn() == 1) {
+                    game[0].undo();
+                    return null;
+                }
+                return moves.notify(validMoves);
+            }
+        };
+        TestHelper.TestModel model = new TestHelper().makeTestModel("Test", player);
+        game[0] = model;
+        long turns = Metrics.TURN_TIME.getCount();
+        model.turnInModel();
+        model.turnInModel();
+        assertEquals("The turn should be taken back", 0, model.getTurn());
+        assertEquals("The turn taken back should still be timed", turns + 2, Metrics.TURN_TIME.getCount());
+    }
+
+    @Test
+    public void testSearchIsCounted() {
+        long nodes = Metrics.SEARCH_NODES.sum();
+        long probes = Metrics.TABLE_PROBES.sum();
+        long expanded = Metrics.EXPANDED.sum();
+        Search search = new Search(new Evaluator(), new TranspositionTable(16));
+        search.search(Position.of(new DraughtsModel("Test", null).getPieces(), Colour.Red), 5, Long.MAX_VALUE);
+        assertEquals("The nodes searched should be counted", nodes + search.getNodes(), Metrics.SEARCH_NODES.sum());
+        assertTrue("Table probes should be counted", Metrics.TABLE_PROBES.sum() > probes);
+        assertTrue("Expanded positions should be counted", Metrics.EXPANDED.sum() > expanded);
+        double branching = (double) Metrics.BRANCHES.sum() / Metrics.EXPANDED.sum();
+        assertTrue("The branching factor should be sensible, not " + branching, branching >= 1 && branching <= 12);
+    }
+
+    @Test
+    public void testMetricsAreReadableOverJmx() throws Exception {
+        Metrics.register();
+        Metrics.register();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.NAME);
+        assertTrue("The Metrics should be registered", server.isRegistered(name));
+        long checks = (Long) server.getAttribute(name, "GameOverChecks");
+        assertTrue("Attributes should be read from the counters", checks <= Metrics.GAME_OVER_CHECKS.sum());
+        assertTrue("The summary should name the rates", Metrics.summary().contains("nps="));
+    }
+
+}
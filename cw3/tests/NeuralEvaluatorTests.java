@@ -0,0 +1,89 @@
+import draughts.*;
+import engine.*;
+
+import java.io.*;
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class NeuralEvaluatorTests {
+
+    // Returns a network with small random weights.
+    private NeuralNetwork randomNetwork(int hidden, long seed) {
+        Random random = new Random(seed);
+        short[] weights = new short[NeuralNetwork.FEATURES * hidden];
+        for (int i = 0; i < weights.length; i++) weights[i] = (short) (random.nextInt(41) - 20);
+        short[] biases = new short[hidden];
+        short[] output = new short[hidden];
+        for (int i = 0; i < hidden; i++) {
+            biases[i] = (short) (random.nextInt(101) - 50);
+            output[i] = (short) (random.nextInt(201) - 100);
+        }
+        return new NeuralNetwork(weights, biases, output, 17, 4);
+    }
+
+    @Test
+    public void testMaterialNetworkCountsPieces() {
+        NeuralEvaluator evaluator = new NeuralEvaluator(NeuralNetwork.material());
+        assertEquals("The starting position should be level.", 0, evaluator.evaluate(Position.initial()));
+        Position position = new Position(0xFFF00000, 0x00000FFE, 0, Position.RED);
+        assertEquals("An extra man should be worth 100.", 100, evaluator.evaluate(position));
+        position = new Position(0xFFF00000, 0x00000FFE, 0x80000000, Position.WHITE);
+        assertEquals("An extra king should be worth 150 to its owner.", -150, evaluator.evaluate(position));
+    }
+
+    @Test
+    public void testIncrementalEvaluationMatchesRefresh() {
+        NeuralEvaluator evaluator = new NeuralEvaluator(randomNetwork(48, 1));
+        Random random = new Random(2);
+        int[] moves = new int[Position.MAX_MOVES];
+        for (int game = 0; game < 20; game++) {
+            Position position = Position.initial();
+            evaluator.attach(position);
+            int start = evaluator.evaluate(position);
+            for (int ply = 0; ply < 150; ply++) {
+                int count = position.generateMoves(moves, false);
+                if (count == 0) break;
+                position.makeMove(moves[random.nextInt(count)]);
+                Position copy = new Position(position.getRed(), position.getWhite(), position.getKings(), position.getSide());
+                assertEquals("The incremental evaluation should match one from scratch.",
+                             evaluator.evaluate(copy), evaluator.evaluate(position));
+            }
+            while (position.getPly() > 0) position.unmakeMove();
+            assertEquals("Unmaking every move should restore the hidden layer.", start, evaluator.evaluate(position));
+        }
+    }
+
+    @Test
+    public void testNetworkIsSavedAndLoaded() throws Exception {
+        File file = File.createTempFile("network", ".nnue");
+        file.deleteOnExit();
+        NeuralNetwork network = randomNetwork(16, 3);
+        network.save(file.getPath());
+        NeuralNetwork loaded = NeuralNetwork.load(file.getPath());
+
+        assertEquals("The hidden size should be loaded from the file.", 16, loaded.getHidden());
+        Position position = Position.initial();
+        position.makeMove(position.parseMove("21-17"));
+        assertEquals("The loaded network should evaluate the same way.",
+                     new NeuralEvaluator(network).evaluate(position), new NeuralEvaluator(loaded).evaluate(position));
+    }
+
+    @Test(expected = IOException.class)
+    public void testOtherFilesAreRejected() throws Exception {
+        File file = File.createTempFile("weights", ".properties");
+        file.deleteOnExit();
+        new EvaluationWeights(new int[] {90, 200, 1, 2, 3, 4}).save(file.getPath(), "Test weights");
+        NeuralNetwork.load(file.getPath());
+    }
+
+    @Test
+    public void testSearchWithNetworkTakesMaterial() {
+        // Red to move can jump the White man at 14 from 18.
+        Position position = new Position((1 << 17) | (1 << 28), (1 << 13) | (1 << 0), 0, Position.RED);
+        Search search = new Search(new NeuralEvaluator(NeuralNetwork.material()), new TranspositionTable(16));
+        int move = search.search(position, 4, System.nanoTime() + 1000000000L);
+        assertTrue("The engine should take the free man.", Position.isJump(move));
+    }
+
+}
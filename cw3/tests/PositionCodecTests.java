@@ -0,0 +1,98 @@
+import draughts.*;
+
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class PositionCodecTests {
+
+    // Returns Positions from random games.
+    private List<Position> randomPositions(int count) {
+        List<Position> positions = new ArrayList<Position>();
+        Random random = new Random(5);
+        int[] moves = new int[Position.MAX_MOVES];
+        while (positions.size() < count) {
+            Position position = Position.initial();
+            for (int ply = 0; ply < 120; ply++) {
+                int n = position.generateMoves(moves, false);
+                if (n == 0) break;
+                position.makeMove(moves[random.nextInt(n)]);
+                if (position.getContinuation() < 0) {
+                    positions.add(new Position(position.getRed(), position.getWhite(), position.getKings(), position.getSide()));
+                }
+            }
+        }
+        return positions;
+    }
+
+    @Test
+    public void testInitialPositionFen() {
+        String fen = PositionCodec.toFen(Position.initial());
+        assertEquals("The starting position should be written in full",
+                     "R:W1,2,3,4,5,6,7,8,9,10,11,12:R21,22,23,24,25,26,27,28,29,30,31,32", fen);
+        assertEquals("A range should be read as every square in it",
+                     Position.initial(), PositionCodec.parseFen("R:W1-12:R21-32"));
+    }
+
+    @Test
+    public void testKingsAndSideToMove() {
+        Position position = PositionCodec.parseFen("W:WK3,10:R K29 , 30");
+        assertEquals("White should be to move", Position.WHITE, position.getSide());
+        assertEquals("The White pieces should be on 3 and 10", (1 << 2) | (1 << 9), position.getWhite());
+        assertEquals("The Red pieces should be on 29 and 30", (1 << 28) | (1 << 29), position.getRed());
+        assertEquals("3 and 29 should be kings", (1 << 2) | (1 << 28), position.getKings());
+        assertEquals("The FEN should be written without spaces", "W:WK3,10:RK29,30", PositionCodec.toFen(position));
+    }
+
+    @Test
+    public void testFenRoundTrip() {
+        for (Position position : randomPositions(2000)) {
+            assertEquals("Reading a written FEN should give the same Position",
+                         position, PositionCodec.parseFen(PositionCodec.toFen(position)));
+        }
+    }
+
+    @Test
+    public void testInvalidFenIsRejected() {
+        String[] invalid = {"", "X:W1:R2", "R:W1:W2", "R:W1,1", "R:W0", "R:W33", "R:W1:R1", "R;W1", "R:WK", "R:W5-2",
+                            "R:W4294967297:R32", "R:W1-4294967328"};
+        for (String fen : invalid) {
+            try {
+                PositionCodec.parseFen(fen);
+                fail("\"" + fen + "\" should be rejected");
+            } catch (IllegalArgumentException e) {
+                assertTrue("The message should quote the FEN", e.getMessage().contains("FEN"));
+            }
+        }
+    }
+
+    @Test
+    public void testKeyRoundTripsThroughBytes() {
+        byte[] bytes = new byte[PositionKey.BYTES * 2];
+        for (Position position : randomPositions(500)) {
+            PositionKey key = PositionKey.of(position);
+            key.toBytes(bytes, PositionKey.BYTES);
+            PositionKey read = PositionKey.fromBytes(bytes, PositionKey.BYTES);
+            assertEquals("A key read from bytes should equal the key written", key, read);
+            assertEquals("Equal keys should have equal hash codes", key.hashCode(), read.hashCode());
+            assertEquals("A key should give back its Position", position, key.toPosition());
+        }
+        assertEquals("A key should always be the same length", PositionKey.BYTES, PositionKey.of(Position.initial()).toBytes().length);
+    }
+
+    @Test
+    public void testKeysWorkInMaps() {
+        Map<PositionKey, Integer> index = new HashMap<PositionKey, Integer>();
+        List<Position> positions = randomPositions(1000);
+        for (int i = 0; i < positions.size(); i++) index.put(PositionKey.of(positions.get(i)), i);
+        for (Position position : positions) {
+            Integer i = index.get(PositionKey.of(position));
+            assertNotNull("Every Position should be found by its key", i);
+            assertEquals("The key should find an equal Position", position, positions.get(i));
+        }
+        PositionKey red = new PositionKey(1, 2, 0, Position.RED);
+        PositionKey white = new PositionKey(1, 2, 0, Position.WHITE);
+        assertFalse("Keys with different players to move should differ", red.equals(white));
+    }
+
+}
@@ -0,0 +1,95 @@
+import draughts.*;
+
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class PositionTests {
+
+    private TestHelper helper;
+
+    public PositionTests() {
+      helper = new TestHelper();
+    }
+
+    //Helper class implementing Player that plays random moves and checks
+    //that a Position generates the same moves as the model
+    public class CheckingPlayer implements Player {
+
+        public Position position = Position.initial();
+        private Random random;
+
+        public CheckingPlayer(long seed) {
+            random = new Random(seed);
+        }
+
+        @Override
+        public Move notify(Set<Move> validMoves) {
+            int[] moves = new int[Position.MAX_MOVES];
+            int count = position.generateMoves(moves, false);
+            Set<Integer> expected = new HashSet<Integer>();
+            for (Move move : validMoves) expected.add(Position.encode(move));
+            Set<Integer> actual = new HashSet<Integer>();
+            for (int i = 0; i < count; i++) actual.add(moves[i]);
+            assertEquals("The position should generate the same moves as the model.", expected, actual);
+
+            int move = moves[random.nextInt(count)];
+            long hash = position.getHash();
+            position.makeMove(move);
+            position.unmakeMove();
+            assertEquals("Unmaking a move should restore the hash.", hash, position.getHash());
+            position.makeMove(move);
+            return Position.findMove(move, validMoves);
+        }
+
+    }
+
+    @Test
+    public void testMovesMatchModelInRandomGames() {
+        for (long seed = 0; seed < 20; seed++) {
+            CheckingPlayer player = new CheckingPlayer(seed);
+            TestHelper.TestModel model = helper.makeTestModel("Test", player);
+            for (int turn = 0; turn < 300 && !model.isGameOver(); turn++) {
+                model.turnInModel();
+                TestHelper.assertSetEquals("The position should hold the same pieces as the model.", model.getPieces(), player.position.toPieces());
+                assertEquals("The position should have the same player to move.", model.getCurrentPlayer(), player.position.getCurrentPlayer());
+            }
+            // Draws are decided by the game's history, which a Position doesn't have.
+            boolean draw = model.getResult().isDraw();
+            assertEquals("The position should agree on whether the game is over.", model.isGameOver() && !draw, player.position.isGameOver());
+        }
+    }
+
+    @Test
+    public void testSquareCoordinatesRoundTrip() {
+        for (int square = 0; square < Position.SQUARES; square++) {
+            assertEquals("The square should round trip through its coordinates.", square, Position.square(Position.x(square), Position.y(square)));
+        }
+        assertEquals("Light squares should not have an index.", -1, Position.square(0, 0));
+    }
+
+    @Test
+    public void testShiftMatchesNeighbours() {
+        for (int square = 0; square < Position.SQUARES; square++) {
+            for (int dir = 0; dir < 4; dir++) {
+                int neighbour = Position.neighbour(square, dir);
+                int expected = neighbour < 0 ? 0 : 1 << neighbour;
+                assertEquals("Shifting a square should give its neighbour.", expected, Position.shift(1 << square, dir));
+            }
+        }
+    }
+
+    @Test
+    public void testJumpContinuesWithSamePlayer() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.White, 1, 0));
+        pieces.add(new Piece(Colour.Red, 2, 1));
+        pieces.add(new Piece(Colour.Red, 4, 3));
+        Position position = Position.of(pieces, Colour.White);
+        position.makeMove(Position.encode(new Move(new Piece(Colour.White, 1, 0), 3, 2)));
+
+        assertEquals("White should move again after a jump that can continue.", Colour.White, position.getCurrentPlayer());
+        assertEquals("The jumping piece should have to continue.", Position.square(3, 2), position.getContinuation());
+    }
+
+}
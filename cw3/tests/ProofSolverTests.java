@@ -0,0 +1,84 @@
+import draughts.*;
+import engine.*;
+
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class ProofSolverTests {
+
+    // Returns a Set of Pieces where Red wins with a double jump.
+    private Set<Piece> doubleJump() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.Red, 5, 6));
+        pieces.add(new Piece(Colour.Red, 7, 6));
+        pieces.add(new Piece(Colour.White, 4, 5));
+        pieces.add(new Piece(Colour.White, 2, 3));
+        return pieces;
+    }
+
+    // Returns a Set of Pieces with a lone Red man against a White king.
+    private Set<Piece> loneMan() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.Red, 0, 7));
+        Piece king = new Piece(Colour.White, 1, 0);
+        king.setKing(true);
+        pieces.add(king);
+        return pieces;
+    }
+
+    @Test
+    public void testProvesDoubleJumpWin() {
+        ProofSolver solver = new ProofSolver(16, 10, 100000);
+        ProofResult result = solver.solve(Position.of(doubleJump(), Colour.Red));
+        assertEquals("The double jump should be proven to win", ProofResult.Status.Proven, result.getStatus());
+        assertEquals("The proof should start with the double jump", Position.square(3, 4), Position.to(result.getMove()));
+        assertTrue("The proof tree should contain the jumps", result.getProofSize() >= 3);
+    }
+
+    @Test
+    public void testDisprovesWinWithoutMaterial() {
+        ProofSolver solver = new ProofSolver(16, 10, 1000000);
+        ProofResult result = solver.solve(Position.of(loneMan(), Colour.Red));
+        assertEquals("A lone man can't force a win against a king in ten moves", ProofResult.Status.Disproven, result.getStatus());
+        assertEquals("There should be no winning move", 0, result.getMove());
+    }
+
+    @Test
+    public void testGivesUpAfterNodeLimit() {
+        ProofSolver solver = new ProofSolver(16, 10, 1000);
+        ProofResult result = solver.solve(Position.initial());
+        assertEquals("The start position can't be solved in a thousand nodes", ProofResult.Status.Unknown, result.getStatus());
+        assertTrue("The search should stop near its node limit", result.getNodes() <= 1100);
+    }
+
+    @Test
+    public void testSolvesModelAndSaveGame() {
+        ProofSolver solver = new ProofSolver(16, 10, 100000);
+        DraughtsModel model = new DraughtsModel("Test", null, Colour.Red, doubleJump());
+        assertEquals("The game should be proven", ProofResult.Status.Proven, solver.solve(model).getStatus());
+        SaveGame game = new SaveGame(Colour.Red, doubleJump());
+        assertEquals("The saved game should be proven", ProofResult.Status.Proven, solver.solve(game).getStatus());
+    }
+
+    @Test
+    public void testSolveAllKeepsOrder() throws InterruptedException {
+        List<Position> positions = new ArrayList<Position>();
+        for (int i = 0; i < 4; i++) {
+            positions.add(Position.of(doubleJump(), Colour.Red));
+            positions.add(Position.of(loneMan(), Colour.Red));
+        }
+        List<ProofResult> results = ProofSolver.solveAll(positions, 3, 16, 10, 1000000);
+        assertEquals("There should be a result for each position", positions.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            ProofResult.Status expected = i % 2 == 0 ? ProofResult.Status.Proven : ProofResult.Status.Disproven;
+            assertEquals("The results should be in the same order as the positions", expected, results.get(i).getStatus());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testVariantGameIsRejected() {
+        new ProofSolver(16, 10, 100000).solve(new DraughtsModel("Test", null, new InternationalRules()));
+    }
+
+}
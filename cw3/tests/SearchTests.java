@@ -0,0 +1,90 @@
+import draughts.*;
+import engine.*;
+
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class SearchTests {
+
+    @Test
+    public void testQuiescenceAvoidsHangingPiece() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.Red, 3, 4));
+        pieces.add(new Piece(Colour.Red, 6, 7));
+        pieces.add(new Piece(Colour.White, 1, 2));
+        Search search = new Search(new Evaluator(), new TranspositionTable(16));
+        int move = search.search(Position.of(pieces, Colour.Red), 1, Long.MAX_VALUE);
+
+        assertFalse("The search should not move next to a piece that can jump it.", Position.to(move) == Position.square(2, 3));
+        assertTrue("The search should have followed the jump.", search.getQuiescenceNodes() > 0);
+    }
+
+    @Test
+    public void testQuiescenceScoresExchangeAtLeaf() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.Red, 3, 4));
+        pieces.add(new Piece(Colour.Red, 6, 7));
+        pieces.add(new Piece(Colour.White, 2, 3));
+        pieces.add(new Piece(Colour.White, 5, 0));
+        Position position = Position.of(pieces, Colour.Red);
+        Evaluator evaluator = new Evaluator();
+        Search search = new Search(evaluator, new TranspositionTable(16));
+        search.search(position, 1, Long.MAX_VALUE);
+
+        assertTrue("A free jump should be seen as winning a man.", search.getBestScore() > evaluator.getWeights().get(EvaluationWeights.MAN) / 2);
+    }
+
+    @Test
+    public void testQuiescenceCanBeTurnedOff() {
+        Search plain = new Search(new Evaluator(), new TranspositionTable(18));
+        plain.setQuiescence(false);
+        Search quiet = new Search(new Evaluator(), new TranspositionTable(18));
+        int plainMove = plain.search(Position.initial(), 7, Long.MAX_VALUE);
+        int quietMove = quiet.search(Position.initial(), 7, Long.MAX_VALUE);
+
+        assertTrue("Both searches should find a move.", plainMove != 0 && quietMove != 0);
+        assertTrue("The quiescence search should visit its leaves.", quiet.getQuiescenceNodes() > 0);
+        assertEquals("The plain search should not use quiescence.", 0, plain.getQuiescenceNodes());
+    }
+
+    //Helper class implementing MoveOrdering that leaves the moves as generated
+    public class NoOrdering implements MoveOrdering {
+
+        public void order(Position position, int[] moves, int count, int hashMove, int ply) {}
+
+        public void cutoff(Position position, int move, int depth, int ply) {}
+
+        public void clear() {}
+
+    }
+
+    @Test
+    public void testOrderingPutsHashMoveThenJumpsFirst() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.Red, 3, 4));
+        pieces.add(new Piece(Colour.Red, 6, 7));
+        pieces.add(new Piece(Colour.White, 2, 3));
+        Position position = Position.of(pieces, Colour.Red);
+        int[] moves = new int[Position.MAX_MOVES];
+        int count = position.generateMoves(moves, false);
+        int hashMove = Position.encode(new Move(new Piece(Colour.Red, 6, 7), 7, 6));
+        new HeuristicOrdering().order(position, moves, count, hashMove, 0);
+
+        assertEquals("The hash move should be tried first.", hashMove, moves[0]);
+        assertTrue("The jump should be tried next.", Position.isJump(moves[1]));
+    }
+
+    @Test
+    public void testOrderingReducesNodes() {
+        Search plain = new Search(new Evaluator(), new TranspositionTable(18));
+        plain.setMoveOrdering(new NoOrdering());
+        Search ordered = new Search(new Evaluator(), new TranspositionTable(18));
+        plain.search(Position.initial(), 9, Long.MAX_VALUE);
+        ordered.search(Position.initial(), 9, Long.MAX_VALUE);
+
+        assertTrue("Ordering should cut off on the first move more often.", ordered.getFirstMoveCutoffRate() > plain.getFirstMoveCutoffRate());
+        assertTrue("Ordering should search fewer nodes.", ordered.getNodes() < plain.getNodes());
+    }
+
+}
@@ -0,0 +1,149 @@
+import draughts.*;
+
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class SpectatorFeedTests {
+
+    // Applies every Delta waiting for a Spectator to a Snapshot.
+    private static SpectatorFeed.Snapshot catchUp(SpectatorFeed.Spectator spectator, SpectatorFeed.Snapshot snapshot) {
+        SpectatorFeed.Delta delta;
+        while ((delta = spectator.next()) != null) snapshot = snapshot.after(delta);
+        return snapshot;
+    }
+
+    @Test
+    public void testSpectatorsFollowTheGame() {
+        TestHelper.TestModel model = new TestHelper().makeTestModel("Test", new TestHelper.RandomPlayer(7));
+        SpectatorFeed feed = new SpectatorFeed(model, 256);
+        SpectatorFeed.Spectator early = feed.join();
+        SpectatorFeed.Snapshot earlyBoard = early.getSnapshot();
+        SpectatorFeed.Spectator late = null;
+        SpectatorFeed.Snapshot lateBoard = null;
+        for (int turn = 0; turn < 80 && !model.isGameOver(); turn++) {
+            model.turnInModel();
+            if (turn == 30) {
+                late = feed.join();
+                lateBoard = late.getSnapshot();
+            }
+            if (turn % 7 == 0) earlyBoard = catchUp(early, earlyBoard);
+        }
+        earlyBoard = catchUp(early, earlyBoard);
+        lateBoard = catchUp(late, lateBoard);
+        assertEquals("Every turn should be published once", model.getTurn(), feed.getPublished());
+        assertEquals("A Spectator should see every turn", model.getTurn(), earlyBoard.getTurn());
+        assertEquals("The player to move should be followed", model.getCurrentPlayer(), earlyBoard.getCurrentPlayer());
+        assertEquals("A Spectator from the start should see the board", TestHelper.describe(model.getPieces()), TestHelper.describe(earlyBoard.toPieces()));
+        assertEquals("A late Spectator should see the board", TestHelper.describe(model.getPieces()), TestHelper.describe(lateBoard.toPieces()));
+        assertEquals("Nothing should be left to read", 0, late.getBacklog());
+    }
+
+    @Test
+    public void testDeltasAreSharedAndCompact() {
+        TestHelper.TestModel model = new TestHelper().makeTestModel("Test", new TestHelper.RandomPlayer(7));
+        SpectatorFeed feed = new SpectatorFeed(model, 16);
+        SpectatorFeed.Spectator first = feed.join();
+        SpectatorFeed.Spectator second = feed.join();
+        model.turnInModel();
+        SpectatorFeed.Delta delta = first.next();
+        assertSame("Every Spectator should read the same Delta", delta, second.next());
+        assertEquals("A step should be four bytes", 4, delta.toBytes().length);
+        SpectatorFeed.Delta read = SpectatorFeed.Delta.fromBytes(delta.toBytes(), 0, model.getGeometry());
+        assertEquals("The squares should be read back", delta.getFrom(), read.getFrom());
+        assertEquals("The squares should be read back", delta.getTo(), read.getTo());
+        assertEquals("The captures should be read back", delta.getCaptured(), read.getCaptured());
+    }
+
+    @Test
+    public void testCapturesAndPromotionAreDecoded() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.Red, 3, 4));
+        pieces.add(new Piece(Colour.White, 2, 3));
+        pieces.add(new Piece(Colour.White, 2, 1));
+        pieces.add(new Piece(Colour.White, 4, 3));
+        pieces.add(new Piece(Colour.White, 5, 2));
+        TestHelper helper = new TestHelper();
+        TestHelper.TestModel model = helper.makeTestModel("Test", helper.makeTestPlayer(), Colour.Red, pieces);
+        SpectatorFeed feed = new SpectatorFeed(model, 4);
+        SpectatorFeed.Spectator spectator = feed.join();
+        SpectatorFeed.Snapshot before = spectator.getSnapshot();
+        // Any first Move by the only Red Piece is the double jump to the king row.
+        model.turnInModel();
+        SpectatorFeed.Delta delta = spectator.next();
+        assertEquals("Both captures should be in one Delta", 2, Long.bitCount(delta.getCaptured()));
+        assertTrue("The Piece should be crowned", delta.isPromotion());
+        SpectatorFeed.Delta read = SpectatorFeed.Delta.fromBytes(delta.toBytes(), 0, model.getGeometry());
+        assertEquals("The decoded Delta should give the same board",
+                     TestHelper.describe(model.getPieces()), TestHelper.describe(before.after(read).toPieces()));
+    }
+
+    @Test
+    public void testSlowSpectatorIsToldToResync() {
+        TestHelper.TestModel model = new TestHelper().makeTestModel("Test", new TestHelper.RandomPlayer(7));
+        SpectatorFeed feed = new SpectatorFeed(model, 4);
+        SpectatorFeed.Spectator spectator = feed.join();
+        for (int i = 0; i < 10; i++) model.turnInModel();
+        assertNull("Overwritten Deltas should not be read", spectator.next());
+        assertTrue("The Spectator should know it is lost", spectator.isLost());
+        SpectatorFeed.Snapshot snapshot = spectator.resync();
+        assertFalse("Resyncing should carry on", spectator.isLost());
+        model.turnInModel();
+        assertEquals("A resynced Spectator should follow the game",
+                     TestHelper.describe(model.getPieces()), TestHelper.describe(catchUp(spectator, snapshot).toPieces()));
+    }
+
+    @Test
+    public void testTakeBacksReplaceTheBoard() {
+        TestHelper.TestModel model = new TestHelper().makeTestModel("Test", new TestHelper.RandomPlayer(7));
+        for (int i = 0; i < 4; i++) model.turnInModel();
+        SpectatorFeed feed = new SpectatorFeed(model, 64);
+        SpectatorFeed.Spectator spectator = feed.join();
+        SpectatorFeed.Snapshot board = spectator.getSnapshot();
+        for (int i = 0; i < 10; i++) model.turnInModel();
+        model.goToTurn(8);
+        model.turnInModel();
+        board = catchUp(spectator, board);
+        model.goToTurn(2);
+        SpectatorFeed.Delta delta = spectator.next();
+        assertNotNull("A take back should be published", delta.getReset());
+        SpectatorFeed.Delta read = SpectatorFeed.Delta.fromBytes(delta.toBytes(), delta.getSequence(), model.getGeometry());
+        board = board.after(read);
+        assertEquals("Going back before the feed started should be followed", 2, board.getTurn());
+        TestHelper.assertSetEquals("The board should be taken back", model.getPieces(), board.toPieces());
+        model.goToTurn(6);
+        board = catchUp(spectator, board);
+        assertEquals("The board should follow redone turns", TestHelper.describe(model.getPieces()), TestHelper.describe(board.toPieces()));
+        assertEquals("The turn should follow redone turns", 6, board.getTurn());
+    }
+
+    @Test(timeout = 20000)
+    public void testManySpectatorsOnOtherThreads() throws InterruptedException {
+        TestHelper.TestModel model = new TestHelper().makeTestModel("Test", new TestHelper.RandomPlayer(7));
+        SpectatorFeed feed = new SpectatorFeed(model, 1024);
+        final int turns = 60;
+        List<Thread> threads = new ArrayList<Thread>();
+        final List<SpectatorFeed.Snapshot> boards = Collections.synchronizedList(new ArrayList<SpectatorFeed.Snapshot>());
+        for (int i = 0; i < 8; i++) {
+            final SpectatorFeed.Spectator spectator = feed.join();
+            Thread thread = new Thread(() -> {
+                SpectatorFeed.Snapshot board = spectator.getSnapshot();
+                while (board.getTurn() < turns) {
+                    SpectatorFeed.Delta delta = spectator.next();
+                    if (delta == null) Thread.yield();
+                    else board = board.after(delta);
+                }
+                boards.add(board);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (int i = 0; i < turns; i++) model.turnInModel();
+        for (Thread thread : threads) thread.join();
+        assertEquals("Every Spectator should finish", 8, boards.size());
+        for (SpectatorFeed.Snapshot board : boards) {
+            assertEquals("Every Spectator should see the board", TestHelper.describe(model.getPieces()), TestHelper.describe(board.toPieces()));
+        }
+    }
+
+}
@@ -2,6 +2,7 @@ import draughts.*;
 
 import java.awt.*;
 import java.util.*;
+import java.util.List;
 import org.junit.*;
 import static org.junit.Assert.*;
 
@@ -62,6 +63,34 @@ public class TestHelper {
 
     }
 
+    // Helper class implementing Player, playing random Moves. The Moves are
+    // sorted first, so a seed always plays the same game.
+    public static class RandomPlayer implements Player {
+
+        private final Random random;
+
+        // @param seed the seed for the random Moves.
+        public RandomPlayer(long seed) {
+            random = new Random(seed);
+        }
+
+        @Override
+        public Move notify(Set<Move> validMoves) {
+            if (validMoves.isEmpty()) return null;
+            List<Move> moves = new ArrayList<Move>(validMoves);
+            moves.sort(Comparator.comparing(Move::toString));
+            return moves.get(random.nextInt(moves.size()));
+        }
+
+    }
+
+    // Returns a description of every Piece, including whether it is a king.
+    public static Set<String> describe(Set<Piece> pieces) {
+        Set<String> description = new HashSet<String>();
+        for (Piece piece : pieces) description.add(piece + (piece.isKing() ? " king" : ""));
+        return description;
+    }
+
     public TestPlayer makeTestPlayer() {
         return new TestPlayer();
     }
@@ -84,6 +113,10 @@ public class TestHelper {
           super(gameName, player);
       }
 
+      public TestModel(String gameName, Player player, RulesVariant rules, Colour currentPlayer, Set<Piece> pieces) {
+          super(gameName, player, rules, currentPlayer, pieces);
+      }
+
       public boolean removePieceInModel(Point position, Point destination) {
           return removePiece(position, destination);
       }
@@ -98,6 +131,10 @@ public class TestHelper {
         return new TestModel(gameName, player, currentPlayer, pieces);
     }
 
+    public TestModel makeTestModel(String gameName, Player player, RulesVariant rules, Colour currentPlayer, Set<Piece> pieces) {
+        return new TestModel(gameName, player, rules, currentPlayer, pieces);
+    }
+
     public TestModel makeTestModel(String gameName, Player player) {
         return new TestModel(gameName, player);
     }
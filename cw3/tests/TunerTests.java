@@ -0,0 +1,60 @@
+import draughts.*;
+import engine.*;
+
+import java.io.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class TunerTests {
+
+    @Test
+    public void testCorpusIsSavedAndLoaded() throws Exception {
+        PositionCorpus corpus = new PositionCorpus(1);
+        new SelfPlay(new Evaluator(), 7, 0.2, 200).playGame(corpus);
+        File file = File.createTempFile("corpus", ".bin");
+        file.deleteOnExit();
+        corpus.save(file.getPath());
+
+        PositionCorpus loaded = PositionCorpus.load(file.getPath());
+        assertEquals("The loaded corpus should have the same size.", corpus.size(), loaded.size());
+        for (int i = 0; i < corpus.size(); i++) {
+            assertEquals("The loaded positions should be the same.", corpus.getRed(i), loaded.getRed(i));
+            assertEquals("The loaded positions should be the same.", corpus.getKings(i), loaded.getKings(i));
+            assertEquals("The loaded results should be the same.", corpus.getResult(i), loaded.getResult(i));
+        }
+    }
+
+    @Test
+    public void testSelfPlayLabelsEveryPositionWithResult() {
+        PositionCorpus corpus = new PositionCorpus(1);
+        int result = new SelfPlay(new Evaluator(), 3, 0.1, 300).playGame(corpus);
+
+        assertTrue("Self play should record positions.", corpus.size() > 0);
+        for (int i = 0; i < corpus.size(); i++) {
+            assertEquals("Every position should be labelled with the game result.", result, corpus.getResult(i));
+        }
+    }
+
+    @Test
+    public void testTuningReducesError() {
+        PositionCorpus corpus = new PositionCorpus(1);
+        SelfPlay selfPlay = new SelfPlay(new Evaluator(), 11, 0.3, 200);
+        for (int i = 0; i < 50; i++) selfPlay.playGame(corpus);
+        Tuner tuner = new Tuner(corpus, 2);
+        EvaluationWeights start = new EvaluationWeights(new int[] {100, 100, 0, 0, 0, 0});
+
+        double[] before = new double[EvaluationWeights.COUNT];
+        for (int i = 0; i < before.length; i++) before[i] = start.get(i);
+        tuner.fitScale(before);
+        double initialError = tuner.error(before);
+        EvaluationWeights tuned = tuner.tune(start, 50, 2.0);
+        double[] after = new double[EvaluationWeights.COUNT];
+        for (int i = 0; i < after.length; i++) after[i] = tuned.get(i);
+        double tunedError = tuner.error(after);
+        tuner.shutdown();
+
+        assertTrue("Tuning should not increase the error.", tunedError <= initialError);
+        assertEquals("The man weight should stay fixed.", 100, tuned.get(EvaluationWeights.MAN));
+    }
+
+}
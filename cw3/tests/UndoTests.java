@@ -0,0 +1,197 @@
+import draughts.*;
+
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class UndoTests {
+
+    // Helper class extending RandomPlayer, taking back turns when asked to.
+    private static class UndoPlayer extends TestHelper.RandomPlayer {
+
+        public DraughtsModel model;
+        public int undoAt = -1;
+
+        public UndoPlayer() {
+            super(3);
+        }
+
+        @Override
+        public Move notify(Set<Move> validMoves) {
+            if (model != null && model.getTurn() == undoAt) {
+                undoAt = -1;
+                model.undo();
+                return null;
+            }
+            return super.notify(validMoves);
+        }
+
+    }
+
+    // Plays turns of a random game, returning the Position after each turn.
+    private List<Position> play(TestHelper.TestModel model, int turns) {
+        List<Position> positions = new ArrayList<Position>();
+        positions.add(Position.of(model.getPieces(), model.getCurrentPlayer()));
+        for (int i = 0; i < turns && !model.isGameOver(); i++) {
+            model.turnInModel();
+            positions.add(Position.of(model.getPieces(), model.getCurrentPlayer()));
+        }
+        return positions;
+    }
+
+    @Test
+    public void testGoToAnyTurn() {
+        TestHelper.TestModel model = new TestHelper().makeTestModel("Test", new UndoPlayer());
+        List<Position> positions = play(model, 60);
+        int last = positions.size() - 1;
+        assertEquals("Every turn should be counted", last, model.getTurn());
+        assertFalse("Nothing has been taken back", model.canRedo());
+        Random random = new Random(1);
+        for (int i = 0; i < 200; i++) {
+            int turn = random.nextInt(last + 1);
+            model.goToTurn(turn);
+            assertEquals("The turn should be " + turn, turn, model.getTurn());
+            assertEquals("The position after turn " + turn + " should be restored",
+                         positions.get(turn), Position.of(model.getPieces(), model.getCurrentPlayer()));
+        }
+        model.goToTurn(last);
+        assertEquals("Every turn should be played again", last, model.getLastTurn());
+        assertTrue("The first turn can be taken back", model.canUndo());
+    }
+
+    @Test
+    public void testUndoAndRedo() {
+        TestHelper.TestModel model = new TestHelper().makeTestModel("Test", new UndoPlayer());
+        List<Position> positions = play(model, 10);
+        int captures = model.getTurnsSinceCapture();
+        model.undo();
+        model.undo();
+        assertEquals("Two turns should be taken back", positions.get(8), Position.of(model.getPieces(), model.getCurrentPlayer()));
+        assertTrue("The turns can be played again", model.canRedo());
+        model.redo();
+        model.redo();
+        assertFalse("There is nothing left to redo", model.canRedo());
+        assertEquals("The position should be the same as before", positions.get(10), Position.of(model.getPieces(), model.getCurrentPlayer()));
+        assertEquals("The turns since a capture should be restored", captures, model.getTurnsSinceCapture());
+        model.goToTurn(0);
+        assertFalse("The first position has nothing to undo", model.canUndo());
+        try {
+            model.undo();
+            fail("Undoing the first position should be rejected");
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void testPlayingAfterUndoForgetsRedo() {
+        TestHelper.TestModel model = new TestHelper().makeTestModel("Test", new UndoPlayer());
+        play(model, 10);
+        model.goToTurn(4);
+        model.turnInModel();
+        assertEquals("A new turn should follow the turn gone back to", 5, model.getTurn());
+        assertFalse("The old turns should be forgotten", model.canRedo());
+        assertEquals("The new turn should be the last", 5, model.getLastTurn());
+    }
+
+    @Test
+    public void testPlayerCanUndoWhileChoosing() {
+        UndoPlayer player = new UndoPlayer();
+        TestHelper.TestModel model = new TestHelper().makeTestModel("Test", player);
+        player.model = model;
+        List<Position> positions = play(model, 6);
+        player.undoAt = 6;
+        model.turnInModel();
+        assertEquals("The turn should be abandoned after the undo", 5, model.getTurn());
+        assertEquals("The position should be from before the last turn",
+                     positions.get(5), Position.of(model.getPieces(), model.getCurrentPlayer()));
+        model.turnInModel();
+        assertEquals("The game should carry on from the undo", 6, model.getTurn());
+    }
+
+    @Test
+    public void testReplayFollowsTakeBacks() {
+        TestHelper.TestModel model = new TestHelper().makeTestModel("Test", new UndoPlayer());
+        GameReplay live = new GameReplay(model, 3);
+        play(model, 20);
+        model.goToTurn(7);
+        model.goToTurn(12);
+        model.goToTurn(9);
+        play(model, 5);
+        GameReplay replay = model.getReplay(4);
+        assertEquals("The replay should have the turns of the current line", model.getTurn(), replay.getTurns());
+        assertEquals("The live replay should have the turns of the current line", model.getTurn(), live.getTurns());
+        List<GameEvent> events = model.getEvents();
+        GameReplay rebuilt = new GameReplay(Colour.Red, new DraughtsModel("Test", null).getPieces(), events, 5);
+        for (int turn = 0; turn <= model.getTurn(); turn++) {
+            TestHelper.assertSetEquals("Turn " + turn + " should match", replay.seek(turn), live.seek(turn));
+            TestHelper.assertSetEquals("Turn " + turn + " should match", replay.seek(turn), rebuilt.seek(turn));
+        }
+        TestHelper.assertSetEquals("The replay should end at the current position", model.getPieces(), replay.seek(model.getTurn()));
+    }
+
+    @Test
+    public void testReplayAddedLateFollowsTakeBacks() {
+        TestHelper.TestModel model = new TestHelper().makeTestModel("Test", new UndoPlayer());
+        List<Position> positions = play(model, 10);
+        GameReplay live = new GameReplay(model, 3);
+        play(model, 5);
+        model.goToTurn(4);
+        assertEquals("The replay should go back before it was added", 4, live.getTurns());
+        TestHelper.assertSetEquals("The replay should have the earlier board", model.getPieces(), live.seek(4));
+        model.goToTurn(12);
+        assertEquals("The replay should follow redone turns", positions.get(10), Position.of(live.seek(10), Colour.Red));
+        TestHelper.assertSetEquals("The replay should end at the current position", model.getPieces(), live.seek(12));
+    }
+
+    // Returns the Move of the Piece on one square to another.
+    private static Move find(Set<Move> validMoves, int x, int y, int toX, int toY) {
+        for (Move move : validMoves) {
+            if (move.piece.getX() == x && move.piece.getY() == y
+                && move.destination.x == toX && move.destination.y == toY) return move;
+        }
+        throw new AssertionError("No Move from " + x + "," + y + " to " + toX + "," + toY);
+    }
+
+    @Test
+    public void testRedoInTheMiddleOfAJump() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.Red, 2, 5));
+        pieces.add(new Piece(Colour.Red, 7, 6));
+        pieces.add(new Piece(Colour.White, 3, 4));
+        pieces.add(new Piece(Colour.White, 3, 2));
+        pieces.add(new Piece(Colour.White, 0, 1));
+        final DraughtsModel[] game = new DraughtsModel[1];
+        // Plays two quiet turns, then after they are taken back starts
+        // a double jump and redoes the turns after its first jump.
+        Player player = new Player() {
+            private int step = 0;
+
+            @Override
+            public Move notify(Set<Move> validMoves) {
+                switch (step++) {
+                    case 0: return find(validMoves, 7, 6, 6, 5);
+                    case 1: return find(validMoves, 0, 1, 1, 2);
+                    case 2: return find(validMoves, 2, 5, 4, 3);
+                    default:
+                        game[0].goToTurn(2);
+                        return null;
+                }
+            }
+        };
+        TestHelper.TestModel model = new TestHelper().makeTestModel("Test", player, Colour.Red, pieces);
+        game[0] = model;
+        GameReplay live = new GameReplay(model, 1);
+        SpectatorFeed feed = new SpectatorFeed(model, 16);
+        model.turnInModel();
+        model.turnInModel();
+        Set<String> board = TestHelper.describe(model.getPieces());
+        model.goToTurn(0);
+        model.turnInModel();
+        assertEquals("The turns should be redone", 2, model.getTurn());
+        assertEquals("The model should be back after the turns", board, TestHelper.describe(model.getPieces()));
+        assertEquals("The replay should not keep the first jump", board, TestHelper.describe(model.getReplay(1).seek(2)));
+        assertEquals("The live replay should not keep the first jump", board, TestHelper.describe(live.seek(2)));
+        assertEquals("Spectators should not keep the first jump", board, TestHelper.describe(feed.getSnapshot().toPieces()));
+    }
+
+}
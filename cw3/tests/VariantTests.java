@@ -0,0 +1,237 @@
+import draughts.*;
+
+import java.awt.Point;
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class VariantTests {
+
+    private static final RulesVariant ENGLISH = new EnglishRules();
+    private static final RulesVariant INTERNATIONAL = new InternationalRules();
+
+    // Returns a VariantPosition with Red to move from the specified Pieces.
+    private VariantPosition position(RulesVariant rules, Piece... pieces) {
+        return VariantPosition.of(rules, new HashSet<Piece>(Arrays.asList(pieces)), Colour.Red);
+    }
+
+    // Returns a king at the specified coordinates.
+    private Piece king(Colour colour, int x, int y) {
+        Piece piece = new Piece(colour, x, y);
+        piece.setKing(true);
+        return piece;
+    }
+
+    // Helper class implementing Player, always playing the same Move.
+    private static class FixedPlayer implements Player {
+
+        private final Move move;
+
+        public FixedPlayer(Move move) {
+            this.move = move;
+        }
+
+        @Override
+        public Move notify(Set<Move> validMoves) {
+            return move;
+        }
+
+    }
+
+    @Test
+    public void testGeometrySquaresRoundTrip() {
+        for (BoardGeometry geometry : new BoardGeometry[]{BoardGeometry.ENGLISH, BoardGeometry.INTERNATIONAL}) {
+            assertEquals("Half the squares should be dark", geometry.getSize() * geometry.getSize() / 2, geometry.getSquares());
+            for (int square = 0; square < geometry.getSquares(); square++) {
+                assertEquals("The coordinates of a square should give the square back",
+                    square, geometry.square(geometry.x(square), geometry.y(square)));
+            }
+        }
+        assertEquals("A light square should have no index", -1, BoardGeometry.INTERNATIONAL.square(0, 0));
+        assertEquals("A square off the board should have no index", -1, BoardGeometry.INTERNATIONAL.square(10, 1));
+    }
+
+    @Test
+    public void testRaysRunToTheEdgeOfTheBoard() {
+        BoardGeometry geometry = BoardGeometry.INTERNATIONAL;
+        assertEquals("The long diagonal from the bottom left should have 9 squares", 9, Long.bitCount(geometry.ray(geometry.square(0, 9), 1)));
+        assertEquals("A square on the edge has no ray off the board", 0, geometry.ray(geometry.square(0, 9), 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOddBoardSizeIsRejected() {
+        new BoardGeometry(9);
+    }
+
+    @Test
+    public void testInitialMoveCounts() {
+        assertEquals("English draughts should have 7 opening moves", 7, VariantPosition.initial(ENGLISH).perft(1));
+        assertEquals("International draughts should have 9 opening moves", 9, VariantPosition.initial(INTERNATIONAL).perft(1));
+    }
+
+    @Test
+    public void testEnglishVariantMatchesModel() {
+        DraughtsModel model = new DraughtsModel("Test", null);
+        VariantPosition position = VariantPosition.initial(ENGLISH);
+        TestHelper.assertSetEquals("The variant should start with the model's pieces", model.getPieces(), position.toPieces());
+    }
+
+    @Test
+    public void testInternationalPerft() {
+        VariantPosition position = VariantPosition.initial(INTERNATIONAL);
+        long[] expected = {9, 81, 658, 4265, 27117};
+        for (int depth = 1; depth <= expected.length; depth++) {
+            assertEquals("Perft " + depth + " should match the known count", expected[depth - 1], position.perft(depth));
+        }
+        assertEquals("Perft should leave the position unchanged", VariantPosition.initial(INTERNATIONAL).getRed(), position.getRed());
+    }
+
+    @Test
+    public void testFlyingKingMovesAlongWholeDiagonals() {
+        VariantPosition position = position(INTERNATIONAL, king(Colour.Red, 4, 5), new Piece(Colour.White, 9, 8));
+        assertEquals("A flying king in the middle of an empty board should have 17 moves", 17, position.generateMoves(new MoveList()));
+    }
+
+    @Test
+    public void testFlyingKingCapturesFromADistance() {
+        VariantPosition position = position(INTERNATIONAL, king(Colour.Red, 0, 9), new Piece(Colour.White, 3, 6));
+        MoveList moves = new MoveList();
+        assertEquals("The king should be able to land on any square beyond the captured Piece", 6, position.generateMoves(moves));
+        for (int i = 0; i < moves.size(); i++) {
+            assertEquals("Every move should capture the White Piece", 1L << BoardGeometry.INTERNATIONAL.square(3, 6), moves.getCaptured(i));
+        }
+        position.makeMove(moves, 0);
+        assertEquals("The captured Piece should be removed", 0, position.getWhite());
+    }
+
+    @Test
+    public void testMajorityCaptureIsMandatory() {
+        VariantPosition position = position(INTERNATIONAL, new Piece(Colour.Red, 4, 7),
+            new Piece(Colour.White, 3, 6), new Piece(Colour.White, 1, 4), new Piece(Colour.White, 5, 6));
+        MoveList moves = new MoveList();
+        assertEquals("Only the capture of the most Pieces should be allowed", 1, position.generateMoves(moves));
+        assertEquals("The move should capture two Pieces", 2, Long.bitCount(moves.getCaptured(0)));
+        assertEquals("The move should end at (0, 3)", BoardGeometry.INTERNATIONAL.square(0, 3), moves.getTo(0));
+    }
+
+    @Test
+    public void testMenCaptureBackwardsOnlyInInternational() {
+        MoveList moves = new MoveList();
+        VariantPosition international = position(INTERNATIONAL, new Piece(Colour.Red, 4, 5), new Piece(Colour.White, 5, 6));
+        assertEquals("The man should have to capture backwards", 1, international.generateMoves(moves));
+        assertEquals("The man should land behind the captured Piece", BoardGeometry.INTERNATIONAL.square(6, 7), moves.getTo(0));
+
+        VariantPosition english = position(ENGLISH, new Piece(Colour.Red, 4, 5), new Piece(Colour.White, 5, 6));
+        assertEquals("The man should only be able to step forwards", 2, english.generateMoves(moves));
+        for (int i = 0; i < moves.size(); i++) assertEquals("No move should capture", 0, moves.getCaptured(i));
+    }
+
+    @Test
+    public void testCrowningEndsCaptureOnlyInEnglish() {
+        MoveList moves = new MoveList();
+        VariantPosition english = position(ENGLISH, new Piece(Colour.Red, 3, 2),
+            new Piece(Colour.White, 4, 1), new Piece(Colour.White, 6, 1));
+        english.generateMoves(moves);
+        int capture = moves.getCaptured(0) != 0 ? 0 : 1;
+        assertEquals("The capture should stop on the kings row", BoardGeometry.ENGLISH.square(5, 0), moves.getTo(capture));
+        english.makeMove(moves, capture);
+        assertEquals("The man should be crowned", 1L << BoardGeometry.ENGLISH.square(5, 0), english.getKings());
+
+        VariantPosition international = position(INTERNATIONAL, new Piece(Colour.Red, 3, 2),
+            new Piece(Colour.White, 4, 1), new Piece(Colour.White, 6, 1));
+        assertEquals("The man should have to capture both Pieces", 1, international.generateMoves(moves));
+        assertEquals("The capture should continue past the kings row", BoardGeometry.INTERNATIONAL.square(7, 2), moves.getTo(0));
+        international.makeMove(moves, 0);
+        assertEquals("A man passing the kings row should not be crowned", 0, international.getKings());
+    }
+
+    @Test
+    public void testUnmakeMoveRestoresPosition() {
+        VariantPosition position = VariantPosition.initial(INTERNATIONAL);
+        MoveList moves = new MoveList();
+        position.generateMoves(moves);
+        position.makeMove(moves, 0);
+        assertEquals("White should be to move", VariantPosition.WHITE, position.getSide());
+        position.unmakeMove();
+        assertEquals("Red should be to move again", VariantPosition.RED, position.getSide());
+        assertEquals("The Red pieces should be restored", VariantPosition.initial(INTERNATIONAL).getRed(), position.getRed());
+        assertEquals("The White pieces should be restored", VariantPosition.initial(INTERNATIONAL).getWhite(), position.getWhite());
+    }
+
+    @Test
+    public void testModelUsesBoardGeometry() {
+        DraughtsModel model = new DraughtsModel("Test", null, INTERNATIONAL);
+        assertEquals("An International board should start with 40 Pieces", 40, model.getPieces().size());
+        TestHelper.assertSetEquals("The model should start with the variant's pieces",
+            VariantPosition.initial(INTERNATIONAL).toPieces(), model.getPieces());
+        assertEquals("The model should keep its geometry", BoardGeometry.INTERNATIONAL, model.getGeometry());
+        assertSame("The model should keep its rules", INTERNATIONAL, model.getRules());
+    }
+
+    @Test
+    public void testModelPlaysVariantRules() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.Red, 4, 7));
+        pieces.add(new Piece(Colour.White, 3, 6));
+        pieces.add(new Piece(Colour.White, 1, 4));
+        pieces.add(new Piece(Colour.White, 5, 6));
+        TestHelper helper = new TestHelper();
+        TestHelper.NoMovePlayer offered = helper.new NoMovePlayer();
+        helper.makeTestModel("Test", offered, INTERNATIONAL, Colour.Red, pieces).turnInModel();
+        assertEquals("Only the capture of the most Pieces should be offered", 1, offered.validMoves.size());
+
+        TestHelper.TestModel model = helper.makeTestModel("Test", helper.makeTestPlayer(), INTERNATIONAL, Colour.Red, pieces);
+        model.turnInModel();
+        Set<Piece> expected = new HashSet<Piece>();
+        expected.add(new Piece(Colour.Red, 0, 3));
+        expected.add(new Piece(Colour.White, 5, 6));
+        TestHelper.assertSetEquals("Both Pieces should be captured in one turn", expected, model.getPieces());
+        assertEquals("The turn should be over", Colour.White, model.getCurrentPlayer());
+    }
+
+    @Test
+    public void testModelHasFlyingKings() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(king(Colour.Red, 4, 5));
+        pieces.add(new Piece(Colour.White, 9, 8));
+        TestHelper helper = new TestHelper();
+        TestHelper.NoMovePlayer offered = helper.new NoMovePlayer();
+        helper.makeTestModel("Test", offered, INTERNATIONAL, Colour.Red, pieces).turnInModel();
+        assertEquals("A flying king should be offered every square on its diagonals", 17, offered.validMoves.size());
+    }
+
+    @Test
+    public void testCapturesWithTheSameEndsAreToldApart() {
+        Set<Piece> pieces = new HashSet<Piece>();
+        pieces.add(new Piece(Colour.Red, 9, 2));
+        int[][] white = {{6, 1}, {8, 1}, {4, 3}, {6, 3}, {8, 3}, {1, 4}, {2, 5}, {6, 5}};
+        for (int[] square : white) pieces.add(new Piece(Colour.White, square[0], square[1]));
+        TestHelper helper = new TestHelper();
+        TestHelper.NoMovePlayer offered = helper.new NoMovePlayer();
+        helper.makeTestModel("Test", offered, INTERNATIONAL, Colour.Red, pieces).turnInModel();
+        List<CaptureMove> ending = new ArrayList<CaptureMove>();
+        for (Move move : offered.validMoves) {
+            if (move.destination.equals(new Point(1, 6))) ending.add((CaptureMove) move);
+        }
+        assertEquals("Both captures ending on the same square should be offered", 2, ending.size());
+        assertFalse("The captures should not be equal", ending.get(0).equals(ending.get(1)));
+
+        CaptureMove chosen = ending.get(0).captured.contains(new Point(8, 3)) ? ending.get(0) : ending.get(1);
+        TestHelper.TestModel model = helper.makeTestModel("Test", new FixedPlayer(chosen), INTERNATIONAL, Colour.Red, pieces);
+        model.turnInModel();
+        Set<Piece> expected = new HashSet<Piece>();
+        expected.add(new Piece(Colour.Red, 1, 6));
+        for (int[] square : new int[][] {{6, 1}, {8, 1}, {1, 4}, {6, 5}}) expected.add(new Piece(Colour.White, square[0], square[1]));
+        TestHelper.assertSetEquals("The Pieces the CaptureMove names should be captured", expected, model.getPieces());
+
+        Move plain = new Move(chosen.piece, 1, 6);
+        TestHelper.TestModel ambiguous = helper.makeTestModel("Test", new FixedPlayer(plain), INTERNATIONAL, Colour.Red, pieces);
+        try {
+            ambiguous.turnInModel();
+            fail("A Move that could be either capture should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Nothing should be captured", 9, ambiguous.getPieces().size());
+        }
+    }
+
+}